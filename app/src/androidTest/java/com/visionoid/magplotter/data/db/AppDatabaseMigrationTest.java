@@ -0,0 +1,136 @@
+/**
+ * AppDatabaseMigrationTest.java
+ *
+ * VISIONOID MAG PLOTTER - データベースマイグレーションのテスト
+ *
+ * 概要:
+ *   書き出したスキーマ（app/schemas）からバージョン2のデータベースを作成し、
+ *   MIGRATION_2_3の適用後のスキーマと、座標のJSON→バイナリ変換を検証する。
+ *
+ * 主な仕様:
+ *   - スキーマの一致はMigrationTestHelper.runMigrationsAndValidateで検証
+ *   - 点列・円の座標は変換後に復号して元の値と比較
+ *   - 読めない座標JSONは空の点列になる
+ *
+ * 制限事項:
+ *   - 端末・エミュレーター上で実行（androidTest）
+ */
+package com.visionoid.magplotter.data.db;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.database.Cursor;
+
+import androidx.room.testing.MigrationTestHelper;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.visionoid.magplotter.util.CoordinateCodec;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+
+/**
+ * データベースマイグレーションのテストクラス
+ */
+@RunWith(AndroidJUnit4.class)
+public class AppDatabaseMigrationTest {
+
+    /** テスト用データベース名 */
+    private static final String TEST_DB = "migration-test";
+
+    /** 座標の許容誤差（1e-7度単位への丸め） */
+    private static final double COORDINATE_TOLERANCE = 0.5e-7 + 1e-12;
+
+    @Rule
+    public MigrationTestHelper helper = new MigrationTestHelper(
+            InstrumentationRegistry.getInstrumentation(), AppDatabase.class);
+
+    @Test
+    public void migrate2To3_convertsCoordinatesToBinary() throws IOException {
+        try (SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 2)) {
+            db.execSQL("INSERT INTO `missions` (`id`, `location_name`, `operator_name`, `memo`, "
+                    + "`reference_mag`, `safe_threshold`, `danger_threshold`, `created_at`, `updated_at`, "
+                    + "`is_completed`) VALUES (1, '会場', '担当', '', 46.0, 10.0, 50.0, 1000, 1000, 0)");
+            insertShape(db, 10, "エリア", "polygon",
+                    "[{\"lat\": 35.0, \"lng\": 139.0}, {\"lat\": 35.001, \"lng\": 139.0},"
+                            + " {\"lat\": 35.001, \"lng\": 139.0012345}]", 0);
+            insertShape(db, 11, "円", "circle",
+                    "{\"center\": {\"lat\": 35.5, \"lng\": 139.5}, \"radius\": 12.3456}", 1);
+            insertShape(db, 12, "壊れた図形", "polyline", "[{\"lat\": ", 1);
+        }
+
+        SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, 3, true,
+                AppDatabase.MIGRATION_2_3);
+
+        byte[] polygon = queryCoordinates(db, 10);
+        double[] lats = new double[3];
+        double[] lngs = new double[3];
+        assertEquals(3, CoordinateCodec.decodePoints(polygon, lats, lngs));
+        assertArrayEquals(new double[]{35.0, 35.001, 35.001}, lats, COORDINATE_TOLERANCE);
+        assertArrayEquals(new double[]{139.0, 139.0, 139.0012345}, lngs, COORDINATE_TOLERANCE);
+
+        double[] circle = CoordinateCodec.decodeCircle(queryCoordinates(db, 11));
+        assertEquals(35.5, circle[0], COORDINATE_TOLERANCE);
+        assertEquals(139.5, circle[1], COORDINATE_TOLERANCE);
+        assertEquals(12.346, circle[2], 1e-9);
+
+        assertEquals(0, CoordinateCodec.getPointCount(queryCoordinates(db, 12)));
+
+        // 座標以外の列はそのまま移る
+        try (Cursor cursor = db.query("SELECT `mission_id`, `name`, `shape_type`, `stroke_width`, "
+                + "`area`, `is_visible` FROM `drawing_shapes` WHERE `id` = 10")) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals(1, cursor.getLong(0));
+            assertEquals("エリア", cursor.getString(1));
+            assertEquals("polygon", cursor.getString(2));
+            assertEquals(5.0, cursor.getDouble(3), 0.0);
+            assertEquals(1234.5, cursor.getDouble(4), 0.0);
+            assertEquals(0, cursor.getInt(5));
+        }
+        db.close();
+    }
+
+    @Test
+    public void migrate2To3_emptyTable() throws IOException {
+        helper.createDatabase(TEST_DB, 2).close();
+
+        SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, 3, true,
+                AppDatabase.MIGRATION_2_3);
+
+        try (Cursor cursor = db.query("SELECT COUNT(*) FROM `drawing_shapes`")) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals(0, cursor.getInt(0));
+        }
+        try (Cursor cursor = db.query("SELECT name FROM sqlite_master WHERE name = 'drawing_shapes_new'")) {
+            assertFalse(cursor.moveToFirst());
+        }
+        db.close();
+    }
+
+    // ==================== 内部処理 ====================
+
+    private static void insertShape(SupportSQLiteDatabase db, long id, String name, String shapeType,
+                                    String coordinatesJson, int visible) {
+        db.execSQL("INSERT INTO `drawing_shapes` (`id`, `mission_id`, `name`, `shape_type`, "
+                        + "`coordinates_json`, `fill_color`, `stroke_color`, `stroke_width`, `area`, "
+                        + "`perimeter`, `created_at`, `updated_at`, `is_visible`) "
+                        + "VALUES (?, 1, ?, ?, ?, 0, 0, 5.0, 1234.5, 0.0, 2000, 2000, ?)",
+                new Object[]{id, name, shapeType, coordinatesJson, visible});
+    }
+
+    private static byte[] queryCoordinates(SupportSQLiteDatabase db, long id) {
+        try (Cursor cursor = db.query("SELECT `coordinates` FROM `drawing_shapes` WHERE `id` = ?",
+                new Object[]{id})) {
+            assertTrue(cursor.moveToFirst());
+            return cursor.getBlob(0);
+        }
+    }
+}
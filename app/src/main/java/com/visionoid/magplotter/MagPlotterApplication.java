@@ -11,6 +11,7 @@
  *   - osmdroidの初期設定
  *   - データベースの初期化
  *   - 共有設定の初期化
+ *   - メモリ不足時に起動時の先読みデータを破棄
  * 
  * 制限事項:
  *   - AndroidManifestで指定する必要がある
@@ -20,6 +21,8 @@ package com.visionoid.magplotter;
 import android.app.Application;
 import android.content.Context;
 
+import com.visionoid.magplotter.ui.splash.StartupWarmup;
+
 import org.osmdroid.config.Configuration;
 
 import java.io.File;
@@ -61,6 +64,15 @@ public class MagPlotterApplication extends Application {
         initializeOsmdroid();
     }
 
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        // 計測画面に引き渡されなかった先読みレイヤーはディスクから再読み込みできる
+        if (level >= TRIM_MEMORY_RUNNING_LOW) {
+            StartupWarmup.release();
+        }
+    }
+
     /**
      * osmdroid の初期化
      * 
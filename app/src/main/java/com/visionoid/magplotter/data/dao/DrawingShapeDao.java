@@ -23,6 +23,7 @@ import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
 
 import com.visionoid.magplotter.data.model.DrawingShape;
@@ -55,6 +56,18 @@ public interface DrawingShapeDao {
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     List<Long> insertAll(List<DrawingShape> shapes);
 
+    /**
+     * 同じミッション・タイプ・名前のシェイプを置き換えて挿入
+     * 
+     * @param shape 挿入するシェイプ
+     * @return 挿入されたシェイプのID
+     */
+    @Transaction
+    default long replaceByName(DrawingShape shape) {
+        deleteByMissionIdTypeAndName(shape.getMissionId(), shape.getShapeType(), shape.getName());
+        return insert(shape);
+    }
+
     // ==================== 更新 ====================
 
     /**
@@ -78,13 +91,13 @@ public interface DrawingShapeDao {
      * シェイプの座標を更新
      * 
      * @param id シェイプID
-     * @param coordinatesJson 座標データJSON
+     * @param coordinates 座標データ（CoordinateCodec形式）
      * @param area 面積
      * @param perimeter 周囲長
      * @param updatedAt 更新日時
      */
-    @Query("UPDATE drawing_shapes SET coordinates_json = :coordinatesJson, area = :area, perimeter = :perimeter, updated_at = :updatedAt WHERE id = :id")
-    void updateCoordinates(long id, String coordinatesJson, double area, double perimeter, long updatedAt);
+    @Query("UPDATE drawing_shapes SET coordinates = :coordinates, area = :area, perimeter = :perimeter, updated_at = :updatedAt WHERE id = :id")
+    void updateCoordinates(long id, byte[] coordinates, double area, double perimeter, long updatedAt);
 
     /**
      * シェイプ名を更新
@@ -133,6 +146,16 @@ public interface DrawingShapeDao {
     @Query("DELETE FROM drawing_shapes WHERE mission_id = :missionId")
     void deleteByMissionId(long missionId);
 
+    /**
+     * ミッション・タイプ・名前が一致するシェイプを削除
+     * 
+     * @param missionId ミッションID
+     * @param shapeType シェイプタイプ
+     * @param name 名前
+     */
+    @Query("DELETE FROM drawing_shapes WHERE mission_id = :missionId AND shape_type = :shapeType AND name = :name")
+    void deleteByMissionIdTypeAndName(long missionId, String shapeType, String name);
+
     // ==================== 取得 ====================
 
     /**
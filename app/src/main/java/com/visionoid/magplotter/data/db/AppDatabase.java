@@ -11,6 +11,8 @@
  *   - Mission と MeasurementPoint のエンティティを管理
  *   - スレッドセーフなシングルトン実装
  *   - マイグレーション対応
+ *     （2→3: drawing_shapesの座標をJSONからバイナリ（CoordinateCodec形式）に変換）
+ *   - スキーマはapp/schemasに書き出す（マイグレーションのテストで使用）
  * 
  * 制限事項:
  *   - アプリケーションコンテキストを使用してインスタンス化する必要がある
@@ -18,12 +20,16 @@
 package com.visionoid.magplotter.data.db;
 
 import android.content.Context;
+import android.database.Cursor;
+import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
+import androidx.room.migration.Migration;
 import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
 
 import com.visionoid.magplotter.data.dao.DrawingShapeDao;
 import com.visionoid.magplotter.data.dao.MeasurementPointDao;
@@ -31,6 +37,7 @@ import com.visionoid.magplotter.data.dao.MissionDao;
 import com.visionoid.magplotter.data.model.DrawingShape;
 import com.visionoid.magplotter.data.model.MeasurementPoint;
 import com.visionoid.magplotter.data.model.Mission;
+import com.visionoid.magplotter.util.CoordinateCodec;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -47,11 +54,14 @@ import java.util.concurrent.Executors;
         MeasurementPoint.class,
         DrawingShape.class
     },
-    version = 2,
-    exportSchema = false
+    version = 3,
+    exportSchema = true
 )
 public abstract class AppDatabase extends RoomDatabase {
 
+    /** ログタグ */
+    private static final String TAG = "AppDatabase";
+
     /** データベース名 */
     private static final String DATABASE_NAME = "visionoid_mag_plotter.db";
 
@@ -97,6 +107,7 @@ public abstract class AppDatabase extends RoomDatabase {
                             DATABASE_NAME
                     )
                     .addCallback(roomDatabaseCallback)
+                    .addMigrations(MIGRATION_2_3)
                     .fallbackToDestructiveMigration()
                     .build();
                 }
@@ -105,6 +116,78 @@ public abstract class AppDatabase extends RoomDatabase {
         return instance;
     }
 
+    /**
+     * マイグレーション 2→3
+     * 
+     * drawing_shapes.coordinates_json（TEXT）をcoordinates（BLOB）に置き換える。
+     * 列の削除はテーブルの再作成で行い、既存の行はJSONを変換して移す。
+     */
+    static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `drawing_shapes_new` ("
+                    + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`mission_id` INTEGER NOT NULL, "
+                    + "`name` TEXT NOT NULL, "
+                    + "`shape_type` TEXT NOT NULL, "
+                    + "`coordinates` BLOB NOT NULL, "
+                    + "`fill_color` INTEGER NOT NULL, "
+                    + "`stroke_color` INTEGER NOT NULL, "
+                    + "`stroke_width` REAL NOT NULL DEFAULT 3.0, "
+                    + "`area` REAL NOT NULL DEFAULT 0.0, "
+                    + "`perimeter` REAL NOT NULL DEFAULT 0.0, "
+                    + "`created_at` INTEGER NOT NULL, "
+                    + "`updated_at` INTEGER NOT NULL, "
+                    + "`is_visible` INTEGER NOT NULL DEFAULT 1, "
+                    + "FOREIGN KEY(`mission_id`) REFERENCES `missions`(`id`) "
+                    + "ON UPDATE NO ACTION ON DELETE CASCADE )");
+
+            // 座標以外の列はそのまま移し、座標は行ごとに変換して設定
+            db.execSQL("INSERT INTO `drawing_shapes_new` (`id`, `mission_id`, `name`, `shape_type`, "
+                    + "`coordinates`, `fill_color`, `stroke_color`, `stroke_width`, `area`, `perimeter`, "
+                    + "`created_at`, `updated_at`, `is_visible`) "
+                    + "SELECT `id`, `mission_id`, `name`, `shape_type`, X'', `fill_color`, `stroke_color`, "
+                    + "`stroke_width`, `area`, `perimeter`, `created_at`, `updated_at`, `is_visible` "
+                    + "FROM `drawing_shapes`");
+            convertCoordinates(db);
+
+            db.execSQL("DROP TABLE `drawing_shapes`");
+            db.execSQL("ALTER TABLE `drawing_shapes_new` RENAME TO `drawing_shapes`");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_drawing_shapes_mission_id` "
+                    + "ON `drawing_shapes` (`mission_id`)");
+        }
+    };
+
+    /**
+     * 旧テーブルの座標JSONをバイナリに変換して新テーブルに設定
+     * 
+     * @param db データベース
+     */
+    private static void convertCoordinates(@NonNull SupportSQLiteDatabase db) {
+        byte[] emptyPoints = CoordinateCodec.encodePoints(new double[0], new double[0], 0);
+        SupportSQLiteStatement update = db.compileStatement(
+                "UPDATE `drawing_shapes_new` SET `coordinates` = ? WHERE `id` = ?");
+        int converted = 0;
+        try (Cursor cursor = db.query("SELECT `id`, `coordinates_json` FROM `drawing_shapes`")) {
+            while (cursor.moveToNext()) {
+                long id = cursor.getLong(0);
+                String json = cursor.getString(1);
+                byte[] coordinates = json != null ? CoordinateCodec.fromJson(json) : null;
+                if (coordinates == null) {
+                    // 読めない座標は空の図形として残す（描画・計算の対象外になる）
+                    Log.w(TAG, "座標JSONを変換できません: shape " + id);
+                    coordinates = emptyPoints;
+                }
+                update.bindBlob(1, coordinates);
+                update.bindLong(2, id);
+                update.executeUpdateDelete();
+                update.clearBindings();
+                converted++;
+            }
+        }
+        Log.d(TAG, "座標をバイナリに変換: " + converted + "件");
+    }
+
     /**
      * データベースコールバック
      * 
@@ -8,8 +8,14 @@
  *   ハイブリッド方式：オンライン時はダウンロード、オフライン時はキャッシュを使用。
  * 
  * 主な仕様:
- *   - GeoJSONデータのダウンロード
- *   - ローカルキャッシュへの保存・読み込み
+ *   - GeoJSONデータのダウンロード（部分ファイルへ直接ストリーム書き込み）
+ *   - 中断したダウンロードはHTTP Rangeリクエストで続きから再開
+ *   - ZIPはエントリを展開せずにストリームのままバイナリ形式へ変換
+ *   - ダウンロード・初回読み込み時に一度だけバイナリ形式（LayerGeometry）へ変換して保存
+ *     （ファイルからの変換はFeatureを複数コアで並列デコード）
+ *   - 2回目以降はバイナリファイルをメモリマップで開き、GeoJSONを再パースしない
+ *   - アセットのGeoJSONも初回のみ変換（アプリ更新時に再変換）
+ *   - 旧形式のGeoJSONキャッシュは初回読み込み時にバイナリへ移行
  *   - キャッシュ有効期限の管理（30日）
  *   - ネットワーク状態の確認
  * 
@@ -20,6 +26,7 @@ package com.visionoid.magplotter.data.layer;
 
 import android.content.Context;
 import android.content.SharedPreferences;
+import android.content.pm.PackageManager;
 import android.net.ConnectivityManager;
 import android.net.NetworkCapabilities;
 import android.util.Log;
@@ -29,7 +36,9 @@ import androidx.annotation.Nullable;
 import androidx.annotation.WorkerThread;
 import androidx.preference.PreferenceManager;
 
+import com.visionoid.magplotter.ui.map.layer.GeoJsonParser;
 import com.visionoid.magplotter.ui.map.layer.LayerType;
+import com.visionoid.magplotter.ui.map.layer.ParallelGeoJsonParser;
 
 import android.content.res.AssetManager;
 
@@ -37,13 +46,11 @@ import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.io.Reader;
 import java.nio.charset.StandardCharsets;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -75,6 +82,24 @@ public class LayerDataRepository {
     /** キャッシュディレクトリ名 */
     private static final String CACHE_DIR_NAME = "layer_cache";
 
+    /** バイナリキャッシュファイルの拡張子 */
+    private static final String GEOMETRY_FILE_EXTENSION = ".lgeo";
+
+    /** アセットから変換したバイナリファイルのプレフィックス */
+    private static final String ASSET_GEOMETRY_PREFIX = "asset_";
+
+    /** ダウンロード中の部分ファイルのプレフィックス */
+    private static final String PARTIAL_DOWNLOAD_PREFIX = "download_";
+
+    /** ダウンロード中の部分ファイルの拡張子 */
+    private static final String PARTIAL_DOWNLOAD_EXTENSION = ".part";
+
+    /** ダウンロード完了時点の進捗（残りはバイナリ変換） */
+    private static final int DOWNLOAD_PROGRESS_MAX = 80;
+
+    /** 読み込み・コピー時のバッファサイズ（64KB） */
+    private static final int BUFFER_SIZE = 65536;
+
     /** コンテキスト */
     private final Context context;
 
@@ -87,6 +112,9 @@ public class LayerDataRepository {
     /** バックグラウンド実行用ExecutorService */
     private final ExecutorService executor;
 
+    /** 再開可能なダウンロード */
+    private final ResumableDownloader downloader;
+
     /**
      * データ取得コールバックインターフェース
      */
@@ -94,10 +122,12 @@ public class LayerDataRepository {
         /**
          * データ取得成功
          * 
-         * @param geoJson GeoJSON文字列
+         * バックグラウンドスレッドで呼ばれる。
+         * 
+         * @param geometry メモリマップされたレイヤージオメトリ
          * @param fromCache キャッシュから取得したかどうか
          */
-        void onSuccess(@NonNull String geoJson, boolean fromCache);
+        void onSuccess(@NonNull LayerGeometry geometry, boolean fromCache);
 
         /**
          * データ取得失敗
@@ -120,7 +150,21 @@ public class LayerDataRepository {
      * @param context コンテキスト
      */
     public LayerDataRepository(@NonNull Context context) {
+        this(context, ResumableDownloader.DEFAULT_CONNECTION_FACTORY);
+    }
+
+    /**
+     * コンストラクタ（HTTP接続の生成を指定）
+     * 
+     * ローカルのHTTPサーバーなど、データソースURLとは別の接続先で検証する場合に使用する。
+     * 
+     * @param context コンテキスト
+     * @param connectionFactory HTTP接続の生成
+     */
+    public LayerDataRepository(@NonNull Context context,
+                               @NonNull ResumableDownloader.ConnectionFactory connectionFactory) {
         this.context = context.getApplicationContext();
+        this.downloader = new ResumableDownloader(connectionFactory, CONNECTION_TIMEOUT, READ_TIMEOUT);
         this.preferences = PreferenceManager.getDefaultSharedPreferences(context);
         this.cacheDir = new File(context.getFilesDir(), CACHE_DIR_NAME);
         this.executor = Executors.newSingleThreadExecutor();
@@ -148,14 +192,14 @@ public class LayerDataRepository {
             @NonNull DataCallback callback
     ) {
         executor.execute(() -> {
+            boolean fromCache = !forceRefresh && isCacheValid(layerType);
             try {
-                String geoJson = getLayerDataSync(layerType, forceRefresh, callback);
-                if (geoJson != null) {
-                    boolean fromCache = !forceRefresh && isCacheValid(layerType);
-                    callback.onSuccess(geoJson, fromCache);
+                LayerGeometry geometry = loadLayerGeometrySync(layerType, forceRefresh, callback);
+                if (geometry != null) {
+                    callback.onSuccess(geometry, fromCache);
                 } else {
                     // データ取得失敗
-                    Log.e(TAG, "getLayerDataSync returned null for: " + layerType.getId());
+                    Log.e(TAG, "loadLayerGeometrySync returned null for: " + layerType.getId());
                     callback.onError("データが見つかりません: " + layerType.getId());
                 }
             } catch (Exception e) {
@@ -166,27 +210,34 @@ public class LayerDataRepository {
     }
 
     /**
-     * レイヤーデータを同期的に取得
+     * レイヤージオメトリを同期的に取得
+     * 
+     * ダウンロードした場合・アセットから初めて読み込む場合はバイナリ形式へ変換してから、
+     * 変換済みファイルをメモリマップで開く。
      * 
      * @param layerType レイヤータイプ
      * @param forceRefresh 強制リフレッシュフラグ
      * @param callback 進捗通知用コールバック（nullでも可）
-     * @return GeoJSON文字列、失敗時はnull
+     * @return レイヤージオメトリ、失敗時はnull
      */
     @WorkerThread
     @Nullable
-    public String getLayerDataSync(
+    public LayerGeometry loadLayerGeometrySync(
             @NonNull LayerType layerType,
             boolean forceRefresh,
             @Nullable DataCallback callback
     ) {
-        Log.d(TAG, "getLayerDataSync開始: " + layerType.getId() + ", forceRefresh=" + forceRefresh);
-        
+        Log.d(TAG, "loadLayerGeometrySync開始: " + layerType.getId() + ", forceRefresh=" + forceRefresh);
+
+        // 旧形式（GeoJSON）のキャッシュが残っていればバイナリへ移行
+        migrateLegacyCache(layerType);
+
         // キャッシュが有効で強制リフレッシュでない場合はキャッシュを返す
         if (!forceRefresh && isCacheValid(layerType)) {
-            String cached = readFromCache(layerType);
+            LayerGeometry cached = openCache(layerType);
             if (cached != null) {
-                Log.d(TAG, "キャッシュから読み込み成功: " + layerType.getId() + ", size=" + cached.length());
+                Log.d(TAG, "キャッシュから読み込み: " + layerType.getId()
+                        + ", size=" + cached.getByteSize());
                 return cached;
             }
         }
@@ -199,11 +250,13 @@ public class LayerDataRepository {
             
             if (networkAvailable) {
                 Log.d(TAG, "ダウンロード試行: " + dataSourceUrl);
-                String downloaded = downloadLayerData(layerType, callback);
-                if (downloaded != null) {
-                    Log.d(TAG, "ダウンロード成功: " + layerType.getId() + ", size=" + downloaded.length());
-                    saveToCache(layerType, downloaded);
-                    return downloaded;
+                if (downloadLayerData(layerType, callback)) {
+                    LayerGeometry downloaded = openCache(layerType);
+                    if (downloaded != null) {
+                        Log.d(TAG, "ダウンロード成功: " + layerType.getId()
+                                + ", size=" + downloaded.getByteSize());
+                        return downloaded;
+                    }
                 }
                 Log.d(TAG, "ダウンロード失敗: " + layerType.getId());
             }
@@ -212,7 +265,7 @@ public class LayerDataRepository {
         }
 
         // オフラインまたはダウンロード失敗時はキャッシュを試行
-        String cached = readFromCache(layerType);
+        LayerGeometry cached = openCache(layerType);
         if (cached != null) {
             Log.d(TAG, "キャッシュ（期限切れ含む）を使用: " + layerType.getId());
             return cached;
@@ -220,9 +273,9 @@ public class LayerDataRepository {
 
         // キャッシュもない場合はアセットから読み込み（フォールバック）
         Log.d(TAG, "アセットから読み込み試行: " + layerType.getId());
-        String fromAssets = loadFromAssets(layerType);
+        LayerGeometry fromAssets = loadFromAssets(layerType);
         if (fromAssets != null) {
-            Log.d(TAG, "アセットから読み込み成功: " + layerType.getId() + ", size=" + fromAssets.length());
+            Log.d(TAG, "アセットから読み込み: " + layerType.getId());
             return fromAssets;
         }
 
@@ -232,57 +285,108 @@ public class LayerDataRepository {
     }
 
     /**
-     * アセットからレイヤーデータを読み込み
+     * 通信せずに取得できるレイヤージオメトリを同期的に取得
+     * 
+     * 有効なバイナリキャッシュ、またはダウンロード元のないレイヤーのアセットのみを対象にする。
+     * 期限切れ・未取得でダウンロードが必要な場合はnullを返す（起動時の先読み用）。
+     * 
+     * @param layerType レイヤータイプ
+     * @return レイヤージオメトリ、ダウンロードが必要な場合はnull
+     */
+    @WorkerThread
+    @Nullable
+    public LayerGeometry loadLocalGeometrySync(@NonNull LayerType layerType) {
+        migrateLegacyCache(layerType);
+        if (isCacheValid(layerType)) {
+            return openCache(layerType);
+        }
+        String dataSourceUrl = layerType.getDataSourceUrl();
+        if (dataSourceUrl == null || dataSourceUrl.isEmpty()) {
+            return loadFromAssets(layerType);
+        }
+        return null;
+    }
+
+    /**
+     * アセットから変換したレイヤージオメトリを取得
+     * 
+     * 変換済みファイルがあり、アプリ更新後でなければそのまま開く。
      * 
      * @param layerType レイヤータイプ
-     * @return GeoJSON文字列、存在しない場合はnull
+     * @return レイヤージオメトリ、アセットが存在しない場合はnull
      */
     @WorkerThread
     @Nullable
-    private String loadFromAssets(@NonNull LayerType layerType) {
+    private LayerGeometry loadFromAssets(@NonNull LayerType layerType) {
+        File geometryFile = getAssetGeometryFile(layerType);
+        long stamp = getAssetStamp();
+        if (geometryFile.exists()) {
+            LayerGeometry geometry = openGeometry(geometryFile);
+            if (geometry != null && geometry.getSourceStamp() == stamp) {
+                return geometry;
+            }
+        }
+
+        try (Reader source = openFromAssets(layerType)) {
+            if (source == null) {
+                return null;
+            }
+            File tempFile = getTempFile(geometryFile);
+            try {
+                if (!convertToGeometry(source, tempFile, stamp)
+                        || !replaceFile(tempFile, geometryFile)) {
+                    return null;
+                }
+            } finally {
+                deleteIfExists(tempFile);
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "アセット変換エラー: " + layerType.getId(), e);
+            return null;
+        }
+        return openGeometry(geometryFile);
+    }
+
+    /**
+     * アセットからレイヤーデータを開く
+     * 
+     * @param layerType レイヤータイプ
+     * @return GeoJSONストリーム、存在しない場合はnull
+     */
+    @WorkerThread
+    @Nullable
+    private Reader openFromAssets(@NonNull LayerType layerType) {
         // まず、LayerTypeに定義されたアセットパスを試す
         String assetPath = layerType.getAssetFilePath();
         if (assetPath != null) {
-            String content = readAssetFile(assetPath);
-            if (content != null) {
-                return content;
+            Reader reader = openAssetFile(assetPath);
+            if (reader != null) {
+                return reader;
             }
         }
         
         // フォールバック: 旧形式のサンプルファイル
         String fallbackPath = getFallbackAssetPath(layerType);
         if (fallbackPath != null) {
-            return readAssetFile(fallbackPath);
+            return openAssetFile(fallbackPath);
         }
         
         return null;
     }
 
     /**
-     * アセットファイルを読み込み
+     * アセットファイルを開く
      * 
      * @param assetPath アセットファイルパス
-     * @return ファイル内容、存在しない場合はnull
+     * @return ファイルのストリーム、存在しない場合はnull
      */
     @WorkerThread
     @Nullable
-    private String readAssetFile(@NonNull String assetPath) {
+    private Reader openAssetFile(@NonNull String assetPath) {
         try {
             AssetManager assetManager = context.getAssets();
-            try (InputStream is = assetManager.open(assetPath);
-                 BufferedReader reader = new BufferedReader(
-                         new InputStreamReader(is, StandardCharsets.UTF_8), 65536)) {  // 64KBバッファ
-                
-                StringBuilder sb = new StringBuilder();
-                char[] buffer = new char[65536];
-                int read;
-                while ((read = reader.read(buffer)) != -1) {
-                    sb.append(buffer, 0, read);
-                }
-                
-                Log.d(TAG, "アセットから読み込み完了: " + assetPath + ", size=" + sb.length());
-                return sb.toString();
-            }
+            InputStream is = assetManager.open(assetPath);
+            return new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8), BUFFER_SIZE);
         } catch (IOException e) {
             Log.w(TAG, "アセットファイルが見つかりません: " + assetPath);
             return null;
@@ -310,247 +414,340 @@ public class LayerDataRepository {
     }
 
     /**
-     * レイヤーデータをダウンロード
+     * レイヤーデータをダウンロードしてキャッシュに保存
+     * 
+     * 受信データは部分ファイルに書き込み、通信が中断した場合は次回Rangeリクエストで再開する。
+     * 受信完了後、GeoJSONは部分ファイルから直接、ZIPはエントリをストリームのまま
+     * バイナリ形式へ変換する（展開用の一時ファイルは作らない）。
      * 
      * @param layerType レイヤータイプ
      * @param callback 進捗通知用コールバック
-     * @return GeoJSON文字列
+     * @return 保存に成功した場合true
      */
     @WorkerThread
-    @Nullable
-    private String downloadLayerData(@NonNull LayerType layerType, @Nullable DataCallback callback) {
+    private boolean downloadLayerData(@NonNull LayerType layerType, @Nullable DataCallback callback) {
         String urlString = layerType.getDataSourceUrl();
         
-        // URLが設定されていない場合はnullを返す
+        // URLが設定されていない場合は失敗
         if (urlString == null || urlString.isEmpty()) {
             Log.d(TAG, "ダウンロードURLが設定されていません: " + layerType.getId());
-            return null;
+            return false;
         }
         
-        // URLがZIPファイルの場合は別処理
-        if (urlString.toLowerCase().endsWith(".zip")) {
-            return downloadAndExtractZip(urlString, layerType, callback);
+        boolean isZip = urlString.toLowerCase().endsWith(".zip");
+        File partFile = getPartialDownloadFile(layerType, isZip);
+        if (ResumableDownloader.hasPartialData(partFile)) {
+            Log.d(TAG, "前回の続きからダウンロード: " + layerType.getId()
+                    + " (" + partFile.length() + " bytes受信済み)");
         }
 
-        HttpURLConnection connection = null;
-        try {
-            URL url = new URL(urlString);
-            connection = (HttpURLConnection) url.openConnection();
-            connection.setConnectTimeout(CONNECTION_TIMEOUT);
-            connection.setReadTimeout(READ_TIMEOUT);
-            connection.setRequestMethod("GET");
-            connection.setRequestProperty("Accept", "application/json, application/geo+json");
-
-            int responseCode = connection.getResponseCode();
-            if (responseCode != HttpURLConnection.HTTP_OK) {
-                Log.e(TAG, "ダウンロードエラー: HTTP " + responseCode + " - " + layerType.getId());
-                return null;
-            }
-
-            int contentLength = connection.getContentLength();
-            
-            try (InputStream is = new BufferedInputStream(connection.getInputStream());
-                 BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
-                
-                StringBuilder sb = new StringBuilder();
-                char[] buffer = new char[8192];
-                int read;
-                int totalRead = 0;
-
-                while ((read = reader.read(buffer)) != -1) {
-                    sb.append(buffer, 0, read);
-                    totalRead += read;
-
-                    if (callback != null && contentLength > 0) {
-                        int progress = (int) ((totalRead * 100L) / contentLength);
-                        callback.onProgress(progress);
+        ResumableDownloader.ProgressListener progress = callback == null ? null
+                : (done, total) -> {
+                    if (total > 0) {
+                        callback.onProgress((int) (done * DOWNLOAD_PROGRESS_MAX / total));
                     }
-                }
-
-                Log.d(TAG, "ダウンロード完了: " + layerType.getId() + " (" + sb.length() + " bytes)");
-                return sb.toString();
-            }
-
+                };
+        try {
+            downloader.download(urlString, partFile,
+                    isZip ? null : "application/json, application/geo+json", progress);
         } catch (IOException e) {
+            // 受信済みのデータは次回の再開用に残す
             Log.e(TAG, "ダウンロード例外: " + layerType.getId(), e);
-            return null;
+            return false;
+        }
+
+        // 変換に失敗したデータは再開しても直らないため、結果によらず破棄
+        try {
+            return isZip
+                    ? commitZipCacheFile(layerType, partFile, callback)
+                    : commitCacheFile(layerType, partFile, callback);
         } finally {
-            if (connection != null) {
-                connection.disconnect();
-            }
+            ResumableDownloader.discard(partFile);
         }
     }
 
     /**
-     * ZIPファイルをダウンロードしてGeoJSONを抽出
+     * ダウンロード済みZIPのGeoJSONエントリをバイナリ形式に変換し、キャッシュとして確定
+     * 
+     * エントリは展開せず、ZipInputStreamからそのままパーサーに渡す。
      * 
-     * @param urlString ZIPファイルURL
      * @param layerType レイヤータイプ
-     * @param callback 進捗通知用コールバック
-     * @return GeoJSON文字列
+     * @param zipFile ダウンロード済みZIPファイル
+     * @param callback 進捗通知用コールバック（nullでも可）
+     * @return 成功した場合true
      */
     @WorkerThread
-    @Nullable
-    private String downloadAndExtractZip(
-            @NonNull String urlString,
+    private boolean commitZipCacheFile(
             @NonNull LayerType layerType,
+            @NonNull File zipFile,
             @Nullable DataCallback callback
     ) {
-        HttpURLConnection connection = null;
-        File tempZipFile = null;
-
-        try {
-            URL url = new URL(urlString);
-            connection = (HttpURLConnection) url.openConnection();
-            connection.setConnectTimeout(CONNECTION_TIMEOUT);
-            connection.setReadTimeout(READ_TIMEOUT);
-            connection.setRequestMethod("GET");
-
-            int responseCode = connection.getResponseCode();
-            if (responseCode != HttpURLConnection.HTTP_OK) {
-                Log.e(TAG, "ZIPダウンロードエラー: HTTP " + responseCode);
-                return null;
+        long timestamp = System.currentTimeMillis();
+        File cacheFile = getCacheFile(layerType);
+        File tempFile = getTempFile(cacheFile);
+        long zipLength = Math.max(1, zipFile.length());
+        try (ProgressInputStream source = new ProgressInputStream(new FileInputStream(zipFile));
+             ZipInputStream zis = new ZipInputStream(new BufferedInputStream(source, BUFFER_SIZE))) {
+            if (callback != null) {
+                // 圧縮データの読み込み位置をDOWNLOAD_PROGRESS_MAX〜100に割り当て
+                source.setListener(position -> callback.onProgress(DOWNLOAD_PROGRESS_MAX
+                        + (int) ((100 - DOWNLOAD_PROGRESS_MAX) * position / zipLength)));
             }
-
-            int contentLength = connection.getContentLength();
-            
-            // 一時ファイルにダウンロード
-            tempZipFile = new File(cacheDir, "temp_" + layerType.getId() + ".zip");
-            
-            try (InputStream is = new BufferedInputStream(connection.getInputStream());
-                 FileOutputStream fos = new FileOutputStream(tempZipFile)) {
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                String name = entry.getName().toLowerCase();
                 
-                byte[] buffer = new byte[8192];
-                int read;
-                int totalRead = 0;
-
-                while ((read = is.read(buffer)) != -1) {
-                    fos.write(buffer, 0, read);
-                    totalRead += read;
-
-                    if (callback != null && contentLength > 0) {
-                        int progress = (int) ((totalRead * 50L) / contentLength);  // 50%まで
-                        callback.onProgress(progress);
+                // GeoJSONまたはJSONファイルを探す
+                if (name.endsWith(".geojson") || name.endsWith(".json")) {
+                    Log.d(TAG, "ZIPエントリを変換: " + entry.getName());
+                    Reader geoJson = new BufferedReader(
+                            new InputStreamReader(zis, StandardCharsets.UTF_8), BUFFER_SIZE);
+                    if (!convertToGeometry(geoJson, tempFile, timestamp)) {
+                        return false;
                     }
+                    return commitGeometryFile(layerType, tempFile, cacheFile, timestamp, callback);
                 }
+                
+                zis.closeEntry();
             }
 
-            // ZIPを解凍してGeoJSONを抽出
-            return extractGeoJsonFromZip(tempZipFile, callback);
+            Log.w(TAG, "ZIPにGeoJSONファイルが見つかりません");
+            return false;
 
         } catch (IOException e) {
-            Log.e(TAG, "ZIPダウンロード例外", e);
-            return null;
+            Log.e(TAG, "ZIP読み込み例外", e);
+            return false;
         } finally {
-            if (connection != null) {
-                connection.disconnect();
-            }
-            if (tempZipFile != null && tempZipFile.exists()) {
-                boolean deleted = tempZipFile.delete();
-                Log.d(TAG, "一時ファイル削除: " + deleted);
-            }
+            deleteIfExists(tempFile);
         }
     }
 
     /**
-     * ZIPファイルからGeoJSONを抽出
+     * バイナリキャッシュを開く
      * 
-     * @param zipFile ZIPファイル
-     * @param callback 進捗通知用コールバック
-     * @return GeoJSON文字列
+     * @param layerType レイヤータイプ
+     * @return レイヤージオメトリ、存在しない場合はnull
      */
+    @WorkerThread
     @Nullable
-    private String extractGeoJsonFromZip(@NonNull File zipFile, @Nullable DataCallback callback) {
-        try (ZipInputStream zis = new ZipInputStream(new FileInputStream(zipFile))) {
-            ZipEntry entry;
-            
-            while ((entry = zis.getNextEntry()) != null) {
-                String name = entry.getName().toLowerCase();
-                
-                // GeoJSONまたはJSONファイルを探す
-                if (name.endsWith(".geojson") || name.endsWith(".json")) {
-                    BufferedReader reader = new BufferedReader(
-                            new InputStreamReader(zis, StandardCharsets.UTF_8));
-                    StringBuilder sb = new StringBuilder();
-                    String line;
-                    
-                    while ((line = reader.readLine()) != null) {
-                        sb.append(line).append("\n");
-                    }
-
-                    if (callback != null) {
-                        callback.onProgress(100);
-                    }
-
-                    Log.d(TAG, "ZIP抽出完了: " + entry.getName());
-                    return sb.toString();
-                }
-                
-                zis.closeEntry();
-            }
-
-            Log.w(TAG, "ZIPにGeoJSONファイルが見つかりません");
+    private LayerGeometry openCache(@NonNull LayerType layerType) {
+        File geometryFile = getCacheFile(layerType);
+        if (!geometryFile.exists()) {
             return null;
+        }
+        return openGeometry(geometryFile);
+    }
 
+    /**
+     * バイナリファイルをメモリマップで開く
+     * 
+     * 形式が不正なファイル（書き込み途中・旧バージョン）は削除してnullを返す。
+     * 
+     * @param geometryFile バイナリファイル
+     * @return レイヤージオメトリ、開けない場合はnull
+     */
+    @WorkerThread
+    @Nullable
+    private LayerGeometry openGeometry(@NonNull File geometryFile) {
+        try {
+            return LayerGeometry.open(geometryFile);
         } catch (IOException e) {
-            Log.e(TAG, "ZIP抽出例外", e);
+            Log.e(TAG, "バイナリキャッシュ読み込みエラー: " + geometryFile.getName(), e);
+            deleteIfExists(geometryFile);
             return null;
         }
     }
 
     /**
-     * キャッシュからデータを読み込み
+     * GeoJSONをバイナリ形式に変換してファイルに書き込む
+     * 
+     * @param geoJson GeoJSONストリーム
+     * @param target 出力先ファイル
+     * @param sourceStamp 変換元タイムスタンプ
+     * @return 成功した場合true
+     */
+    @WorkerThread
+    private boolean convertToGeometry(@NonNull Reader geoJson, @NonNull File target, long sourceStamp) {
+        try (LayerGeometryWriter writer = new LayerGeometryWriter(target, sourceStamp)) {
+            GeoJsonParser.parse(geoJson, writer);
+            writer.finish();
+            Log.d(TAG, "バイナリ変換完了: " + target.getName() + " ("
+                    + writer.getFeatureCount() + " polygons, " + target.length() + " bytes)");
+            return true;
+        } catch (IOException e) {
+            Log.e(TAG, "バイナリ変換エラー: " + target.getName(), e);
+            return false;
+        }
+    }
+
+    /**
+     * GeoJSONファイルを並列デコードでバイナリ形式に変換してファイルに書き込む
+     * 
+     * @param geoJsonFile GeoJSONファイル
+     * @param target 出力先ファイル
+     * @param sourceStamp 変換元タイムスタンプ
+     * @param callback 進捗通知用コールバック（nullでも可、DOWNLOAD_PROGRESS_MAX〜100を通知）
+     * @return 成功した場合true
+     */
+    @WorkerThread
+    private boolean convertToGeometry(
+            @NonNull File geoJsonFile,
+            @NonNull File target,
+            long sourceStamp,
+            @Nullable DataCallback callback
+    ) {
+        ParallelGeoJsonParser.ProgressListener progress = callback == null ? null
+                : (done, total) -> callback.onProgress(DOWNLOAD_PROGRESS_MAX
+                        + (int) ((100 - DOWNLOAD_PROGRESS_MAX) * done / Math.max(1, total)));
+        try (LayerGeometryWriter writer = new LayerGeometryWriter(target, sourceStamp)) {
+            ParallelGeoJsonParser.parse(geoJsonFile, writer, progress);
+            writer.finish();
+            Log.d(TAG, "バイナリ変換完了: " + target.getName() + " ("
+                    + writer.getFeatureCount() + " polygons, " + target.length() + " bytes)");
+            return true;
+        } catch (IOException e) {
+            Log.e(TAG, "バイナリ変換エラー: " + target.getName(), e);
+            return false;
+        }
+    }
+
+    /**
+     * 書き込み済みのGeoJSONファイルをバイナリ形式に変換し、キャッシュとして確定
      * 
      * @param layerType レイヤータイプ
-     * @return GeoJSON文字列、存在しない場合はnull
+     * @param geoJsonFile 書き込み済みのGeoJSONファイル
+     * @param callback 進捗通知用コールバック（nullでも可）
+     * @return 成功した場合true
      */
     @WorkerThread
-    @Nullable
-    private String readFromCache(@NonNull LayerType layerType) {
+    private boolean commitCacheFile(
+            @NonNull LayerType layerType,
+            @NonNull File geoJsonFile,
+            @Nullable DataCallback callback
+    ) {
+        long timestamp = System.currentTimeMillis();
         File cacheFile = getCacheFile(layerType);
-        if (!cacheFile.exists()) {
-            return null;
+        File tempFile = getTempFile(cacheFile);
+        try {
+            if (!convertToGeometry(geoJsonFile, tempFile, timestamp, callback)) {
+                return false;
+            }
+            return commitGeometryFile(layerType, tempFile, cacheFile, timestamp, callback);
+        } finally {
+            deleteIfExists(tempFile);
         }
+    }
 
-        try (FileInputStream fis = new FileInputStream(cacheFile);
-             BufferedReader reader = new BufferedReader(new InputStreamReader(fis, StandardCharsets.UTF_8))) {
-            
-            StringBuilder sb = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                sb.append(line).append("\n");
-            }
-            
-            return sb.toString();
+    /**
+     * 変換済みの一時ファイルでキャッシュを置き換え、タイムスタンプを保存
+     * 
+     * 書き込み途中で失敗した場合に既存のキャッシュを壊さないよう、
+     * 一時ファイルに書き終えてから置き換える。
+     * 
+     * @param layerType レイヤータイプ
+     * @param tempFile 変換済みの一時ファイル
+     * @param cacheFile キャッシュファイル
+     * @param timestamp キャッシュタイムスタンプ
+     * @param callback 進捗通知用コールバック（nullでも可）
+     * @return 成功した場合true
+     */
+    private boolean commitGeometryFile(
+            @NonNull LayerType layerType,
+            @NonNull File tempFile,
+            @NonNull File cacheFile,
+            long timestamp,
+            @Nullable DataCallback callback
+    ) {
+        if (!replaceFile(tempFile, cacheFile)) {
+            Log.e(TAG, "キャッシュ保存エラー: " + layerType.getId());
+            return false;
+        }
 
-        } catch (IOException e) {
-            Log.e(TAG, "キャッシュ読み込みエラー: " + layerType.getId(), e);
-            return null;
+        // タイムスタンプを保存
+        preferences.edit()
+                .putLong(getCacheTimestampKey(layerType), timestamp)
+                .apply();
+
+        if (callback != null) {
+            callback.onProgress(100);
         }
+        Log.d(TAG, "キャッシュ保存完了: " + layerType.getId());
+        return true;
     }
 
     /**
-     * キャッシュにデータを保存
+     * 旧形式（GeoJSON）のキャッシュをバイナリ形式に移行
+     * 
+     * キャッシュのタイムスタンプは引き継ぎ、有効期限は変わらない。
+     * 旧キャッシュは移行に成功した場合、またはバイナリのキャッシュが既にある場合のみ削除する
+     * （変換・保存に失敗した場合は残し、次回の読み込みで再度移行する）。
      * 
      * @param layerType レイヤータイプ
-     * @param geoJson GeoJSON文字列
      */
     @WorkerThread
-    private void saveToCache(@NonNull LayerType layerType, @NonNull String geoJson) {
+    private void migrateLegacyCache(@NonNull LayerType layerType) {
+        File legacyFile = getLegacyCacheFile(layerType);
+        if (!legacyFile.exists()) {
+            return;
+        }
         File cacheFile = getCacheFile(layerType);
+        if (!cacheFile.exists()) {
+            long timestamp = preferences.getLong(getCacheTimestampKey(layerType), 0);
+            File tempFile = getTempFile(cacheFile);
+            try {
+                if (!convertToGeometry(legacyFile, tempFile, timestamp, null)
+                        || !replaceFile(tempFile, cacheFile)) {
+                    Log.w(TAG, "旧キャッシュの移行失敗（次回再試行）: " + layerType.getId());
+                    return;
+                }
+                Log.d(TAG, "旧キャッシュを移行: " + layerType.getId());
+            } finally {
+                deleteIfExists(tempFile);
+            }
+        }
+        deleteIfExists(legacyFile);
+    }
 
-        try (FileOutputStream fos = new FileOutputStream(cacheFile)) {
-            fos.write(geoJson.getBytes(StandardCharsets.UTF_8));
-            
-            // タイムスタンプを保存
-            preferences.edit()
-                    .putLong(getCacheTimestampKey(layerType), System.currentTimeMillis())
-                    .apply();
+    /**
+     * 一時ファイルで対象ファイルを置き換える
+     * 
+     * @return 成功した場合true
+     */
+    private static boolean replaceFile(@NonNull File tempFile, @NonNull File target) {
+        if (target.exists() && !target.delete()) {
+            Log.e(TAG, "旧ファイル削除失敗: " + target.getName());
+            return false;
+        }
+        if (!tempFile.renameTo(target)) {
+            Log.e(TAG, "リネーム失敗: " + tempFile.getName());
+            return false;
+        }
+        return true;
+    }
 
-            Log.d(TAG, "キャッシュ保存完了: " + layerType.getId());
+    /**
+     * ダウンロード中のデータを書き込む部分ファイルを取得
+     * 
+     * @param layerType レイヤータイプ
+     * @param isZip ZIPファイルの場合true
+     */
+    @NonNull
+    private File getPartialDownloadFile(@NonNull LayerType layerType, boolean isZip) {
+        return new File(cacheDir, PARTIAL_DOWNLOAD_PREFIX + layerType.getId()
+                + (isZip ? ".zip" : ".geojson") + PARTIAL_DOWNLOAD_EXTENSION);
+    }
 
-        } catch (IOException e) {
-            Log.e(TAG, "キャッシュ保存エラー: " + layerType.getId(), e);
+    /**
+     * 書き込み用の一時ファイルを取得
+     */
+    @NonNull
+    private static File getTempFile(@NonNull File target) {
+        return new File(target.getParentFile(), target.getName() + ".tmp");
+    }
+
+    private static void deleteIfExists(@NonNull File file) {
+        if (file.exists() && !file.delete()) {
+            Log.w(TAG, "一時ファイル削除失敗: " + file.getName());
         }
     }
 
@@ -593,6 +790,10 @@ public class LayerDataRepository {
             boolean deleted = cacheFile.delete();
             Log.d(TAG, "キャッシュ削除: " + layerType.getId() + " -> " + deleted);
         }
+        deleteIfExists(getLegacyCacheFile(layerType));
+        deleteIfExists(getAssetGeometryFile(layerType));
+        ResumableDownloader.discard(getPartialDownloadFile(layerType, false));
+        ResumableDownloader.discard(getPartialDownloadFile(layerType, true));
 
         preferences.edit()
                 .remove(getCacheTimestampKey(layerType))
@@ -609,16 +810,61 @@ public class LayerDataRepository {
     }
 
     /**
-     * キャッシュファイルを取得
+     * キャッシュファイル（バイナリ形式）を取得
      * 
      * @param layerType レイヤータイプ
      * @return キャッシュファイル
      */
     @NonNull
     private File getCacheFile(@NonNull LayerType layerType) {
+        return new File(cacheDir, getGeometryFileBaseName(layerType) + GEOMETRY_FILE_EXTENSION);
+    }
+
+    /**
+     * アセットから変換したバイナリファイルを取得
+     * 
+     * @param layerType レイヤータイプ
+     * @return バイナリファイル
+     */
+    @NonNull
+    private File getAssetGeometryFile(@NonNull LayerType layerType) {
+        return new File(cacheDir, ASSET_GEOMETRY_PREFIX
+                + getGeometryFileBaseName(layerType) + GEOMETRY_FILE_EXTENSION);
+    }
+
+    /**
+     * 旧形式（GeoJSON）のキャッシュファイルを取得
+     * 
+     * @param layerType レイヤータイプ
+     * @return 旧キャッシュファイル
+     */
+    @NonNull
+    private File getLegacyCacheFile(@NonNull LayerType layerType) {
         return new File(cacheDir, layerType.getCacheFileName());
     }
 
+    /**
+     * バイナリファイル名のベース（キャッシュファイル名から拡張子を除いたもの）
+     */
+    @NonNull
+    private static String getGeometryFileBaseName(@NonNull LayerType layerType) {
+        String name = layerType.getCacheFileName();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    /**
+     * アセット変換ファイルの鮮度判定用タイムスタンプ（アプリの最終更新日時）
+     */
+    private long getAssetStamp() {
+        try {
+            return context.getPackageManager()
+                    .getPackageInfo(context.getPackageName(), 0).lastUpdateTime;
+        } catch (PackageManager.NameNotFoundException e) {
+            return 0;
+        }
+    }
+
     /**
      * キャッシュタイムスタンプのSharedPreferencesキーを取得
      * 
@@ -674,5 +920,66 @@ public class LayerDataRepository {
     public void shutdown() {
         executor.shutdown();
     }
-}
 
+    /**
+     * 読み込み位置を通知する入力ストリーム
+     */
+    private static class ProgressInputStream extends FilterInputStream {
+
+        /** 通知間隔（バイト） */
+        private static final long NOTIFY_INTERVAL = 256 * 1024;
+
+        /**
+         * 読み込み位置の受け取りインターフェース
+         */
+        interface Listener {
+            void onPosition(long position);
+        }
+
+        @Nullable
+        private Listener listener;
+        private long position = 0;
+        private long lastNotified = 0;
+
+        ProgressInputStream(@NonNull InputStream in) {
+            super(in);
+        }
+
+        void setListener(@Nullable Listener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0) {
+                advance(1);
+            }
+            return value;
+        }
+
+        @Override
+        public int read(@NonNull byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                advance(read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            advance(skipped);
+            return skipped;
+        }
+
+        private void advance(long bytes) {
+            position += bytes;
+            if (listener != null && position - lastNotified >= NOTIFY_INTERVAL) {
+                lastNotified = position;
+                listener.onPosition(position);
+            }
+        }
+    }
+}
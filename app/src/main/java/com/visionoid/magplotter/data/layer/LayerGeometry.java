@@ -0,0 +1,312 @@
+/**
+ * LayerGeometry.java
+ *
+ * VISIONOID MAG PLOTTER - レイヤージオメトリ（バイナリ形式）
+ *
+ * 概要:
+ *   GeoJSONから一度だけ変換したバイナリ形式のレイヤーデータを
+ *   メモリマップで読み込み、ポリゴン単位で参照する。
+ *   レイヤー表示のたびにGeoJSONを再パースしない。
+ *
+ * 主な仕様:
+ *   - ファイル形式（リトルエンディアン、int32）:
+ *       ヘッダー（HEADER_SIZEバイト）
+ *         magic, version, フィーチャ数, リング数, 点数,
+ *         全体の境界ボックス（南, 西, 北, 東）, 座標部の位置, フィーチャ表の位置,
+ *         リング表の位置, 変換元タイムスタンプ（int64）
+ *       座標部: 点ごとに (緯度, 経度) のマイクロ度。
+ *         各リングの先頭点は絶対値、以降は直前の点との差分
+ *       フィーチャ表: フィーチャごとに (南, 西, 北, 東, 先頭リング番号, リング数)
+ *       リング表: リングごとの先頭点番号（リング数+1件、最後は総点数）
+ *   - 1フィーチャ = 1ポリゴン（リング0が外周、以降が穴）
+ *   - 読み取りは絶対位置アクセスのみのため、複数スレッドから同時に参照可能
+ *
+ * 制限事項:
+ *   - 座標精度はマイクロ度（約0.1m）
+ *   - ファイルサイズは2GB未満
+ */
+package com.visionoid.magplotter.data.layer;
+
+import androidx.annotation.NonNull;
+
+import org.osmdroid.util.GeoPoint;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * レイヤージオメトリクラス（読み取り専用）
+ */
+public final class LayerGeometry {
+
+    /** ファイル識別子（"LGEO"） */
+    static final int MAGIC = 0x4C47454F;
+
+    /** 形式バージョン */
+    static final int VERSION = 1;
+
+    /** ヘッダーサイズ（バイト） */
+    static final int HEADER_SIZE = 64;
+
+    /** フィーチャ表の1件あたりのint数 */
+    static final int FEATURE_STRIDE = 6;
+
+    /** 座標→マイクロ度の係数 */
+    public static final double E6 = 1_000_000.0;
+
+    // ヘッダー内のint位置
+    static final int H_MAGIC = 0;
+    static final int H_VERSION = 1;
+    static final int H_FEATURE_COUNT = 2;
+    static final int H_RING_COUNT = 3;
+    static final int H_POINT_COUNT = 4;
+    static final int H_SOUTH = 5;
+    static final int H_WEST = 6;
+    static final int H_NORTH = 7;
+    static final int H_EAST = 8;
+    static final int H_COORD_OFFSET = 9;
+    static final int H_FEATURE_OFFSET = 10;
+    static final int H_RING_OFFSET = 11;
+    static final int H_SOURCE_STAMP_LOW = 12;
+    static final int H_SOURCE_STAMP_HIGH = 13;
+
+    // フィーチャ表内のint位置
+    private static final int F_SOUTH = 0;
+    private static final int F_WEST = 1;
+    private static final int F_NORTH = 2;
+    private static final int F_EAST = 3;
+    private static final int F_FIRST_RING = 4;
+    private static final int F_RING_COUNT = 5;
+
+    /** 空のジオメトリ */
+    public static final LayerGeometry EMPTY = new LayerGeometry();
+
+    /** ファイル全体（int単位） */
+    private final IntBuffer data;
+
+    private final int featureCount;
+    private final int ringCount;
+    private final int pointCount;
+    private final int coordBase;
+    private final int featureBase;
+    private final int ringBase;
+    private final long sourceStamp;
+
+    /** ファイルサイズ（バイト） */
+    private final long byteSize;
+
+    private LayerGeometry() {
+        this.data = IntBuffer.allocate(0);
+        this.featureCount = 0;
+        this.ringCount = 0;
+        this.pointCount = 0;
+        this.coordBase = 0;
+        this.featureBase = 0;
+        this.ringBase = 0;
+        this.sourceStamp = 0;
+        this.byteSize = 0;
+    }
+
+    private LayerGeometry(@NonNull IntBuffer data, long byteSize) throws IOException {
+        this.data = data;
+        this.byteSize = byteSize;
+        if (data.limit() < HEADER_SIZE / 4
+                || data.get(H_MAGIC) != MAGIC || data.get(H_VERSION) != VERSION) {
+            throw new IOException("レイヤージオメトリの形式が不正です");
+        }
+        this.featureCount = data.get(H_FEATURE_COUNT);
+        this.ringCount = data.get(H_RING_COUNT);
+        this.pointCount = data.get(H_POINT_COUNT);
+        this.coordBase = data.get(H_COORD_OFFSET) / 4;
+        this.featureBase = data.get(H_FEATURE_OFFSET) / 4;
+        this.ringBase = data.get(H_RING_OFFSET) / 4;
+        this.sourceStamp = (data.get(H_SOURCE_STAMP_LOW) & 0xFFFFFFFFL)
+                | ((long) data.get(H_SOURCE_STAMP_HIGH) << 32);
+
+        // 書き込み途中のファイルを検出
+        if (featureCount < 0 || ringCount < 0 || pointCount < 0
+                || coordBase + (long) pointCount * 2 > data.limit()
+                || featureBase + (long) featureCount * FEATURE_STRIDE > data.limit()
+                || ringBase + (long) ringCount + 1 > data.limit()) {
+            throw new IOException("レイヤージオメトリが破損しています");
+        }
+    }
+
+    /**
+     * ファイルをメモリマップで開く
+     *
+     * @param file バイナリファイル
+     * @return ジオメトリ
+     * @throws IOException 読み込み失敗・形式不正の場合
+     */
+    @NonNull
+    public static LayerGeometry open(@NonNull File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            long size = channel.size();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return new LayerGeometry(buffer.asIntBuffer(), size);
+        }
+    }
+
+    // ==================== 全体情報 ====================
+
+    public int getFeatureCount() {
+        return featureCount;
+    }
+
+    public int getRingCount() {
+        return ringCount;
+    }
+
+    public int getPointCount() {
+        return pointCount;
+    }
+
+    /**
+     * ファイルサイズ（バイト）を取得
+     */
+    public long getByteSize() {
+        return byteSize;
+    }
+
+    /**
+     * 変換元のタイムスタンプを取得（キャッシュの鮮度判定用）
+     */
+    public long getSourceStamp() {
+        return sourceStamp;
+    }
+
+    public boolean isEmpty() {
+        return featureCount == 0;
+    }
+
+    /** 全体の南端（マイクロ度） */
+    public int getSouthE6() {
+        return featureCount > 0 ? data.get(H_SOUTH) : 0;
+    }
+
+    /** 全体の西端（マイクロ度） */
+    public int getWestE6() {
+        return featureCount > 0 ? data.get(H_WEST) : 0;
+    }
+
+    /** 全体の北端（マイクロ度） */
+    public int getNorthE6() {
+        return featureCount > 0 ? data.get(H_NORTH) : 0;
+    }
+
+    /** 全体の東端（マイクロ度） */
+    public int getEastE6() {
+        return featureCount > 0 ? data.get(H_EAST) : 0;
+    }
+
+    // ==================== フィーチャ ====================
+
+    /** フィーチャの南端（マイクロ度） */
+    public int getFeatureSouthE6(int feature) {
+        return data.get(featureBase + feature * FEATURE_STRIDE + F_SOUTH);
+    }
+
+    /** フィーチャの西端（マイクロ度） */
+    public int getFeatureWestE6(int feature) {
+        return data.get(featureBase + feature * FEATURE_STRIDE + F_WEST);
+    }
+
+    /** フィーチャの北端（マイクロ度） */
+    public int getFeatureNorthE6(int feature) {
+        return data.get(featureBase + feature * FEATURE_STRIDE + F_NORTH);
+    }
+
+    /** フィーチャの東端（マイクロ度） */
+    public int getFeatureEastE6(int feature) {
+        return data.get(featureBase + feature * FEATURE_STRIDE + F_EAST);
+    }
+
+    /**
+     * フィーチャの先頭リング番号を取得（外周リング）
+     */
+    public int getFirstRing(int feature) {
+        return data.get(featureBase + feature * FEATURE_STRIDE + F_FIRST_RING);
+    }
+
+    /**
+     * フィーチャのリング数を取得（外周 + 穴）
+     */
+    public int getFeatureRingCount(int feature) {
+        return data.get(featureBase + feature * FEATURE_STRIDE + F_RING_COUNT);
+    }
+
+    // ==================== リング ====================
+
+    /**
+     * リングの先頭点番号を取得
+     */
+    public int getRingStart(int ring) {
+        return data.get(ringBase + ring);
+    }
+
+    /**
+     * リングの点数を取得
+     */
+    public int getRingPointCount(int ring) {
+        return data.get(ringBase + ring + 1) - data.get(ringBase + ring);
+    }
+
+    /**
+     * リングの座標を復号
+     *
+     * @param ring リング番号
+     * @param outLatE6 緯度（マイクロ度）の出力先（点数以上の長さ）
+     * @param outLonE6 経度（マイクロ度）の出力先（点数以上の長さ）
+     * @return 点数
+     */
+    public int readRing(int ring, @NonNull int[] outLatE6, @NonNull int[] outLonE6) {
+        int start = getRingStart(ring);
+        int count = getRingPointCount(ring);
+        int index = coordBase + start * 2;
+        int lat = 0;
+        int lon = 0;
+        for (int i = 0; i < count; i++) {
+            int dLat = data.get(index++);
+            int dLon = data.get(index++);
+            if (i == 0) {
+                lat = dLat;
+                lon = dLon;
+            } else {
+                lat += dLat;
+                lon += dLon;
+            }
+            outLatE6[i] = lat;
+            outLonE6[i] = lon;
+        }
+        return count;
+    }
+
+    /**
+     * リングをGeoPointリストとして取得
+     *
+     * @param ring リング番号
+     * @return GeoPointリスト
+     */
+    @NonNull
+    public List<GeoPoint> getRingPoints(int ring) {
+        int count = getRingPointCount(ring);
+        int[] lats = new int[count];
+        int[] lons = new int[count];
+        readRing(ring, lats, lons);
+        List<GeoPoint> points = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            points.add(new GeoPoint(lats[i] / E6, lons[i] / E6));
+        }
+        return points;
+    }
+}
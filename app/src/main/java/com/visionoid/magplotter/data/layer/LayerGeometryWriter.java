@@ -0,0 +1,254 @@
+/**
+ * LayerGeometryWriter.java
+ *
+ * VISIONOID MAG PLOTTER - レイヤージオメトリ書き込み
+ *
+ * 概要:
+ *   GeoJSONパーサーから受け取ったポリゴンを、LayerGeometryのバイナリ形式で
+ *   ファイルに書き込む。座標はストリームとして書き出し、全体をメモリに保持しない。
+ *
+ * 主な仕様:
+ *   - 座標部を先に書き、フィーチャ表・リング表を末尾に書いてからヘッダーを確定
+ *   - 座標はマイクロ度に丸め、リング内で差分符号化
+ *   - リングの終端が始点と同じ場合（GeoJSONの閉じた形式）は終端を省略
+ *
+ * 制限事項:
+ *   - 1スレッドから順に呼び出すこと（スレッドセーフではない）
+ *   - finish()を呼ぶまでファイルは不完全（LayerGeometry.openで拒否される）
+ */
+package com.visionoid.magplotter.data.layer;
+
+import androidx.annotation.NonNull;
+
+import com.visionoid.magplotter.ui.map.layer.GeoJsonParser;
+
+import org.osmdroid.util.GeoPoint;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * レイヤージオメトリ書き込みクラス
+ */
+public class LayerGeometryWriter implements GeoJsonParser.PolygonSink, Closeable {
+
+    /** 書き込みバッファサイズ */
+    private static final int BUFFER_SIZE = 65536;
+
+    /** 出力チャネル */
+    private final FileChannel channel;
+
+    /** 書き込みバッファ */
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE)
+            .order(ByteOrder.LITTLE_ENDIAN);
+
+    /** 変換元タイムスタンプ */
+    private final long sourceStamp;
+
+    /** フィーチャ表（メモリ上に蓄積し最後に書き出す） */
+    private int[] features = new int[LayerGeometry.FEATURE_STRIDE * 256];
+    private int featureCount = 0;
+
+    /** リング表 */
+    private int[] ringStarts = new int[1024];
+    private int ringCount = 0;
+
+    private int pointCount = 0;
+
+    // 全体の境界
+    private int south = Integer.MAX_VALUE;
+    private int west = Integer.MAX_VALUE;
+    private int north = Integer.MIN_VALUE;
+    private int east = Integer.MIN_VALUE;
+
+    /** 書き込み中に発生したIO例外（PolygonSinkは例外を投げられないため保持） */
+    private IOException pendingError;
+
+    /**
+     * コンストラクタ
+     *
+     * @param file 出力ファイル（上書き）
+     * @param sourceStamp 変換元タイムスタンプ
+     * @throws IOException ファイルを開けない場合
+     */
+    public LayerGeometryWriter(@NonNull File file, long sourceStamp) throws IOException {
+        this.channel = new FileOutputStream(file).getChannel();
+        this.sourceStamp = sourceStamp;
+        // ヘッダー領域を確保（finishで上書き）
+        for (int i = 0; i < LayerGeometry.HEADER_SIZE / 4; i++) {
+            buffer.putInt(0);
+        }
+    }
+
+    @Override
+    public void onPolygon(@NonNull List<GeoPoint> outerRing, @NonNull List<List<GeoPoint>> holes) {
+        if (pendingError != null) {
+            return;
+        }
+        try {
+            addPolygon(outerRing, holes);
+        } catch (IOException e) {
+            pendingError = e;
+        }
+    }
+
+    /**
+     * ポリゴンを1件書き込み
+     *
+     * @param outerRing 外周リング
+     * @param holes 内周リング（穴）
+     * @throws IOException 書き込み失敗時
+     */
+    public void addPolygon(@NonNull List<GeoPoint> outerRing, @NonNull List<List<GeoPoint>> holes)
+            throws IOException {
+        int firstRing = ringCount;
+        int[] bbox = {Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE};
+
+        writeRing(outerRing, bbox);
+        for (List<GeoPoint> hole : holes) {
+            writeRing(hole, bbox);
+        }
+
+        ensureFeatureCapacity();
+        int base = featureCount * LayerGeometry.FEATURE_STRIDE;
+        features[base] = bbox[0];
+        features[base + 1] = bbox[1];
+        features[base + 2] = bbox[2];
+        features[base + 3] = bbox[3];
+        features[base + 4] = firstRing;
+        features[base + 5] = ringCount - firstRing;
+        featureCount++;
+
+        south = Math.min(south, bbox[0]);
+        west = Math.min(west, bbox[1]);
+        north = Math.max(north, bbox[2]);
+        east = Math.max(east, bbox[3]);
+    }
+
+    /**
+     * 表・ヘッダーを書き込んでファイルを確定
+     *
+     * @throws IOException 書き込み失敗時、またはポリゴン書き込み中に失敗していた場合
+     */
+    public void finish() throws IOException {
+        if (pendingError != null) {
+            throw pendingError;
+        }
+        int coordOffset = LayerGeometry.HEADER_SIZE;
+        int featureOffset = coordOffset + pointCount * 8;
+        for (int i = 0; i < featureCount * LayerGeometry.FEATURE_STRIDE; i++) {
+            putInt(features[i]);
+        }
+        int ringOffset = featureOffset + featureCount * LayerGeometry.FEATURE_STRIDE * 4;
+        for (int i = 0; i < ringCount; i++) {
+            putInt(ringStarts[i]);
+        }
+        putInt(pointCount);
+        flush();
+
+        // ヘッダーを確定
+        int[] header = new int[LayerGeometry.HEADER_SIZE / 4];
+        header[LayerGeometry.H_MAGIC] = LayerGeometry.MAGIC;
+        header[LayerGeometry.H_VERSION] = LayerGeometry.VERSION;
+        header[LayerGeometry.H_FEATURE_COUNT] = featureCount;
+        header[LayerGeometry.H_RING_COUNT] = ringCount;
+        header[LayerGeometry.H_POINT_COUNT] = pointCount;
+        header[LayerGeometry.H_SOUTH] = south;
+        header[LayerGeometry.H_WEST] = west;
+        header[LayerGeometry.H_NORTH] = north;
+        header[LayerGeometry.H_EAST] = east;
+        header[LayerGeometry.H_COORD_OFFSET] = coordOffset;
+        header[LayerGeometry.H_FEATURE_OFFSET] = featureOffset;
+        header[LayerGeometry.H_RING_OFFSET] = ringOffset;
+        header[LayerGeometry.H_SOURCE_STAMP_LOW] = (int) sourceStamp;
+        header[LayerGeometry.H_SOURCE_STAMP_HIGH] = (int) (sourceStamp >>> 32);
+        for (int value : header) {
+            buffer.putInt(value);
+        }
+        buffer.flip();
+        channel.position(0);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+        channel.force(false);
+    }
+
+    public int getFeatureCount() {
+        return featureCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // ==================== 内部処理 ====================
+
+    private void writeRing(@NonNull List<GeoPoint> ring, @NonNull int[] bbox) throws IOException {
+        int count = ring.size();
+        // 閉じたリングの終端点（始点と同じ）は省略
+        if (count > 1 && ring.get(0).equals(ring.get(count - 1))) {
+            count--;
+        }
+        ensureRingCapacity();
+        ringStarts[ringCount++] = pointCount;
+
+        int prevLat = 0;
+        int prevLon = 0;
+        for (int i = 0; i < count; i++) {
+            GeoPoint point = ring.get(i);
+            int lat = (int) Math.round(point.getLatitude() * LayerGeometry.E6);
+            int lon = (int) Math.round(point.getLongitude() * LayerGeometry.E6);
+            if (i == 0) {
+                putInt(lat);
+                putInt(lon);
+            } else {
+                putInt(lat - prevLat);
+                putInt(lon - prevLon);
+            }
+            prevLat = lat;
+            prevLon = lon;
+
+            bbox[0] = Math.min(bbox[0], lat);
+            bbox[1] = Math.min(bbox[1], lon);
+            bbox[2] = Math.max(bbox[2], lat);
+            bbox[3] = Math.max(bbox[3], lon);
+        }
+        pointCount += count;
+    }
+
+    private void putInt(int value) throws IOException {
+        if (buffer.remaining() < 4) {
+            flush();
+        }
+        buffer.putInt(value);
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void ensureFeatureCapacity() {
+        if ((featureCount + 1) * LayerGeometry.FEATURE_STRIDE > features.length) {
+            features = Arrays.copyOf(features, features.length * 2);
+        }
+    }
+
+    private void ensureRingCapacity() {
+        if (ringCount + 1 > ringStarts.length) {
+            ringStarts = Arrays.copyOf(ringStarts, ringStarts.length * 2);
+        }
+    }
+}
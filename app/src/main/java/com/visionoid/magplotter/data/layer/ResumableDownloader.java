@@ -0,0 +1,353 @@
+/**
+ * ResumableDownloader.java
+ *
+ * VISIONOID MAG PLOTTER - 再開可能なダウンロード
+ *
+ * 概要:
+ *   HTTPのRangeリクエストで、中断したダウンロードを途中から再開する。
+ *   受信済みのデータは部分ファイルに、再開に必要な情報（URL・ETag等）は
+ *   ジャーナルファイルに保存する。
+ *
+ * 主な仕様:
+ *   - 部分ファイルの長さ＝受信済みバイト数（書き込んだ分だけ再開に使える）
+ *   - ETag・Last-Modifiedのどちらもないレスポンスは内容の同一性を確認できないため再開しない
+ *   - 再開時は Range: bytes=N- と If-Range（ETagまたはLast-Modified）を送信
+ *   - 206: 追記、200: サーバーが再開に応じない・内容が変わった → 最初から
+ *   - 416: 受信済みサイズが全体サイズと一致すれば完了とみなす
+ *   - 接続の生成はConnectionFactoryで差し替え可能（ローカルのHTTPサーバーで検証する場合など）
+ *
+ * 制限事項:
+ *   - バックグラウンドスレッドで実行が必要
+ *   - 同じ部分ファイルに対して同時にダウンロードしないこと
+ */
+package com.visionoid.magplotter.data.layer;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Properties;
+
+/**
+ * 再開可能なダウンロードクラス
+ */
+public class ResumableDownloader {
+
+    /** ログタグ */
+    private static final String TAG = "ResumableDownloader";
+
+    /** HTTP 416 Range Not Satisfiable */
+    private static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
+
+    /** ジャーナルファイルの拡張子 */
+    private static final String JOURNAL_EXTENSION = ".journal";
+
+    /** ジャーナルのキー */
+    private static final String KEY_URL = "url";
+    private static final String KEY_ETAG = "etag";
+    private static final String KEY_LAST_MODIFIED = "last_modified";
+    private static final String KEY_TOTAL_LENGTH = "total_length";
+
+    /** 読み込み時のバッファサイズ（64KB） */
+    private static final int BUFFER_SIZE = 65536;
+
+    /**
+     * HTTP接続の生成インターフェース
+     */
+    public interface ConnectionFactory {
+        /**
+         * URLへの接続を生成（接続前の状態で返す）
+         *
+         * @param url 接続先URL
+         * @return HTTP接続
+         */
+        @NonNull
+        HttpURLConnection open(@NonNull URL url) throws IOException;
+    }
+
+    /**
+     * 進捗受け取りインターフェース
+     */
+    public interface ProgressListener {
+        /**
+         * 受信済みバイト数を通知
+         *
+         * @param bytesDone 受信済みバイト数（再開前の分を含む）
+         * @param bytesTotal 全体のバイト数（不明な場合は0以下）
+         */
+        void onProgress(long bytesDone, long bytesTotal);
+    }
+
+    /** 標準の接続生成（URL#openConnection） */
+    public static final ConnectionFactory DEFAULT_CONNECTION_FACTORY =
+            url -> (HttpURLConnection) url.openConnection();
+
+    /** 接続生成 */
+    @NonNull
+    private final ConnectionFactory connectionFactory;
+
+    /** 接続タイムアウト（ミリ秒） */
+    private final int connectTimeout;
+
+    /** 読み取りタイムアウト（ミリ秒） */
+    private final int readTimeout;
+
+    /**
+     * コンストラクタ
+     *
+     * @param connectionFactory 接続生成
+     * @param connectTimeout 接続タイムアウト（ミリ秒）
+     * @param readTimeout 読み取りタイムアウト（ミリ秒）
+     */
+    public ResumableDownloader(@NonNull ConnectionFactory connectionFactory,
+                               int connectTimeout, int readTimeout) {
+        this.connectionFactory = connectionFactory;
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+    }
+
+    /**
+     * URLの内容を部分ファイルにダウンロード（前回の続きがあれば再開）
+     *
+     * 成功時、部分ファイルは完全な内容になる。呼び出し側は利用後にdiscard()で削除する。
+     * 失敗時は受信済みのデータとジャーナルを残し、次回の呼び出しで再開する。
+     *
+     * @param urlString ダウンロードURL
+     * @param partFile 部分ファイル（完了後は完全なファイル）
+     * @param accept Acceptヘッダー（nullの場合は送信しない）
+     * @param progress 進捗受け取り先（nullでも可）
+     * @throws IOException 通信エラー、HTTPエラー
+     */
+    @WorkerThread
+    public void download(@NonNull String urlString, @NonNull File partFile,
+                         @Nullable String accept, @Nullable ProgressListener progress)
+            throws IOException {
+        File journalFile = getJournalFile(partFile);
+        Properties journal = readJournal(journalFile);
+
+        // 別のURLの残り・内容を検証できない（ETag等がない）部分ファイルは再開に使えない
+        long offset = partFile.length();
+        String validator = journal.getProperty(KEY_ETAG, journal.getProperty(KEY_LAST_MODIFIED));
+        if (offset > 0 && (!urlString.equals(journal.getProperty(KEY_URL)) || validator == null)) {
+            Log.d(TAG, "再開できないため最初から: " + partFile.getName());
+            discard(partFile);
+            offset = 0;
+        }
+
+        HttpURLConnection connection = connectionFactory.open(new URL(urlString));
+        try {
+            connection.setConnectTimeout(connectTimeout);
+            connection.setReadTimeout(readTimeout);
+            connection.setRequestMethod("GET");
+            if (accept != null) {
+                connection.setRequestProperty("Accept", accept);
+            }
+            if (offset > 0) {
+                // 圧縮されると範囲がずれるため、再開時は無圧縮で要求
+                connection.setRequestProperty("Accept-Encoding", "identity");
+                connection.setRequestProperty("Range", "bytes=" + offset + "-");
+                if (validator != null) {
+                    connection.setRequestProperty("If-Range", validator);
+                }
+            }
+
+            int responseCode = connection.getResponseCode();
+            boolean append;
+            long totalLength;
+            if (responseCode == HttpURLConnection.HTTP_PARTIAL && offset > 0
+                    && offset == parseRangeStart(connection.getHeaderField("Content-Range"))) {
+                append = true;
+                totalLength = parseRangeTotal(connection.getHeaderField("Content-Range"));
+                Log.d(TAG, "ダウンロード再開: " + partFile.getName() + " (" + offset + " bytes受信済み)");
+            } else if (responseCode == HttpURLConnection.HTTP_OK) {
+                append = false;
+                totalLength = connection.getContentLengthLong();
+                if (offset > 0) {
+                    Log.d(TAG, "サーバーが再開に応じないため最初から: " + partFile.getName());
+                }
+            } else if (responseCode == HTTP_RANGE_NOT_SATISFIABLE && offset > 0
+                    && offset == getCompleteLength(connection, journal)) {
+                // 前回、受信は完了していたが後続の処理で中断した
+                Log.d(TAG, "受信済み: " + partFile.getName());
+                notifyProgress(progress, offset, offset);
+                return;
+            } else {
+                if (responseCode == HTTP_RANGE_NOT_SATISFIABLE || responseCode == HttpURLConnection.HTTP_PARTIAL) {
+                    // 範囲が合わない部分ファイルは次回に持ち越さない
+                    discard(partFile);
+                }
+                throw new IOException("HTTP " + responseCode);
+            }
+
+            if (!append) {
+                offset = 0;
+                journal = new Properties();
+                journal.setProperty(KEY_URL, urlString);
+                putIfNotNull(journal, KEY_ETAG, connection.getHeaderField("ETag"));
+                putIfNotNull(journal, KEY_LAST_MODIFIED, connection.getHeaderField("Last-Modified"));
+                journal.setProperty(KEY_TOTAL_LENGTH, Long.toString(totalLength));
+                writeJournal(journalFile, journal);
+            }
+
+            long received = offset;
+            try (InputStream in = new BufferedInputStream(connection.getInputStream(), BUFFER_SIZE);
+                 OutputStream out = new FileOutputStream(partFile, append)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                    received += read;
+                    notifyProgress(progress, received, totalLength);
+                }
+            }
+
+            if (totalLength > 0 && received != totalLength) {
+                throw new IOException("受信サイズ不一致: " + received + " / " + totalLength);
+            }
+            Log.d(TAG, "ダウンロード完了: " + partFile.getName() + " (" + received + " bytes)");
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * 部分ファイルとジャーナルを削除
+     *
+     * @param partFile 部分ファイル
+     */
+    public static void discard(@NonNull File partFile) {
+        deleteIfExists(partFile);
+        deleteIfExists(getJournalFile(partFile));
+    }
+
+    /**
+     * 再開可能な受信済みデータがあるか確認
+     *
+     * @param partFile 部分ファイル
+     * @return 受信済みデータとジャーナルがある場合true
+     */
+    public static boolean hasPartialData(@NonNull File partFile) {
+        return partFile.length() > 0 && getJournalFile(partFile).exists();
+    }
+
+    // ==================== 内部処理 ====================
+
+    @NonNull
+    private static File getJournalFile(@NonNull File partFile) {
+        return new File(partFile.getParentFile(), partFile.getName() + JOURNAL_EXTENSION);
+    }
+
+    @NonNull
+    private static Properties readJournal(@NonNull File journalFile) {
+        Properties journal = new Properties();
+        if (journalFile.exists()) {
+            try (InputStream in = new FileInputStream(journalFile)) {
+                journal.load(in);
+            } catch (IOException e) {
+                Log.w(TAG, "ジャーナル読み込み失敗: " + journalFile.getName(), e);
+                journal.clear();
+            }
+        }
+        return journal;
+    }
+
+    /**
+     * ジャーナルを書き込み、部分ファイルより先にディスクへ反映
+     */
+    private static void writeJournal(@NonNull File journalFile, @NonNull Properties journal)
+            throws IOException {
+        try (FileOutputStream out = new FileOutputStream(journalFile)) {
+            journal.store(out, null);
+            out.getFD().sync();
+        }
+    }
+
+    private static void putIfNotNull(@NonNull Properties properties, @NonNull String key,
+                                     @Nullable String value) {
+        if (value != null) {
+            properties.setProperty(key, value);
+        }
+    }
+
+    /**
+     * Content-Range（bytes start-end/total）の開始位置
+     *
+     * @return 開始位置、解析できない場合は-1
+     */
+    private static long parseRangeStart(@Nullable String contentRange) {
+        if (contentRange == null) {
+            return -1;
+        }
+        int space = contentRange.indexOf(' ');
+        int dash = contentRange.indexOf('-', space + 1);
+        if (space < 0 || dash < 0) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(contentRange.substring(space + 1, dash).trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Content-Range（bytes start-end/total または bytes *&#47;total）の全体サイズ
+     *
+     * @return 全体サイズ、不明・解析できない場合は-1
+     */
+    private static long parseRangeTotal(@Nullable String contentRange) {
+        if (contentRange == null) {
+            return -1;
+        }
+        int slash = contentRange.lastIndexOf('/');
+        if (slash < 0) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(contentRange.substring(slash + 1).trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 416応答時の全体サイズ（Content-Rangeがなければジャーナルの値）
+     *
+     * @return 全体サイズ、不明な場合は-1
+     */
+    private static long getCompleteLength(@NonNull HttpURLConnection connection,
+                                          @NonNull Properties journal) {
+        long total = parseRangeTotal(connection.getHeaderField("Content-Range"));
+        if (total >= 0) {
+            return total;
+        }
+        try {
+            return Long.parseLong(journal.getProperty(KEY_TOTAL_LENGTH, "-1"));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static void notifyProgress(@Nullable ProgressListener progress, long done, long total) {
+        if (progress != null) {
+            progress.onProgress(done, total);
+        }
+    }
+
+    private static void deleteIfExists(@NonNull File file) {
+        if (file.exists() && !file.delete()) {
+            Log.w(TAG, "ファイル削除失敗: " + file.getName());
+        }
+    }
+}
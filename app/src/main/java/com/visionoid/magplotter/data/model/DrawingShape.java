@@ -10,12 +10,12 @@
  * 主な仕様:
  *   - ミッションに紐付けて図形を保存
  *   - 多角形、線（ポリライン）、円の3種類をサポート
- *   - 座標はJSON形式で保存
+ *   - 座標はバイナリ（CoordinateCodec形式）で保存、JSON形式との相互変換も可能
  *   - 面積・周囲長・距離を自動計算して保存
  * 
  * 制限事項:
  *   - missionIdは必須（外部キー制約）
- *   - 座標データはJSON配列形式で保存
+ *   - 座標の分解能は1e-7度（約1cm）
  */
 package com.visionoid.magplotter.data.model;
 
@@ -26,6 +26,8 @@ import androidx.room.ForeignKey;
 import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
+import com.visionoid.magplotter.util.CoordinateCodec;
+
 /**
  * 作図シェイプエンティティクラス
  * 
@@ -76,14 +78,14 @@ public class DrawingShape {
     private String shapeType;
 
     /** 
-     * 座標データ（JSON形式）
+     * 座標データ（CoordinateCodec形式のバイナリ）
      * 
-     * - polygon/polyline: [{"lat": 35.0, "lng": 139.0}, ...]
-     * - circle: {"center": {"lat": 35.0, "lng": 139.0}, "radius": 100.0}
+     * - polygon/polyline: 頂点の差分符号化（FORMAT_POINTS）
+     * - circle: 中心と半径（FORMAT_CIRCLE）
      */
     @NonNull
-    @ColumnInfo(name = "coordinates_json")
-    private String coordinatesJson;
+    @ColumnInfo(name = "coordinates", typeAffinity = ColumnInfo.BLOB)
+    private byte[] coordinates;
 
     /** 塗りつぶし色（ARGB） */
     @ColumnInfo(name = "fill_color")
@@ -125,13 +127,13 @@ public class DrawingShape {
      * @param missionId ミッションID
      * @param name 図形名
      * @param shapeType 図形タイプ（TYPE_POLYGON, TYPE_POLYLINE, TYPE_CIRCLE）
-     * @param coordinatesJson 座標データ（JSON形式）
+     * @param coordinates 座標データ（CoordinateCodec形式）
      */
-    public DrawingShape(long missionId, @NonNull String name, @NonNull String shapeType, @NonNull String coordinatesJson) {
+    public DrawingShape(long missionId, @NonNull String name, @NonNull String shapeType, @NonNull byte[] coordinates) {
         this.missionId = missionId;
         this.name = name;
         this.shapeType = shapeType;
-        this.coordinatesJson = coordinatesJson;
+        this.coordinates = coordinates;
         this.fillColor = 0x40FF5722;  // オレンジ（半透明）
         this.strokeColor = 0xFFFF5722; // オレンジ
         this.strokeWidth = 3.0f;
@@ -211,20 +213,47 @@ public class DrawingShape {
     }
 
     /**
-     * 座標データJSONを取得
+     * 座標データを取得
+     * @return 座標データ（CoordinateCodec形式）
+     */
+    @NonNull
+    public byte[] getCoordinates() {
+        return coordinates;
+    }
+
+    /**
+     * 座標データを設定
+     * @param coordinates 座標データ（CoordinateCodec形式）
+     */
+    public void setCoordinates(@NonNull byte[] coordinates) {
+        this.coordinates = coordinates;
+    }
+
+    /**
+     * 座標データをJSON形式で取得（エクスポート用）
+     * 
+     * - polygon/polyline: [{"lat": 35.0, "lng": 139.0}, ...]
+     * - circle: {"center": {"lat": 35.0, "lng": 139.0}, "radius": 100.0}
+     * 
      * @return 座標データJSON
      */
     @NonNull
     public String getCoordinatesJson() {
-        return coordinatesJson;
+        return CoordinateCodec.toJson(coordinates);
     }
 
     /**
-     * 座標データJSONを設定
+     * 座標データをJSON形式で設定（インポート用）
+     * 
      * @param coordinatesJson 座標データJSON
+     * @throws IllegalArgumentException JSONが不正な場合
      */
     public void setCoordinatesJson(@NonNull String coordinatesJson) {
-        this.coordinatesJson = coordinatesJson;
+        byte[] encoded = CoordinateCodec.fromJson(coordinatesJson);
+        if (encoded == null) {
+            throw new IllegalArgumentException("座標JSONが不正です");
+        }
+        this.coordinates = encoded;
     }
 
     /**
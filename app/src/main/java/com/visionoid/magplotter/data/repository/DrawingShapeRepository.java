@@ -10,7 +10,10 @@
  * 主な仕様:
  *   - 非同期でのデータベース操作
  *   - LiveDataによるリアクティブ更新
- *   - JSON形式の座標データのパース
+ *   - 座標データ（CoordinateCodec形式）からの面積・周囲長の計算
+ *     （保存値はWGS84楕円体で計算、作図中の表示は球体近似のため僅かに異なる）
+ *   - JSON形式の座標データのパース・生成（インポート・エクスポート用）
+ *   - 保存済みの多角形からの測線計画（SurveyLinePlanner）と1本のポリライン（測線ルート）としての保存
  * 
  * 制限事項:
  *   - アプリケーションコンテキストが必要
@@ -24,7 +27,9 @@ import androidx.lifecycle.LiveData;
 import com.visionoid.magplotter.data.dao.DrawingShapeDao;
 import com.visionoid.magplotter.data.db.AppDatabase;
 import com.visionoid.magplotter.data.model.DrawingShape;
+import com.visionoid.magplotter.util.CoordinateCodec;
 import com.visionoid.magplotter.util.GeoCalculator;
+import com.visionoid.magplotter.util.SurveyLinePlanner;
 
 import org.json.JSONArray;
 import org.json.JSONException;
@@ -41,6 +46,15 @@ import java.util.concurrent.Executors;
  */
 public class DrawingShapeRepository {
 
+    /** 保存する面積・周囲長の計算モード（辺の長さのラベル・作図中の表示も同じモードで計算する） */
+    public static final GeoCalculator.Mode METRICS_MODE = GeoCalculator.Mode.WGS84;
+
+    /** 1つの測線ルートに保存する測線の最大数（超える場合は保存しない） */
+    public static final int MAX_ROUTE_LINES = 5000;
+
+    /** 測線ルートの名前（計測範囲の名前に付ける） */
+    private static final String ROUTE_NAME_SUFFIX = " 測線";
+
     /** DAO */
     private final DrawingShapeDao drawingShapeDao;
 
@@ -88,6 +102,97 @@ public class DrawingShapeRepository {
         return drawingShapeDao.insert(shape);
     }
 
+    // ==================== 測線計画 ====================
+
+    /**
+     * 保存済みの多角形の内側に測線を計画し、測線ルートとして保存
+     * 
+     * 測線は走査順に始点・終点をつないだ1本のポリライン（測線間の移動を含む）として
+     * 「範囲名 測線」の名前で保存する（色は計測範囲の線の色）。
+     * 同じ名前の測線ルートがあれば置き換える（名前を変えたルートは残る）。
+     * 測線がMAX_ROUTE_LINES本を超える場合は保存しない。
+     * 
+     * @param areaShapeId 計測範囲の多角形のID
+     * @param holeShapeIds 穴（計測対象外）とする多角形のID（nullの場合は穴なし、計測範囲の外にはみ出すものは無視）
+     * @param spacing 測線の間隔（メートル）
+     * @param callback 完了コールバック（バックグラウンドスレッドで呼ばれる）
+     */
+    public void planSurveyLines(long areaShapeId, long[] holeShapeIds, double spacing, PlanCallback callback) {
+        executorService.execute(() -> {
+            SurveyLinePlanner.Plan plan = null;
+            long routeId = -1;
+            try {
+                DrawingShape area = drawingShapeDao.getById(areaShapeId);
+                if (area != null && DrawingShape.TYPE_POLYGON.equals(area.getShapeType())) {
+                    plan = planWithin(area, holeShapeIds, spacing);
+                    if (plan.getLineCount() > 0 && plan.getLineCount() <= MAX_ROUTE_LINES) {
+                        routeId = drawingShapeDao.replaceByName(createRouteShape(area, plan));
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                e.printStackTrace();
+            }
+            if (callback != null) {
+                callback.onPlanned(plan, routeId);
+            }
+        });
+    }
+
+    /**
+     * 計測範囲と穴の座標を展開して測線を計画
+     */
+    private SurveyLinePlanner.Plan planWithin(DrawingShape area, long[] holeShapeIds, double spacing) {
+        byte[] data = area.getCoordinates();
+        int count = CoordinateCodec.getPointCount(data);
+        double[] lats = new double[count];
+        double[] lngs = new double[count];
+        CoordinateCodec.decodePoints(data, lats, lngs);
+
+        List<double[]> holeLats = new ArrayList<>();
+        List<double[]> holeLngs = new ArrayList<>();
+        if (holeShapeIds != null) {
+            for (long holeShapeId : holeShapeIds) {
+                if (holeShapeId == area.getId()) {
+                    continue;
+                }
+                DrawingShape polygon = drawingShapeDao.getById(holeShapeId);
+                if (polygon == null || polygon.getMissionId() != area.getMissionId()
+                        || !DrawingShape.TYPE_POLYGON.equals(polygon.getShapeType())) {
+                    continue;
+                }
+                byte[] holeData = polygon.getCoordinates();
+                int holeCount = CoordinateCodec.getPointCount(holeData);
+                double[] hLats = new double[holeCount];
+                double[] hLngs = new double[holeCount];
+                CoordinateCodec.decodePoints(holeData, hLats, hLngs);
+                holeLats.add(hLats);
+                holeLngs.add(hLngs);
+            }
+        }
+        return SurveyLinePlanner.plan(lats, lngs, count,
+                holeLats.toArray(new double[0][]), holeLngs.toArray(new double[0][]), spacing);
+    }
+
+    /**
+     * 計画した測線を1本のポリラインの図形に変換（周囲長も計算）
+     */
+    private DrawingShape createRouteShape(DrawingShape area, SurveyLinePlanner.Plan plan) {
+        int lineCount = plan.getLineCount();
+        double[] lats = new double[lineCount * 2];
+        double[] lngs = new double[lineCount * 2];
+        for (int i = 0; i < lineCount; i++) {
+            lats[i * 2] = plan.getStartLat(i);
+            lngs[i * 2] = plan.getStartLng(i);
+            lats[i * 2 + 1] = plan.getEndLat(i);
+            lngs[i * 2 + 1] = plan.getEndLng(i);
+        }
+        DrawingShape route = new DrawingShape(area.getMissionId(), area.getName() + ROUTE_NAME_SUFFIX,
+                DrawingShape.TYPE_POLYLINE, CoordinateCodec.encodePoints(lats, lngs, lats.length));
+        route.setStrokeColor(area.getStrokeColor());
+        calculateAndSetMetrics(route);
+        return route;
+    }
+
     // ==================== 更新 ====================
 
     /**
@@ -107,17 +212,17 @@ public class DrawingShapeRepository {
      * シェイプの座標を更新
      * 
      * @param shapeId シェイプID
-     * @param coordinatesJson 座標JSON
+     * @param coordinates 座標データ（CoordinateCodec形式）
      */
-    public void updateCoordinates(long shapeId, String coordinatesJson) {
+    public void updateCoordinates(long shapeId, byte[] coordinates) {
         executorService.execute(() -> {
             DrawingShape shape = drawingShapeDao.getById(shapeId);
             if (shape != null) {
-                shape.setCoordinatesJson(coordinatesJson);
+                shape.setCoordinates(coordinates);
                 calculateAndSetMetrics(shape);
                 drawingShapeDao.updateCoordinates(
                         shapeId,
-                        coordinatesJson,
+                        coordinates,
                         shape.getArea(),
                         shape.getPerimeter(),
                         System.currentTimeMillis()
@@ -325,31 +430,42 @@ public class DrawingShapeRepository {
      * @param shape シェイプ
      */
     private void calculateAndSetMetrics(DrawingShape shape) {
-        switch (shape.getShapeType()) {
-            case DrawingShape.TYPE_POLYGON:
-                List<GeoPoint> polygonPoints = parseCoordinatesJson(shape.getCoordinatesJson());
-                if (polygonPoints.size() >= 3) {
-                    shape.setArea(GeoCalculator.calculatePolygonArea(polygonPoints));
-                    shape.setPerimeter(GeoCalculator.calculatePolygonPerimeter(polygonPoints));
+        try {
+            switch (shape.getShapeType()) {
+                case DrawingShape.TYPE_POLYGON: {
+                    byte[] data = shape.getCoordinates();
+                    int count = CoordinateCodec.getPointCount(data);
+                    if (count >= 3) {
+                        double[] lats = new double[count];
+                        double[] lngs = new double[count];
+                        CoordinateCodec.decodePoints(data, lats, lngs);
+                        shape.setArea(GeoCalculator.calculatePolygonArea(lats, lngs, count, METRICS_MODE));
+                        shape.setPerimeter(GeoCalculator.calculatePolygonPerimeter(lats, lngs, count, METRICS_MODE));
+                    }
+                    break;
                 }
-                break;
 
-            case DrawingShape.TYPE_POLYLINE:
-                List<GeoPoint> linePoints = parseCoordinatesJson(shape.getCoordinatesJson());
-                if (linePoints.size() >= 2) {
-                    shape.setArea(0.0);
-                    shape.setPerimeter(GeoCalculator.calculatePolylineLength(linePoints));
+                case DrawingShape.TYPE_POLYLINE: {
+                    byte[] data = shape.getCoordinates();
+                    int count = CoordinateCodec.getPointCount(data);
+                    if (count >= 2) {
+                        double[] lats = new double[count];
+                        double[] lngs = new double[count];
+                        CoordinateCodec.decodePoints(data, lats, lngs);
+                        shape.setArea(0.0);
+                        shape.setPerimeter(GeoCalculator.calculatePolylineLength(lats, lngs, count, METRICS_MODE));
+                    }
+                    break;
                 }
-                break;
 
-            case DrawingShape.TYPE_CIRCLE:
-                Object[] circleData = parseCircleJson(shape.getCoordinatesJson());
-                if (circleData != null) {
-                    double radius = (Double) circleData[1];
+                case DrawingShape.TYPE_CIRCLE:
+                    double radius = CoordinateCodec.decodeCircle(shape.getCoordinates())[2];
                     shape.setArea(GeoCalculator.calculateCircleArea(radius));
                     shape.setPerimeter(GeoCalculator.calculateCirclePerimeter(radius));
-                }
-                break;
+                    break;
+            }
+        } catch (IllegalArgumentException e) {
+            e.printStackTrace();
         }
     }
 
@@ -366,6 +482,19 @@ public class DrawingShapeRepository {
          */
         void onInserted(long id);
     }
+
+    /**
+     * 測線計画の完了コールバック
+     */
+    public interface PlanCallback {
+        /**
+         * 測線の計画・保存の完了時に呼ばれる
+         * 
+         * @param plan 計画結果（計測範囲が見つからない・多角形でない・間隔が不正な場合はnull）
+         * @param routeId 保存した測線ルートのID（測線がない・MAX_ROUTE_LINES本を超えるため保存しなかった場合は-1）
+         */
+        void onPlanned(SurveyLinePlanner.Plan plan, long routeId);
+    }
 }
 
 
@@ -0,0 +1,332 @@
+/**
+ * CoverageEngine.java
+ *
+ * VISIONOID MAG PLOTTER - 計測カバレッジ解析エンジン
+ *
+ * 概要:
+ *   作図した計測範囲（多角形のDrawingShape）に対して、計測ポイントから
+ *   被覆半径内に入った割合と未計測領域をバックグラウンドで計算し、通知する。
+ *
+ * 主な仕様:
+ *   - 計測範囲をグリッドにラスタ化（CoverageGrid）
+ *   - 計測ポイントは空間インデックス（PointSpatialIndex）に登録し、範囲・半径の変更時は全セルを判定
+ *   - ポイント追加時は新規ポイントの周囲のセルのみ判定（差分更新）
+ *   - 差分更新は先頭と処理済み末尾のポイントIDが前回と一致する場合のみ（別リストは全体を再計算）
+ *   - 未計測領域の外周は計測済みセルが増えた場合のみ作り直す
+ *
+ * 制限事項:
+ *   - ポイントが削除された場合は全体を再計算
+ *   - 先頭・末尾以外の入れ替えで件数が変わらない場合は検出しない
+ *   - 未計測領域は面積の大きい順にMAX_GAPS個まで
+ */
+package com.visionoid.magplotter.ui.map.coverage;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import com.visionoid.magplotter.data.model.DrawingShape;
+import com.visionoid.magplotter.data.model.MeasurementPoint;
+import com.visionoid.magplotter.ui.map.drawing.ShapeGeometry;
+import com.visionoid.magplotter.util.LocalProjection;
+import com.visionoid.magplotter.util.PointSpatialIndex;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 計測カバレッジ解析エンジンクラス
+ */
+public class CoverageEngine {
+
+    /** ログタグ */
+    private static final String TAG = "CoverageEngine";
+
+    /** 既定の被覆半径（メートル） */
+    public static final double DEFAULT_RADIUS = 2.0;
+
+    /** 通知する未計測領域の最大数 */
+    private static final int MAX_GAPS = 32;
+
+    /**
+     * カバレッジ更新リスナー（メインスレッドで呼ばれる）
+     */
+    public interface CoverageListener {
+        /**
+         * カバレッジが更新された
+         *
+         * @param result 集計結果
+         */
+        void onCoverageUpdated(@NonNull CoverageResult result);
+
+        /**
+         * 計測範囲が解除された
+         */
+        void onCoverageCleared();
+    }
+
+    /** 計算スレッド（状態はこのスレッドのみが操作する） */
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    /** メインスレッドハンドラー */
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /** リスナー */
+    @Nullable
+    private volatile CoverageListener listener;
+
+    // ==================== 計算スレッドの状態 ====================
+
+    private double radius;
+
+    @Nullable
+    private ShapeGeometry area;
+
+    private List<MeasurementPoint> currentPoints = Collections.emptyList();
+    private int processedCount = 0;
+
+    /** 処理済みの先頭・末尾のポイントID（同じリストの続きかの判定用） */
+    private long firstPointId;
+    private long lastPointId;
+
+    @Nullable
+    private CoverageGrid grid;
+
+    /** 直前に通知した結果（計測済みセルが増えない場合は通知を省く） */
+    @Nullable
+    private CoverageResult publishedResult;
+
+    /**
+     * コンストラクタ
+     */
+    public CoverageEngine() {
+        this(DEFAULT_RADIUS);
+    }
+
+    /**
+     * コンストラクタ
+     *
+     * @param radius 被覆半径（メートル）
+     */
+    public CoverageEngine(double radius) {
+        if (radius <= 0) {
+            throw new IllegalArgumentException("radius must be positive");
+        }
+        this.radius = radius;
+    }
+
+    public void setCoverageListener(@Nullable CoverageListener listener) {
+        this.listener = listener;
+    }
+
+    // ==================== 公開API ====================
+
+    /**
+     * 計測範囲を設定（全体を再計算）
+     *
+     * @param shape 計測範囲の図形（TYPE_POLYGON）。nullの場合は解除
+     * @throws IllegalArgumentException 多角形でない、または頂点が3点未満の場合
+     */
+    public void setArea(@Nullable DrawingShape shape) {
+        final ShapeGeometry geometry;
+        if (shape == null) {
+            geometry = null;
+        } else {
+            if (!DrawingShape.TYPE_POLYGON.equals(shape.getShapeType())) {
+                throw new IllegalArgumentException("coverage area must be a polygon");
+            }
+            geometry = ShapeGeometry.decode(shape);
+            if (!geometry.isDrawable()) {
+                throw new IllegalArgumentException("coverage area needs at least 3 points");
+            }
+        }
+        executor.execute(() -> {
+            area = geometry;
+            try {
+                rebuild();
+            } catch (Exception e) {
+                Log.e(TAG, "カバレッジの計算に失敗", e);
+            }
+        });
+    }
+
+    /**
+     * 被覆半径を変更（全体を再計算）
+     *
+     * 計測範囲が未設定の場合は半径のみ更新し、次のsetAreaで使用する。
+     *
+     * @param newRadius 被覆半径（メートル）
+     */
+    public void setRadius(double newRadius) {
+        if (newRadius <= 0) {
+            throw new IllegalArgumentException("radius must be positive");
+        }
+        executor.execute(() -> {
+            if (radius == newRadius) {
+                return;
+            }
+            radius = newRadius;
+            if (area == null) {
+                return;
+            }
+            try {
+                rebuild();
+            } catch (Exception e) {
+                Log.e(TAG, "カバレッジの再計算に失敗", e);
+            }
+        });
+    }
+
+    /**
+     * 計測ポイントを投入
+     *
+     * 前回の続き（先頭と処理済み末尾のポイントが同じ）なら増えた分のみ差分更新する。
+     * 減った場合や別のリストの場合は全体を再計算する。
+     *
+     * @param points 計測ポイント（タイムスタンプ順、呼び出し後に変更しないこと）
+     */
+    public void submitPoints(@Nullable List<MeasurementPoint> points) {
+        final List<MeasurementPoint> snapshot = points != null ? points : Collections.emptyList();
+        executor.execute(() -> {
+            try {
+                process(snapshot);
+            } catch (Exception e) {
+                Log.e(TAG, "カバレッジの計算に失敗", e);
+            }
+        });
+    }
+
+    /**
+     * リソースを解放
+     */
+    public void shutdown() {
+        listener = null;
+        executor.shutdownNow();
+    }
+
+    // ==================== 計算処理 ====================
+
+    /**
+     * 投入されたポイントを処理
+     */
+    @WorkerThread
+    private void process(@NonNull List<MeasurementPoint> points) {
+        boolean rebuildNeeded = !continuesProcessed(points);
+        currentPoints = points;
+        if (grid == null) {
+            return;
+        }
+        if (rebuildNeeded) {
+            rebuild();
+            return;
+        }
+        if (points.size() == processedCount) {
+            return;
+        }
+        update(points);
+    }
+
+    /**
+     * 処理済みのポイントの続きか判定
+     */
+    @WorkerThread
+    private boolean continuesProcessed(@NonNull List<MeasurementPoint> points) {
+        if (processedCount == 0) {
+            return true;
+        }
+        if (points.size() < processedCount) {
+            return false;
+        }
+        return points.get(0).getId() == firstPointId
+                && points.get(processedCount - 1).getId() == lastPointId;
+    }
+
+    /**
+     * 処理済みのポイント数と先頭・末尾のIDを記録
+     */
+    @WorkerThread
+    private void markProcessed(@NonNull List<MeasurementPoint> points) {
+        processedCount = points.size();
+        if (processedCount > 0) {
+            firstPointId = points.get(0).getId();
+            lastPointId = points.get(processedCount - 1).getId();
+        }
+    }
+
+    /**
+     * 計測範囲のグリッドを作り直し、全ポイントで判定
+     */
+    @WorkerThread
+    private void rebuild() {
+        markProcessed(currentPoints);
+        publishedResult = null;
+        if (area == null) {
+            grid = null;
+            mainHandler.post(() -> {
+                CoverageListener l = listener;
+                if (l != null) {
+                    l.onCoverageCleared();
+                }
+            });
+            return;
+        }
+        long start = System.currentTimeMillis();
+        grid = CoverageGrid.build(area, radius);
+        LocalProjection projection = grid.getProjection();
+        PointSpatialIndex index = new PointSpatialIndex(radius);
+        for (MeasurementPoint point : currentPoints) {
+            index.add(projection.toX(point.getLongitude()), projection.toY(point.getLatitude()), 0f);
+        }
+        grid.coverAll(index, radius);
+        Log.d(TAG, "カバレッジを全体計算: cells=" + grid.getCellCount() + ", points=" + processedCount
+                + ", " + (System.currentTimeMillis() - start) + "ms");
+        publish();
+    }
+
+    /**
+     * 追加ポイントの周囲のセルのみ判定
+     */
+    @WorkerThread
+    private void update(@NonNull List<MeasurementPoint> points) {
+        long start = System.currentTimeMillis();
+        LocalProjection projection = grid.getProjection();
+        int covered = 0;
+        for (int i = processedCount; i < points.size(); i++) {
+            MeasurementPoint point = points.get(i);
+            double x = projection.toX(point.getLongitude());
+            double y = projection.toY(point.getLatitude());
+            covered += grid.cover(x, y, radius);
+        }
+        int added = points.size() - processedCount;
+        markProcessed(points);
+        if (covered == 0 && publishedResult != null) {
+            return;
+        }
+        Log.d(TAG, "カバレッジを差分計算: +" + added + " points, cells=" + covered
+                + ", " + (System.currentTimeMillis() - start) + "ms");
+        publish();
+    }
+
+    /**
+     * 集計結果をメインスレッドへ通知
+     */
+    @WorkerThread
+    private void publish() {
+        final CoverageResult result = new CoverageResult(area.getShapeId(), radius, grid.getCellSize(),
+                grid.getCellCount(), grid.getCoveredCount(),
+                Collections.unmodifiableList(grid.extractGaps(MAX_GAPS)));
+        publishedResult = result;
+        mainHandler.post(() -> {
+            CoverageListener l = listener;
+            if (l != null) {
+                l.onCoverageUpdated(result);
+            }
+        });
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * CoverageGap.java
+ *
+ * VISIONOID MAG PLOTTER - 未計測領域
+ *
+ * 概要:
+ *   計測範囲（多角形）のうち、計測ポイントから被覆半径内に入っていない
+ *   ひとまとまりの領域（隣接する未計測セルの集まり）の外周と穴。
+ *
+ * 主な仕様:
+ *   - 外周・穴はセル境界に沿った輪を簡略化した緯度経度の頂点列（始点と終点が一致する）
+ *   - 穴は領域内の計測済みの島（外周は反時計回り、穴は時計回り）
+ *   - 面積は未計測セル数×セル面積（穴は含まない）
+ *
+ * 制限事項:
+ *   - 座標配列はコピーせず共有するため、呼び出し側で変更しないこと
+ *   - 簡略化で三角形未満になる小さな穴（1セル程度）は省く
+ */
+package com.visionoid.magplotter.ui.map.coverage;
+
+import androidx.annotation.NonNull;
+
+/**
+ * 未計測領域クラス（不変）
+ */
+public final class CoverageGap {
+
+    /** 緯度 */
+    private final double[] latitudes;
+
+    /** 経度 */
+    private final double[] longitudes;
+
+    /** 穴の緯度 */
+    private final double[][] holeLatitudes;
+
+    /** 穴の経度 */
+    private final double[][] holeLongitudes;
+
+    /** 面積（平方メートル） */
+    private final double area;
+
+    /**
+     * コンストラクタ
+     */
+    CoverageGap(@NonNull double[] latitudes, @NonNull double[] longitudes,
+                @NonNull double[][] holeLatitudes, @NonNull double[][] holeLongitudes, double area) {
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.holeLatitudes = holeLatitudes;
+        this.holeLongitudes = holeLongitudes;
+        this.area = area;
+    }
+
+    public int getPointCount() {
+        return latitudes.length;
+    }
+
+    public double getLatitude(int index) {
+        return latitudes[index];
+    }
+
+    public double getLongitude(int index) {
+        return longitudes[index];
+    }
+
+    public int getHoleCount() {
+        return holeLatitudes.length;
+    }
+
+    public int getHolePointCount(int hole) {
+        return holeLatitudes[hole].length;
+    }
+
+    public double getHoleLatitude(int hole, int index) {
+        return holeLatitudes[hole][index];
+    }
+
+    public double getHoleLongitude(int hole, int index) {
+        return holeLongitudes[hole][index];
+    }
+
+    /**
+     * 面積を取得
+     *
+     * @return 面積（平方メートル）
+     */
+    public double getArea() {
+        return area;
+    }
+}
@@ -0,0 +1,520 @@
+/**
+ * CoverageGrid.java
+ *
+ * VISIONOID MAG PLOTTER - 計測カバレッジのグリッド
+ *
+ * 概要:
+ *   計測範囲（多角形）をローカル平面座標（メートル）の規則格子にラスタ化し、
+ *   セルごとに範囲外・未計測・計測済みの状態を保持する。
+ *
+ * 主な仕様:
+ *   - セル中心が多角形の内側にあるセルを範囲内とする（走査線法、交差のX座標をCSR形式で行ごとに格納）
+ *   - 全体判定: 範囲内の未計測セルごとに空間インデックス（PointSpatialIndex）で被覆半径内の点を検索
+ *   - 差分判定: 追加された点ごとに被覆半径の円内のセルだけを計測済みにする
+ *   - 未計測セルを4近傍で連結した領域ごとに、セル境界に沿って外周と穴（計測済みの島）を辿り簡略化する
+ *   - 行0が南端、列0が西端
+ *
+ * 制限事項:
+ *   - グリッドの一辺は最大MAX_GRID_DIMENSIONセル（広い範囲ではセルが粗くなる）
+ *   - ローカル平面近似のため数km程度までの範囲を前提
+ *   - インスタンスはスレッドセーフではない
+ */
+package com.visionoid.magplotter.ui.map.coverage;
+
+import androidx.annotation.NonNull;
+
+import com.visionoid.magplotter.ui.map.drawing.ShapeGeometry;
+import com.visionoid.magplotter.util.LineSimplifier;
+import com.visionoid.magplotter.util.LocalProjection;
+import com.visionoid.magplotter.util.PointSpatialIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 計測カバレッジのグリッドクラス
+ */
+final class CoverageGrid {
+
+    /** グリッドの一辺の最大セル数 */
+    private static final int MAX_GRID_DIMENSION = 512;
+
+    /** セルの最小サイズ（メートル） */
+    private static final double MIN_CELL_SIZE = 0.25;
+
+    /** 被覆半径あたりのセル数（セルサイズの目安） */
+    private static final int CELLS_PER_RADIUS = 2;
+
+    /** 外周の簡略化の許容誤差（セルサイズに対する比率） */
+    private static final double GAP_TOLERANCE_RATIO = 0.5;
+
+    // セルの状態
+    private static final byte OUTSIDE = 0;
+    private static final byte UNCOVERED = 1;
+    private static final byte COVERED = 2;
+
+    // 外周を辿る方向（東・北・西・南、+1で左折）
+    private static final int EAST = 0;
+    private static final int NORTH = 1;
+    private static final int WEST = 2;
+    private static final int SOUTH = 3;
+
+    /** 分岐での方向の優先順（左折・直進・右折） */
+    private static final int[] TURN_ORDER = {1, 0, 3};
+
+    /** 簡略化後に穴として残す最小の頂点数（閉じた三角形） */
+    private static final int MIN_RING_POINTS = 4;
+
+    /** 計測範囲の中心を原点とする平面投影 */
+    @NonNull
+    private final LocalProjection projection;
+
+    /** 西端X・南端Y（メートル） */
+    private final double originX;
+    private final double originY;
+
+    /** セルの一辺（メートル） */
+    private final double cellSize;
+
+    /** 行数・列数 */
+    private final int rows;
+    private final int cols;
+
+    /** セルの状態（行優先） */
+    @NonNull
+    private final byte[] states;
+
+    /** 範囲内のセル数 */
+    private final int cellCount;
+
+    /** 計測済みセル数 */
+    private int coveredCount;
+
+    private CoverageGrid(@NonNull LocalProjection projection, double originX, double originY,
+                         double cellSize, int rows, int cols, @NonNull byte[] states, int cellCount) {
+        this.projection = projection;
+        this.originX = originX;
+        this.originY = originY;
+        this.cellSize = cellSize;
+        this.rows = rows;
+        this.cols = cols;
+        this.states = states;
+        this.cellCount = cellCount;
+    }
+
+    /**
+     * 多角形をラスタ化して構築（全セル未計測）
+     *
+     * @param polygon 展開済み座標（多角形、3点以上）
+     * @param radius 被覆半径（メートル）
+     * @return グリッド
+     */
+    @NonNull
+    static CoverageGrid build(@NonNull ShapeGeometry polygon, double radius) {
+        LocalProjection projection = new LocalProjection(polygon.getCenterLat(), polygon.getCenterLng());
+        int count = polygon.getPointCount();
+        double[] xs = new double[count];
+        double[] ys = new double[count];
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            xs[i] = projection.toX(polygon.getLng(i));
+            ys[i] = projection.toY(polygon.getLat(i));
+            minX = Math.min(minX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxX = Math.max(maxX, xs[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+
+        double extent = Math.max(maxX - minX, maxY - minY);
+        double cellSize = Math.max(MIN_CELL_SIZE,
+                Math.max(radius / CELLS_PER_RADIUS, extent / MAX_GRID_DIMENSION));
+        int cols = Math.max(1, Math.min(MAX_GRID_DIMENSION, (int) Math.ceil((maxX - minX) / cellSize)));
+        int rows = Math.max(1, Math.min(MAX_GRID_DIMENSION, (int) Math.ceil((maxY - minY) / cellSize)));
+
+        byte[] states = new byte[rows * cols];
+        int cellCount = rasterize(xs, ys, count, minX, minY, cellSize, rows, cols, states);
+        return new CoverageGrid(projection, minX, minY, cellSize, rows, cols, states, cellCount);
+    }
+
+    // ==================== 参照 ====================
+
+    @NonNull
+    LocalProjection getProjection() {
+        return projection;
+    }
+
+    double getCellSize() {
+        return cellSize;
+    }
+
+    int getCellCount() {
+        return cellCount;
+    }
+
+    int getCoveredCount() {
+        return coveredCount;
+    }
+
+    // ==================== 計測済みの判定 ====================
+
+    /**
+     * 範囲内の全ての未計測セルを空間インデックスで判定
+     *
+     * @param index 計測ポイントの空間インデックス（このグリッドの投影の座標）
+     * @param radius 被覆半径（メートル）
+     * @return 新たに計測済みになったセル数
+     */
+    int coverAll(@NonNull PointSpatialIndex index, double radius) {
+        int covered = 0;
+        for (int row = 0; row < rows; row++) {
+            double y = cellCenterY(row);
+            int offset = row * cols;
+            for (int col = 0; col < cols; col++) {
+                if (states[offset + col] == UNCOVERED && index.hasPointWithin(cellCenterX(col), y, radius)) {
+                    states[offset + col] = COVERED;
+                    covered++;
+                }
+            }
+        }
+        coveredCount += covered;
+        return covered;
+    }
+
+    /**
+     * 点の被覆半径の円内にあるセルを計測済みにする
+     *
+     * @param x 点のX（メートル）
+     * @param y 点のY（メートル）
+     * @param radius 被覆半径（メートル）
+     * @return 新たに計測済みになったセル数
+     */
+    int cover(double x, double y, double radius) {
+        int rowStart = Math.max(0, centerIndexAtOrAbove(y - radius - originY));
+        int rowEnd = Math.min(rows, centerIndexAtOrAbove(y + radius - originY + cellSize * 1e-9));
+        if (rowStart >= rowEnd) {
+            return 0;
+        }
+        double radiusSq = radius * radius;
+        int covered = 0;
+        for (int row = rowStart; row < rowEnd; row++) {
+            double dy = cellCenterY(row) - y;
+            double halfWidth = Math.sqrt(Math.max(0, radiusSq - dy * dy));
+            int colStart = Math.max(0, centerIndexAtOrAbove(x - halfWidth - originX));
+            int colEnd = Math.min(cols, centerIndexAtOrAbove(x + halfWidth - originX + cellSize * 1e-9));
+            int offset = row * cols;
+            for (int col = colStart; col < colEnd; col++) {
+                if (states[offset + col] == UNCOVERED) {
+                    states[offset + col] = COVERED;
+                    covered++;
+                }
+            }
+        }
+        coveredCount += covered;
+        return covered;
+    }
+
+    // ==================== 未計測領域 ====================
+
+    /**
+     * 未計測領域の外周と穴を抽出
+     *
+     * @param maxGaps 出力する最大数（面積の大きい順）
+     * @return 未計測領域リスト
+     */
+    @NonNull
+    List<CoverageGap> extractGaps(int maxGaps) {
+        List<CoverageGap> gaps = new ArrayList<>();
+        if (coveredCount == cellCount || maxGaps <= 0) {
+            return gaps;
+        }
+        // 領域番号（0=未割当）と領域ごとのセル数・開始セル
+        int[] labels = new int[rows * cols];
+        int[] stack = new int[64];
+        int[] sizes = new int[16];
+        int[] starts = new int[16];
+        int componentCount = 0;
+
+        for (int cell = 0; cell < states.length; cell++) {
+            if (states[cell] != UNCOVERED || labels[cell] != 0) {
+                continue;
+            }
+            int label = ++componentCount;
+            if (label == sizes.length) {
+                sizes = Arrays.copyOf(sizes, label * 2);
+                starts = Arrays.copyOf(starts, label * 2);
+            }
+            // 行優先で最初に見つかったセル（最も南・西）の下辺は必ず外周上にある
+            starts[label] = cell;
+            labels[cell] = label;
+            int top = 0;
+            stack[top++] = cell;
+            int size = 0;
+            while (top > 0) {
+                int current = stack[--top];
+                size++;
+                int row = current / cols;
+                int col = current % cols;
+                if (stack.length < top + 4) {
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                }
+                if (col > 0 && visit(labels, current - 1, label)) stack[top++] = current - 1;
+                if (col < cols - 1 && visit(labels, current + 1, label)) stack[top++] = current + 1;
+                if (row > 0 && visit(labels, current - cols, label)) stack[top++] = current - cols;
+                if (row < rows - 1 && visit(labels, current + cols, label)) stack[top++] = current + cols;
+            }
+            sizes[label] = size;
+        }
+
+        // 面積の大きい順に外周を辿る
+        Integer[] order = new Integer[componentCount];
+        for (int i = 0; i < componentCount; i++) {
+            order[i] = i + 1;
+        }
+        final int[] componentSizes = sizes;
+        Arrays.sort(order, (a, b) -> Integer.compare(componentSizes[b], componentSizes[a]));
+        int outputCount = Math.min(maxGaps, componentCount);
+        // 辿った東向きの格子辺（セルの下辺、セル番号で管理）
+        boolean[] traced = new boolean[rows * cols];
+        int[] outputIndex = new int[componentCount + 1];
+        Arrays.fill(outputIndex, -1);
+        List<double[][]> outlines = new ArrayList<>(outputCount);
+        List<List<double[][]>> holes = new ArrayList<>(outputCount);
+        for (int i = 0; i < outputCount; i++) {
+            int label = order[i];
+            outputIndex[label] = i;
+            int start = starts[label];
+            outlines.add(traceRing(labels, label, start / cols, start % cols, traced));
+            holes.add(new ArrayList<>());
+        }
+
+        // 外周で辿らなかった下辺の境界は、領域内の穴（計測済みの島）の輪に属する
+        for (int cell = 0; cell < states.length; cell++) {
+            int label = labels[cell];
+            if (label == 0 || traced[cell] || outputIndex[label] < 0) {
+                continue;
+            }
+            int row = cell / cols;
+            int col = cell % cols;
+            if (inRegion(labels, label, row - 1, col)) {
+                continue;
+            }
+            double[][] hole = traceRing(labels, label, row, col, traced);
+            if (hole[0].length >= MIN_RING_POINTS) {
+                holes.get(outputIndex[label]).add(hole);
+            }
+        }
+
+        double cellArea = cellSize * cellSize;
+        for (int i = 0; i < outputCount; i++) {
+            int label = order[i];
+            double[][] outline = outlines.get(i);
+            List<double[][]> gapHoles = holes.get(i);
+            double[][] holeLats = new double[gapHoles.size()][];
+            double[][] holeLngs = new double[gapHoles.size()][];
+            for (int h = 0; h < holeLats.length; h++) {
+                holeLats[h] = gapHoles.get(h)[0];
+                holeLngs[h] = gapHoles.get(h)[1];
+            }
+            gaps.add(new CoverageGap(outline[0], outline[1], holeLats, holeLngs, sizes[label] * cellArea));
+        }
+        return gaps;
+    }
+
+    // ==================== 内部処理 ====================
+
+    /**
+     * 走査線法で多角形の内側のセルに印を付ける
+     *
+     * @return 範囲内のセル数
+     */
+    private static int rasterize(double[] xs, double[] ys, int count, double originX, double originY,
+                                 double cellSize, int rows, int cols, byte[] states) {
+        // 行ごとの交差数を数えてから詰める（CSR形式）
+        int[] starts = new int[rows + 1];
+        for (int i = 0; i < count; i++) {
+            int j = i + 1 < count ? i + 1 : 0;
+            int first = rowAtOrAbove(Math.min(ys[i], ys[j]), originY, cellSize, rows);
+            int last = rowAtOrAbove(Math.max(ys[i], ys[j]), originY, cellSize, rows);
+            for (int row = first; row < last; row++) {
+                starts[row + 1]++;
+            }
+        }
+        for (int row = 0; row < rows; row++) {
+            starts[row + 1] += starts[row];
+        }
+        double[] crossings = new double[starts[rows]];
+        int[] fill = new int[rows];
+        for (int i = 0; i < count; i++) {
+            int j = i + 1 < count ? i + 1 : 0;
+            // セル中心のYがmin <= y < maxの範囲の行と交差（頂点の二重計上を防ぐ）
+            int first = rowAtOrAbove(Math.min(ys[i], ys[j]), originY, cellSize, rows);
+            int last = rowAtOrAbove(Math.max(ys[i], ys[j]), originY, cellSize, rows);
+            for (int row = first; row < last; row++) {
+                double y = originY + (row + 0.5) * cellSize;
+                double x = xs[i] + (xs[j] - xs[i]) * (y - ys[i]) / (ys[j] - ys[i]);
+                crossings[starts[row] + fill[row]++] = x;
+            }
+        }
+
+        int cellCount = 0;
+        for (int row = 0; row < rows; row++) {
+            int from = starts[row];
+            int to = starts[row + 1];
+            Arrays.sort(crossings, from, to);
+            int offset = row * cols;
+            for (int k = from; k + 1 < to; k += 2) {
+                int colStart = Math.max(0, (int) Math.ceil((crossings[k] - originX) / cellSize - 0.5));
+                int colEnd = Math.min(cols, (int) Math.ceil((crossings[k + 1] - originX) / cellSize - 0.5));
+                for (int col = colStart; col < colEnd; col++) {
+                    states[offset + col] = UNCOVERED;
+                }
+                cellCount += Math.max(0, colEnd - colStart);
+            }
+        }
+        return cellCount;
+    }
+
+    /**
+     * セル中心のYがy以上になる最初の行（0〜rows）
+     */
+    private static int rowAtOrAbove(double y, double originY, double cellSize, int rows) {
+        int row = (int) Math.ceil((y - originY) / cellSize - 0.5);
+        return Math.max(0, Math.min(rows, row));
+    }
+
+    /**
+     * 原点からの距離dに対して、セル中心がd以上になる最初のセル番号（範囲外も返す）
+     */
+    private int centerIndexAtOrAbove(double d) {
+        return (int) Math.ceil(d / cellSize - 0.5);
+    }
+
+    private double cellCenterX(int col) {
+        return originX + (col + 0.5) * cellSize;
+    }
+
+    private double cellCenterY(int row) {
+        return originY + (row + 0.5) * cellSize;
+    }
+
+    /**
+     * 未計測かつ未割当のセルに領域番号を付ける
+     *
+     * @return 番号を付けた場合true
+     */
+    private boolean visit(int[] labels, int cell, int label) {
+        if (states[cell] != UNCOVERED || labels[cell] != 0) {
+            return false;
+        }
+        labels[cell] = label;
+        return true;
+    }
+
+    /**
+     * 領域の境界の輪をセル境界に沿って辿る
+     *
+     * 領域を左手に見ながら進み（外周は反時計回り、穴は時計回り）、分岐では左折を優先する
+     * （斜めに接するだけのセルを同じ輪に含めない＝4近傍の連結と一致）。
+     * 始点の格子点を2度通る輪があるため、始点から東向きの辺に戻った時点で閉じる。
+     *
+     * @param labels 領域番号
+     * @param label 対象の領域番号
+     * @param startRow 始点のセルの行（下辺が境界であること）
+     * @param startCol 始点のセルの列
+     * @param traced 辿った東向きの格子辺（セルの下辺）の印（更新される）
+     * @return [0]: 緯度, [1]: 経度（簡略化済み、始点と終点が一致）
+     */
+    @NonNull
+    private double[][] traceRing(int[] labels, int label, int startRow, int startCol, boolean[] traced) {
+        double[] xs = new double[64];
+        double[] ys = new double[64];
+        int length = 0;
+
+        int row = startRow;
+        int col = startCol;
+        int direction = EAST;
+        while (true) {
+            int next = -1;
+            for (int turn : TURN_ORDER) {
+                int candidate = (direction + turn) & 3;
+                if (isBoundary(labels, label, row, col, candidate)) {
+                    next = candidate;
+                    break;
+                }
+            }
+            if (next < 0 || (length > 0 && next == EAST && row == startRow && col == startCol)) {
+                break;
+            }
+            // 向きが変わる格子点（角）だけを頂点にする
+            if (next != direction || length == 0) {
+                if (length == xs.length) {
+                    xs = Arrays.copyOf(xs, length * 2);
+                    ys = Arrays.copyOf(ys, length * 2);
+                }
+                xs[length] = originX + col * cellSize;
+                ys[length] = originY + row * cellSize;
+                length++;
+            }
+            direction = next;
+            switch (direction) {
+                case EAST:
+                    traced[row * cols + col] = true;
+                    col++;
+                    break;
+                case NORTH:
+                    row++;
+                    break;
+                case WEST:
+                    col--;
+                    break;
+                default:
+                    row--;
+                    break;
+            }
+        }
+
+        // 始点で閉じてから簡略化
+        if (length + 1 > xs.length) {
+            xs = Arrays.copyOf(xs, length + 1);
+            ys = Arrays.copyOf(ys, length + 1);
+        }
+        xs[length] = xs[0];
+        ys[length] = ys[0];
+        length++;
+        double[] outXs = new double[length];
+        double[] outYs = new double[length];
+        int count = LineSimplifier.simplify(xs, ys, length, cellSize * GAP_TOLERANCE_RATIO, outXs, outYs);
+
+        double[] lats = new double[count];
+        double[] lngs = new double[count];
+        for (int i = 0; i < count; i++) {
+            lats[i] = projection.toLat(outYs[i]);
+            lngs[i] = projection.toLng(outXs[i]);
+        }
+        return new double[][]{lats, lngs};
+    }
+
+    /**
+     * 格子点(row, col)から指定方向の格子辺が、領域を左手に見る外周か判定
+     */
+    private boolean isBoundary(int[] labels, int label, int row, int col, int direction) {
+        switch (direction) {
+            case EAST:
+                return inRegion(labels, label, row, col) && !inRegion(labels, label, row - 1, col);
+            case NORTH:
+                return inRegion(labels, label, row, col - 1) && !inRegion(labels, label, row, col);
+            case WEST:
+                return inRegion(labels, label, row - 1, col - 1) && !inRegion(labels, label, row, col - 1);
+            default:
+                return inRegion(labels, label, row - 1, col) && !inRegion(labels, label, row - 1, col - 1);
+        }
+    }
+
+    private boolean inRegion(int[] labels, int label, int row, int col) {
+        return row >= 0 && row < rows && col >= 0 && col < cols && labels[row * cols + col] == label;
+    }
+}
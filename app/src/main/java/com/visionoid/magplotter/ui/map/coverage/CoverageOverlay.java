@@ -0,0 +1,247 @@
+/**
+ * CoverageOverlay.java
+ *
+ * VISIONOID MAG PLOTTER - 計測カバレッジオーバーレイ
+ *
+ * 概要:
+ *   計測範囲の外周と未計測領域（CoverageGap）を地図上に描画し、
+ *   計測範囲の中心にカバレッジ率をラベル表示するオーバーレイ。
+ *
+ * 主な仕様:
+ *   - 計測範囲は外周線のみ、未計測領域は半透明の危険色で塗りつぶす
+ *   - 未計測領域の穴（計測済みの島）は偶奇規則で抜く
+ *   - ラベルは等値線オーバーレイ（ContourOverlay）と同じ体裁
+ *   - 描画用のPath/Point/Rectは再利用
+ *
+ * 制限事項:
+ *   - 結果は計測範囲と同じ図形IDのもののみ表示する
+ */
+package com.visionoid.magplotter.ui.map.coverage;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Point;
+import android.graphics.Rect;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+
+import com.visionoid.magplotter.R;
+import com.visionoid.magplotter.ui.map.debug.VertexCountSource;
+import com.visionoid.magplotter.ui.map.drawing.ShapeGeometry;
+
+import org.osmdroid.util.GeoPoint;
+import org.osmdroid.views.MapView;
+import org.osmdroid.views.Projection;
+import org.osmdroid.views.overlay.Overlay;
+
+import java.util.Locale;
+
+/**
+ * 計測カバレッジオーバーレイクラス
+ */
+public class CoverageOverlay extends Overlay implements VertexCountSource {
+
+    /** 線の幅（px） */
+    private static final float LINE_WIDTH = 4f;
+
+    /** 未計測領域の塗りの不透明度（0〜255） */
+    private static final int GAP_FILL_ALPHA = 0x60;
+
+    /** 計測範囲 */
+    @Nullable
+    private ShapeGeometry area;
+
+    /** 表示する結果 */
+    @Nullable
+    private CoverageResult result;
+
+    // ==================== ペイント ====================
+
+    /** 計測範囲の外周 */
+    private final Paint areaPaint;
+
+    /** 未計測領域の塗り */
+    private final Paint gapFillPaint;
+
+    /** 未計測領域の外周 */
+    private final Paint gapLinePaint;
+
+    /** ラベルテキスト */
+    private final Paint textPaint;
+
+    /** ラベル背景 */
+    private final Paint textBgPaint;
+
+    /** 直前の描画で処理した頂点数（描画計測用） */
+    private int drawnVertexCount = 0;
+
+    // 描画時の再利用オブジェクト
+    private final Path path = new Path();
+    private final GeoPoint geoPoint = new GeoPoint(0.0, 0.0);
+    private final Point screenPoint = new Point();
+    private final Rect textBounds = new Rect();
+
+    /**
+     * コンストラクタ
+     *
+     * @param context コンテキスト
+     */
+    public CoverageOverlay(@NonNull Context context) {
+        int dangerColor = ContextCompat.getColor(context, R.color.status_danger);
+
+        areaPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        areaPaint.setColor(ContextCompat.getColor(context, R.color.accent_cyan));
+        areaPaint.setStrokeWidth(LINE_WIDTH);
+        areaPaint.setStyle(Paint.Style.STROKE);
+        areaPaint.setStrokeJoin(Paint.Join.ROUND);
+
+        gapFillPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        gapFillPaint.setColor(dangerColor);
+        gapFillPaint.setAlpha(GAP_FILL_ALPHA);
+        gapFillPaint.setStyle(Paint.Style.FILL);
+
+        gapLinePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        gapLinePaint.setColor(dangerColor);
+        gapLinePaint.setStrokeWidth(LINE_WIDTH / 2);
+        gapLinePaint.setStyle(Paint.Style.STROKE);
+        gapLinePaint.setStrokeJoin(Paint.Join.ROUND);
+
+        textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        textPaint.setColor(Color.WHITE);
+        textPaint.setTextSize(28f);
+        textPaint.setTextAlign(Paint.Align.CENTER);
+
+        textBgPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        textBgPaint.setColor(0xCC000000);
+        textBgPaint.setStyle(Paint.Style.FILL);
+
+        path.setFillType(Path.FillType.EVEN_ODD);
+    }
+
+    /**
+     * 計測範囲を設定（結果はクリア）
+     *
+     * @param area 計測範囲の展開済み座標。nullの場合は非表示
+     */
+    public void setArea(@Nullable ShapeGeometry area) {
+        this.area = area;
+        this.result = null;
+    }
+
+    /**
+     * 結果を設定
+     *
+     * @param result 集計結果（計測範囲と図形IDが異なる場合は無視）
+     */
+    public void setResult(@NonNull CoverageResult result) {
+        if (area != null && area.getShapeId() == result.getShapeId()) {
+            this.result = result;
+        }
+    }
+
+    /**
+     * 計測範囲と結果をクリア
+     */
+    public void clear() {
+        area = null;
+        result = null;
+    }
+
+    // ==================== 描画 ====================
+
+    @Override
+    public int getDrawnVertexCount() {
+        return drawnVertexCount;
+    }
+
+    @Override
+    public void draw(Canvas canvas, MapView mapView, boolean shadow) {
+        if (shadow) {
+            return;
+        }
+        drawnVertexCount = 0;
+        ShapeGeometry currentArea = area;
+        if (currentArea == null) {
+            return;
+        }
+        Projection projection = mapView.getProjection();
+        CoverageResult currentResult = result;
+
+        // 未計測領域（外周と穴を1つのPathにまとめて偶奇規則で塗る）
+        if (currentResult != null) {
+            for (CoverageGap gap : currentResult.getGaps()) {
+                path.rewind();
+                int count = gap.getPointCount();
+                drawnVertexCount += count;
+                for (int i = 0; i < count; i++) {
+                    toPixels(projection, gap.getLatitude(i), gap.getLongitude(i));
+                    addPoint(i);
+                }
+                path.close();
+                for (int h = 0; h < gap.getHoleCount(); h++) {
+                    int holeCount = gap.getHolePointCount(h);
+                    drawnVertexCount += holeCount;
+                    for (int i = 0; i < holeCount; i++) {
+                        toPixels(projection, gap.getHoleLatitude(h, i), gap.getHoleLongitude(h, i));
+                        addPoint(i);
+                    }
+                    path.close();
+                }
+                canvas.drawPath(path, gapFillPaint);
+                canvas.drawPath(path, gapLinePaint);
+            }
+        }
+
+        // 計測範囲の外周
+        path.rewind();
+        int count = currentArea.getPointCount();
+        drawnVertexCount += count;
+        for (int i = 0; i < count; i++) {
+            toPixels(projection, currentArea.getLat(i), currentArea.getLng(i));
+            addPoint(i);
+        }
+        path.close();
+        canvas.drawPath(path, areaPaint);
+
+        // カバレッジ率のラベル
+        if (currentResult != null) {
+            toPixels(projection, currentArea.getCenterLat(), currentArea.getCenterLng());
+            drawLabel(canvas, screenPoint,
+                    String.format(Locale.US, "%.1f%%", currentResult.getCoveragePercent()));
+        }
+    }
+
+    private void toPixels(Projection projection, double lat, double lng) {
+        geoPoint.setCoords(lat, lng);
+        projection.toPixels(geoPoint, screenPoint);
+    }
+
+    private void addPoint(int index) {
+        if (index == 0) {
+            path.moveTo(screenPoint.x, screenPoint.y);
+        } else {
+            path.lineTo(screenPoint.x, screenPoint.y);
+        }
+    }
+
+    /**
+     * ラベルを描画
+     */
+    private void drawLabel(Canvas canvas, Point point, String text) {
+        textPaint.getTextBounds(text, 0, text.length(), textBounds);
+
+        int padding = 8;
+        int bgLeft = point.x - textBounds.width() / 2 - padding;
+        int bgTop = point.y - textBounds.height() - padding;
+        int bgRight = point.x + textBounds.width() / 2 + padding;
+        int bgBottom = point.y + padding;
+
+        canvas.drawRoundRect(bgLeft, bgTop, bgRight, bgBottom, 8, 8, textBgPaint);
+        canvas.drawText(text, point.x, point.y, textPaint);
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * CoverageResult.java
+ *
+ * VISIONOID MAG PLOTTER - 計測カバレッジの結果
+ *
+ * 概要:
+ *   計測範囲（多角形）に対する計測カバレッジの集計結果。
+ *   CoverageEngineが更新のたびに生成してメインスレッドへ通知する。
+ *
+ * 主な仕様:
+ *   - 範囲内のセル数・計測済みセル数とその比率
+ *   - 未計測領域（CoverageGap）は面積の大きい順
+ *
+ * 制限事項:
+ *   - 比率はセル中心で判定した近似値（セルサイズ程度の誤差を含む）
+ */
+package com.visionoid.magplotter.ui.map.coverage;
+
+import androidx.annotation.NonNull;
+
+import java.util.List;
+
+/**
+ * 計測カバレッジの結果クラス（不変）
+ */
+public final class CoverageResult {
+
+    /** 計測範囲の図形ID */
+    private final long shapeId;
+
+    /** 被覆半径（メートル） */
+    private final double radius;
+
+    /** セルの一辺（メートル） */
+    private final double cellSize;
+
+    /** 範囲内のセル数 */
+    private final int cellCount;
+
+    /** 計測済みセル数 */
+    private final int coveredCount;
+
+    /** 未計測領域（面積の大きい順） */
+    @NonNull
+    private final List<CoverageGap> gaps;
+
+    /**
+     * コンストラクタ
+     */
+    CoverageResult(long shapeId, double radius, double cellSize, int cellCount, int coveredCount,
+                   @NonNull List<CoverageGap> gaps) {
+        this.shapeId = shapeId;
+        this.radius = radius;
+        this.cellSize = cellSize;
+        this.cellCount = cellCount;
+        this.coveredCount = coveredCount;
+        this.gaps = gaps;
+    }
+
+    public long getShapeId() {
+        return shapeId;
+    }
+
+    public double getRadius() {
+        return radius;
+    }
+
+    public double getCellSize() {
+        return cellSize;
+    }
+
+    public int getCellCount() {
+        return cellCount;
+    }
+
+    public int getCoveredCount() {
+        return coveredCount;
+    }
+
+    /**
+     * カバレッジ率を取得
+     *
+     * @return 0〜100（%）、範囲内のセルがない場合は0
+     */
+    public double getCoveragePercent() {
+        return cellCount > 0 ? coveredCount * 100.0 / cellCount : 0.0;
+    }
+
+    /**
+     * 計測範囲の面積を取得
+     *
+     * @return 面積（平方メートル、セル数から換算）
+     */
+    public double getArea() {
+        return cellCount * cellSize * cellSize;
+    }
+
+    /**
+     * 未計測領域を取得
+     *
+     * @return 未計測領域リスト（面積の大きい順、変更不可）
+     */
+    @NonNull
+    public List<CoverageGap> getGaps() {
+        return gaps;
+    }
+}
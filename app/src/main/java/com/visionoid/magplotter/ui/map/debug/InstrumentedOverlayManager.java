@@ -0,0 +1,136 @@
+/**
+ * InstrumentedOverlayManager.java
+ *
+ * VISIONOID MAG PLOTTER - 描画計測付きオーバーレイマネージャー
+ *
+ * 概要:
+ *   osmdroid標準のオーバーレイマネージャーに、オーバーレイごとの描画時間計測を追加したもの。
+ *   ヒートマップ・GeoJSONレイヤー・保存済み図形のどれがフレームを重くしているかを切り分ける。
+ *
+ * 主な仕様:
+ *   - 計測無効時は標準の描画処理をそのまま使用（オーバーヘッドなし）
+ *   - 計測有効時は各Overlay.draw()をSystem.nanoTime()で挟んで記録
+ *   - 頂点数はosmdroidのPolygon/Polylineと、VertexCountSourceを実装したオーバーレイから取得
+ *
+ * 制限事項:
+ *   - MapView#getOverlays()に追加する前に設定すること（既存のオーバーレイは引き継がない）
+ *   - 描画順・描画対象の判定はDefaultOverlayManagerと同じ
+ */
+package com.visionoid.magplotter.ui.map.debug;
+
+import android.graphics.Canvas;
+
+import androidx.annotation.NonNull;
+
+import org.osmdroid.views.MapView;
+import org.osmdroid.views.Projection;
+import org.osmdroid.views.overlay.DefaultOverlayManager;
+import org.osmdroid.views.overlay.Overlay;
+import org.osmdroid.views.overlay.PolyOverlayWithIW;
+import org.osmdroid.views.overlay.TilesOverlay;
+
+/**
+ * 描画計測付きオーバーレイマネージャークラス
+ */
+public class InstrumentedOverlayManager extends DefaultOverlayManager {
+
+    /** 描画統計 */
+    private final RenderStats stats = new RenderStats();
+
+    /** 計測有効フラグ */
+    private boolean enabled = false;
+
+    /**
+     * コンストラクタ
+     *
+     * @param tilesOverlay タイルオーバーレイ
+     */
+    public InstrumentedOverlayManager(TilesOverlay tilesOverlay) {
+        super(tilesOverlay);
+    }
+
+    /**
+     * MapViewのオーバーレイマネージャーを計測付きに差し替え
+     *
+     * @param mapView 地図ビュー（オーバーレイ追加前）
+     * @return 差し替え後のマネージャー
+     */
+    @NonNull
+    public static InstrumentedOverlayManager install(@NonNull MapView mapView) {
+        InstrumentedOverlayManager manager =
+                new InstrumentedOverlayManager(mapView.getOverlayManager().getTilesOverlay());
+        mapView.setOverlayManager(manager);
+        return manager;
+    }
+
+    /**
+     * 計測の有効/無効を設定
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @NonNull
+    public RenderStats getStats() {
+        return stats;
+    }
+
+    @Override
+    public void onDraw(Canvas c, MapView pMapView) {
+        if (!enabled) {
+            super.onDraw(c, pMapView);
+            return;
+        }
+
+        long frameStart = System.nanoTime();
+        stats.beginFrame();
+        Projection projection = pMapView.getProjection();
+
+        TilesOverlay tilesOverlay = getTilesOverlay();
+        if (tilesOverlay != null) {
+            tilesOverlay.protectDisplayedTilesForCache(c, projection);
+        }
+        for (Overlay overlay : overlays()) {
+            if (overlay != null && overlay.isEnabled() && overlay instanceof TilesOverlay) {
+                ((TilesOverlay) overlay).protectDisplayedTilesForCache(c, projection);
+            }
+        }
+
+        if (tilesOverlay != null && tilesOverlay.isEnabled()) {
+            drawOverlay(c, pMapView, tilesOverlay);
+        }
+        for (Overlay overlay : overlays()) {
+            if (overlay != null && overlay.isEnabled()) {
+                drawOverlay(c, pMapView, overlay);
+            }
+        }
+
+        stats.endFrame(System.nanoTime() - frameStart);
+    }
+
+    // ==================== 内部処理 ====================
+
+    private void drawOverlay(Canvas c, MapView mapView, Overlay overlay) {
+        long start = System.nanoTime();
+        overlay.draw(c, mapView, false);
+        long elapsed = System.nanoTime() - start;
+        stats.recordOverlay(overlay.getClass(), elapsed, vertexCountOf(overlay));
+    }
+
+    /**
+     * オーバーレイの頂点数を取得（不明な場合は0）
+     */
+    private static int vertexCountOf(Overlay overlay) {
+        if (overlay instanceof VertexCountSource) {
+            return ((VertexCountSource) overlay).getDrawnVertexCount();
+        }
+        if (overlay instanceof PolyOverlayWithIW) {
+            return ((PolyOverlayWithIW) overlay).getActualPoints().size();
+        }
+        return 0;
+    }
+}
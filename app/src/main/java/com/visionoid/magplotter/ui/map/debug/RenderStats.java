@@ -0,0 +1,237 @@
+/**
+ * RenderStats.java
+ *
+ * VISIONOID MAG PLOTTER - 地図描画統計
+ *
+ * 概要:
+ *   地図の1フレームごとの描画時間と、オーバーレイ種別ごとの描画時間・個数・頂点数を集計する。
+ *   デバッグHUDの表示とファイル出力（端末間・変更前後の比較用）に使用する。
+ *
+ * 主な仕様:
+ *   - オーバーレイはクラス単位で集計（GeoJSONレイヤーのPolygon群は1行にまとまる）
+ *   - フレーム時間はヒストグラム（〜4, 8, 16, 33, 50, 100ms, それ以上）で保持
+ *   - 個数・頂点数は直前フレームの値
+ *
+ * 制限事項:
+ *   - UIスレッド専用（スレッドセーフではない）
+ *   - 計測値は地図オーバーレイの描画時間のみ（ビュー階層全体のフレーム時間ではない）
+ */
+package com.visionoid.magplotter.ui.map.debug;
+
+import android.os.Build;
+
+import androidx.annotation.NonNull;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 地図描画統計クラス
+ */
+public class RenderStats {
+
+    /** ヒストグラムの境界（ms、この値未満のバケットに入る） */
+    private static final int[] HISTOGRAM_BOUNDS_MS = {4, 8, 16, 33, 50, 100};
+
+    /** ナノ秒→ミリ秒 */
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    /** オーバーレイ種別ごとの統計（登場順） */
+    private final Map<Class<?>, OverlayStat> overlayStats = new LinkedHashMap<>();
+
+    /** フレーム時間のヒストグラム（最後の要素は上限超え） */
+    private final int[] histogram = new int[HISTOGRAM_BOUNDS_MS.length + 1];
+
+    /** 集計フレーム数 */
+    private int frameCount = 0;
+
+    /** フレーム時間の合計（ns） */
+    private long totalFrameNanos = 0;
+
+    /** フレーム時間の最大（ns） */
+    private long maxFrameNanos = 0;
+
+    /** 直前フレームの時間（ns） */
+    private long lastFrameNanos = 0;
+
+    /** 集計開始時刻 */
+    private long startedAtMillis = System.currentTimeMillis();
+
+    // ==================== 記録 ====================
+
+    /**
+     * フレームの開始を通知（直前フレームの個数・頂点数をリセット）
+     */
+    public void beginFrame() {
+        for (OverlayStat stat : overlayStats.values()) {
+            stat.lastInstances = 0;
+            stat.lastVertices = 0;
+            stat.lastNanos = 0;
+        }
+    }
+
+    /**
+     * オーバーレイ1つ分の描画を記録
+     *
+     * @param type オーバーレイのクラス
+     * @param nanos 描画時間（ns）
+     * @param vertices 頂点数（不明な場合は0）
+     */
+    public void recordOverlay(@NonNull Class<?> type, long nanos, int vertices) {
+        OverlayStat stat = overlayStats.get(type);
+        if (stat == null) {
+            stat = new OverlayStat(type.getSimpleName());
+            overlayStats.put(type, stat);
+        }
+        if (stat.lastInstances == 0) {
+            stat.frames++;
+        }
+        stat.lastInstances++;
+        stat.lastVertices += vertices;
+        stat.lastNanos += nanos;
+        stat.totalNanos += nanos;
+    }
+
+    /**
+     * フレームの終了を記録
+     *
+     * @param nanos フレーム全体の描画時間（ns）
+     */
+    public void endFrame(long nanos) {
+        for (OverlayStat stat : overlayStats.values()) {
+            if (stat.lastNanos > stat.maxNanos) {
+                stat.maxNanos = stat.lastNanos;
+            }
+        }
+        frameCount++;
+        totalFrameNanos += nanos;
+        lastFrameNanos = nanos;
+        if (nanos > maxFrameNanos) {
+            maxFrameNanos = nanos;
+        }
+        double millis = nanos / NANOS_PER_MILLI;
+        int bucket = 0;
+        while (bucket < HISTOGRAM_BOUNDS_MS.length && millis >= HISTOGRAM_BOUNDS_MS[bucket]) {
+            bucket++;
+        }
+        histogram[bucket]++;
+    }
+
+    /**
+     * 統計をリセット
+     */
+    public void reset() {
+        overlayStats.clear();
+        Arrays.fill(histogram, 0);
+        frameCount = 0;
+        totalFrameNanos = 0;
+        maxFrameNanos = 0;
+        lastFrameNanos = 0;
+        startedAtMillis = System.currentTimeMillis();
+    }
+
+    // ==================== 出力 ====================
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * HUD表示用の短いテキストを作成
+     */
+    @NonNull
+    public String formatHud() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.US, "frame %.1fms avg %.1f max %.1f (%d)",
+                lastFrameNanos / NANOS_PER_MILLI, averageFrameMillis(),
+                maxFrameNanos / NANOS_PER_MILLI, frameCount));
+        for (OverlayStat stat : sortedByLastTime()) {
+            if (stat.lastInstances == 0) {
+                continue;
+            }
+            sb.append('\n').append(String.format(Locale.US, "%s x%d v%d %.2fms",
+                    stat.name, stat.lastInstances, stat.lastVertices,
+                    stat.lastNanos / NANOS_PER_MILLI));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * ファイル出力用のレポートを作成
+     */
+    @NonNull
+    public String formatReport() {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.US);
+        StringBuilder sb = new StringBuilder();
+        sb.append("# VISIONOID MAG PLOTTER render stats\n");
+        sb.append("device: ").append(Build.MANUFACTURER).append(' ').append(Build.MODEL)
+                .append(" (API ").append(Build.VERSION.SDK_INT).append(")\n");
+        sb.append("from: ").append(format.format(new Date(startedAtMillis))).append('\n');
+        sb.append("to: ").append(format.format(new Date())).append('\n');
+        sb.append('\n');
+
+        sb.append("[frames]\n");
+        sb.append(String.format(Locale.US, "count=%d avg=%.2fms max=%.2fms\n",
+                frameCount, averageFrameMillis(), maxFrameNanos / NANOS_PER_MILLI));
+        for (int i = 0; i < histogram.length; i++) {
+            String label = i < HISTOGRAM_BOUNDS_MS.length
+                    ? "<" + HISTOGRAM_BOUNDS_MS[i] + "ms"
+                    : ">=" + HISTOGRAM_BOUNDS_MS[HISTOGRAM_BOUNDS_MS.length - 1] + "ms";
+            double percent = frameCount > 0 ? histogram[i] * 100.0 / frameCount : 0.0;
+            sb.append(String.format(Locale.US, "%-8s %6d %5.1f%%\n", label, histogram[i], percent));
+        }
+        sb.append('\n');
+
+        sb.append("[overlays]\n");
+        sb.append("type,instances,vertices,avg_ms,max_ms,total_ms,frames\n");
+        for (OverlayStat stat : sortedByTotalTime()) {
+            double avg = stat.frames > 0 ? stat.totalNanos / NANOS_PER_MILLI / stat.frames : 0.0;
+            sb.append(String.format(Locale.US, "%s,%d,%d,%.3f,%.3f,%.1f,%d\n",
+                    stat.name, stat.lastInstances, stat.lastVertices, avg,
+                    stat.maxNanos / NANOS_PER_MILLI, stat.totalNanos / NANOS_PER_MILLI,
+                    stat.frames));
+        }
+        return sb.toString();
+    }
+
+    // ==================== 内部処理 ====================
+
+    private double averageFrameMillis() {
+        return frameCount > 0 ? totalFrameNanos / NANOS_PER_MILLI / frameCount : 0.0;
+    }
+
+    private List<OverlayStat> sortedByLastTime() {
+        List<OverlayStat> list = new ArrayList<>(overlayStats.values());
+        list.sort((a, b) -> Long.compare(b.lastNanos, a.lastNanos));
+        return list;
+    }
+
+    private List<OverlayStat> sortedByTotalTime() {
+        List<OverlayStat> list = new ArrayList<>(overlayStats.values());
+        list.sort((a, b) -> Long.compare(b.totalNanos, a.totalNanos));
+        return list;
+    }
+
+    /**
+     * オーバーレイ種別ごとの統計
+     */
+    private static class OverlayStat {
+        final String name;
+        int lastInstances;
+        int lastVertices;
+        long lastNanos;
+        long totalNanos;
+        long maxNanos;
+        int frames;
+
+        OverlayStat(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+/**
+ * VertexCountSource.java
+ *
+ * VISIONOID MAG PLOTTER - 描画頂点数の提供インターフェース
+ *
+ * 概要:
+ *   独自オーバーレイが直前の描画で処理した頂点数を描画計測に報告するためのインターフェース。
+ *
+ * 主な仕様:
+ *   - draw()の中で数えた値を返す（計測のための追加走査は行わない）
+ *
+ * 制限事項:
+ *   - UIスレッドからのみ呼び出される
+ */
+package com.visionoid.magplotter.ui.map.debug;
+
+/**
+ * 描画頂点数の提供インターフェース
+ */
+public interface VertexCountSource {
+
+    /**
+     * 直前の描画で処理した頂点数を取得
+     *
+     * @return 頂点数（円・点は1つとして数える）
+     */
+    int getDrawnVertexCount();
+}
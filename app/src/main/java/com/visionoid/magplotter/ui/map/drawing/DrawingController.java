@@ -12,6 +12,7 @@
  *   - 作図ツールバーの表示/非表示
  *   - 図形の保存・編集・削除
  *   - 図形リストダイアログの表示
+ *   - 測線計画ダイアログ（計測範囲・穴・間隔の選択）の表示
  * 
  * 制限事項:
  *   - Activity/Fragmentのコンテキストが必要
@@ -30,6 +31,8 @@ import android.widget.LinearLayout;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.appcompat.app.AlertDialog;
 import androidx.lifecycle.LifecycleOwner;
 import androidx.lifecycle.LiveData;
@@ -40,12 +43,16 @@ import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import com.visionoid.magplotter.R;
 import com.visionoid.magplotter.data.model.DrawingShape;
 import com.visionoid.magplotter.data.repository.DrawingShapeRepository;
+import com.visionoid.magplotter.util.CoordinateCodec;
 import com.visionoid.magplotter.util.GeoCalculator;
 
 import org.osmdroid.util.GeoPoint;
 import org.osmdroid.views.MapView;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * 作図コントローラークラス
@@ -74,6 +81,9 @@ public class DrawingController implements
     /** 保存済み図形オーバーレイ */
     private final SavedShapesOverlay savedShapesOverlay;
 
+    /** 保存済み図形（observeShapesで更新） */
+    private List<DrawingShape> shapes = Collections.emptyList();
+
     /** 作図ツールバー */
     private View drawingToolbar;
 
@@ -95,6 +105,12 @@ public class DrawingController implements
     /** 現在の作図モード */
     private DrawingMode currentMode = DrawingMode.NONE;
 
+    /** 測線の間隔の既定値（メートル） */
+    private static final double DEFAULT_SURVEY_SPACING = 5.0;
+
+    /** 直前に入力した測線の間隔（メートル） */
+    private double surveySpacing = DEFAULT_SURVEY_SPACING;
+
     /** 選択中の色 */
     private int selectedStrokeColor = 0xFFFF5722;
     private int selectedFillColor = 0x40FF5722;
@@ -169,11 +185,28 @@ public class DrawingController implements
     public void observeShapes(LifecycleOwner lifecycleOwner) {
         LiveData<List<DrawingShape>> shapesLiveData = repository.getByMissionIdLive(missionId);
         shapesLiveData.observe(lifecycleOwner, shapes -> {
+            this.shapes = shapes != null ? shapes : Collections.emptyList();
             savedShapesOverlay.setShapes(shapes);
             mapView.invalidate();
         });
     }
 
+    /**
+     * 保存済みの多角形を取得
+     *
+     * @return 多角形リスト（observeShapesで受け取った時点のもの）
+     */
+    @NonNull
+    public List<DrawingShape> getPolygons() {
+        List<DrawingShape> polygons = new ArrayList<>();
+        for (DrawingShape shape : shapes) {
+            if (DrawingShape.TYPE_POLYGON.equals(shape.getShapeType())) {
+                polygons.add(shape);
+            }
+        }
+        return polygons;
+    }
+
     // ==================== 作図モード制御 ====================
 
     /**
@@ -334,7 +367,7 @@ public class DrawingController implements
     /**
      * 図形名入力ダイアログを表示
      */
-    private void showNameDialog(String shapeType, String coordinatesJson, double area, double perimeter) {
+    private void showNameDialog(String shapeType, byte[] coordinates, double area, double perimeter) {
         View dialogView = LayoutInflater.from(activity).inflate(R.layout.dialog_shape_name, null);
 
         EditText editName = dialogView.findViewById(R.id.edit_shape_name);
@@ -367,7 +400,7 @@ public class DrawingController implements
                     if (TextUtils.isEmpty(name)) {
                         name = getDefaultShapeName(shapeType);
                     }
-                    saveShape(name, shapeType, coordinatesJson, area, perimeter);
+                    saveShape(name, shapeType, coordinates, area, perimeter);
                 })
                 .setNegativeButton(R.string.drawing_cancel, null)
                 .show();
@@ -431,8 +464,8 @@ public class DrawingController implements
     /**
      * 図形を保存
      */
-    private void saveShape(String name, String shapeType, String coordinatesJson, double area, double perimeter) {
-        DrawingShape shape = new DrawingShape(missionId, name, shapeType, coordinatesJson);
+    private void saveShape(String name, String shapeType, byte[] coordinates, double area, double perimeter) {
+        DrawingShape shape = new DrawingShape(missionId, name, shapeType, coordinates);
         shape.setArea(area);
         shape.setPerimeter(perimeter);
         shape.setStrokeColor(selectedStrokeColor);
@@ -488,6 +521,146 @@ public class DrawingController implements
         dialog.show();
     }
 
+    /**
+     * 多角形を1つ選択するダイアログを表示
+     *
+     * @param titleResId タイトルの文字列リソースID
+     * @param listener 選択時のリスナー
+     * @param cancelListener キャンセル時（多角形がない場合を含む）の処理
+     */
+    public void showPolygonPicker(int titleResId, @NonNull PolygonPickListener listener,
+                                  @Nullable Runnable cancelListener) {
+        List<DrawingShape> polygons = getPolygons();
+        if (polygons.isEmpty()) {
+            Toast.makeText(activity, R.string.drawing_no_polygon, Toast.LENGTH_SHORT).show();
+            if (cancelListener != null) {
+                cancelListener.run();
+            }
+            return;
+        }
+        String[] names = new String[polygons.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = polygons.get(i).getName();
+        }
+        new MaterialAlertDialogBuilder(activity, R.style.SpyTech_Dialog)
+                .setTitle(titleResId)
+                .setItems(names, (dialog, which) -> listener.onPolygonPicked(polygons.get(which)))
+                .setNegativeButton(R.string.action_cancel, (dialog, which) -> {
+                    if (cancelListener != null) {
+                        cancelListener.run();
+                    }
+                })
+                .setOnCancelListener(dialog -> {
+                    if (cancelListener != null) {
+                        cancelListener.run();
+                    }
+                })
+                .show();
+    }
+
+    // ==================== 測線計画 ====================
+
+    /**
+     * 測線計画ダイアログを表示
+     *
+     * 計測範囲の多角形、穴とする多角形（任意）、測線の間隔の順に選び、測線ルートを計画・保存する。
+     * 同じ計測範囲で計画し直すと以前の測線ルートを置き換える。
+     */
+    public void showSurveyPlanDialog() {
+        showPolygonPicker(R.string.survey_select_area, this::showSurveyHolePicker, null);
+    }
+
+    /**
+     * 穴とする多角形を選択するダイアログを表示（候補がない場合は間隔の入力へ進む）
+     */
+    private void showSurveyHolePicker(@NonNull DrawingShape area) {
+        List<DrawingShape> candidates = new ArrayList<>();
+        for (DrawingShape polygon : getPolygons()) {
+            if (polygon.getId() != area.getId()) {
+                candidates.add(polygon);
+            }
+        }
+        if (candidates.isEmpty()) {
+            showSurveySpacingDialog(area, new long[0]);
+            return;
+        }
+        String[] names = new String[candidates.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = candidates.get(i).getName();
+        }
+        boolean[] checked = new boolean[names.length];
+        new MaterialAlertDialogBuilder(activity, R.style.SpyTech_Dialog)
+                .setTitle(R.string.survey_select_holes)
+                .setMultiChoiceItems(names, checked, (dialog, which, isChecked) -> checked[which] = isChecked)
+                .setPositiveButton(R.string.action_confirm, (dialog, which) -> {
+                    List<Long> holeIds = new ArrayList<>();
+                    for (int i = 0; i < checked.length; i++) {
+                        if (checked[i]) {
+                            holeIds.add(candidates.get(i).getId());
+                        }
+                    }
+                    long[] holeShapeIds = new long[holeIds.size()];
+                    for (int i = 0; i < holeShapeIds.length; i++) {
+                        holeShapeIds[i] = holeIds.get(i);
+                    }
+                    showSurveySpacingDialog(area, holeShapeIds);
+                })
+                .setNegativeButton(R.string.action_cancel, null)
+                .show();
+    }
+
+    /**
+     * 測線の間隔を入力するダイアログを表示
+     */
+    private void showSurveySpacingDialog(@NonNull DrawingShape area, @NonNull long[] holeShapeIds) {
+        View dialogView = LayoutInflater.from(activity).inflate(R.layout.dialog_survey_spacing, null);
+        TextView textArea = dialogView.findViewById(R.id.text_survey_area);
+        EditText editSpacing = dialogView.findViewById(R.id.edit_survey_spacing);
+        textArea.setText(activity.getString(R.string.survey_area_summary, area.getName(), holeShapeIds.length));
+        editSpacing.setText(String.format(Locale.US, "%.1f", surveySpacing));
+
+        new MaterialAlertDialogBuilder(activity, R.style.SpyTech_Dialog)
+                .setTitle(R.string.survey_plan_title)
+                .setView(dialogView)
+                .setPositiveButton(R.string.survey_plan, (dialog, which) -> {
+                    double spacing;
+                    try {
+                        spacing = Double.parseDouble(editSpacing.getText().toString().trim());
+                    } catch (NumberFormatException e) {
+                        spacing = Double.NaN;
+                    }
+                    if (!(spacing > 0)) {
+                        Toast.makeText(activity, R.string.survey_invalid_spacing, Toast.LENGTH_SHORT).show();
+                        return;
+                    }
+                    surveySpacing = spacing;
+                    planSurveyLines(area, holeShapeIds, spacing);
+                })
+                .setNegativeButton(R.string.action_cancel, null)
+                .show();
+    }
+
+    /**
+     * 測線を計画して結果を通知
+     */
+    private void planSurveyLines(@NonNull DrawingShape area, @NonNull long[] holeShapeIds, double spacing) {
+        repository.planSurveyLines(area.getId(), holeShapeIds, spacing, (plan, routeId) ->
+                activity.runOnUiThread(() -> {
+                    if (plan == null || plan.getLineCount() == 0) {
+                        Toast.makeText(activity, R.string.survey_plan_failed, Toast.LENGTH_SHORT).show();
+                    } else if (routeId < 0) {
+                        Toast.makeText(activity, activity.getString(R.string.survey_too_many_lines,
+                                plan.getLineCount(), DrawingShapeRepository.MAX_ROUTE_LINES),
+                                Toast.LENGTH_LONG).show();
+                    } else {
+                        Toast.makeText(activity, activity.getString(R.string.survey_planned,
+                                plan.getLineCount(), plan.getTransectLength() + plan.getTransitLength()),
+                                Toast.LENGTH_SHORT).show();
+                        mapView.invalidate();
+                    }
+                }));
+    }
+
     /**
      * 削除確認ダイアログを表示
      */
@@ -507,29 +680,38 @@ public class DrawingController implements
 
     @Override
     public void onPolygonComplete(List<GeoPoint> points) {
-        String coordinatesJson = DrawingShapeRepository.toCoordinatesJson(points);
-        double area = GeoCalculator.calculatePolygonArea(points);
-        double perimeter = GeoCalculator.calculatePolygonPerimeter(points);
-        showNameDialog(DrawingShape.TYPE_POLYGON, coordinatesJson, area, perimeter);
+        byte[] coordinates = CoordinateCodec.encodePoints(points);
+        double[] lats = new double[points.size()];
+        double[] lngs = new double[points.size()];
+        CoordinateCodec.decodePoints(coordinates, lats, lngs);
+        double area = GeoCalculator.calculatePolygonArea(lats, lngs, lats.length,
+                DrawingShapeRepository.METRICS_MODE);
+        double perimeter = GeoCalculator.calculatePolygonPerimeter(lats, lngs, lats.length,
+                DrawingShapeRepository.METRICS_MODE);
+        showNameDialog(DrawingShape.TYPE_POLYGON, coordinates, area, perimeter);
     }
 
     @Override
     public void onPolylineComplete(List<GeoPoint> points) {
-        String coordinatesJson = DrawingShapeRepository.toCoordinatesJson(points);
-        double perimeter = GeoCalculator.calculatePolylineLength(points);
-        showNameDialog(DrawingShape.TYPE_POLYLINE, coordinatesJson, 0, perimeter);
+        byte[] coordinates = CoordinateCodec.encodePoints(points);
+        double[] lats = new double[points.size()];
+        double[] lngs = new double[points.size()];
+        CoordinateCodec.decodePoints(coordinates, lats, lngs);
+        double perimeter = GeoCalculator.calculatePolylineLength(lats, lngs, lats.length,
+                DrawingShapeRepository.METRICS_MODE);
+        showNameDialog(DrawingShape.TYPE_POLYLINE, coordinates, 0, perimeter);
     }
 
     @Override
     public void onCircleComplete(GeoPoint center, double radius) {
-        String coordinatesJson = DrawingShapeRepository.toCircleJson(center, radius);
+        byte[] coordinates = CoordinateCodec.encodeCircle(center.getLatitude(), center.getLongitude(), radius);
         double area = GeoCalculator.calculateCircleArea(radius);
         double perimeter = GeoCalculator.calculateCirclePerimeter(radius);
-        showNameDialog(DrawingShape.TYPE_CIRCLE, coordinatesJson, area, perimeter);
+        showNameDialog(DrawingShape.TYPE_CIRCLE, coordinates, area, perimeter);
     }
 
     @Override
-    public void onMeasurementUpdate(double area, double perimeter, List<Double> segmentLengths) {
+    public void onMeasurementUpdate(double area, double perimeter, double[] segmentLengths, int segmentCount) {
         activity.runOnUiThread(() -> {
             if (textAreaValue != null) {
                 textAreaValue.setText(GeoCalculator.formatArea(area));
@@ -563,13 +745,10 @@ public class DrawingController implements
         savedShapesOverlay.setSelectedShapeId(shape.getId());
         mapView.invalidate();
 
-        // 重心にズーム
-        List<GeoPoint> points = DrawingShapeRepository.parseCoordinatesJson(shape.getCoordinatesJson());
-        if (!points.isEmpty()) {
-            GeoPoint center = GeoCalculator.calculateCentroid(points);
-            if (center != null) {
-                mapView.getController().animateTo(center);
-            }
+        // 重心（円は中心）にズーム
+        ShapeGeometry geometry = ShapeGeometry.decode(shape);
+        if (geometry.isDrawable()) {
+            mapView.getController().animateTo(new GeoPoint(geometry.getCenterLat(), geometry.getCenterLng()));
         }
     }
 
@@ -692,6 +871,13 @@ public class DrawingController implements
         this.callback = callback;
     }
 
+    /**
+     * 多角形の選択リスナー
+     */
+    public interface PolygonPickListener {
+        void onPolygonPicked(@NonNull DrawingShape shape);
+    }
+
     /**
      * コールバックインターフェース
      */
@@ -0,0 +1,130 @@
+/**
+ * LabelCollisionGrid.java
+ *
+ * VISIONOID MAG PLOTTER - ラベルの重なり判定グリッド
+ *
+ * 概要:
+ *   画面を一定サイズのセルに分割し、配置済みのラベル矩形をセルに登録する。
+ *   新しいラベルは重なるセルの矩形とだけ比較し、重ならない場合のみ配置する（先着順）。
+ *
+ * 主な仕様:
+ *   - フレームごとにreset()で画面サイズに合わせて空にする
+ *   - 画面外にはみ出す部分は端のセルに登録（完全に画面外のラベルは配置しない）
+ *   - 配列は必要な大きさまで拡張して使い回す（描画中に一時オブジェクトを生成しない）
+ *
+ * 制限事項:
+ *   - UIスレッドから操作すること
+ */
+package com.visionoid.magplotter.ui.map.drawing;
+
+import java.util.Arrays;
+
+/**
+ * ラベルの重なり判定グリッドクラス
+ */
+final class LabelCollisionGrid {
+
+    /** セルの一辺（ピクセル） */
+    private static final int CELL_SIZE = 64;
+
+    /** 列数・行数 */
+    private int columns;
+    private int rows;
+
+    /** セル→先頭の登録番号（-1は空） */
+    private int[] cellHeads = new int[0];
+
+    /** 登録→矩形番号、同じセルの次の登録番号 */
+    private int[] entryRects = new int[64];
+    private int[] entryNext = new int[64];
+    private int entryCount;
+
+    /** 配置済みの矩形（left, top, right, bottomの順） */
+    private float[] rects = new float[64];
+    private int rectCount;
+
+    /**
+     * 空にする
+     *
+     * @param width 画面の幅（ピクセル）
+     * @param height 画面の高さ（ピクセル）
+     */
+    void reset(int width, int height) {
+        columns = Math.max(1, (width + CELL_SIZE - 1) / CELL_SIZE);
+        rows = Math.max(1, (height + CELL_SIZE - 1) / CELL_SIZE);
+        int cells = columns * rows;
+        if (cellHeads.length < cells) {
+            cellHeads = new int[cells];
+        }
+        Arrays.fill(cellHeads, 0, cells, -1);
+        entryCount = 0;
+        rectCount = 0;
+    }
+
+    /**
+     * 配置済みのラベルと重ならなければ配置
+     *
+     * @param left 左端
+     * @param top 上端
+     * @param right 右端
+     * @param bottom 下端
+     * @return 配置した場合true（重なる・画面外の場合false）
+     */
+    boolean tryPlace(float left, float top, float right, float bottom) {
+        if (right < 0 || bottom < 0 || left >= columns * CELL_SIZE || top >= rows * CELL_SIZE) {
+            return false;
+        }
+        int firstColumn = clamp((int) left / CELL_SIZE, columns);
+        int lastColumn = clamp((int) right / CELL_SIZE, columns);
+        int firstRow = clamp((int) top / CELL_SIZE, rows);
+        int lastRow = clamp((int) bottom / CELL_SIZE, rows);
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                for (int entry = cellHeads[row * columns + column]; entry >= 0; entry = entryNext[entry]) {
+                    int r = entryRects[entry] * 4;
+                    if (left < rects[r + 2] && right > rects[r]
+                            && top < rects[r + 3] && bottom > rects[r + 1]) {
+                        return false;
+                    }
+                }
+            }
+        }
+
+        int rect = addRect(left, top, right, bottom);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                addEntry(row * columns + column, rect);
+            }
+        }
+        return true;
+    }
+
+    // ==================== 内部処理 ====================
+
+    private static int clamp(int index, int count) {
+        return Math.max(0, Math.min(count - 1, index));
+    }
+
+    private int addRect(float left, float top, float right, float bottom) {
+        if ((rectCount + 1) * 4 > rects.length) {
+            rects = Arrays.copyOf(rects, rects.length * 2);
+        }
+        int r = rectCount * 4;
+        rects[r] = left;
+        rects[r + 1] = top;
+        rects[r + 2] = right;
+        rects[r + 3] = bottom;
+        return rectCount++;
+    }
+
+    private void addEntry(int cell, int rect) {
+        if (entryCount == entryRects.length) {
+            entryRects = Arrays.copyOf(entryRects, entryCount * 2);
+            entryNext = Arrays.copyOf(entryNext, entryCount * 2);
+        }
+        entryRects[entryCount] = rect;
+        entryNext[entryCount] = cellHeads[cell];
+        cellHeads[cell] = entryCount++;
+    }
+}
@@ -12,7 +12,9 @@
  *   - 描画中のプレビュー表示
  *   - 各辺の長さをリアルタイム表示
  *   - 面積・周囲長のリアルタイム計算
+ *     （ShapeMeasurementで差分更新し、頂点のドラッグ中は隣接する2辺のみ計算）
  *   - 頂点のドラッグ編集
+ *   - Paint・Path・画面座標・ラベルは再利用（地図のアニメーション中に一時オブジェクトを生成しない）
  * 
  * 制限事項:
  *   - 一度に1つの図形のみ作図可能
@@ -26,7 +28,6 @@ import android.graphics.DashPathEffect;
 import android.graphics.Paint;
 import android.graphics.Path;
 import android.graphics.Point;
-import android.graphics.Rect;
 import android.view.MotionEvent;
 
 import org.osmdroid.util.GeoPoint;
@@ -34,15 +35,17 @@ import org.osmdroid.views.MapView;
 import org.osmdroid.views.Projection;
 import org.osmdroid.views.overlay.Overlay;
 
+import com.visionoid.magplotter.ui.map.debug.VertexCountSource;
 import com.visionoid.magplotter.util.GeoCalculator;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * 地図作図オーバーレイクラス
  */
-public class MapDrawingOverlay extends Overlay {
+public class MapDrawingOverlay extends Overlay implements VertexCountSource {
 
     /** コンテキスト */
     private final Context context;
@@ -53,6 +56,9 @@ public class MapDrawingOverlay extends Overlay {
     /** 描画中の頂点リスト */
     private List<GeoPoint> currentPoints = new ArrayList<>();
 
+    /** 描画中の頂点の計測値（辺の長さ・周囲長・面積） */
+    private final ShapeMeasurement measurement = new ShapeMeasurement();
+
     /** 円の中心（円描画時） */
     private GeoPoint circleCenter = null;
 
@@ -82,6 +88,27 @@ public class MapDrawingOverlay extends Overlay {
     /** プレビュー線のペイント（破線） */
     private final Paint previewPaint;
 
+    /** 頂点外枠のペイント */
+    private final Paint vertexOuterPaint;
+
+    // ==================== 描画の再利用オブジェクト ====================
+
+    /** Paint・Path・画面座標の再利用 */
+    private final ShapeRenderContext renderContext = new ShapeRenderContext();
+
+    /** 円の中心・半径計算用の再利用オブジェクト */
+    private final Point scratchPoint = new Point();
+    private final Point scratchEdgePoint = new Point();
+    private final GeoPoint scratchEdgeGeoPoint = new GeoPoint(0.0, 0.0);
+
+    /** 辺のラベル（辺の番号順）と作成時の長さ */
+    private ShapeRenderContext.Label[] edgeLabels = new ShapeRenderContext.Label[16];
+    private double[] edgeLabelMeters = new double[16];
+
+    /** 半径のラベルと作成時の半径 */
+    private ShapeRenderContext.Label radiusLabel;
+    private double radiusLabelMeters = Double.NaN;
+
     // ==================== 色設定 ====================
 
     /** 線の色 */
@@ -169,6 +196,11 @@ public class MapDrawingOverlay extends Overlay {
         previewPaint.setStrokeWidth(4f);
         previewPaint.setStyle(Paint.Style.STROKE);
         previewPaint.setPathEffect(new DashPathEffect(new float[]{20, 10}, 0));
+
+        // 頂点外枠のペイント
+        vertexOuterPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        vertexOuterPaint.setColor(0xFF000000);
+        vertexOuterPaint.setStyle(Paint.Style.FILL);
     }
 
     // ==================== 作図モード制御 ====================
@@ -210,6 +242,7 @@ public class MapDrawingOverlay extends Overlay {
      */
     public void clearCurrentDrawing() {
         currentPoints.clear();
+        measurement.clear();
         circleCenter = null;
         circleRadius = 0;
         draggingVertexIndex = -1;
@@ -263,6 +296,7 @@ public class MapDrawingOverlay extends Overlay {
     public void undoLastPoint() {
         if (!currentPoints.isEmpty()) {
             currentPoints.remove(currentPoints.size() - 1);
+            measurement.removeLastPoint();
             notifyMeasurementUpdate();
         }
     }
@@ -292,6 +326,18 @@ public class MapDrawingOverlay extends Overlay {
 
     // ==================== 描画 ====================
 
+    @Override
+    public int getDrawnVertexCount() {
+        switch (drawingMode) {
+            case NONE:
+                return 0;
+            case CIRCLE:
+                return circleCenter != null ? 1 : 0;
+            default:
+                return currentPoints.size();
+        }
+    }
+
     @Override
     public void draw(Canvas canvas, MapView mapView, boolean shadow) {
         if (shadow) return;
@@ -320,16 +366,14 @@ public class MapDrawingOverlay extends Overlay {
     private void drawPolygon(Canvas canvas, Projection projection) {
         if (currentPoints.isEmpty()) return;
 
-        Point[] screenPoints = new Point[currentPoints.size()];
-        for (int i = 0; i < currentPoints.size(); i++) {
-            screenPoints[i] = projection.toPixels(currentPoints.get(i), null);
-        }
+        int count = currentPoints.size();
+        Point[] screenPoints = toScreenPoints(projection);
 
         // 塗りつぶし（3点以上）
-        if (currentPoints.size() >= 3) {
-            Path fillPath = new Path();
+        if (count >= 3) {
+            Path fillPath = renderContext.getPath();
             fillPath.moveTo(screenPoints[0].x, screenPoints[0].y);
-            for (int i = 1; i < screenPoints.length; i++) {
+            for (int i = 1; i < count; i++) {
                 fillPath.lineTo(screenPoints[i].x, screenPoints[i].y);
             }
             fillPath.close();
@@ -337,25 +381,21 @@ public class MapDrawingOverlay extends Overlay {
         }
 
         // 線を描画
-        for (int i = 0; i < screenPoints.length; i++) {
+        for (int i = 0; i < count; i++) {
             Point p1 = screenPoints[i];
-            Point p2 = screenPoints[(i + 1) % screenPoints.length];
+            Point p2 = screenPoints[(i + 1) % count];
             
             // 閉じた線は3点以上の場合のみ
-            if (i < screenPoints.length - 1 || currentPoints.size() >= 3) {
+            if (i < count - 1 || count >= 3) {
                 canvas.drawLine(p1.x, p1.y, p2.x, p2.y, linePaint);
                 
                 // 辺の長さを表示
-                GeoPoint g1 = currentPoints.get(i);
-                GeoPoint g2 = currentPoints.get((i + 1) % currentPoints.size());
-                double distance = GeoCalculator.calculateDistance(g1, g2);
-                String distText = GeoCalculator.formatDistanceShort(distance);
-                drawEdgeLabel(canvas, p1, p2, distText);
+                drawEdgeLabel(canvas, p1, p2, getEdgeLabel(i, measurement.getSegmentLength(i)));
             }
         }
 
         // 頂点を描画
-        for (int i = 0; i < screenPoints.length; i++) {
+        for (int i = 0; i < count; i++) {
             drawVertex(canvas, screenPoints[i], i);
         }
     }
@@ -366,27 +406,21 @@ public class MapDrawingOverlay extends Overlay {
     private void drawPolyline(Canvas canvas, Projection projection) {
         if (currentPoints.isEmpty()) return;
 
-        Point[] screenPoints = new Point[currentPoints.size()];
-        for (int i = 0; i < currentPoints.size(); i++) {
-            screenPoints[i] = projection.toPixels(currentPoints.get(i), null);
-        }
+        int count = currentPoints.size();
+        Point[] screenPoints = toScreenPoints(projection);
 
         // 線を描画
-        for (int i = 0; i < screenPoints.length - 1; i++) {
+        for (int i = 0; i < count - 1; i++) {
             Point p1 = screenPoints[i];
             Point p2 = screenPoints[i + 1];
             canvas.drawLine(p1.x, p1.y, p2.x, p2.y, linePaint);
             
             // 辺の長さを表示
-            GeoPoint g1 = currentPoints.get(i);
-            GeoPoint g2 = currentPoints.get(i + 1);
-            double distance = GeoCalculator.calculateDistance(g1, g2);
-            String distText = GeoCalculator.formatDistanceShort(distance);
-            drawEdgeLabel(canvas, p1, p2, distText);
+            drawEdgeLabel(canvas, p1, p2, getEdgeLabel(i, measurement.getSegmentLength(i)));
         }
 
         // 頂点を描画
-        for (int i = 0; i < screenPoints.length; i++) {
+        for (int i = 0; i < count; i++) {
             drawVertex(canvas, screenPoints[i], i);
         }
     }
@@ -397,12 +431,12 @@ public class MapDrawingOverlay extends Overlay {
     private void drawCircle(Canvas canvas, Projection projection, MapView mapView) {
         if (circleCenter == null) return;
 
-        Point centerPoint = projection.toPixels(circleCenter, null);
+        Point centerPoint = projection.toPixels(circleCenter, scratchPoint);
 
         if (circleRadius > 0) {
             // 半径をピクセルに変換
-            GeoPoint edgePoint = calculateDestination(circleCenter, 90, circleRadius);
-            Point edgePointScreen = projection.toPixels(edgePoint, null);
+            calculateDestination(circleCenter, 90, circleRadius, scratchEdgeGeoPoint);
+            Point edgePointScreen = projection.toPixels(scratchEdgeGeoPoint, scratchEdgePoint);
             float radiusPx = Math.abs(edgePointScreen.x - centerPoint.x);
 
             // 塗りつぶし
@@ -410,60 +444,77 @@ public class MapDrawingOverlay extends Overlay {
             // 線
             canvas.drawCircle(centerPoint.x, centerPoint.y, radiusPx, linePaint);
 
-            // 半径ラベル
-            String radiusText = GeoCalculator.formatDistanceShort(circleRadius);
-            Point labelPoint = new Point(centerPoint.x + (int) (radiusPx / 2), centerPoint.y);
-            drawLabel(canvas, labelPoint, "r=" + radiusText);
+            // 半径ラベル（半径が変わった場合のみ作り直す）
+            if (radiusLabel == null || radiusLabelMeters != circleRadius) {
+                radiusLabel = renderContext.measureLabel(
+                        "r=" + GeoCalculator.formatDistanceShort(circleRadius), textPaint);
+                radiusLabelMeters = circleRadius;
+            }
+            renderContext.drawLabel(canvas, centerPoint.x + (int) (radiusPx / 2), centerPoint.y,
+                    radiusLabel, textPaint, textBgPaint);
         }
 
         // 中心点を描画
         drawVertex(canvas, centerPoint, 0);
     }
 
+    /**
+     * 頂点を画面座標に変換
+     * 
+     * @return 再利用の画面座標配列（先頭から頂点数分が有効）
+     */
+    private Point[] toScreenPoints(Projection projection) {
+        int count = currentPoints.size();
+        Point[] screenPoints = renderContext.getScreenPoints(count);
+        for (int i = 0; i < count; i++) {
+            projection.toPixels(currentPoints.get(i), screenPoints[i]);
+        }
+        return screenPoints;
+    }
+
     /**
      * 頂点を描画
      */
     private void drawVertex(Canvas canvas, Point point, int index) {
         // 外枠（黒）
-        Paint outerPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        outerPaint.setColor(0xFF000000);
-        outerPaint.setStyle(Paint.Style.FILL);
-        canvas.drawCircle(point.x, point.y, VERTEX_RADIUS + 3, outerPaint);
+        canvas.drawCircle(point.x, point.y, VERTEX_RADIUS + 3, vertexOuterPaint);
 
         // 内側（白）
         canvas.drawCircle(point.x, point.y, VERTEX_RADIUS, vertexPaint);
 
         // 色付き中心
-        Paint centerPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        centerPaint.setColor(strokeColor);
-        centerPaint.setStyle(Paint.Style.FILL);
-        canvas.drawCircle(point.x, point.y, VERTEX_RADIUS - 4, centerPaint);
+        canvas.drawCircle(point.x, point.y, VERTEX_RADIUS - 4, renderContext.getFillPaint(strokeColor));
     }
 
     /**
-     * 辺のラベルを描画
+     * 辺のラベルを取得（長さが変わった辺のみ作り直す）
+     * 
+     * @param index 辺の番号
+     * @param meters 辺の長さ（メートル）
+     * @return 測定済みラベル
      */
-    private void drawEdgeLabel(Canvas canvas, Point p1, Point p2, String text) {
-        int midX = (p1.x + p2.x) / 2;
-        int midY = (p1.y + p2.y) / 2;
-        drawLabel(canvas, new Point(midX, midY), text);
+    private ShapeRenderContext.Label getEdgeLabel(int index, double meters) {
+        if (index >= edgeLabels.length) {
+            int capacity = Math.max(index + 1, edgeLabels.length * 2);
+            edgeLabels = Arrays.copyOf(edgeLabels, capacity);
+            edgeLabelMeters = Arrays.copyOf(edgeLabelMeters, capacity);
+        }
+        ShapeRenderContext.Label label = edgeLabels[index];
+        if (label == null || edgeLabelMeters[index] != meters) {
+            label = renderContext.measureLabel(GeoCalculator.formatDistanceShort(meters), textPaint);
+            edgeLabels[index] = label;
+            edgeLabelMeters[index] = meters;
+        }
+        return label;
     }
 
     /**
-     * ラベルを描画
+     * 辺のラベルを描画
      */
-    private void drawLabel(Canvas canvas, Point point, String text) {
-        Rect bounds = new Rect();
-        textPaint.getTextBounds(text, 0, text.length(), bounds);
-
-        int padding = 8;
-        int bgLeft = point.x - bounds.width() / 2 - padding;
-        int bgTop = point.y - bounds.height() - padding;
-        int bgRight = point.x + bounds.width() / 2 + padding;
-        int bgBottom = point.y + padding;
-
-        canvas.drawRoundRect(bgLeft, bgTop, bgRight, bgBottom, 8, 8, textBgPaint);
-        canvas.drawText(text, point.x, point.y, textPaint);
+    private void drawEdgeLabel(Canvas canvas, Point p1, Point p2, ShapeRenderContext.Label label) {
+        int midX = (p1.x + p2.x) / 2;
+        int midY = (p1.y + p2.y) / 2;
+        renderContext.drawLabel(canvas, midX, midY, label, textPaint, textBgPaint);
     }
 
     // ==================== タッチイベント ====================
@@ -530,6 +581,7 @@ public class MapDrawingOverlay extends Overlay {
         // 編集モード: 頂点のドラッグ
         if (drawingMode == DrawingMode.EDIT && draggingVertexIndex >= 0) {
             currentPoints.set(draggingVertexIndex, touchPoint);
+            measurement.movePoint(draggingVertexIndex, touchPoint.getLatitude(), touchPoint.getLongitude());
             notifyMeasurementUpdate();
             mapView.invalidate();
             return true;
@@ -554,6 +606,8 @@ public class MapDrawingOverlay extends Overlay {
         // 編集モード: ドラッグ終了
         if (drawingMode == DrawingMode.EDIT && draggingVertexIndex >= 0) {
             draggingVertexIndex = -1;
+            // ドラッグ中の差分更新の累積誤差を解消
+            measurement.recompute();
             return true;
         }
 
@@ -568,6 +622,7 @@ public class MapDrawingOverlay extends Overlay {
         // ポリゴン/ポリライン: 頂点追加
         if (drawingMode == DrawingMode.POLYGON || drawingMode == DrawingMode.POLYLINE) {
             currentPoints.add(touchPoint);
+            measurement.addPoint(touchPoint.getLatitude(), touchPoint.getLongitude());
             notifyMeasurementUpdate();
             mapView.invalidate();
             return true;
@@ -623,26 +678,20 @@ public class MapDrawingOverlay extends Overlay {
 
         double area = 0;
         double perimeter = 0;
-        List<Double> segmentLengths = new ArrayList<>();
+        int segmentCount = 0;
 
         switch (drawingMode) {
             case POLYGON:
             case EDIT:
-                if (currentPoints.size() >= 3) {
-                    area = GeoCalculator.calculatePolygonArea(currentPoints);
-                    perimeter = GeoCalculator.calculatePolygonPerimeter(currentPoints);
-                    segmentLengths = GeoCalculator.calculatePolygonSegmentLengths(currentPoints);
-                } else if (currentPoints.size() >= 2) {
-                    perimeter = GeoCalculator.calculatePolylineLength(currentPoints);
-                    segmentLengths = GeoCalculator.calculateSegmentLengths(currentPoints);
-                }
+                // 3点以上は閉じた多角形、2点は線として計算
+                area = measurement.getArea(true);
+                perimeter = measurement.getPerimeter(true);
+                segmentCount = measurement.getSegmentCount(true);
                 break;
 
             case POLYLINE:
-                if (currentPoints.size() >= 2) {
-                    perimeter = GeoCalculator.calculatePolylineLength(currentPoints);
-                    segmentLengths = GeoCalculator.calculateSegmentLengths(currentPoints);
-                }
+                perimeter = measurement.getPerimeter(false);
+                segmentCount = measurement.getSegmentCount(false);
                 break;
 
             case CIRCLE:
@@ -653,15 +702,18 @@ public class MapDrawingOverlay extends Overlay {
                 break;
         }
 
-        measurementUpdateListener.onMeasurementUpdate(area, perimeter, segmentLengths);
+        measurementUpdateListener.onMeasurementUpdate(area, perimeter,
+                measurement.getSegmentLengths(), segmentCount);
     }
 
     // ==================== ユーティリティ ====================
 
     /**
      * 目的地点を計算（方位角と距離から）
+     * 
+     * @param out 結果の格納先
      */
-    private GeoPoint calculateDestination(GeoPoint start, double bearing, double distance) {
+    private void calculateDestination(GeoPoint start, double bearing, double distance, GeoPoint out) {
         double lat1 = Math.toRadians(start.getLatitude());
         double lng1 = Math.toRadians(start.getLongitude());
         double angularDistance = distance / 6371000.0;
@@ -673,7 +725,7 @@ public class MapDrawingOverlay extends Overlay {
                 Math.sin(bearingRad) * Math.sin(angularDistance) * Math.cos(lat1),
                 Math.cos(angularDistance) - Math.sin(lat1) * Math.sin(lat2));
 
-        return new GeoPoint(Math.toDegrees(lat2), Math.toDegrees(lng2));
+        out.setCoords(Math.toDegrees(lat2), Math.toDegrees(lng2));
     }
 
     /**
@@ -695,6 +747,7 @@ public class MapDrawingOverlay extends Overlay {
         if (points != null) {
             currentPoints.addAll(points);
         }
+        measurement.setPoints(currentPoints);
         notifyMeasurementUpdate();
     }
 
@@ -756,7 +809,15 @@ public class MapDrawingOverlay extends Overlay {
      * 計測値更新リスナー
      */
     public interface MeasurementUpdateListener {
-        void onMeasurementUpdate(double area, double perimeter, List<Double> segmentLengths);
+        /**
+         * 計測値が更新された
+         *
+         * @param area 面積（平方メートル）
+         * @param perimeter 周囲長・総延長（メートル）
+         * @param segmentLengths 各辺の長さ（先頭segmentCount個が有効、通知中のみ有効な再利用配列）
+         * @param segmentCount 辺の数
+         */
+        void onMeasurementUpdate(double area, double perimeter, double[] segmentLengths, int segmentCount);
     }
 }
 
@@ -0,0 +1,140 @@
+/**
+ * PreparedShape.java
+ *
+ * VISIONOID MAG PLOTTER - タップ判定用に前処理した図形
+ *
+ * 概要:
+ *   保存済み図形（多角形・ポリライン）の全辺をローカル平面座標（メートル）に変換し、
+ *   Y方向の帯に辺を振り分けておく（EdgeBandIndex）。
+ *   点の内外判定（レイキャスト）と線への近接判定を、全辺ではなく
+ *   点の近くの帯の辺だけで計算する。
+ *
+ * 主な仕様:
+ *   - 多角形は閉じる辺を含めて登録、ポリラインは端点間の辺のみ
+ *   - 帯の数は辺数に比例（1帯あたり数本）
+ *   - 近接判定は許容距離の範囲の帯だけを調べる
+ *
+ * 制限事項:
+ *   - ローカル平面近似のため数十km程度までの図形を前提
+ *   - 構築後は読み取り専用
+ */
+package com.visionoid.magplotter.ui.map.drawing;
+
+import androidx.annotation.NonNull;
+
+import com.visionoid.magplotter.util.EdgeBandIndex;
+import com.visionoid.magplotter.util.LocalProjection;
+
+/**
+ * タップ判定用図形クラス
+ */
+final class PreparedShape {
+
+    /** 図形中心を原点とする平面投影 */
+    @NonNull
+    private final LocalProjection projection;
+
+    /** 境界（メートル） */
+    private final double minX;
+    private final double minY;
+    private final double maxX;
+    private final double maxY;
+
+    /** 辺の帯インデックス */
+    @NonNull
+    private final EdgeBandIndex bands;
+
+    private PreparedShape(@NonNull LocalProjection projection,
+                          double[] ax, double[] ay, double[] bx, double[] by, int edgeCount,
+                          double minX, double minY, double maxX, double maxY) {
+        this.projection = projection;
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.bands = new EdgeBandIndex(ax, ay, bx, by, edgeCount, minY, maxY);
+    }
+
+    /**
+     * 展開済み座標から構築
+     *
+     * @param geometry 展開済み座標（多角形・ポリライン）
+     * @param closed 閉じた図形（多角形）ならtrue
+     * @return 判定用図形
+     */
+    @NonNull
+    static PreparedShape build(@NonNull ShapeGeometry geometry, boolean closed) {
+        LocalProjection projection = new LocalProjection(
+                geometry.getCenterLat(), geometry.getCenterLng());
+        int count = geometry.getPointCount();
+        int edgeCount = closed ? count : Math.max(0, count - 1);
+
+        double[] ax = new double[edgeCount];
+        double[] ay = new double[edgeCount];
+        double[] bx = new double[edgeCount];
+        double[] by = new double[edgeCount];
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+
+        for (int i = 0; i < count; i++) {
+            double x = projection.toX(geometry.getLng(i));
+            double y = projection.toY(geometry.getLat(i));
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+            if (i < edgeCount) {
+                ax[i] = x;
+                ay[i] = y;
+            }
+            if (i > 0) {
+                bx[i - 1] = x;
+                by[i - 1] = y;
+            }
+        }
+        if (closed && count > 0) {
+            bx[count - 1] = ax[0];
+            by[count - 1] = ay[0];
+        }
+        if (count == 0) {
+            minX = minY = maxX = maxY = 0;
+        }
+        return new PreparedShape(projection, ax, ay, bx, by, edgeCount, minX, minY, maxX, maxY);
+    }
+
+    /**
+     * 点が多角形の内側にあるか判定
+     *
+     * @param lat 緯度（度）
+     * @param lng 経度（度）
+     * @return 内側ならtrue
+     */
+    boolean contains(double lat, double lng) {
+        double x = projection.toX(lng);
+        double y = projection.toY(lat);
+        if (x < minX || x > maxX || y < minY || y > maxY) {
+            return false;
+        }
+        return bands.contains(x, y);
+    }
+
+    /**
+     * 点が辺から許容距離内にあるか判定
+     *
+     * @param lat 緯度（度）
+     * @param lng 経度（度）
+     * @param toleranceMeters 許容距離（メートル）
+     * @return 許容距離内の辺があればtrue
+     */
+    boolean isNear(double lat, double lng, double toleranceMeters) {
+        double x = projection.toX(lng);
+        double y = projection.toY(lat);
+        if (x < minX - toleranceMeters || x > maxX + toleranceMeters
+                || y < minY - toleranceMeters || y > maxY + toleranceMeters) {
+            return false;
+        }
+        return bands.hasEdgeWithin(x, y, toleranceMeters);
+    }
+}
@@ -12,9 +12,17 @@
  *   - 図形ごとに色分け可能
  *   - タップで図形選択
  *   - 名称・計測値のラベル表示
+ *   - 座標データは図形ごとに一度だけ展開してキャッシュ（ShapeGeometryCache）
+ *   - ラベルの文字列・寸法は図形ごとにキャッシュし、Paint・Path・画面座標は再利用
+ *     （地図のアニメーション中に一時オブジェクトを生成しない）
+ *   - 表示範囲と境界ボックスが重ならない図形は座標変換せずに除外
+ *   - ラベルは全図形の描画後に重ならないものだけを描画
+ *     （選択中の図形の情報→その他の図形の情報→辺の長さ・半径の順に優先）
+ *   - タップ判定は境界ボックスのR-treeで候補を絞り込んでから実施（ShapeHitIndex）
  * 
  * 制限事項:
  *   - 大量の図形表示時はパフォーマンスに注意
+ *   - 重なったラベルは表示されない（拡大すると表示される）
  */
 package com.visionoid.magplotter.ui.map.drawing;
 
@@ -24,26 +32,27 @@ import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.Path;
 import android.graphics.Point;
-import android.graphics.Rect;
 import android.graphics.Typeface;
 import android.view.MotionEvent;
 
-import org.osmdroid.util.GeoPoint;
+import org.osmdroid.api.IGeoPoint;
+import org.osmdroid.util.BoundingBox;
 import org.osmdroid.views.MapView;
 import org.osmdroid.views.Projection;
 import org.osmdroid.views.overlay.Overlay;
 
 import com.visionoid.magplotter.data.model.DrawingShape;
-import com.visionoid.magplotter.data.repository.DrawingShapeRepository;
+import com.visionoid.magplotter.ui.map.debug.VertexCountSource;
 import com.visionoid.magplotter.util.GeoCalculator;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * 保存済み図形オーバーレイクラス
  */
-public class SavedShapesOverlay extends Overlay {
+public class SavedShapesOverlay extends Overlay implements VertexCountSource {
 
     /** コンテキスト */
     private final Context context;
@@ -63,6 +72,42 @@ public class SavedShapesOverlay extends Overlay {
     /** 面積表示フラグ */
     private boolean showArea = true;
 
+    /** 表示設定フラグ（ラベルの有効性判定用） */
+    private static final int FLAG_EDGE_LENGTHS = 1;
+    private static final int FLAG_NAMES = 1 << 1;
+    private static final int FLAG_AREA = 1 << 2;
+
+    /** 直前の描画で処理した頂点数（描画計測用） */
+    private int drawnVertexCount = 0;
+
+    /** 展開済み座標のキャッシュ */
+    private final ShapeGeometryCache geometryCache = new ShapeGeometryCache();
+
+    /** タップ判定インデックス（図形リストの変更後はnull、次のタップで作成） */
+    private ShapeHitIndex hitIndex;
+
+    /** ポリラインのタップ許容距離（ピクセル） */
+    private static final float POLYLINE_TAP_TOLERANCE_PX = 30f;
+
+    /** 描画の再利用オブジェクト（Paint・Path・画面座標） */
+    private final ShapeRenderContext renderContext = new ShapeRenderContext();
+
+    /** 画面座標の再利用Point（重心・円の中心、円の半径計算用） */
+    private final Point scratchPoint = new Point();
+    private final Point scratchEdgePoint = new Point();
+
+    /** ラベルの重なり判定グリッド */
+    private final LabelCollisionGrid labelGrid = new LabelCollisionGrid();
+
+    /** 描画待ちの図形情報ラベル（ShapeLabels） */
+    private final PendingLabels pendingInfoLabels = new PendingLabels();
+
+    /** 描画待ちの辺の長さ・半径ラベル（ShapeRenderContext.Label） */
+    private final PendingLabels pendingEdgeLabels = new PendingLabels();
+
+    /** 選択中の図形の情報ラベルの位置（pendingInfoLabels内、なければ-1） */
+    private int selectedInfoIndex = -1;
+
     // ==================== ペイント ====================
 
     /** テキストのペイント */
@@ -124,6 +169,8 @@ public class SavedShapesOverlay extends Overlay {
      */
     public void setShapes(List<DrawingShape> shapes) {
         this.shapes = shapes != null ? shapes : new ArrayList<>();
+        geometryCache.retain(this.shapes);
+        hitIndex = null;
     }
 
     /**
@@ -134,6 +181,7 @@ public class SavedShapesOverlay extends Overlay {
     public void addShape(DrawingShape shape) {
         if (shape != null) {
             shapes.add(shape);
+            hitIndex = null;
         }
     }
 
@@ -144,6 +192,8 @@ public class SavedShapesOverlay extends Overlay {
      */
     public void removeShape(long shapeId) {
         shapes.removeIf(shape -> shape.getId() == shapeId);
+        geometryCache.remove(shapeId);
+        hitIndex = null;
         if (selectedShapeId == shapeId) {
             selectedShapeId = -1;
         }
@@ -154,6 +204,8 @@ public class SavedShapesOverlay extends Overlay {
      */
     public void clearShapes() {
         shapes.clear();
+        geometryCache.clear();
+        hitIndex = null;
         selectedShapeId = -1;
     }
 
@@ -205,54 +257,64 @@ public class SavedShapesOverlay extends Overlay {
         if (shadow) return;
 
         Projection projection = mapView.getProjection();
-
-        for (DrawingShape shape : shapes) {
+        BoundingBox viewport = projection.getBoundingBox();
+        drawnVertexCount = 0;
+        pendingInfoLabels.clear();
+        pendingEdgeLabels.clear();
+        selectedInfoIndex = -1;
+
+        for (int s = 0; s < shapes.size(); s++) {
+            DrawingShape shape = shapes.get(s);
             if (!shape.isVisible()) continue;
 
             boolean isSelected = shape.getId() == selectedShapeId;
-            
+            ShapeGeometry geometry = geometryCache.get(shape);
+            if (!geometry.isDrawable()) continue;
+
+            // 表示範囲外の図形は除外
+            if (!geometry.intersects(viewport.getLatSouth(), viewport.getLonWest(),
+                    viewport.getLatNorth(), viewport.getLonEast())) {
+                continue;
+            }
+            ShapeLabels labels = getLabels(shape, geometry);
+
             switch (shape.getShapeType()) {
                 case DrawingShape.TYPE_POLYGON:
-                    drawPolygon(canvas, projection, shape, isSelected);
+                    drawPolygon(canvas, projection, shape, geometry, labels, isSelected);
                     break;
                 case DrawingShape.TYPE_POLYLINE:
-                    drawPolyline(canvas, projection, shape, isSelected);
+                    drawPolyline(canvas, projection, shape, geometry, labels, isSelected);
                     break;
                 case DrawingShape.TYPE_CIRCLE:
-                    drawCircle(canvas, projection, shape, isSelected);
+                    drawCircle(canvas, projection, shape, geometry, labels, isSelected);
                     break;
             }
         }
+
+        drawPendingLabels(canvas);
+    }
+
+    @Override
+    public int getDrawnVertexCount() {
+        return drawnVertexCount;
     }
 
     /**
      * 多角形を描画
      */
-    private void drawPolygon(Canvas canvas, Projection projection, DrawingShape shape, boolean isSelected) {
-        List<GeoPoint> points = DrawingShapeRepository.parseCoordinatesJson(shape.getCoordinatesJson());
-        if (points.size() < 3) return;
+    private void drawPolygon(Canvas canvas, Projection projection, DrawingShape shape,
+                             ShapeGeometry geometry, ShapeLabels labels, boolean isSelected) {
+        int count = geometry.getPointCount();
+        Point[] screenPoints = toScreenPoints(projection, geometry);
+        drawnVertexCount += count;
 
-        Point[] screenPoints = new Point[points.size()];
-        for (int i = 0; i < points.size(); i++) {
-            screenPoints[i] = projection.toPixels(points.get(i), null);
-        }
-
-        // ペイント作成
-        Paint fillPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        fillPaint.setColor(shape.getFillColor());
-        fillPaint.setStyle(Paint.Style.FILL);
-
-        Paint linePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        linePaint.setColor(shape.getStrokeColor());
-        linePaint.setStrokeWidth(shape.getStrokeWidth());
-        linePaint.setStyle(Paint.Style.STROKE);
-        linePaint.setStrokeCap(Paint.Cap.ROUND);
-        linePaint.setStrokeJoin(Paint.Join.ROUND);
+        Paint fillPaint = renderContext.getFillPaint(shape.getFillColor());
+        Paint linePaint = renderContext.getStrokePaint(shape.getStrokeColor(), shape.getStrokeWidth());
 
         // 塗りつぶし
-        Path fillPath = new Path();
+        Path fillPath = renderContext.getPath();
         fillPath.moveTo(screenPoints[0].x, screenPoints[0].y);
-        for (int i = 1; i < screenPoints.length; i++) {
+        for (int i = 1; i < count; i++) {
             fillPath.lineTo(screenPoints[i].x, screenPoints[i].y);
         }
         fillPath.close();
@@ -264,108 +326,78 @@ public class SavedShapesOverlay extends Overlay {
         }
 
         // 線を描画
-        for (int i = 0; i < screenPoints.length; i++) {
+        for (int i = 0; i < count; i++) {
             Point p1 = screenPoints[i];
-            Point p2 = screenPoints[(i + 1) % screenPoints.length];
+            Point p2 = screenPoints[(i + 1) % count];
             canvas.drawLine(p1.x, p1.y, p2.x, p2.y, linePaint);
 
             // 辺の長さを表示
             if (showEdgeLengths) {
-                GeoPoint g1 = points.get(i);
-                GeoPoint g2 = points.get((i + 1) % points.size());
-                double distance = GeoCalculator.calculateDistance(g1, g2);
-                String distText = GeoCalculator.formatDistanceShort(distance);
-                drawEdgeLabel(canvas, p1, p2, distText);
+                addEdgeLabel(p1, p2, labels.edges[i]);
             }
         }
 
         // 重心に名称と面積を表示
-        GeoPoint centroid = GeoCalculator.calculateCentroid(points);
-        if (centroid != null) {
-            Point centroidScreen = projection.toPixels(centroid, null);
-            drawShapeInfo(canvas, centroidScreen, shape);
-        }
+        Point centroidScreen = renderContext.toPixels(projection,
+                geometry.getCenterLat(), geometry.getCenterLng(), scratchPoint);
+        addShapeInfo(centroidScreen, labels, isSelected);
     }
 
     /**
      * ポリラインを描画
      */
-    private void drawPolyline(Canvas canvas, Projection projection, DrawingShape shape, boolean isSelected) {
-        List<GeoPoint> points = DrawingShapeRepository.parseCoordinatesJson(shape.getCoordinatesJson());
-        if (points.size() < 2) return;
+    private void drawPolyline(Canvas canvas, Projection projection, DrawingShape shape,
+                              ShapeGeometry geometry, ShapeLabels labels, boolean isSelected) {
+        int count = geometry.getPointCount();
+        Point[] screenPoints = toScreenPoints(projection, geometry);
+        drawnVertexCount += count;
 
-        Point[] screenPoints = new Point[points.size()];
-        for (int i = 0; i < points.size(); i++) {
-            screenPoints[i] = projection.toPixels(points.get(i), null);
-        }
-
-        // ペイント作成
-        Paint linePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        linePaint.setColor(shape.getStrokeColor());
-        linePaint.setStrokeWidth(shape.getStrokeWidth());
-        linePaint.setStyle(Paint.Style.STROKE);
-        linePaint.setStrokeCap(Paint.Cap.ROUND);
-        linePaint.setStrokeJoin(Paint.Join.ROUND);
+        Paint linePaint = renderContext.getStrokePaint(shape.getStrokeColor(), shape.getStrokeWidth());
 
         // 選択時の太い線
         if (isSelected) {
-            Paint selectLinePaint = new Paint(linePaint);
-            selectLinePaint.setStrokeWidth(shape.getStrokeWidth() + 6);
-            selectLinePaint.setColor(0xFFFFFFFF);
-            for (int i = 0; i < screenPoints.length - 1; i++) {
+            Paint selectLinePaint = renderContext.getStrokePaint(0xFFFFFFFF, shape.getStrokeWidth() + 6);
+            for (int i = 0; i < count - 1; i++) {
                 canvas.drawLine(screenPoints[i].x, screenPoints[i].y,
                         screenPoints[i + 1].x, screenPoints[i + 1].y, selectLinePaint);
             }
         }
 
         // 線を描画
-        for (int i = 0; i < screenPoints.length - 1; i++) {
+        for (int i = 0; i < count - 1; i++) {
             Point p1 = screenPoints[i];
             Point p2 = screenPoints[i + 1];
             canvas.drawLine(p1.x, p1.y, p2.x, p2.y, linePaint);
 
             // 辺の長さを表示
             if (showEdgeLengths) {
-                GeoPoint g1 = points.get(i);
-                GeoPoint g2 = points.get(i + 1);
-                double distance = GeoCalculator.calculateDistance(g1, g2);
-                String distText = GeoCalculator.formatDistanceShort(distance);
-                drawEdgeLabel(canvas, p1, p2, distText);
+                addEdgeLabel(p1, p2, labels.edges[i]);
             }
         }
 
         // 中点に名称と総距離を表示
-        int midIndex = points.size() / 2;
+        int midIndex = count / 2;
         Point midPoint = screenPoints[midIndex];
-        drawShapeInfo(canvas, midPoint, shape);
+        addShapeInfo(midPoint, labels, isSelected);
     }
 
     /**
      * 円を描画
      */
-    private void drawCircle(Canvas canvas, Projection projection, DrawingShape shape, boolean isSelected) {
-        Object[] circleData = DrawingShapeRepository.parseCircleJson(shape.getCoordinatesJson());
-        if (circleData == null) return;
+    private void drawCircle(Canvas canvas, Projection projection, DrawingShape shape,
+                            ShapeGeometry geometry, ShapeLabels labels, boolean isSelected) {
+        drawnVertexCount++;
 
-        GeoPoint center = (GeoPoint) circleData[0];
-        double radius = (Double) circleData[1];
-
-        Point centerPoint = projection.toPixels(center, null);
+        Point centerPoint = renderContext.toPixels(projection,
+                geometry.getCenterLat(), geometry.getCenterLng(), scratchPoint);
 
         // 半径をピクセルに変換
-        GeoPoint edgePoint = calculateDestination(center, 90, radius);
-        Point edgePointScreen = projection.toPixels(edgePoint, null);
+        Point edgePointScreen = renderContext.toPixels(projection,
+                geometry.getEastLat(), geometry.getEastLng(), scratchEdgePoint);
         float radiusPx = Math.abs(edgePointScreen.x - centerPoint.x);
 
-        // ペイント作成
-        Paint fillPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        fillPaint.setColor(shape.getFillColor());
-        fillPaint.setStyle(Paint.Style.FILL);
-
-        Paint linePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        linePaint.setColor(shape.getStrokeColor());
-        linePaint.setStrokeWidth(shape.getStrokeWidth());
-        linePaint.setStyle(Paint.Style.STROKE);
+        Paint fillPaint = renderContext.getFillPaint(shape.getFillColor());
+        Paint linePaint = renderContext.getStrokePaint(shape.getStrokeColor(), shape.getStrokeWidth());
 
         // 塗りつぶし
         canvas.drawCircle(centerPoint.x, centerPoint.y, radiusPx, fillPaint);
@@ -379,20 +411,70 @@ public class SavedShapesOverlay extends Overlay {
         canvas.drawCircle(centerPoint.x, centerPoint.y, radiusPx, linePaint);
 
         // 半径ラベル
-        if (showEdgeLengths) {
-            String radiusText = "r=" + GeoCalculator.formatDistanceShort(radius);
-            Point labelPoint = new Point(centerPoint.x + (int) (radiusPx / 2), centerPoint.y);
-            drawLabel(canvas, labelPoint, radiusText, textPaint, textBgPaint);
+        if (showEdgeLengths && labels.radius != null) {
+            pendingEdgeLabels.add(labels.radius, centerPoint.x + (int) (radiusPx / 2), centerPoint.y);
         }
 
         // 中心に名称と面積を表示
-        drawShapeInfo(canvas, centerPoint, shape);
+        addShapeInfo(centerPoint, labels, isSelected);
     }
 
     /**
-     * 図形情報（名称・面積）を描画
+     * 頂点を画面座標に変換
+     * 
+     * @return 再利用の画面座標配列（先頭から頂点数分が有効）
      */
-    private void drawShapeInfo(Canvas canvas, Point point, DrawingShape shape) {
+    private Point[] toScreenPoints(Projection projection, ShapeGeometry geometry) {
+        int count = geometry.getPointCount();
+        Point[] screenPoints = renderContext.getScreenPoints(count);
+        for (int i = 0; i < count; i++) {
+            renderContext.toPixels(projection, geometry.getLat(i), geometry.getLng(i), screenPoints[i]);
+        }
+        return screenPoints;
+    }
+
+    // ==================== ラベル ====================
+
+    /**
+     * 現在の表示設定をフラグにまとめる（ラベルの有効性判定用）
+     */
+    private int getDisplayFlags() {
+        return (showEdgeLengths ? FLAG_EDGE_LENGTHS : 0)
+                | (showNames ? FLAG_NAMES : 0)
+                | (showArea ? FLAG_AREA : 0);
+    }
+
+    /**
+     * 図形のラベルを取得（未作成・図形の編集後・表示設定の変更後は作成）
+     */
+    private ShapeLabels getLabels(DrawingShape shape, ShapeGeometry geometry) {
+        int flags = getDisplayFlags();
+        ShapeLabels labels = geometryCache.getLabels(shape, flags);
+        if (labels == null) {
+            labels = createLabels(shape, geometry, flags);
+            geometryCache.putLabels(shape.getId(), labels);
+        }
+        return labels;
+    }
+
+    /**
+     * 図形のラベルを作成
+     */
+    private ShapeLabels createLabels(DrawingShape shape, ShapeGeometry geometry, int flags) {
+        ShapeRenderContext.Label[] edges = ShapeLabels.NO_LABELS;
+        ShapeRenderContext.Label radius = null;
+        if (showEdgeLengths) {
+            edges = new ShapeRenderContext.Label[geometry.getEdgeCount()];
+            for (int i = 0; i < edges.length; i++) {
+                edges[i] = renderContext.measureLabel(
+                        GeoCalculator.formatDistanceShort(geometry.getEdgeLength(i)), textPaint);
+            }
+            if (DrawingShape.TYPE_CIRCLE.equals(shape.getShapeType())) {
+                radius = renderContext.measureLabel(
+                        "r=" + GeoCalculator.formatDistanceShort(geometry.getRadius()), textPaint);
+            }
+        }
+
         List<String> lines = new ArrayList<>();
 
         if (showNames && !shape.getName().isEmpty()) {
@@ -407,198 +489,152 @@ public class SavedShapesOverlay extends Overlay {
             lines.add("Total: " + shape.getPerimeterDisplayString());
         }
 
-        if (lines.isEmpty()) return;
-
-        // 複数行のラベルを描画
-        drawMultiLineLabel(canvas, point, lines);
-    }
-
-    /**
-     * 複数行ラベルを描画
-     */
-    private void drawMultiLineLabel(Canvas canvas, Point point, List<String> lines) {
-        if (lines.isEmpty()) return;
-
-        float lineHeight = namePaint.getTextSize() + 8;
-        float totalHeight = lineHeight * lines.size();
         float maxWidth = 0;
-
         for (String line : lines) {
-            float width = namePaint.measureText(line);
-            maxWidth = Math.max(maxWidth, width);
+            maxWidth = Math.max(maxWidth, namePaint.measureText(line));
         }
 
-        int padding = 12;
-        float bgLeft = point.x - maxWidth / 2 - padding;
-        float bgTop = point.y - totalHeight / 2 - padding;
-        float bgRight = point.x + maxWidth / 2 + padding;
-        float bgBottom = point.y + totalHeight / 2 + padding;
-
-        canvas.drawRoundRect(bgLeft, bgTop, bgRight, bgBottom, 12, 12, textBgPaint);
-
-        float y = point.y - totalHeight / 2 + lineHeight - 8;
-        for (int i = 0; i < lines.size(); i++) {
-            Paint paint = (i == 0) ? namePaint : textPaint;
-            canvas.drawText(lines.get(i), point.x, y, paint);
-            y += lineHeight;
-        }
+        return new ShapeLabels(shape.getUpdatedAt(), flags, edges, radius,
+                lines.toArray(new String[0]), maxWidth);
     }
 
     /**
-     * 辺のラベルを描画
+     * 図形情報（名称・面積）を描画待ちに追加
      */
-    private void drawEdgeLabel(Canvas canvas, Point p1, Point p2, String text) {
-        int midX = (p1.x + p2.x) / 2;
-        int midY = (p1.y + p2.y) / 2;
-        drawLabel(canvas, new Point(midX, midY), text, textPaint, textBgPaint);
+    private void addShapeInfo(Point point, ShapeLabels labels, boolean isSelected) {
+        if (labels.infoLines.length == 0) return;
+        if (isSelected) {
+            selectedInfoIndex = pendingInfoLabels.count;
+        }
+        pendingInfoLabels.add(labels, point.x, point.y);
     }
 
     /**
-     * ラベルを描画
+     * 辺のラベルを描画待ちに追加（辺の中点）
      */
-    private void drawLabel(Canvas canvas, Point point, String text, Paint textPaint, Paint bgPaint) {
-        Rect bounds = new Rect();
-        textPaint.getTextBounds(text, 0, text.length(), bounds);
-
-        int padding = 8;
-        int bgLeft = point.x - bounds.width() / 2 - padding;
-        int bgTop = point.y - bounds.height() - padding;
-        int bgRight = point.x + bounds.width() / 2 + padding;
-        int bgBottom = point.y + padding;
-
-        canvas.drawRoundRect(bgLeft, bgTop, bgRight, bgBottom, 8, 8, bgPaint);
-        canvas.drawText(text, point.x, point.y, textPaint);
+    private void addEdgeLabel(Point p1, Point p2, ShapeRenderContext.Label label) {
+        pendingEdgeLabels.add(label, (p1.x + p2.x) / 2, (p1.y + p2.y) / 2);
     }
 
-    // ==================== タッチイベント ====================
-
-    @Override
-    public boolean onSingleTapConfirmed(MotionEvent e, MapView mapView) {
-        if (shapeTapListener == null) return false;
-
-        Projection projection = mapView.getProjection();
-        GeoPoint tapPoint = (GeoPoint) projection.fromPixels((int) e.getX(), (int) e.getY());
+    /**
+     * 描画待ちのラベルを優先順に配置し、他のラベルと重ならないものだけを描画
+     */
+    private void drawPendingLabels(Canvas canvas) {
+        labelGrid.reset(canvas.getWidth(), canvas.getHeight());
 
-        // タップした図形を検索
-        for (int i = shapes.size() - 1; i >= 0; i--) {
-            DrawingShape shape = shapes.get(i);
-            if (!shape.isVisible()) continue;
+        // 選択中の図形の情報を最優先
+        if (selectedInfoIndex >= 0) {
+            placeShapeInfo(canvas, selectedInfoIndex);
+        }
+        for (int i = 0; i < pendingInfoLabels.count; i++) {
+            if (i != selectedInfoIndex) {
+                placeShapeInfo(canvas, i);
+            }
+        }
 
-            if (isPointInShape(tapPoint, shape, projection, e.getX(), e.getY())) {
-                shapeTapListener.onShapeTapped(shape);
-                return true;
+        for (int i = 0; i < pendingEdgeLabels.count; i++) {
+            ShapeRenderContext.Label label = (ShapeRenderContext.Label) pendingEdgeLabels.items[i];
+            int x = pendingEdgeLabels.xs[i];
+            int y = pendingEdgeLabels.ys[i];
+            if (renderContext.tryPlaceLabel(labelGrid, x, y, label)) {
+                renderContext.drawLabel(canvas, x, y, label, textPaint, textBgPaint);
             }
         }
 
-        // 図形外をタップした場合
-        shapeTapListener.onShapeTapped(null);
-        return false;
+        // 描画後は図形ラベルへの参照を残さない
+        pendingInfoLabels.clear();
+        pendingEdgeLabels.clear();
     }
 
     /**
-     * 点が図形内にあるか判定
+     * 図形情報（名称・面積）を他のラベルと重ならなければ描画
      */
-    private boolean isPointInShape(GeoPoint point, DrawingShape shape, Projection projection, float x, float y) {
-        switch (shape.getShapeType()) {
-            case DrawingShape.TYPE_POLYGON:
-                List<GeoPoint> polygonPoints = DrawingShapeRepository.parseCoordinatesJson(shape.getCoordinatesJson());
-                return isPointInPolygon(point, polygonPoints);
-
-            case DrawingShape.TYPE_POLYLINE:
-                List<GeoPoint> linePoints = DrawingShapeRepository.parseCoordinatesJson(shape.getCoordinatesJson());
-                return isPointNearPolyline(point, linePoints, projection, x, y, 30f);
-
-            case DrawingShape.TYPE_CIRCLE:
-                Object[] circleData = DrawingShapeRepository.parseCircleJson(shape.getCoordinatesJson());
-                if (circleData != null) {
-                    GeoPoint center = (GeoPoint) circleData[0];
-                    double radius = (Double) circleData[1];
-                    double distance = GeoCalculator.calculateDistance(point, center);
-                    return distance <= radius;
-                }
-                return false;
+    private void placeShapeInfo(Canvas canvas, int index) {
+        ShapeLabels labels = (ShapeLabels) pendingInfoLabels.items[index];
+        int x = pendingInfoLabels.xs[index];
+        int y = pendingInfoLabels.ys[index];
+        String[] lines = labels.infoLines;
+
+        // 複数行のラベルを描画
+        float lineHeight = namePaint.getTextSize() + 8;
+        float totalHeight = lineHeight * lines.length;
+        float maxWidth = labels.infoMaxWidth;
+
+        int padding = 12;
+        float bgLeft = x - maxWidth / 2 - padding;
+        float bgTop = y - totalHeight / 2 - padding;
+        float bgRight = x + maxWidth / 2 + padding;
+        float bgBottom = y + totalHeight / 2 + padding;
+
+        if (!labelGrid.tryPlace(bgLeft, bgTop, bgRight, bgBottom)) return;
+
+        canvas.drawRoundRect(bgLeft, bgTop, bgRight, bgBottom, 12, 12, textBgPaint);
+
+        float lineY = y - totalHeight / 2 + lineHeight - 8;
+        for (int i = 0; i < lines.length; i++) {
+            Paint paint = (i == 0) ? namePaint : textPaint;
+            canvas.drawText(lines[i], x, lineY, paint);
+            lineY += lineHeight;
         }
-        return false;
     }
 
     /**
-     * 点がポリゴン内にあるか判定（Ray casting）
+     * 描画待ちラベルの再利用キュー（ラベルと基準点の画面座標）
      */
-    private boolean isPointInPolygon(GeoPoint point, List<GeoPoint> polygon) {
-        if (polygon.size() < 3) return false;
-
-        boolean inside = false;
-        int n = polygon.size();
-        double x = point.getLongitude();
-        double y = point.getLatitude();
-
-        for (int i = 0, j = n - 1; i < n; j = i++) {
-            double xi = polygon.get(i).getLongitude();
-            double yi = polygon.get(i).getLatitude();
-            double xj = polygon.get(j).getLongitude();
-            double yj = polygon.get(j).getLatitude();
-
-            if (((yi > y) != (yj > y)) && (x < (xj - xi) * (y - yi) / (yj - yi) + xi)) {
-                inside = !inside;
+    private static final class PendingLabels {
+        Object[] items = new Object[32];
+        int[] xs = new int[32];
+        int[] ys = new int[32];
+        int count;
+
+        void add(Object item, int x, int y) {
+            if (count == items.length) {
+                items = Arrays.copyOf(items, count * 2);
+                xs = Arrays.copyOf(xs, count * 2);
+                ys = Arrays.copyOf(ys, count * 2);
             }
+            items[count] = item;
+            xs[count] = x;
+            ys[count] = y;
+            count++;
         }
 
-        return inside;
-    }
-
-    /**
-     * 点がポリライン近くにあるか判定
-     */
-    private boolean isPointNearPolyline(GeoPoint point, List<GeoPoint> polyline, 
-            Projection projection, float touchX, float touchY, float threshold) {
-        if (polyline.size() < 2) return false;
-
-        for (int i = 0; i < polyline.size() - 1; i++) {
-            Point p1 = projection.toPixels(polyline.get(i), null);
-            Point p2 = projection.toPixels(polyline.get(i + 1), null);
-            float distance = pointToSegmentDistance(touchX, touchY, p1.x, p1.y, p2.x, p2.y);
-            if (distance <= threshold) {
-                return true;
-            }
+        void clear() {
+            Arrays.fill(items, 0, count, null);
+            count = 0;
         }
-        return false;
     }
 
-    /**
-     * 点から線分への距離を計算
-     */
-    private float pointToSegmentDistance(float px, float py, float x1, float y1, float x2, float y2) {
-        float dx = x2 - x1;
-        float dy = y2 - y1;
-        float lengthSquared = dx * dx + dy * dy;
+    // ==================== タッチイベント ====================
 
-        if (lengthSquared == 0) {
-            return (float) Math.sqrt((px - x1) * (px - x1) + (py - y1) * (py - y1));
+    @Override
+    public boolean onSingleTapConfirmed(MotionEvent e, MapView mapView) {
+        if (shapeTapListener == null) return false;
+
+        Projection projection = mapView.getProjection();
+        IGeoPoint tapPoint = projection.fromPixels((int) e.getX(), (int) e.getY());
+
+        if (hitIndex == null) {
+            hitIndex = ShapeHitIndex.build(shapes, geometryCache);
         }
 
-        float t = Math.max(0, Math.min(1, ((px - x1) * dx + (py - y1) * dy) / lengthSquared));
-        float nearestX = x1 + t * dx;
-        float nearestY = y1 + t * dy;
+        // ポリラインの許容距離をタップ位置の縮尺でメートルに換算
+        float pixelsPerMeter = projection.metersToPixels(1f, tapPoint.getLatitude(),
+                projection.getZoomLevel());
+        double toleranceMeters = pixelsPerMeter > 0
+                ? POLYLINE_TAP_TOLERANCE_PX / pixelsPerMeter : 0;
 
-        return (float) Math.sqrt((px - nearestX) * (px - nearestX) + (py - nearestY) * (py - nearestY));
-    }
+        // タップした図形を検索
+        DrawingShape shape = hitIndex.findShapeAt(tapPoint.getLatitude(), tapPoint.getLongitude(),
+                toleranceMeters);
+        if (shape != null) {
+            shapeTapListener.onShapeTapped(shape);
+            return true;
+        }
 
-    /**
-     * 目的地点を計算
-     */
-    private GeoPoint calculateDestination(GeoPoint start, double bearing, double distance) {
-        double lat1 = Math.toRadians(start.getLatitude());
-        double lng1 = Math.toRadians(start.getLongitude());
-        double angularDistance = distance / 6371000.0;
-        double bearingRad = Math.toRadians(bearing);
-
-        double lat2 = Math.asin(Math.sin(lat1) * Math.cos(angularDistance) +
-                Math.cos(lat1) * Math.sin(angularDistance) * Math.cos(bearingRad));
-        double lng2 = lng1 + Math.atan2(
-                Math.sin(bearingRad) * Math.sin(angularDistance) * Math.cos(lat1),
-                Math.cos(angularDistance) - Math.sin(lat1) * Math.sin(lat2));
-
-        return new GeoPoint(Math.toDegrees(lat2), Math.toDegrees(lng2));
+        // 図形外をタップした場合
+        shapeTapListener.onShapeTapped(null);
+        return false;
     }
 
     // ==================== リスナー ====================
@@ -0,0 +1,353 @@
+/**
+ * ShapeGeometry.java
+ *
+ * VISIONOID MAG PLOTTER - 図形の展開済み座標
+ *
+ * 概要:
+ *   保存済み図形（DrawingShape）の座標データ（CoordinateCodec形式）を一度だけ展開し、
+ *   描画・タップ判定で繰り返し使う値をプリミティブ配列で保持する。
+ *
+ * 主な仕様:
+ *   - polygon/polyline: 頂点の緯度・経度配列、各辺の長さ（polygonは閉じる辺を含む）
+ *   - polygon: 重心（頂点の平均）
+ *   - circle: 中心・半径と、画面上の半径を求めるための東側の点
+ *   - 境界ボックス（表示範囲外の図形の除外用）
+ *   - 展開元の図形IDと更新日時を保持（キャッシュの有効性判定用）
+ *
+ * 制限事項:
+ *   - 生成後は変更しない（図形を編集した場合は作り直す）
+ *   - 座標データが不正な場合はisDrawable()がfalseになる
+ */
+package com.visionoid.magplotter.ui.map.drawing;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.visionoid.magplotter.data.model.DrawingShape;
+import com.visionoid.magplotter.data.repository.DrawingShapeRepository;
+import com.visionoid.magplotter.util.CoordinateCodec;
+import com.visionoid.magplotter.util.GeoCalculator;
+import com.visionoid.magplotter.util.LocalProjection;
+
+/**
+ * 図形の展開済み座標クラス
+ */
+public final class ShapeGeometry {
+
+    /** ログタグ */
+    private static final String TAG = "ShapeGeometry";
+
+    /** 地球の半径（メートル） */
+    private static final double EARTH_RADIUS = 6371000.0;
+
+    /** 空の配列 */
+    private static final double[] EMPTY = new double[0];
+
+    /** 図形ID */
+    private final long shapeId;
+
+    /** 展開元の更新日時 */
+    private final long updatedAt;
+
+    /** 図形タイプ */
+    @NonNull
+    private final String shapeType;
+
+    /** 頂点の緯度・経度（polygon/polyline） */
+    @NonNull
+    private final double[] lats;
+    @NonNull
+    private final double[] lngs;
+
+    /** 各辺の長さ（メートル） */
+    @NonNull
+    private final double[] edgeLengths;
+
+    /** 重心（polygon）・中心（circle） */
+    private final double centerLat;
+    private final double centerLng;
+
+    /** 半径（メートル、circle） */
+    private final double radius;
+
+    /** 中心から半径だけ東の点（circle） */
+    private final double eastLat;
+    private final double eastLng;
+
+    /** 境界ボックス（度、座標がない場合はNaN） */
+    private final double south;
+    private final double west;
+    private final double north;
+    private final double east;
+
+    private ShapeGeometry(long shapeId, long updatedAt, @NonNull String shapeType,
+                          @NonNull double[] lats, @NonNull double[] lngs, @NonNull double[] edgeLengths,
+                          double centerLat, double centerLng, double radius,
+                          double eastLat, double eastLng,
+                          double south, double west, double north, double east) {
+        this.shapeId = shapeId;
+        this.updatedAt = updatedAt;
+        this.shapeType = shapeType;
+        this.lats = lats;
+        this.lngs = lngs;
+        this.edgeLengths = edgeLengths;
+        this.centerLat = centerLat;
+        this.centerLng = centerLng;
+        this.radius = radius;
+        this.eastLat = eastLat;
+        this.eastLng = eastLng;
+        this.south = south;
+        this.west = west;
+        this.north = north;
+        this.east = east;
+    }
+
+    /**
+     * 図形の座標データを展開
+     *
+     * @param shape 図形
+     * @return 展開済み座標（座標データが不正な場合は頂点なし）
+     */
+    @NonNull
+    public static ShapeGeometry decode(@NonNull DrawingShape shape) {
+        String shapeType = shape.getShapeType();
+        try {
+            if (DrawingShape.TYPE_CIRCLE.equals(shapeType)) {
+                return decodeCircle(shape);
+            }
+            return decodePoints(shape);
+        } catch (IllegalArgumentException e) {
+            Log.w(TAG, "座標データの展開失敗: shape " + shape.getId(), e);
+            return new ShapeGeometry(shape.getId(), shape.getUpdatedAt(), shapeType,
+                    EMPTY, EMPTY, EMPTY, 0, 0, Double.NaN, 0, 0,
+                    Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+        }
+    }
+
+    /**
+     * polygon/polylineの座標データを展開
+     */
+    @NonNull
+    private static ShapeGeometry decodePoints(@NonNull DrawingShape shape) {
+        byte[] data = shape.getCoordinates();
+        int count = CoordinateCodec.getPointCount(data);
+        double[] lats = new double[count];
+        double[] lngs = new double[count];
+        CoordinateCodec.decodePoints(data, lats, lngs);
+        double sumLat = 0;
+        double sumLng = 0;
+        double south = Double.POSITIVE_INFINITY;
+        double west = Double.POSITIVE_INFINITY;
+        double north = Double.NEGATIVE_INFINITY;
+        double east = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            sumLat += lats[i];
+            sumLng += lngs[i];
+            south = Math.min(south, lats[i]);
+            north = Math.max(north, lats[i]);
+            west = Math.min(west, lngs[i]);
+            east = Math.max(east, lngs[i]);
+        }
+
+        boolean closed = DrawingShape.TYPE_POLYGON.equals(shape.getShapeType());
+        int edgeCount = closed ? count : Math.max(0, count - 1);
+        double[] edgeLengths = new double[edgeCount];
+        GeoCalculator.calculateSegmentLengths(lats, lngs, count, closed, edgeLengths,
+                DrawingShapeRepository.METRICS_MODE);
+
+        double centerLat = count > 0 ? sumLat / count : 0;
+        double centerLng = count > 0 ? sumLng / count : 0;
+        if (count == 0) {
+            south = west = north = east = Double.NaN;
+        }
+        return new ShapeGeometry(shape.getId(), shape.getUpdatedAt(), shape.getShapeType(),
+                lats, lngs, edgeLengths, centerLat, centerLng, Double.NaN, 0, 0,
+                south, west, north, east);
+    }
+
+    /**
+     * circleの座標データを展開
+     */
+    @NonNull
+    private static ShapeGeometry decodeCircle(@NonNull DrawingShape shape) {
+        double[] circle = CoordinateCodec.decodeCircle(shape.getCoordinates());
+        double lat = circle[0];
+        double lng = circle[1];
+        double radius = circle[2];
+
+        // 真東（方位90°）に半径だけ進んだ点
+        double lat1 = Math.toRadians(lat);
+        double angularDistance = radius / EARTH_RADIUS;
+        double lat2 = Math.asin(Math.sin(lat1) * Math.cos(angularDistance));
+        double lng2 = Math.toRadians(lng) + Math.atan2(
+                Math.sin(angularDistance) * Math.cos(lat1),
+                Math.cos(angularDistance) - Math.sin(lat1) * Math.sin(lat2));
+
+        double eastLng = Math.toDegrees(lng2);
+        double halfLat = radius / LocalProjection.METERS_PER_DEGREE_LAT;
+        double halfLng = Math.abs(eastLng - lng);
+        return new ShapeGeometry(shape.getId(), shape.getUpdatedAt(), DrawingShape.TYPE_CIRCLE,
+                EMPTY, EMPTY, EMPTY, lat, lng, radius, Math.toDegrees(lat2), eastLng,
+                lat - halfLat, lng - halfLng, lat + halfLat, lng + halfLng);
+    }
+
+    // ==================== 取得 ====================
+
+    /**
+     * 図形IDを取得
+     */
+    public long getShapeId() {
+        return shapeId;
+    }
+
+    /**
+     * 展開元の更新日時を取得
+     */
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    /**
+     * 図形タイプを取得
+     */
+    @NonNull
+    public String getShapeType() {
+        return shapeType;
+    }
+
+    /**
+     * 描画できるだけの座標があるか
+     *
+     * @return polygonは3点以上、polylineは2点以上、circleは半径が有効な場合true
+     */
+    public boolean isDrawable() {
+        switch (shapeType) {
+            case DrawingShape.TYPE_POLYGON:
+                return lats.length >= 3;
+            case DrawingShape.TYPE_POLYLINE:
+                return lats.length >= 2;
+            case DrawingShape.TYPE_CIRCLE:
+                return !Double.isNaN(radius);
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * 頂点数を取得（polygon/polyline）
+     */
+    public int getPointCount() {
+        return lats.length;
+    }
+
+    /**
+     * 頂点の緯度を取得
+     */
+    public double getLat(int index) {
+        return lats[index];
+    }
+
+    /**
+     * 頂点の経度を取得
+     */
+    public double getLng(int index) {
+        return lngs[index];
+    }
+
+    /**
+     * 辺の数を取得（polygonは閉じる辺を含む）
+     */
+    public int getEdgeCount() {
+        return edgeLengths.length;
+    }
+
+    /**
+     * 辺の長さを取得
+     *
+     * @param index 辺の番号（頂点indexから次の頂点まで）
+     * @return 長さ（メートル）
+     */
+    public double getEdgeLength(int index) {
+        return edgeLengths[index];
+    }
+
+    /**
+     * 重心（polygon）・中心（circle）の緯度を取得
+     */
+    public double getCenterLat() {
+        return centerLat;
+    }
+
+    /**
+     * 重心（polygon）・中心（circle）の経度を取得
+     */
+    public double getCenterLng() {
+        return centerLng;
+    }
+
+    /**
+     * 半径を取得（circle）
+     *
+     * @return 半径（メートル）
+     */
+    public double getRadius() {
+        return radius;
+    }
+
+    /**
+     * 境界ボックスの南端を取得（座標がない場合はNaN）
+     */
+    public double getSouth() {
+        return south;
+    }
+
+    /**
+     * 境界ボックスの西端を取得（座標がない場合はNaN）
+     */
+    public double getWest() {
+        return west;
+    }
+
+    /**
+     * 境界ボックスの北端を取得（座標がない場合はNaN）
+     */
+    public double getNorth() {
+        return north;
+    }
+
+    /**
+     * 境界ボックスの東端を取得（座標がない場合はNaN）
+     */
+    public double getEast() {
+        return east;
+    }
+
+    /**
+     * 境界ボックスが範囲と重なるか
+     *
+     * @param rangeSouth 範囲の南端（度）
+     * @param rangeWest 範囲の西端（度）
+     * @param rangeNorth 範囲の北端（度）
+     * @param rangeEast 範囲の東端（度）
+     * @return 重なる場合true（座標がない場合はfalse）
+     */
+    public boolean intersects(double rangeSouth, double rangeWest, double rangeNorth, double rangeEast) {
+        return south <= rangeNorth && north >= rangeSouth
+                && west <= rangeEast && east >= rangeWest;
+    }
+
+    /**
+     * 中心から半径だけ東の点の緯度を取得（circle）
+     */
+    public double getEastLat() {
+        return eastLat;
+    }
+
+    /**
+     * 中心から半径だけ東の点の経度を取得（circle）
+     */
+    public double getEastLng() {
+        return eastLng;
+    }
+}
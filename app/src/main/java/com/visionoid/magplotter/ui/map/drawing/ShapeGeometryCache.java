@@ -0,0 +1,125 @@
+/**
+ * ShapeGeometryCache.java
+ *
+ * VISIONOID MAG PLOTTER - 図形の展開済み座標キャッシュ
+ *
+ * 概要:
+ *   図形の座標データ（CoordinateCodec形式）の展開結果を図形IDごとに保持し、
+ *   描画・タップ判定のたびに展開し直さないようにする。
+ *   描画用のラベル（ShapeLabels）も同じ条件で保持する。
+ *
+ * 主な仕様:
+ *   - 図形ID＋更新日時（updated_at）が一致する間は同じ展開結果を返す
+ *   - 図形が編集されて更新日時が変わった場合のみ展開し直す
+ *   - 図形リストの差し替え時、リストにない図形（削除済み）の展開結果は破棄
+ *
+ * 制限事項:
+ *   - UIスレッドから操作すること
+ */
+package com.visionoid.magplotter.ui.map.drawing;
+
+import android.util.LongSparseArray;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.visionoid.magplotter.data.model.DrawingShape;
+
+import java.util.List;
+
+/**
+ * 図形の展開済み座標キャッシュクラス
+ */
+final class ShapeGeometryCache {
+
+    /** 図形ID→展開済み座標 */
+    @NonNull
+    private LongSparseArray<ShapeGeometry> entries = new LongSparseArray<>();
+
+    /** 図形ID→ラベル */
+    @NonNull
+    private LongSparseArray<ShapeLabels> labels = new LongSparseArray<>();
+
+    /**
+     * 図形の展開済み座標を取得（未展開・編集済みの場合は展開）
+     *
+     * @param shape 図形
+     * @return 展開済み座標
+     */
+    @NonNull
+    ShapeGeometry get(@NonNull DrawingShape shape) {
+        ShapeGeometry geometry = entries.get(shape.getId());
+        if (geometry == null || geometry.getUpdatedAt() != shape.getUpdatedAt()) {
+            geometry = ShapeGeometry.decode(shape);
+            entries.put(shape.getId(), geometry);
+        }
+        return geometry;
+    }
+
+    /**
+     * 図形のラベルを取得
+     *
+     * @param shape 図形
+     * @param displayFlags 現在の表示設定
+     * @return ラベル、未作成・図形の編集後・表示設定の変更後はnull
+     */
+    @Nullable
+    ShapeLabels getLabels(@NonNull DrawingShape shape, int displayFlags) {
+        ShapeLabels result = labels.get(shape.getId());
+        if (result == null || result.updatedAt != shape.getUpdatedAt()
+                || result.displayFlags != displayFlags) {
+            return null;
+        }
+        return result;
+    }
+
+    /**
+     * 図形のラベルを保持
+     *
+     * @param shapeId 図形ID
+     * @param shapeLabels ラベル
+     */
+    void putLabels(long shapeId, @NonNull ShapeLabels shapeLabels) {
+        labels.put(shapeId, shapeLabels);
+    }
+
+    /**
+     * 指定の図形の展開結果・ラベルのみを残す
+     *
+     * @param shapes 現在の図形リスト
+     */
+    void retain(@NonNull List<DrawingShape> shapes) {
+        LongSparseArray<ShapeGeometry> retained = new LongSparseArray<>(shapes.size());
+        LongSparseArray<ShapeLabels> retainedLabels = new LongSparseArray<>(shapes.size());
+        for (DrawingShape shape : shapes) {
+            ShapeGeometry geometry = entries.get(shape.getId());
+            if (geometry != null && geometry.getUpdatedAt() == shape.getUpdatedAt()) {
+                retained.put(shape.getId(), geometry);
+            }
+            ShapeLabels shapeLabels = labels.get(shape.getId());
+            if (shapeLabels != null && shapeLabels.updatedAt == shape.getUpdatedAt()) {
+                retainedLabels.put(shape.getId(), shapeLabels);
+            }
+        }
+        entries = retained;
+        labels = retainedLabels;
+    }
+
+    /**
+     * 図形の展開結果を破棄
+     *
+     * @param shapeId 図形ID
+     */
+    void remove(long shapeId) {
+        entries.remove(shapeId);
+        labels.remove(shapeId);
+    }
+
+    /**
+     * すべての展開結果を破棄
+     */
+    void clear() {
+        entries.clear();
+        labels.clear();
+    }
+}
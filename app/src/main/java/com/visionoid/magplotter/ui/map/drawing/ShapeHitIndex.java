@@ -0,0 +1,178 @@
+/**
+ * ShapeHitIndex.java
+ *
+ * VISIONOID MAG PLOTTER - 保存済み図形のタップ判定インデックス
+ *
+ * 概要:
+ *   保存済み図形の境界ボックスからR-tree（StrRTree）を構築し、
+ *   タップ位置の候補図形を境界ボックスで絞り込んでから図形ごとの判定を行う。
+ *
+ * 主な仕様:
+ *   - 候補は図形リストの後ろ（手前に描画される図形）から判定し、最初に該当した図形を返す
+ *   - 多角形・ポリラインの判定用データ（PreparedShape）は初めて候補になった図形のみ作成
+ *   - 円は中心からの距離で判定
+ *   - 非表示・座標が不正な図形は判定しない
+ *
+ * 制限事項:
+ *   - 図形リストの変更時は作り直すこと
+ *   - 日付変更線をまたぐ図形には対応しない
+ *   - UIスレッドから操作すること
+ */
+package com.visionoid.magplotter.ui.map.drawing;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.visionoid.magplotter.data.model.DrawingShape;
+import com.visionoid.magplotter.util.GeoCalculator;
+import com.visionoid.magplotter.util.LocalProjection;
+import com.visionoid.magplotter.util.StrRTree;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 保存済み図形のタップ判定インデックスクラス
+ */
+final class ShapeHitIndex {
+
+    /** 索引した図形（図形リストの順） */
+    @NonNull
+    private final DrawingShape[] shapes;
+
+    /** 図形ごとの展開済み座標 */
+    @NonNull
+    private final ShapeGeometry[] geometries;
+
+    /** 図形ごとの判定用データ（未作成・円はnull） */
+    @NonNull
+    private final PreparedShape[] prepared;
+
+    /** 境界ボックスのR-tree（X: 経度、Y: 緯度） */
+    @NonNull
+    private final StrRTree tree;
+
+    // 判定時の再利用オブジェクト
+    private int[] candidates = new int[16];
+    private int candidateCount;
+    private final StrRTree.Visitor candidateVisitor = this::addCandidate;
+
+    private ShapeHitIndex(@NonNull DrawingShape[] shapes, @NonNull ShapeGeometry[] geometries,
+                          @NonNull StrRTree tree) {
+        this.shapes = shapes;
+        this.geometries = geometries;
+        this.prepared = new PreparedShape[shapes.length];
+        this.tree = tree;
+    }
+
+    /**
+     * 図形リストから構築
+     *
+     * @param shapeList 図形リスト
+     * @param geometryCache 展開済み座標のキャッシュ
+     * @return タップ判定インデックス
+     */
+    @NonNull
+    static ShapeHitIndex build(@NonNull List<DrawingShape> shapeList,
+                               @NonNull ShapeGeometryCache geometryCache) {
+        int size = shapeList.size();
+        DrawingShape[] shapes = new DrawingShape[size];
+        ShapeGeometry[] geometries = new ShapeGeometry[size];
+        double[] minX = new double[size];
+        double[] minY = new double[size];
+        double[] maxX = new double[size];
+        double[] maxY = new double[size];
+
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            DrawingShape shape = shapeList.get(i);
+            ShapeGeometry geometry = geometryCache.get(shape);
+            if (!geometry.isDrawable() || Double.isNaN(geometry.getSouth())) {
+                continue;
+            }
+            shapes[count] = shape;
+            geometries[count] = geometry;
+            minX[count] = geometry.getWest();
+            minY[count] = geometry.getSouth();
+            maxX[count] = geometry.getEast();
+            maxY[count] = geometry.getNorth();
+            count++;
+        }
+
+        return new ShapeHitIndex(Arrays.copyOf(shapes, count), Arrays.copyOf(geometries, count),
+                new StrRTree(minX, minY, maxX, maxY, count));
+    }
+
+    /**
+     * タップ位置にある最も手前の図形を検索
+     *
+     * @param lat タップ位置の緯度
+     * @param lng タップ位置の経度
+     * @param toleranceMeters ポリラインの許容距離（メートル）
+     * @return 図形、該当なしの場合はnull
+     */
+    @Nullable
+    DrawingShape findShapeAt(double lat, double lng, double toleranceMeters) {
+        double toleranceLat = toleranceMeters / LocalProjection.METERS_PER_DEGREE_LAT;
+        double toleranceLng = toleranceLat / Math.max(Math.cos(Math.toRadians(lat)), 0.01);
+
+        candidateCount = 0;
+        tree.query(lng - toleranceLng, lat - toleranceLat, lng + toleranceLng, lat + toleranceLat,
+                candidateVisitor);
+
+        // 手前に描画される図形（リストの後ろ）から判定
+        Arrays.sort(candidates, 0, candidateCount);
+        for (int i = candidateCount - 1; i >= 0; i--) {
+            int item = candidates[i];
+            if (shapes[item].isVisible() && hits(item, lat, lng, toleranceMeters)) {
+                return shapes[item];
+            }
+        }
+        return null;
+    }
+
+    // ==================== 内部処理 ====================
+
+    /**
+     * 図形ごとの判定
+     */
+    private boolean hits(int item, double lat, double lng, double toleranceMeters) {
+        ShapeGeometry geometry = geometries[item];
+        switch (geometry.getShapeType()) {
+            case DrawingShape.TYPE_POLYGON:
+                return prepare(item, true).contains(lat, lng);
+
+            case DrawingShape.TYPE_POLYLINE:
+                return prepare(item, false).isNear(lat, lng, toleranceMeters);
+
+            case DrawingShape.TYPE_CIRCLE:
+                double distance = GeoCalculator.calculateDistance(lat, lng,
+                        geometry.getCenterLat(), geometry.getCenterLng());
+                return distance <= geometry.getRadius();
+        }
+        return false;
+    }
+
+    /**
+     * 判定用データを取得（未作成の場合は作成）
+     */
+    @NonNull
+    private PreparedShape prepare(int item, boolean closed) {
+        PreparedShape result = prepared[item];
+        if (result == null) {
+            result = PreparedShape.build(geometries[item], closed);
+            prepared[item] = result;
+        }
+        return result;
+    }
+
+    /**
+     * R-tree検索の訪問者（候補を配列に追加）
+     */
+    private void addCandidate(int item) {
+        if (candidateCount == candidates.length) {
+            candidates = Arrays.copyOf(candidates, candidateCount * 2);
+        }
+        candidates[candidateCount++] = item;
+    }
+}
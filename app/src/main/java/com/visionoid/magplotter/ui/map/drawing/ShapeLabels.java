@@ -0,0 +1,60 @@
+/**
+ * ShapeLabels.java
+ *
+ * VISIONOID MAG PLOTTER - 図形ラベルのキャッシュ
+ *
+ * 概要:
+ *   保存済み図形のラベル（辺の長さ・半径・名称・面積）の文字列と寸法を保持し、
+ *   描画のたびに文字列の生成・寸法の測定をしないようにする。
+ *
+ * 主な仕様:
+ *   - 展開元の更新日時と表示設定（名称・面積の表示）が一致する間のみ有効
+ *   - 辺の長さのラベルは辺の番号順
+ *
+ * 制限事項:
+ *   - 生成後は変更しない（図形の編集・表示設定の変更時は作り直す）
+ */
+package com.visionoid.magplotter.ui.map.drawing;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * 図形ラベルのキャッシュクラス
+ */
+final class ShapeLabels {
+
+    /** 空のラベル配列 */
+    static final ShapeRenderContext.Label[] NO_LABELS = new ShapeRenderContext.Label[0];
+
+    /** 展開元の更新日時 */
+    final long updatedAt;
+
+    /** 作成時の表示設定（SavedShapesOverlayのフラグ） */
+    final int displayFlags;
+
+    /** 辺の長さのラベル */
+    @NonNull
+    final ShapeRenderContext.Label[] edges;
+
+    /** 半径のラベル（circle以外はnull） */
+    @Nullable
+    final ShapeRenderContext.Label radius;
+
+    /** 図形情報の各行（1行目は名称用のPaintで描画） */
+    @NonNull
+    final String[] infoLines;
+
+    /** 図形情報の最大行幅（measureText） */
+    final float infoMaxWidth;
+
+    ShapeLabels(long updatedAt, int displayFlags, @NonNull ShapeRenderContext.Label[] edges,
+                @Nullable ShapeRenderContext.Label radius, @NonNull String[] infoLines, float infoMaxWidth) {
+        this.updatedAt = updatedAt;
+        this.displayFlags = displayFlags;
+        this.edges = edges;
+        this.radius = radius;
+        this.infoLines = infoLines;
+        this.infoMaxWidth = infoMaxWidth;
+    }
+}
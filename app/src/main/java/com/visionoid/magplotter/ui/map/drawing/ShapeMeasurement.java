@@ -0,0 +1,266 @@
+/**
+ * ShapeMeasurement.java
+ *
+ * VISIONOID MAG PLOTTER - 作図中の図形の計測値（差分更新）
+ *
+ * 概要:
+ *   作図・編集中の頂点列に対して、各辺の長さと面積の項（GeoCalculator）を保持し、
+ *   辺の長さの合計（周囲長）と面積の項の合計を差分で更新する。
+ *   頂点のドラッグでは隣接する2辺だけを計算し直すため、頂点数によらずO(1)。
+ *
+ * 主な仕様:
+ *   - 頂点の追加・末尾の削除・移動はO(1)、一括設定は全体を再計算
+ *   - 閉じる辺（末尾→先頭）も常に保持し、閉じた図形か（多角形）は取得時に指定
+ *   - 辺の長さは再利用のdouble配列で提供（辺iは頂点i→i+1、閉じる辺は最後の要素）
+ *   - 差分更新の累積誤差はrecompute()で解消
+ *   - 計算モードは保存時と同じ（DrawingShapeRepository.METRICS_MODE）。
+ *     面積は辺ごとの項に分けられる楕円体の厳密式で計算する
+ *
+ * 制限事項:
+ *   - UIスレッドから操作すること
+ *   - getSegmentLengths()の配列は次の変更までのみ有効
+ *   - 数km以内の図形の保存時の面積（局所平面）とは相対1e-7程度ずれる
+ */
+package com.visionoid.magplotter.ui.map.drawing;
+
+import androidx.annotation.NonNull;
+
+import com.visionoid.magplotter.data.repository.DrawingShapeRepository;
+import com.visionoid.magplotter.util.GeoCalculator;
+
+import org.osmdroid.util.GeoPoint;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 作図中の図形の計測値クラス
+ */
+final class ShapeMeasurement {
+
+    /** 計算モード */
+    private static final GeoCalculator.Mode MODE = DrawingShapeRepository.METRICS_MODE;
+
+    /** 頂点数 */
+    private int count;
+
+    /** 頂点の緯度・経度 */
+    private double[] lats = new double[16];
+    private double[] lngs = new double[16];
+
+    /** 辺の長さ（[count - 1]は閉じる辺） */
+    private double[] segmentLengths = new double[16];
+
+    /** 辺の面積の項（[count - 1]は閉じる辺） */
+    private double[] areaTerms = new double[16];
+
+    /** 閉じる辺を除く辺の長さ・面積の項の合計 */
+    private double openLength;
+    private double openAreaTerm;
+
+    // ==================== 変更 ====================
+
+    /**
+     * 頂点をすべて削除
+     */
+    void clear() {
+        count = 0;
+        openLength = 0;
+        openAreaTerm = 0;
+    }
+
+    /**
+     * 頂点列を設定（全体を再計算）
+     *
+     * @param points 頂点リスト
+     */
+    void setPoints(@NonNull List<GeoPoint> points) {
+        count = 0;
+        ensureCapacity(points.size());
+        for (GeoPoint point : points) {
+            lats[count] = point.getLatitude();
+            lngs[count] = point.getLongitude();
+            count++;
+        }
+        recompute();
+    }
+
+    /**
+     * 頂点を末尾に追加
+     *
+     * @param lat 緯度
+     * @param lng 経度
+     */
+    void addPoint(double lat, double lng) {
+        ensureCapacity(count + 1);
+        lats[count] = lat;
+        lngs[count] = lng;
+        count++;
+        if (count >= 2) {
+            // 直前の閉じる辺の位置に新しい辺が入る
+            updateEdge(count - 2, count - 1);
+            openLength += segmentLengths[count - 2];
+            openAreaTerm += areaTerms[count - 2];
+        }
+        updateClosingEdge();
+    }
+
+    /**
+     * 末尾の頂点を削除
+     */
+    void removeLastPoint() {
+        if (count == 0) return;
+        if (count >= 2) {
+            openLength -= segmentLengths[count - 2];
+            openAreaTerm -= areaTerms[count - 2];
+        }
+        count--;
+        if (count < 2) {
+            openLength = 0;
+            openAreaTerm = 0;
+        }
+        updateClosingEdge();
+    }
+
+    /**
+     * 頂点を移動（隣接する辺のみ再計算）
+     *
+     * @param index 頂点の番号
+     * @param lat 緯度
+     * @param lng 経度
+     */
+    void movePoint(int index, double lat, double lng) {
+        if (index < 0 || index >= count) return;
+        lats[index] = lat;
+        lngs[index] = lng;
+        if (index > 0) {
+            replaceOpenEdge(index - 1);
+        }
+        if (index < count - 1) {
+            replaceOpenEdge(index);
+        }
+        if (index == 0 || index == count - 1) {
+            updateClosingEdge();
+        }
+    }
+
+    /**
+     * 全辺を計算し直す（差分更新の累積誤差を解消）
+     */
+    void recompute() {
+        openLength = 0;
+        openAreaTerm = 0;
+        for (int i = 0; i < count - 1; i++) {
+            updateEdge(i, i + 1);
+            openLength += segmentLengths[i];
+            openAreaTerm += areaTerms[i];
+        }
+        updateClosingEdge();
+    }
+
+    // ==================== 取得 ====================
+
+    /**
+     * 頂点数を取得
+     */
+    int getPointCount() {
+        return count;
+    }
+
+    /**
+     * 辺の数を取得
+     *
+     * @param closed 閉じた図形（多角形）として数える場合true（3点未満は開いた線として数える）
+     * @return 辺の数
+     */
+    int getSegmentCount(boolean closed) {
+        if (count < 2) return 0;
+        return closed && count >= 3 ? count : count - 1;
+    }
+
+    /**
+     * 辺の長さの配列を取得（先頭getSegmentCount()個が有効）
+     *
+     * @return 再利用の配列（変更しないこと）
+     */
+    @NonNull
+    double[] getSegmentLengths() {
+        return segmentLengths;
+    }
+
+    /**
+     * 辺の長さを取得
+     *
+     * @param index 辺の番号（count - 1は閉じる辺）
+     * @return 長さ（メートル）
+     */
+    double getSegmentLength(int index) {
+        return segmentLengths[index];
+    }
+
+    /**
+     * 周囲長（開いた線は総延長）を取得
+     *
+     * @param closed 閉じた図形（多角形）として計算する場合true
+     * @return 長さ（メートル）
+     */
+    double getPerimeter(boolean closed) {
+        if (closed && count >= 3) {
+            return openLength + segmentLengths[count - 1];
+        }
+        return openLength;
+    }
+
+    /**
+     * 面積を取得
+     *
+     * @param closed 閉じた図形（多角形）として計算する場合true
+     * @return 面積（平方メートル）、開いた線・3点未満は0
+     */
+    double getArea(boolean closed) {
+        if (!closed || count < 3) return 0;
+        return GeoCalculator.calculatePolygonAreaFromTerms(openAreaTerm + areaTerms[count - 1], MODE);
+    }
+
+    // ==================== 内部処理 ====================
+
+    /**
+     * 閉じる辺以外の辺を再計算して合計を差し替え
+     */
+    private void replaceOpenEdge(int edge) {
+        openLength -= segmentLengths[edge];
+        openAreaTerm -= areaTerms[edge];
+        updateEdge(edge, edge + 1);
+        openLength += segmentLengths[edge];
+        openAreaTerm += areaTerms[edge];
+    }
+
+    /**
+     * 閉じる辺（末尾→先頭）を再計算
+     */
+    private void updateClosingEdge() {
+        if (count >= 2) {
+            updateEdge(count - 1, 0);
+        }
+    }
+
+    /**
+     * 辺の長さ・面積の項を計算して格納
+     *
+     * @param edge 格納先の辺の番号
+     * @param to 終点の頂点番号（始点は辺の番号と同じ）
+     */
+    private void updateEdge(int edge, int to) {
+        segmentLengths[edge] = GeoCalculator.calculateDistance(lats[edge], lngs[edge], lats[to], lngs[to], MODE);
+        areaTerms[edge] = GeoCalculator.calculatePolygonAreaTerm(lats[edge], lngs[edge], lats[to], lngs[to], MODE);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= lats.length) return;
+        int grown = Math.max(capacity, lats.length * 2);
+        lats = Arrays.copyOf(lats, grown);
+        lngs = Arrays.copyOf(lngs, grown);
+        segmentLengths = Arrays.copyOf(segmentLengths, grown);
+        areaTerms = Arrays.copyOf(areaTerms, grown);
+    }
+}
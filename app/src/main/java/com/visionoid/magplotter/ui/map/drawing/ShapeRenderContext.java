@@ -0,0 +1,220 @@
+/**
+ * ShapeRenderContext.java
+ *
+ * VISIONOID MAG PLOTTER - 図形描画の再利用オブジェクト
+ *
+ * 概要:
+ *   作図オーバーレイの描画で毎フレーム必要になるPaint・Path・Point・ラベル寸法を
+ *   オーバーレイごとに保持して再利用し、描画中の一時オブジェクト生成をなくす。
+ *
+ * 主な仕様:
+ *   - Paintは塗りつぶし色、線の色・幅をキーにして使い回す
+ *   - Path・画面座標の配列は描画ごとにリセットして使い回す（配列は必要な長さまで拡張）
+ *   - ラベルは文字列と背景の寸法を一度だけ測ってLabelとして保持
+ *
+ * 制限事項:
+ *   - UIスレッドから操作すること
+ *   - getPath()・getScreenPoints()の戻り値は次の呼び出しまでのみ有効
+ */
+package com.visionoid.magplotter.ui.map.drawing;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Point;
+import android.graphics.Rect;
+import android.util.LongSparseArray;
+import android.util.SparseArray;
+
+import androidx.annotation.NonNull;
+
+import org.osmdroid.util.GeoPoint;
+import org.osmdroid.views.Projection;
+
+/**
+ * 図形描画の再利用オブジェクトクラス
+ */
+final class ShapeRenderContext {
+
+    /** ラベル背景の余白（ピクセル） */
+    private static final int LABEL_PADDING = 8;
+
+    /** ラベル背景の角丸半径（ピクセル） */
+    private static final float LABEL_CORNER_RADIUS = 8f;
+
+    /**
+     * 寸法を測定済みのラベル
+     */
+    static final class Label {
+        /** 表示文字列 */
+        @NonNull
+        final String text;
+        /** 文字列の幅・高さ（getTextBounds） */
+        final int width;
+        final int height;
+
+        Label(@NonNull String text, int width, int height) {
+            this.text = text;
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    /** 塗りつぶしのPaint（キー: 色） */
+    private final SparseArray<Paint> fillPaints = new SparseArray<>();
+
+    /** 線のPaint（キー: 色・幅） */
+    private final LongSparseArray<Paint> strokePaints = new LongSparseArray<>();
+
+    /** 再利用Path */
+    private final Path path = new Path();
+
+    /** 再利用の画面座標 */
+    @NonNull
+    private Point[] screenPoints = new Point[0];
+
+    /** 座標変換用の再利用GeoPoint */
+    private final GeoPoint scratchGeoPoint = new GeoPoint(0.0, 0.0);
+
+    /** 寸法測定用の再利用Rect */
+    private final Rect scratchBounds = new Rect();
+
+    // ==================== Paint ====================
+
+    /**
+     * 塗りつぶしのPaintを取得
+     *
+     * @param color 色（ARGB）
+     * @return Paint（変更しないこと）
+     */
+    @NonNull
+    Paint getFillPaint(int color) {
+        Paint paint = fillPaints.get(color);
+        if (paint == null) {
+            paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+            paint.setColor(color);
+            paint.setStyle(Paint.Style.FILL);
+            fillPaints.put(color, paint);
+        }
+        return paint;
+    }
+
+    /**
+     * 線のPaintを取得（端・角は丸）
+     *
+     * @param color 色（ARGB）
+     * @param width 線の幅（ピクセル）
+     * @return Paint（変更しないこと）
+     */
+    @NonNull
+    Paint getStrokePaint(int color, float width) {
+        long key = ((long) color << 32) | (Float.floatToIntBits(width) & 0xFFFFFFFFL);
+        Paint paint = strokePaints.get(key);
+        if (paint == null) {
+            paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+            paint.setColor(color);
+            paint.setStrokeWidth(width);
+            paint.setStyle(Paint.Style.STROKE);
+            paint.setStrokeCap(Paint.Cap.ROUND);
+            paint.setStrokeJoin(Paint.Join.ROUND);
+            strokePaints.put(key, paint);
+        }
+        return paint;
+    }
+
+    // ==================== Path・座標 ====================
+
+    /**
+     * 空にしたPathを取得
+     */
+    @NonNull
+    Path getPath() {
+        path.rewind();
+        return path;
+    }
+
+    /**
+     * 画面座標の配列を取得（先頭count個を使う）
+     *
+     * @param count 必要な個数
+     * @return count以上の長さの配列
+     */
+    @NonNull
+    Point[] getScreenPoints(int count) {
+        if (screenPoints.length < count) {
+            Point[] grown = new Point[Math.max(count, screenPoints.length * 2)];
+            System.arraycopy(screenPoints, 0, grown, 0, screenPoints.length);
+            for (int i = screenPoints.length; i < grown.length; i++) {
+                grown[i] = new Point();
+            }
+            screenPoints = grown;
+        }
+        return screenPoints;
+    }
+
+    /**
+     * 緯度経度を画面座標に変換
+     *
+     * @param projection 投影
+     * @param lat 緯度
+     * @param lng 経度
+     * @param out 結果の格納先
+     * @return out
+     */
+    @NonNull
+    Point toPixels(@NonNull Projection projection, double lat, double lng, @NonNull Point out) {
+        scratchGeoPoint.setCoords(lat, lng);
+        return projection.toPixels(scratchGeoPoint, out);
+    }
+
+    // ==================== ラベル ====================
+
+    /**
+     * ラベルの寸法を測定
+     *
+     * @param text 表示文字列
+     * @param textPaint 文字のPaint
+     * @return 測定済みラベル
+     */
+    @NonNull
+    Label measureLabel(@NonNull String text, @NonNull Paint textPaint) {
+        textPaint.getTextBounds(text, 0, text.length(), scratchBounds);
+        return new Label(text, scratchBounds.width(), scratchBounds.height());
+    }
+
+    /**
+     * ラベルの背景矩形を重なり判定グリッドに配置（drawLabel()と同じ矩形）
+     *
+     * @param grid 重なり判定グリッド
+     * @param x 基準点X
+     * @param y 基準点Y
+     * @param label 測定済みラベル
+     * @return 配置できた場合true
+     */
+    boolean tryPlaceLabel(@NonNull LabelCollisionGrid grid, int x, int y, @NonNull Label label) {
+        return grid.tryPlace(x - label.width / 2 - LABEL_PADDING, y - label.height - LABEL_PADDING,
+                x + label.width / 2 + LABEL_PADDING, y + LABEL_PADDING);
+    }
+
+    /**
+     * ラベルを描画（背景付き、基準点は文字列のベースライン中央）
+     *
+     * @param canvas キャンバス
+     * @param x 基準点X
+     * @param y 基準点Y
+     * @param label 測定済みラベル
+     * @param textPaint 文字のPaint
+     * @param bgPaint 背景のPaint
+     */
+    void drawLabel(@NonNull Canvas canvas, int x, int y, @NonNull Label label,
+                   @NonNull Paint textPaint, @NonNull Paint bgPaint) {
+        int bgLeft = x - label.width / 2 - LABEL_PADDING;
+        int bgTop = y - label.height - LABEL_PADDING;
+        int bgRight = x + label.width / 2 + LABEL_PADDING;
+        int bgBottom = y + LABEL_PADDING;
+
+        canvas.drawRoundRect(bgLeft, bgTop, bgRight, bgBottom,
+                LABEL_CORNER_RADIUS, LABEL_CORNER_RADIUS, bgPaint);
+        canvas.drawText(label.text, x, y, textPaint);
+    }
+}
@@ -0,0 +1,158 @@
+/**
+ * HeatmapBuilder.java
+ *
+ * VISIONOID MAG PLOTTER - ヒートマップ構築
+ *
+ * 概要:
+ *   計測ポイントからヒートマップの描画スナップショットを構築する。
+ *   計算スレッド専用（スレッドセーフではない）。
+ *
+ * 主な仕様:
+ *   - 新規ポイントは配列に追記するだけで、既存分は再計算しない
+ *   - 投影座標はここで一度だけ計算し、描画時はスケール変換のみ
+ *   - カラーテーブル変更時は色インデックスと危険度別リストのみ作り直す
+ *
+ * 制限事項:
+ *   - 既存スナップショットが参照する範囲の配列要素は書き換えない
+ *     （作り直す場合は新しい配列を確保する）
+ */
+package com.visionoid.magplotter.ui.map.heatmap;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+
+import com.visionoid.magplotter.data.model.MeasurementPoint;
+import com.visionoid.magplotter.util.NoiseColorTable;
+
+import org.osmdroid.util.PointL;
+import org.osmdroid.util.TileSystem;
+import org.osmdroid.views.MapView;
+import org.osmdroid.views.Projection;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ヒートマップ構築クラス
+ */
+class HeatmapBuilder {
+
+    /** 初期容量 */
+    private static final int INITIAL_CAPACITY = 256;
+
+    /** カラーテーブル */
+    private NoiseColorTable colorTable;
+
+    private long[] projectedX = new long[INITIAL_CAPACITY];
+    private long[] projectedY = new long[INITIAL_CAPACITY];
+    private float[] noiseValues = new float[INITIAL_CAPACITY];
+    private byte[] colorIndices = new byte[INITIAL_CAPACITY];
+    private int[][] levelIndices = new int[HeatmapSnapshot.LEVEL_COUNT][INITIAL_CAPACITY];
+    private final int[] levelCounts = new int[HeatmapSnapshot.LEVEL_COUNT];
+    private int size = 0;
+    private double referenceLatitude = 0.0;
+
+    /** 投影計算用 */
+    private final TileSystem tileSystem = MapView.getTileSystem();
+    private final PointL projected = new PointL();
+
+    HeatmapBuilder(@NonNull NoiseColorTable colorTable) {
+        this.colorTable = colorTable;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * 全てのポイントを破棄
+     */
+    @WorkerThread
+    void clear() {
+        // 既存スナップショットと配列を共有しないよう新しく確保する
+        projectedX = new long[INITIAL_CAPACITY];
+        projectedY = new long[INITIAL_CAPACITY];
+        noiseValues = new float[INITIAL_CAPACITY];
+        colorIndices = new byte[INITIAL_CAPACITY];
+        levelIndices = new int[HeatmapSnapshot.LEVEL_COUNT][INITIAL_CAPACITY];
+        Arrays.fill(levelCounts, 0);
+        size = 0;
+    }
+
+    /**
+     * ポイントを追記
+     *
+     * @param points 計測ポイント
+     * @param from 追記を開始する位置
+     */
+    @WorkerThread
+    void append(@NonNull List<MeasurementPoint> points, int from) {
+        for (int i = from; i < points.size(); i++) {
+            MeasurementPoint point = points.get(i);
+            ensureCapacity(size + 1);
+            tileSystem.getMercatorFromGeo(point.getLatitude(), point.getLongitude(),
+                    Projection.mProjectedMapSize, projected, true);
+            projectedX[size] = projected.x;
+            projectedY[size] = projected.y;
+            float noise = (float) point.getNoiseValue();
+            noiseValues[size] = noise;
+            colorIndices[size] = (byte) colorTable.indexOf(noise);
+            addToLevel(colorTable.getLevel(noise), size);
+            if (size == 0) {
+                referenceLatitude = point.getLatitude();
+            }
+            size++;
+        }
+    }
+
+    /**
+     * カラーテーブルを変更し、色インデックスと危険度別リストを作り直す
+     */
+    @WorkerThread
+    void setColorTable(@NonNull NoiseColorTable table) {
+        colorTable = table;
+        byte[] newColors = new byte[colorIndices.length];
+        levelIndices = new int[HeatmapSnapshot.LEVEL_COUNT][Math.max(INITIAL_CAPACITY, size)];
+        Arrays.fill(levelCounts, 0);
+        for (int i = 0; i < size; i++) {
+            newColors[i] = (byte) table.indexOf(noiseValues[i]);
+            addToLevel(table.getLevel(noiseValues[i]), i);
+        }
+        colorIndices = newColors;
+    }
+
+    /**
+     * 現在の状態のスナップショットを作成
+     */
+    @NonNull
+    HeatmapSnapshot snapshot() {
+        int[][] levels = new int[HeatmapSnapshot.LEVEL_COUNT][];
+        for (int level = 0; level < HeatmapSnapshot.LEVEL_COUNT; level++) {
+            levels[level] = levelIndices[level];
+        }
+        return new HeatmapSnapshot(projectedX, projectedY, colorIndices, levels,
+                levelCounts.clone(), size, referenceLatitude, colorTable);
+    }
+
+    // ==================== 内部処理 ====================
+
+    private void addToLevel(int level, int index) {
+        int count = levelCounts[level];
+        if (count == levelIndices[level].length) {
+            levelIndices[level] = Arrays.copyOf(levelIndices[level], count * 2);
+        }
+        levelIndices[level][count] = index;
+        levelCounts[level] = count + 1;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= projectedX.length) {
+            return;
+        }
+        int capacity = Math.max(required, projectedX.length * 2);
+        projectedX = Arrays.copyOf(projectedX, capacity);
+        projectedY = Arrays.copyOf(projectedY, capacity);
+        noiseValues = Arrays.copyOf(noiseValues, capacity);
+        colorIndices = Arrays.copyOf(colorIndices, capacity);
+    }
+}
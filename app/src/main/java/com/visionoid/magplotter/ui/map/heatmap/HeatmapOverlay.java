@@ -0,0 +1,123 @@
+/**
+ * HeatmapOverlay.java
+ *
+ * VISIONOID MAG PLOTTER - ヒートマップオーバーレイ
+ *
+ * 概要:
+ *   計測ポイントを危険度で色分けした円として描画する単一のオーバーレイ。
+ *   描画データ（HeatmapSnapshot）はバックグラウンドで構築され、参照の差し替えで更新される。
+ *
+ * 主な仕様:
+ *   - 安全→警告→危険の順に描画し、危険値を前面に表示
+ *   - 半径0.5mの円（ズームに追従、最小1px）
+ *   - 画面外の点は描画しない
+ *   - 描画中のアロケーションなし
+ *
+ * 制限事項:
+ *   - 地図の回転には対応しない
+ */
+package com.visionoid.magplotter.ui.map.heatmap;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Point;
+import android.graphics.Rect;
+
+import androidx.annotation.NonNull;
+
+import com.visionoid.magplotter.ui.map.debug.VertexCountSource;
+
+import org.osmdroid.util.PointL;
+import org.osmdroid.views.MapView;
+import org.osmdroid.views.Projection;
+import org.osmdroid.views.overlay.Overlay;
+
+/**
+ * ヒートマップオーバーレイクラス
+ */
+public class HeatmapOverlay extends Overlay implements VertexCountSource {
+
+    /** 計測点の円の半径（メートル） */
+    private static final float POINT_RADIUS_METERS = 0.5f;
+
+    /** 円の最小半径（px） */
+    private static final float MIN_RADIUS_PX = 1f;
+
+    /** 表示中のスナップショット（任意のスレッドから差し替え可能） */
+    @NonNull
+    private volatile HeatmapSnapshot snapshot = HeatmapSnapshot.EMPTY;
+
+    /** 塗りつぶしペイント */
+    private final Paint fillPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+    /** 直前の描画で描いた点数（描画計測用） */
+    private int drawnVertexCount = 0;
+
+    // 描画時の再利用オブジェクト
+    private final PointL projected = new PointL();
+    private final Point screenPoint = new Point();
+
+    public HeatmapOverlay() {
+        fillPaint.setStyle(Paint.Style.FILL);
+    }
+
+    /**
+     * スナップショットを差し替え
+     *
+     * @param snapshot 新しいスナップショット
+     */
+    public void setSnapshot(@NonNull HeatmapSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * 表示中のスナップショットを取得
+     */
+    @NonNull
+    public HeatmapSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public int getDrawnVertexCount() {
+        return drawnVertexCount;
+    }
+
+    @Override
+    public void draw(Canvas canvas, MapView mapView, boolean shadow) {
+        HeatmapSnapshot snap = snapshot;
+        if (shadow) {
+            return;
+        }
+        drawnVertexCount = 0;
+        if (snap.size == 0) {
+            return;
+        }
+        Projection projection = mapView.getProjection();
+        double powerDifference = projection.getProjectedPowerDifference();
+        float radius = Math.max(MIN_RADIUS_PX, projection.metersToPixels(
+                POINT_RADIUS_METERS, snap.referenceLatitude, projection.getZoomLevel()));
+        Rect screen = projection.getIntrinsicScreenRect();
+        int left = (int) (screen.left - radius);
+        int top = (int) (screen.top - radius);
+        int right = (int) (screen.right + radius);
+        int bottom = (int) (screen.bottom + radius);
+
+        for (int level = 0; level < HeatmapSnapshot.LEVEL_COUNT; level++) {
+            int[] indices = snap.levelIndices[level];
+            int count = snap.levelCounts[level];
+            for (int k = 0; k < count; k++) {
+                int i = indices[k];
+                projected.set(snap.projectedX[i], snap.projectedY[i]);
+                projection.getPixelsFromProjected(projected, powerDifference, screenPoint);
+                if (screenPoint.x < left || screenPoint.x > right
+                        || screenPoint.y < top || screenPoint.y > bottom) {
+                    continue;
+                }
+                fillPaint.setColor(snap.colorTable.colorAt(snap.colorIndices[i] & 0xFF));
+                canvas.drawCircle(screenPoint.x, screenPoint.y, radius, fillPaint);
+                drawnVertexCount++;
+            }
+        }
+    }
+}
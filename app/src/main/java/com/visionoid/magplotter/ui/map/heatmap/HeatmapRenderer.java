@@ -0,0 +1,134 @@
+/**
+ * HeatmapRenderer.java
+ *
+ * VISIONOID MAG PLOTTER - ヒートマップ描画制御
+ *
+ * 概要:
+ *   計測ポイントの変化をバックグラウンドで描画スナップショットに反映し、
+ *   完成したスナップショットをHeatmapOverlayへ差し替える。
+ *
+ * 主な仕様:
+ *   - ポイント増加時は追加分のみ処理（差分更新）
+ *   - ポイント減少時（削除）は全体を再構築
+ *   - カラーテーブル変更時は色のみ再計算
+ *   - UIスレッドでの処理はオーバーレイの再描画要求のみ
+ *
+ * 制限事項:
+ *   - 1つのミッションのポイントのみを扱う
+ */
+package com.visionoid.magplotter.ui.map.heatmap;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import com.visionoid.magplotter.data.model.MeasurementPoint;
+import com.visionoid.magplotter.util.NoiseColorTable;
+
+import org.osmdroid.views.MapView;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * ヒートマップ描画制御クラス
+ */
+public class HeatmapRenderer {
+
+    /** ログタグ */
+    private static final String TAG = "HeatmapRenderer";
+
+    /** 構築スレッド（builderはこのスレッドのみが操作する） */
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    /** 地図ビュー（再描画要求用） */
+    private final MapView mapView;
+
+    /** オーバーレイ */
+    private final HeatmapOverlay overlay;
+
+    /** スナップショット構築 */
+    private final HeatmapBuilder builder;
+
+    /**
+     * コンストラクタ
+     *
+     * @param mapView 地図ビュー
+     * @param overlay オーバーレイ
+     * @param colorTable カラーテーブル
+     */
+    public HeatmapRenderer(@NonNull MapView mapView, @NonNull HeatmapOverlay overlay,
+                           @NonNull NoiseColorTable colorTable) {
+        this.mapView = mapView;
+        this.overlay = overlay;
+        this.builder = new HeatmapBuilder(colorTable);
+    }
+
+    /**
+     * 計測ポイントを投入
+     *
+     * @param points 計測ポイント（タイムスタンプ順、呼び出し後に変更しないこと）
+     */
+    public void submitPoints(@Nullable List<MeasurementPoint> points) {
+        final List<MeasurementPoint> snapshot = points != null ? points : Collections.emptyList();
+        executor.execute(() -> {
+            try {
+                update(snapshot);
+            } catch (Exception e) {
+                Log.e(TAG, "ヒートマップの構築に失敗", e);
+            }
+        });
+    }
+
+    /**
+     * カラーテーブルを変更（ジオメトリは再計算しない）
+     *
+     * @param table カラーテーブル
+     */
+    public void setColorTable(@NonNull NoiseColorTable table) {
+        executor.execute(() -> {
+            builder.setColorTable(table);
+            publish();
+        });
+    }
+
+    /**
+     * リソースを解放
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // ==================== 内部処理 ====================
+
+    @WorkerThread
+    private void update(@NonNull List<MeasurementPoint> points) {
+        int built = builder.size();
+        if (points.size() == built) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        if (points.size() < built) {
+            // ポイントが減った場合（削除時）は全再構築
+            builder.clear();
+            built = 0;
+        }
+        builder.append(points, built);
+        Log.d(TAG, "ヒートマップ更新: +" + (points.size() - built) + " points, total="
+                + builder.size() + ", " + (System.currentTimeMillis() - start) + "ms");
+        publish();
+    }
+
+    /**
+     * スナップショットをオーバーレイへ差し替え、再描画を要求
+     */
+    @WorkerThread
+    private void publish() {
+        overlay.setSnapshot(builder.snapshot());
+        mapView.postInvalidate();
+    }
+}
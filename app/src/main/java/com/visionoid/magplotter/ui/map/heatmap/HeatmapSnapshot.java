@@ -0,0 +1,83 @@
+/**
+ * HeatmapSnapshot.java
+ *
+ * VISIONOID MAG PLOTTER - ヒートマップ描画スナップショット
+ *
+ * 概要:
+ *   バックグラウンドで構築したヒートマップの描画データ。
+ *   UIスレッドはこのスナップショットを描画するだけで、ジオメトリ計算は行わない。
+ *
+ * 主な仕様:
+ *   - 計測点の投影座標（メルカトル、最大ズームのピクセル）
+ *   - カラーテーブルのインデックス
+ *   - 危険度別の描画順（安全→警告→危険、各危険度内は計測順）
+ *
+ * 制限事項:
+ *   - 配列は後続のスナップショットと共有される（追記のみ）。
+ *     各配列はsize / 危険度別件数の範囲のみ参照すること
+ */
+package com.visionoid.magplotter.ui.map.heatmap;
+
+import androidx.annotation.NonNull;
+
+import com.visionoid.magplotter.util.NoiseColorTable;
+
+/**
+ * ヒートマップ描画スナップショットクラス（不変）
+ */
+public final class HeatmapSnapshot {
+
+    /** 危険度の数 */
+    static final int LEVEL_COUNT = 3;
+
+    /** 空のスナップショット */
+    static final HeatmapSnapshot EMPTY = new HeatmapSnapshot(
+            new long[0], new long[0], new byte[0],
+            new int[LEVEL_COUNT][0], new int[LEVEL_COUNT], 0, 0.0,
+            NoiseColorTable.createDefault());
+
+    /** 投影X座標 */
+    final long[] projectedX;
+
+    /** 投影Y座標 */
+    final long[] projectedY;
+
+    /** カラーテーブルのインデックス（符号なしbyte） */
+    final byte[] colorIndices;
+
+    /** 危険度別の点インデックス */
+    final int[][] levelIndices;
+
+    /** 危険度別の件数 */
+    final int[] levelCounts;
+
+    /** 点数 */
+    final int size;
+
+    /** 基準緯度（円の半径をピクセル換算する際に使用） */
+    final double referenceLatitude;
+
+    /** カラーテーブル */
+    final NoiseColorTable colorTable;
+
+    HeatmapSnapshot(@NonNull long[] projectedX, @NonNull long[] projectedY,
+                    @NonNull byte[] colorIndices, @NonNull int[][] levelIndices,
+                    @NonNull int[] levelCounts, int size, double referenceLatitude,
+                    @NonNull NoiseColorTable colorTable) {
+        this.projectedX = projectedX;
+        this.projectedY = projectedY;
+        this.colorIndices = colorIndices;
+        this.levelIndices = levelIndices;
+        this.levelCounts = levelCounts;
+        this.size = size;
+        this.referenceLatitude = referenceLatitude;
+        this.colorTable = colorTable;
+    }
+
+    /**
+     * 点数を取得
+     */
+    public int size() {
+        return size;
+    }
+}
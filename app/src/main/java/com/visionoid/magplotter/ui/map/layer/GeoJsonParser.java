@@ -5,14 +5,17 @@
  * 
  * 概要:
  *   GeoJSON形式のデータをosmdroidのPolygonオブジェクトに変換する。
- *   FeatureCollectionおよび単一のFeatureに対応。
- *   大きなファイル（50MB以上）にも対応するためストリーミングパーサーを使用。
+ *   FeatureCollectionおよび単一のFeature/Geometryに対応。
+ *   ファイル・アセットのストリームから直接インクリメンタルにパースし、
+ *   全体を文字列としてメモリに展開しない。
  * 
  * 主な仕様:
  *   - GeoJSON FeatureCollectionのパース
- *   - Polygon/MultiPolygon geometryの変換
+ *   - Polygon/MultiPolygon geometryの変換（穴を含む）
  *   - osmdroid Polygonへの変換
  *   - ストリーミングパーサー（JsonReader）による省メモリ処理
+ *     （ピークメモリは最大のFeature1件分に比例）
+ *   - キーの出現順に依存しない（"type"が"coordinates"の後でも可）
  * 
  * 制限事項:
  *   - Point, LineString等のgeometryタイプは非対応
@@ -29,15 +32,14 @@ import androidx.annotation.ColorInt;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
 import org.osmdroid.util.GeoPoint;
 import org.osmdroid.views.overlay.Polygon;
 
 import java.io.IOException;
+import java.io.Reader;
 import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -62,13 +64,35 @@ public class GeoJsonParser {
     /** デフォルト境界線幅 */
     private static final float DEFAULT_STROKE_WIDTH = 2.0f;
 
-    /** 大きなファイルと判断するサイズ（100MB - 事実上無効化して従来パーサーを使用） */
-    private static final int LARGE_FILE_THRESHOLD = 100 * 1024 * 1024;
+    /** 座標配列の深さ: Polygon（[リング][点][経度,緯度]） */
+    private static final int DEPTH_POLYGON = 3;
+
+    /** 座標配列の深さ: MultiPolygon（[ポリゴン][リング][点][経度,緯度]） */
+    private static final int DEPTH_MULTI_POLYGON = 4;
+
+    /** 進捗ログの間隔（Feature数） */
+    private static final int PROGRESS_LOG_INTERVAL = 1000;
 
     /**
-     * GeoJSON文字列をPolygonリストに変換
+     * ポリゴン受け取りインターフェース
      * 
-     * @param geoJson GeoJSON文字列
+     * パース済みのポリゴンを1件ずつ受け取る。
+     * 渡されたリストはパーサーが再利用しないため、そのまま保持してよい。
+     */
+    public interface PolygonSink {
+        /**
+         * ポリゴンを受け取る
+         * 
+         * @param outerRing 外周リング（3点以上）
+         * @param holes 内周リング（穴）、ない場合は空リスト
+         */
+        void onPolygon(@NonNull List<GeoPoint> outerRing, @NonNull List<List<GeoPoint>> holes);
+    }
+
+    /**
+     * GeoJSONストリームをPolygonリストに変換
+     * 
+     * @param geoJson GeoJSONストリーム（呼び出し側でクローズすること）
      * @param fillColor 塗りつぶし色
      * @param strokeColor 境界線色
      * @param displayStyle 表示スタイル
@@ -76,472 +100,331 @@ public class GeoJsonParser {
      */
     @NonNull
     public static List<Polygon> parse(
-            @NonNull String geoJson,
+            @NonNull Reader geoJson,
             @ColorInt int fillColor,
             @ColorInt int strokeColor,
             @NonNull LayerDisplayStyle displayStyle
     ) {
-        Log.d(TAG, "GeoJSONパース開始: サイズ=" + geoJson.length() + " bytes");
-        
-        // 大きなファイルはストリーミングパーサーを使用
-        if (geoJson.length() > LARGE_FILE_THRESHOLD) {
-            Log.d(TAG, "大きなファイルのためストリーミングパーサーを使用");
-            return parseStreaming(geoJson, fillColor, strokeColor, displayStyle);
+        List<Polygon> polygons = new ArrayList<>();
+        try {
+            parse(geoJson, (outerRing, holes) -> {
+                Polygon polygon = new Polygon();
+                polygon.setPoints(outerRing);
+                applyDisplayStyle(polygon, fillColor, strokeColor, displayStyle);
+                if (!holes.isEmpty()) {
+                    polygon.setHoles(holes);
+                }
+                polygons.add(polygon);
+            });
+        } catch (IOException e) {
+            // 表示用途のため、エラー箇所までのポリゴンを返す
+            Log.e(TAG, "ストリーミングパース失敗: " + e.getMessage(), e);
         }
-        
-        // 小さなファイルは従来のJSONObjectパーサーを使用
-        return parseWithJsonObject(geoJson, fillColor, strokeColor, displayStyle);
+        return polygons;
     }
 
     /**
-     * JSONObjectを使った従来のパース方式（小さなファイル用）
+     * GeoJSON文字列をPolygonリストに変換
+     * 
+     * @param geoJson GeoJSON文字列
+     * @param fillColor 塗りつぶし色
+     * @param strokeColor 境界線色
+     * @param displayStyle 表示スタイル
+     * @return Polygonリスト
      */
     @NonNull
-    private static List<Polygon> parseWithJsonObject(
+    public static List<Polygon> parse(
             @NonNull String geoJson,
             @ColorInt int fillColor,
             @ColorInt int strokeColor,
             @NonNull LayerDisplayStyle displayStyle
     ) {
-        List<Polygon> polygons = new ArrayList<>();
-        Log.d(TAG, "JSONObjectパース開始...");
+        return parse(new StringReader(geoJson), fillColor, strokeColor, displayStyle);
+    }
 
-        try {
-            Log.d(TAG, "JSONObject生成中... (サイズ: " + geoJson.length() + " bytes)");
-            JSONObject root = new JSONObject(geoJson);
-            String type = root.optString("type", "");
-            Log.d(TAG, "GeoJSONタイプ: " + type);
-
-            if ("FeatureCollection".equals(type)) {
-                // FeatureCollectionの場合
-                JSONArray features = root.optJSONArray("features");
-                int featureCount = features != null ? features.length() : 0;
-                Log.d(TAG, "FeatureCollection: " + featureCount + " features");
-                
-                if (features != null) {
-                    for (int i = 0; i < features.length(); i++) {
-                        JSONObject feature = features.optJSONObject(i);
-                        if (feature != null) {
-                            List<Polygon> featurePolygons = parseFeature(
-                                    feature, fillColor, strokeColor, displayStyle);
-                            polygons.addAll(featurePolygons);
-                        }
-                        
-                        // 進捗ログ（1000件ごと）
-                        if (i > 0 && i % 1000 == 0) {
-                            Log.d(TAG, "パース進捗: " + i + "/" + featureCount + " (" + polygons.size() + " polygons)");
-                        }
-                    }
-                }
-            } else if ("Feature".equals(type)) {
-                // 単一Featureの場合
-                Log.d(TAG, "単一Feature");
-                List<Polygon> featurePolygons = parseFeature(
-                        root, fillColor, strokeColor, displayStyle);
-                polygons.addAll(featurePolygons);
-            } else if ("Polygon".equals(type) || "MultiPolygon".equals(type)) {
-                // 直接Geometry指定の場合
-                Log.d(TAG, "直接Geometry: " + type);
-                List<Polygon> geometryPolygons = parseGeometry(
-                        root, fillColor, strokeColor, displayStyle);
-                polygons.addAll(geometryPolygons);
-            } else {
-                Log.w(TAG, "未知のGeoJSONタイプ: " + type);
-            }
+    /**
+     * GeoJSONストリームをパースし、ポリゴンを1件ずつ通知
+     * 
+     * 途中で失敗した場合、それまでに通知したポリゴンは不完全な結果となるため、
+     * 例外を受けた呼び出し側で破棄すること。
+     * 
+     * @param geoJson GeoJSONストリーム（呼び出し側でクローズすること）
+     * @param sink ポリゴン受け取り先
+     * @return 処理したFeature数
+     * @throws IOException 読み込み・構文エラー、またはメモリ不足の場合
+     */
+    public static int parse(@NonNull Reader geoJson, @NonNull PolygonSink sink)
+            throws IOException {
+        ParseState state = new ParseState(sink);
+        Log.d(TAG, "ストリーミングパース開始...");
 
-        } catch (JSONException e) {
-            Log.e(TAG, "GeoJSONのパースに失敗(JSONException): " + e.getMessage(), e);
+        JsonReader reader = new JsonReader(geoJson);
+        reader.setLenient(true);
+        try {
+            readObject(reader, state);
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new IOException("GeoJSONの構文エラー (" + state.featureCount + " features処理済み)", e);
         } catch (OutOfMemoryError e) {
-            Log.e(TAG, "メモリ不足でパースに失敗: " + e.getMessage(), e);
-            // メモリ不足の場合は空のリストを返す（ストリーミングも同様に失敗する可能性が高いため）
-            return new ArrayList<>();
-        } catch (Exception e) {
-            Log.e(TAG, "GeoJSONのパースに失敗(予期せぬエラー): " + e.getMessage(), e);
+            throw new IOException("GeoJSONのパース中にメモリ不足 (" + state.featureCount
+                    + " features処理済み)", e);
         }
 
-        Log.d(TAG, "パース完了: " + polygons.size() + " 個のPolygon");
-        return polygons;
+        Log.d(TAG, "ストリーミングパース完了: " + state.polygonCount + " 個のPolygon ("
+                + state.featureCount + " features処理, " + state.skipCount + " skipped)");
+        return state.featureCount;
     }
 
     /**
-     * ストリーミングパーサーを使ったパース方式（大きなファイル用）
+     * Feature（またはGeometry）1件分のJSONをパースし、ポリゴンを通知
+     * 
+     * 並列デコード（ParallelGeoJsonParser）用。ログは出力せず、
+     * 構文エラーは例外として呼び出し側に返す。
+     * 
+     * @param feature Feature1件分のJSONストリーム（呼び出し側でクローズすること）
+     * @param sink ポリゴン受け取り先
+     * @return 通知したポリゴン数
+     * @throws IOException 読み込み・構文エラーの場合
      */
-    @NonNull
-    private static List<Polygon> parseStreaming(
-            @NonNull String geoJson,
-            @ColorInt int fillColor,
-            @ColorInt int strokeColor,
-            @NonNull LayerDisplayStyle displayStyle
-    ) {
-        List<Polygon> polygons = new ArrayList<>();
-        int featureCount = 0;
-        int successCount = 0;
-        int skipCount = 0;
-        
-        Log.d(TAG, "ストリーミングパース開始...");
-        
-        try (JsonReader reader = new JsonReader(new StringReader(geoJson))) {
-            reader.setLenient(true);
-            reader.beginObject();
-            
-            while (reader.hasNext()) {
-                String name = reader.nextName();
-                Log.d(TAG, "ルートプロパティ: " + name);
-                
-                if ("features".equals(name)) {
-                    reader.beginArray();
-                    Log.d(TAG, "features配列を開始");
-                    
-                    while (reader.hasNext()) {
-                        try {
-                            Polygon polygon = readFeatureStreaming(reader, fillColor, strokeColor, displayStyle);
-                            if (polygon != null) {
-                                polygons.add(polygon);
-                                successCount++;
-                            } else {
-                                skipCount++;
-                            }
-                            featureCount++;
-                            
-                            // 進捗ログ（100件ごとに詳細、1000件ごとに概要）
-                            if (featureCount == 1) {
-                                Log.d(TAG, "最初のFeature処理完了: polygon=" + (polygon != null));
-                            }
-                            if (featureCount % 1000 == 0) {
-                                Log.d(TAG, "ストリーミングパース進捗: " + featureCount + " features, " + 
-                                        successCount + " polygons, " + skipCount + " skipped");
-                            }
-                        } catch (Exception e) {
-                            Log.w(TAG, "Feature " + featureCount + " のパースをスキップ: " + e.getMessage());
-                            skipCount++;
-                            featureCount++;
-                            // エラー発生時は残りのfeatureをスキップせずに続行を試みる
-                        }
-                    }
-                    
-                    reader.endArray();
-                    Log.d(TAG, "features配列を終了");
-                } else {
-                    reader.skipValue();
-                }
-            }
-            
-            reader.endObject();
-            
-        } catch (IOException e) {
-            Log.e(TAG, "ストリーミングパースIO例外: " + e.getMessage(), e);
-        } catch (IllegalStateException e) {
-            Log.e(TAG, "ストリーミングパース状態例外: " + e.getMessage(), e);
-        } catch (OutOfMemoryError e) {
-            Log.e(TAG, "ストリーミングパースでもメモリ不足: " + e.getMessage(), e);
+    public static int parseFeature(@NonNull Reader feature, @NonNull PolygonSink sink)
+            throws IOException {
+        ParseState state = new ParseState(sink);
+        JsonReader reader = new JsonReader(feature);
+        reader.setLenient(true);
+        try {
+            readObject(reader, state);
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new IOException(e);
         }
-
-        Log.d(TAG, "ストリーミングパース完了: " + polygons.size() + " 個のPolygon (" + 
-                featureCount + " features処理, " + skipCount + " skipped)");
-        return polygons;
+        return state.polygonCount;
     }
 
     /**
-     * ストリーミングでFeatureを読み込み
+     * パース中の状態
      */
-    @Nullable
-    private static Polygon readFeatureStreaming(
-            @NonNull JsonReader reader,
-            @ColorInt int fillColor,
-            @ColorInt int strokeColor,
-            @NonNull LayerDisplayStyle displayStyle
-    ) throws IOException {
-        Polygon polygon = null;
-        
-        reader.beginObject();
-        
-        while (reader.hasNext()) {
-            String name = reader.nextName();
-            
-            if ("geometry".equals(name)) {
-                if (reader.peek() == JsonToken.NULL) {
-                    reader.nextNull();
-                } else {
-                    polygon = readGeometryStreaming(reader, fillColor, strokeColor, displayStyle);
-                }
-            } else {
-                reader.skipValue();
-            }
+    private static class ParseState {
+        final PolygonSink sink;
+        int featureCount = 0;
+        int polygonCount = 0;
+        int skipCount = 0;
+
+        ParseState(PolygonSink sink) {
+            this.sink = sink;
         }
-        
-        reader.endObject();
-        return polygon;
     }
 
     /**
-     * ストリーミングでGeometryを読み込み
-     * 座標を直接パースする（Polygon形式を前提）
+     * GeoJSONオブジェクト（FeatureCollection / Feature / Geometry）を読み込み
+     * 
+     * キーの順序に依存しないよう、種別は読み終えた時点で確定する。
+     * 座標は最大でもこのオブジェクト1件分のみ保持する。
      */
-    @Nullable
-    private static Polygon readGeometryStreaming(
-            @NonNull JsonReader reader,
-            @ColorInt int fillColor,
-            @ColorInt int strokeColor,
-            @NonNull LayerDisplayStyle displayStyle
-    ) throws IOException {
-        List<GeoPoint> points = null;
-        
+    private static void readObject(@NonNull JsonReader reader, @NonNull ParseState state)
+            throws IOException {
+        String type = null;
+        List<List<List<GeoPoint>>> coordinates = null;
+        int depth = 0;
+
         reader.beginObject();
-        
         while (reader.hasNext()) {
             String name = reader.nextName();
-            
-            if ("coordinates".equals(name)) {
-                // 座標を直接読み込み（Polygon形式として処理）
-                points = readPolygonCoordinatesStreaming(reader);
-            } else {
-                reader.skipValue();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                continue;
             }
-        }
-        
-        reader.endObject();
-        
-        if (points != null && points.size() >= 3) {
-            Polygon polygon = new Polygon();
-            polygon.setPoints(points);
-            applyDisplayStyle(polygon, fillColor, strokeColor, displayStyle);
-            return polygon;
-        }
-        
-        return null;
-    }
-    
-    /**
-     * Polygon座標をストリーミングで読み込み
-     * 形式: [[[lon,lat],[lon,lat],...], [[hole],...]]
-     * 外周リングのみ取得（穴は無視）
-     */
-    @NonNull
-    private static List<GeoPoint> readPolygonCoordinatesStreaming(@NonNull JsonReader reader) throws IOException {
-        List<GeoPoint> points = new ArrayList<>();
-        
-        // Polygon coordinates: [ [outer_ring], [hole1], [hole2], ... ]
-        // outer_ring: [ [lon, lat], [lon, lat], ... ]
-        
-        reader.beginArray(); // coordinates配列の開始
-        
-        // 最初の配列（外周リング）を処理
-        if (reader.hasNext() && reader.peek() == JsonToken.BEGIN_ARRAY) {
-            reader.beginArray(); // outer_ring配列の開始
-            
-            // 各座標点を読み込み
-            while (reader.hasNext()) {
-                if (reader.peek() == JsonToken.BEGIN_ARRAY) {
-                    reader.beginArray(); // [lon, lat]の開始
-                    
-                    double lon = 0, lat = 0;
-                    int index = 0;
-                    while (reader.hasNext()) {
-                        if (reader.peek() == JsonToken.NUMBER) {
-                            double value = reader.nextDouble();
-                            if (index == 0) lon = value;
-                            else if (index == 1) lat = value;
-                            index++;
-                        } else {
-                            reader.skipValue();
-                        }
-                    }
-                    
-                    reader.endArray(); // [lon, lat]の終了
-                    
-                    // 有効な座標をポイントとして追加
-                    if (lat >= -90 && lat <= 90 && lon >= -180 && lon <= 180) {
-                        points.add(new GeoPoint(lat, lon));
-                    }
-                } else {
+            switch (name) {
+                case "type":
+                    type = reader.nextString();
+                    break;
+                case "features":
+                    readFeatures(reader, state);
+                    break;
+                case "geometry":
+                    readObject(reader, state);
+                    break;
+                case "coordinates":
+                    coordinates = new ArrayList<>();
+                    depth = readPolygonCoordinates(reader, coordinates);
+                    break;
+                default:
                     reader.skipValue();
-                }
+                    break;
             }
-            
-            reader.endArray(); // outer_ring配列の終了
-        }
-        
-        // 残りの配列（穴）をスキップ
-        while (reader.hasNext()) {
-            reader.skipValue();
         }
-        
-        reader.endArray(); // coordinates配列の終了
-        
-        return points;
-    }
+        reader.endObject();
 
-    /**
-     * JsonReaderの現在の値を安全にスキップ
-     */
-    private static void skipValue(@NonNull JsonReader reader) {
-        try {
-            reader.skipValue();
-        } catch (IOException e) {
-            Log.w(TAG, "skipValue失敗: " + e.getMessage());
+        if (coordinates != null) {
+            emitGeometry(type, depth, coordinates, state);
         }
     }
 
     /**
-     * Featureオブジェクトをパース
-     * 
-     * @param feature JSONObject
-     * @param fillColor 塗りつぶし色
-     * @param strokeColor 境界線色
-     * @param displayStyle 表示スタイル
-     * @return Polygonリスト
+     * features配列を読み込み（1件ずつ処理して破棄）
      */
-    @NonNull
-    private static List<Polygon> parseFeature(
-            @NonNull JSONObject feature,
-            @ColorInt int fillColor,
-            @ColorInt int strokeColor,
-            @NonNull LayerDisplayStyle displayStyle
-    ) {
-        JSONObject geometry = feature.optJSONObject("geometry");
-        if (geometry == null) {
-            return new ArrayList<>();
+    private static void readFeatures(@NonNull JsonReader reader, @NonNull ParseState state)
+            throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+                readObject(reader, state);
+            } else {
+                reader.skipValue();
+            }
+            state.featureCount++;
+            if (state.featureCount % PROGRESS_LOG_INTERVAL == 0) {
+                Log.d(TAG, "ストリーミングパース進捗: " + state.featureCount + " features, "
+                        + state.polygonCount + " polygons, " + state.skipCount + " skipped");
+            }
         }
-        return parseGeometry(geometry, fillColor, strokeColor, displayStyle);
+        reader.endArray();
     }
 
     /**
-     * Geometryオブジェクトをパース
+     * Geometryの座標からポリゴンを通知
      * 
-     * @param geometry JSONObject
-     * @param fillColor 塗りつぶし色
-     * @param strokeColor 境界線色
-     * @param displayStyle 表示スタイル
-     * @return Polygonリスト
+     * @param type Geometry種別（不明な場合はnull、座標の深さから推定）
+     * @param depth 座標配列の深さ
+     * @param parts ポリゴン→リング→点
      */
-    @NonNull
-    private static List<Polygon> parseGeometry(
-            @NonNull JSONObject geometry,
-            @ColorInt int fillColor,
-            @ColorInt int strokeColor,
-            @NonNull LayerDisplayStyle displayStyle
+    private static void emitGeometry(
+            @Nullable String type,
+            int depth,
+            @NonNull List<List<List<GeoPoint>>> parts,
+            @NonNull ParseState state
     ) {
-        List<Polygon> polygons = new ArrayList<>();
-        String geometryType = geometry.optString("type", "");
-        JSONArray coordinates = geometry.optJSONArray("coordinates");
-
-        if (coordinates == null) {
-            return polygons;
+        boolean isPolygon = type != null
+                ? "Polygon".equals(type) || "MultiPolygon".equals(type)
+                : depth == DEPTH_POLYGON || depth == DEPTH_MULTI_POLYGON;
+        if (!isPolygon) {
+            state.skipCount++;
+            return;
         }
-
-        try {
-            if ("Polygon".equals(geometryType)) {
-                Polygon polygon = parsePolygonCoordinates(
-                        coordinates, fillColor, strokeColor, displayStyle);
-                if (polygon != null) {
-                    polygons.add(polygon);
-                }
-            } else if ("MultiPolygon".equals(geometryType)) {
-                for (int i = 0; i < coordinates.length(); i++) {
-                    JSONArray polygonCoords = coordinates.optJSONArray(i);
-                    if (polygonCoords != null) {
-                        Polygon polygon = parsePolygonCoordinates(
-                                polygonCoords, fillColor, strokeColor, displayStyle);
-                        if (polygon != null) {
-                            polygons.add(polygon);
-                        }
+        for (List<List<GeoPoint>> rings : parts) {
+            if (rings.isEmpty() || rings.get(0).size() < 3) {
+                state.skipCount++;
+                continue;
+            }
+            List<List<GeoPoint>> holes = Collections.emptyList();
+            for (int i = 1; i < rings.size(); i++) {
+                if (rings.get(i).size() >= 3) {
+                    if (holes.isEmpty()) {
+                        holes = new ArrayList<>(rings.size() - 1);
                     }
+                    holes.add(rings.get(i));
                 }
             }
-        } catch (Exception e) {
-            Log.e(TAG, "Geometryのパースに失敗: " + e.getMessage(), e);
+            state.sink.onPolygon(rings.get(0), holes);
+            state.polygonCount++;
         }
-
-        return polygons;
     }
 
     /**
-     * Polygon座標配列をosmdroid Polygonに変換
+     * Polygon / MultiPolygonの座標配列を読み込み
      * 
-     * @param coordinates 座標配列（外周 + 内周リング）
-     * @param fillColor 塗りつぶし色
-     * @param strokeColor 境界線色
-     * @param displayStyle 表示スタイル
-     * @return osmdroid Polygon
+     * 形式: Polygon      [[[lon,lat],...], [hole],...]
+     *       MultiPolygon [[[[lon,lat],...], [hole],...], ...]
+     * 配列の深さを最初の座標点までの入れ子数で判定し、どちらも
+     * ポリゴン→リング→点の形に格納する。範囲外の座標は除外する。
+     * 
+     * @param reader JsonReader（coordinatesの値の直前）
+     * @param out 出力先（ポリゴン→リング→点）
+     * @return 座標配列の深さ（座標点の配列を含む）、判定できない場合は0
      */
-    @Nullable
-    private static Polygon parsePolygonCoordinates(
-            @NonNull JSONArray coordinates,
-            @ColorInt int fillColor,
-            @ColorInt int strokeColor,
-            @NonNull LayerDisplayStyle displayStyle
-    ) {
-        if (coordinates.length() == 0) {
-            return null;
-        }
-
-        try {
-            // 外周リング（最初の配列）
-            JSONArray outerRing = coordinates.optJSONArray(0);
-            if (outerRing == null || outerRing.length() < 3) {
-                return null;
+    private static int readPolygonCoordinates(
+            @NonNull JsonReader reader,
+            @NonNull List<List<List<GeoPoint>>> out
+    ) throws IOException {
+        // 最初の数値まで配列を開き、深さを判定
+        int depth = 0;
+        while (reader.peek() == JsonToken.BEGIN_ARRAY) {
+            reader.beginArray();
+            depth++;
+            if (!reader.hasNext()) {
+                break;
             }
+        }
+        if (depth != DEPTH_POLYGON && depth != DEPTH_MULTI_POLYGON
+                || reader.peek() != JsonToken.NUMBER) {
+            // 非対応の形式（Point / LineString等）または空配列: 残りを読み捨て
+            closeArrays(reader, depth);
+            return depth;
+        }
 
-            List<GeoPoint> points = parseCoordinateRing(outerRing);
-            if (points.isEmpty()) {
-                return null;
+        // ここまでに開いた配列: [ポリゴン群]、ポリゴン、リング、座標点
+        List<List<GeoPoint>> rings = new ArrayList<>();
+        List<GeoPoint> ring = new ArrayList<>();
+        rings.add(ring);
+        out.add(rings);
+        int level = depth;  // 現在開いている配列の深さ
+
+        while (true) {
+            if (level == depth) {
+                // 座標点 [lon, lat, (alt)]
+                readPosition(reader, ring);
+                reader.endArray();
+                level--;
+                continue;
             }
-
-            Polygon polygon = new Polygon();
-            polygon.setPoints(points);
-
-            // 表示スタイルに応じた設定
-            applyDisplayStyle(polygon, fillColor, strokeColor, displayStyle);
-
-            // 内周リング（穴）があれば追加
-            if (coordinates.length() > 1) {
-                List<List<GeoPoint>> holes = new ArrayList<>();
-                for (int i = 1; i < coordinates.length(); i++) {
-                    JSONArray holeRing = coordinates.optJSONArray(i);
-                    if (holeRing != null) {
-                        List<GeoPoint> holePoints = parseCoordinateRing(holeRing);
-                        if (!holePoints.isEmpty()) {
-                            holes.add(holePoints);
-                        }
+            if (reader.hasNext()) {
+                // 同じ階層の次の要素を開き、座標点まで降りる
+                while (level < depth) {
+                    reader.beginArray();
+                    level++;
+                    if (level == depth - 1) {
+                        ring = new ArrayList<>();
+                        rings.add(ring);
+                    } else if (level == depth - 2) {
+                        rings = new ArrayList<>();
+                        out.add(rings);
+                    }
+                    if (level < depth && !reader.hasNext()) {
+                        break;
                     }
                 }
-                if (!holes.isEmpty()) {
-                    polygon.setHoles(holes);
-                }
+                continue;
+            }
+            reader.endArray();
+            level--;
+            if (level == 0) {
+                break;
             }
-
-            return polygon;
-
-        } catch (Exception e) {
-            Log.e(TAG, "Polygon座標のパースに失敗: " + e.getMessage(), e);
-            return null;
         }
+        return depth;
     }
 
     /**
-     * 座標リング（配列）をGeoPointリストに変換
-     * 
-     * @param ring 座標配列
-     * @return GeoPointリスト
+     * 座標点の数値を読み込み、有効な座標ならリングに追加
      */
-    @NonNull
-    private static List<GeoPoint> parseCoordinateRing(@NonNull JSONArray ring) {
-        List<GeoPoint> points = new ArrayList<>();
-
-        for (int i = 0; i < ring.length(); i++) {
-            JSONArray coord = ring.optJSONArray(i);
-            if (coord != null && coord.length() >= 2) {
-                double longitude = coord.optDouble(0, 0);
-                double latitude = coord.optDouble(1, 0);
-                
-                // 座標が有効な範囲かチェック
-                if (latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180) {
-                    points.add(new GeoPoint(latitude, longitude));
-                }
+    private static void readPosition(@NonNull JsonReader reader, @NonNull List<GeoPoint> ring)
+            throws IOException {
+        double lon = Double.NaN;
+        double lat = Double.NaN;
+        int index = 0;
+        while (reader.hasNext()) {
+            if (reader.peek() == JsonToken.NUMBER) {
+                double value = reader.nextDouble();
+                if (index == 0) lon = value;
+                else if (index == 1) lat = value;
+                index++;
+            } else {
+                reader.skipValue();
             }
         }
+        // 座標が有効な範囲かチェック
+        if (lat >= -90 && lat <= 90 && lon >= -180 && lon <= 180) {
+            ring.add(new GeoPoint(lat, lon));
+        }
+    }
 
-        return points;
+    /**
+     * 開いている配列を読み捨てて閉じる
+     */
+    private static void closeArrays(@NonNull JsonReader reader, int openCount) throws IOException {
+        for (int i = 0; i < openCount; i++) {
+            while (reader.hasNext()) {
+                reader.skipValue();
+            }
+            reader.endArray();
+        }
     }
 
     /**
@@ -574,9 +457,9 @@ public class GeoJsonParser {
             case HATCHED:
                 // ハッチングは半透明塗りつぶし + 太めの境界線で表現
                 // 本格的なハッチングはカスタムオーバーレイが必要
-                polygon.setFillColor(Color.argb(50, 
-                        Color.red(fillColor), 
-                        Color.green(fillColor), 
+                polygon.setFillColor(Color.argb(50,
+                        Color.red(fillColor),
+                        Color.green(fillColor),
                         Color.blue(fillColor)));
                 polygon.setStrokeColor(strokeColor);
                 polygon.setStrokeWidth(DEFAULT_STROKE_WIDTH * 2.0f);
@@ -595,5 +478,3 @@ public class GeoJsonParser {
         return parse(geoJson, DEFAULT_FILL_COLOR, DEFAULT_STROKE_COLOR, LayerDisplayStyle.FILLED);
     }
 }
-
-
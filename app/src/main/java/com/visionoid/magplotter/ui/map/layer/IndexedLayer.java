@@ -0,0 +1,172 @@
+/**
+ * IndexedLayer.java
+ *
+ * VISIONOID MAG PLOTTER - 空間インデックス付きレイヤー
+ *
+ * 概要:
+ *   読み込み済みのレイヤージオメトリと、フィーチャの境界ボックスに対する
+ *   STR R-tree、ズーム別の簡略化ピラミッドをまとめたもの。
+ *   表示範囲と交差するフィーチャだけを列挙する。
+ *
+ * 主な仕様:
+ *   - インデックスはマイクロ度（緯度 = Y、経度 = X）で構築
+ *   - 構築は読み込み時に1回（バックグラウンドスレッド）
+ *
+ * 制限事項:
+ *   - 日付変更線をまたぐ検索範囲には対応しない
+ */
+package com.visionoid.magplotter.ui.map.layer;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import com.visionoid.magplotter.data.layer.LayerGeometry;
+import com.visionoid.magplotter.util.StrRTree;
+
+import org.osmdroid.util.BoundingBox;
+import org.osmdroid.util.GeoPoint;
+
+/**
+ * 空間インデックス付きレイヤークラス
+ */
+public final class IndexedLayer {
+
+    /** レイヤータイプ */
+    @NonNull
+    private final LayerType layerType;
+
+    /** ジオメトリ（メモリマップ） */
+    @NonNull
+    private final LayerGeometry geometry;
+
+    /** フィーチャの境界ボックスのR-tree */
+    @NonNull
+    private final StrRTree index;
+
+    /** ズーム別の簡略化ピラミッド */
+    @NonNull
+    private final LayerPyramid pyramid;
+
+    private IndexedLayer(@NonNull LayerType layerType, @NonNull LayerGeometry geometry,
+                         @NonNull StrRTree index, @NonNull LayerPyramid pyramid) {
+        this.layerType = layerType;
+        this.geometry = geometry;
+        this.index = index;
+        this.pyramid = pyramid;
+    }
+
+    /**
+     * ジオメトリからインデックスを構築
+     *
+     * @param layerType レイヤータイプ
+     * @param geometry レイヤージオメトリ
+     * @return インデックス付きレイヤー
+     */
+    @WorkerThread
+    @NonNull
+    public static IndexedLayer build(@NonNull LayerType layerType, @NonNull LayerGeometry geometry) {
+        int count = geometry.getFeatureCount();
+        double[] minX = new double[count];
+        double[] minY = new double[count];
+        double[] maxX = new double[count];
+        double[] maxY = new double[count];
+        for (int i = 0; i < count; i++) {
+            minX[i] = geometry.getFeatureWestE6(i);
+            minY[i] = geometry.getFeatureSouthE6(i);
+            maxX[i] = geometry.getFeatureEastE6(i);
+            maxY[i] = geometry.getFeatureNorthE6(i);
+        }
+        StrRTree index = new StrRTree(minX, minY, maxX, maxY, count);
+        return new IndexedLayer(layerType, geometry, index, LayerPyramid.build(geometry));
+    }
+
+    @NonNull
+    public LayerType getLayerType() {
+        return layerType;
+    }
+
+    @NonNull
+    public LayerGeometry getGeometry() {
+        return geometry;
+    }
+
+    @NonNull
+    public LayerPyramid getPyramid() {
+        return pyramid;
+    }
+
+    public int getFeatureCount() {
+        return geometry.getFeatureCount();
+    }
+
+    /**
+     * ヒープ使用量の概算を取得（R-treeと簡略化ピラミッド）
+     *
+     * ジオメトリ本体はメモリマップのため含めない。
+     *
+     * @return バイト数
+     */
+    public long estimateMemoryBytes() {
+        return index.estimateMemoryBytes() + pyramid.estimateMemoryBytes();
+    }
+
+    /**
+     * 範囲と境界ボックスが交差するフィーチャを列挙
+     *
+     * @param southE6 南端（マイクロ度）
+     * @param westE6 西端（マイクロ度）
+     * @param northE6 北端（マイクロ度）
+     * @param eastE6 東端（マイクロ度）
+     * @param visitor 結果の受け取り先（フィーチャ番号）
+     * @return 該当したフィーチャ数
+     */
+    public int query(double southE6, double westE6, double northE6, double eastE6,
+                     @NonNull StrRTree.Visitor visitor) {
+        return index.query(westE6, southE6, eastE6, northE6, visitor);
+    }
+
+    /**
+     * レイヤー全体の境界ボックスを取得
+     *
+     * @return 境界ボックス、フィーチャがない場合はnull
+     */
+    @Nullable
+    public BoundingBox getBounds() {
+        if (geometry.isEmpty()) {
+            return null;
+        }
+        return new BoundingBox(
+                geometry.getNorthE6() / LayerGeometry.E6,
+                geometry.getEastE6() / LayerGeometry.E6,
+                geometry.getSouthE6() / LayerGeometry.E6,
+                geometry.getWestE6() / LayerGeometry.E6);
+    }
+
+    /**
+     * 最初のフィーチャの外周の中心（頂点の平均）を取得
+     *
+     * @return 中心座標、フィーチャがない場合はnull
+     */
+    @Nullable
+    public GeoPoint getFirstFeatureCenter() {
+        if (geometry.isEmpty()) {
+            return null;
+        }
+        int ring = geometry.getFirstRing(0);
+        int count = geometry.getRingPointCount(ring);
+        if (count == 0) {
+            return null;
+        }
+        int[] lats = new int[count];
+        int[] lons = new int[count];
+        geometry.readRing(ring, lats, lons);
+        double latSum = 0;
+        double lonSum = 0;
+        for (int i = 0; i < count; i++) {
+            latSum += lats[i];
+            lonSum += lons[i];
+        }
+        return new GeoPoint(latSum / count / LayerGeometry.E6, lonSum / count / LayerGeometry.E6);
+    }
+}
@@ -0,0 +1,217 @@
+/**
+ * LayerMemoryCache.java
+ *
+ * VISIONOID MAG PLOTTER - レイヤーのメモリキャッシュ
+ *
+ * 概要:
+ *   メモリ上に保持するインデックス付きレイヤーを、使用量の概算に基づいて制限する。
+ *   上限を超えた場合やメモリ不足の通知を受けた場合、最近使われていないレイヤーから
+ *   解放する。解放したレイヤーはディスク上のバイナリキャッシュから再読み込みできる。
+ *
+ * 主な仕様:
+ *   - LRU順（表示切替・追加で最近使用扱い）
+ *   - 非表示のレイヤーを先に解放
+ *   - 通常の上限超過では表示中のレイヤーは解放しない（描画に必要なため）
+ *   - 表示中のレイヤーはメモリ逼迫時のみ解放し、最後に使ったものは最後まで残す
+ *
+ * 制限事項:
+ *   - UIスレッドから操作すること
+ */
+package com.visionoid.magplotter.ui.map.layer;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * レイヤーのメモリキャッシュクラス
+ */
+final class LayerMemoryCache {
+
+    /**
+     * キャッシュの判断材料と解放通知
+     */
+    interface Host {
+        /**
+         * レイヤーが表示中か
+         */
+        boolean isVisible(@NonNull LayerType layerType);
+
+        /**
+         * レイヤーのヒープ使用量の概算（バイト）
+         */
+        long estimateBytes(@NonNull IndexedLayer layer);
+
+        /**
+         * レイヤーを解放した
+         */
+        void onEvicted(@NonNull IndexedLayer layer);
+    }
+
+    /** 判断材料と解放通知の受け取り先 */
+    @NonNull
+    private final Host host;
+
+    /** 保持するレイヤー（アクセス順、先頭が最も古い） */
+    private final LinkedHashMap<LayerType, IndexedLayer> layers =
+            new LinkedHashMap<>(4, 0.75f, true);
+
+    /** 使用量の上限（バイト） */
+    private final long maxBytes;
+
+    /**
+     * コンストラクタ
+     *
+     * @param host 判断材料と解放通知の受け取り先
+     * @param maxBytes 使用量の上限（バイト）
+     */
+    LayerMemoryCache(@NonNull Host host, long maxBytes) {
+        this.host = host;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * レイヤーを追加（既存の同種レイヤーは置き換え）し、上限を超えた分を解放
+     *
+     * @param layer インデックス付きレイヤー
+     */
+    void put(@NonNull IndexedLayer layer) {
+        layers.put(layer.getLayerType(), layer);
+        trimToSize(maxBytes, false);
+    }
+
+    /**
+     * レイヤーを取得（最近使用扱いにはしない）
+     *
+     * @param layerType レイヤータイプ
+     * @return インデックス付きレイヤー、保持していない場合はnull
+     */
+    @Nullable
+    IndexedLayer peek(@NonNull LayerType layerType) {
+        for (Map.Entry<LayerType, IndexedLayer> entry : layers.entrySet()) {
+            if (entry.getKey() == layerType) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * レイヤーを最近使用扱いにする
+     *
+     * @param layerType レイヤータイプ
+     */
+    void touch(@NonNull LayerType layerType) {
+        layers.get(layerType);
+    }
+
+    /**
+     * レイヤーを削除（解放通知はしない）
+     *
+     * @param layerType レイヤータイプ
+     */
+    void remove(@NonNull LayerType layerType) {
+        layers.remove(layerType);
+    }
+
+    /**
+     * 保持しているレイヤーの使用量の合計を取得
+     *
+     * @return バイト数
+     */
+    long getTotalBytes() {
+        long total = 0;
+        for (IndexedLayer layer : layers.values()) {
+            total += host.estimateBytes(layer);
+        }
+        return total;
+    }
+
+    /**
+     * 使用量の上限を取得
+     */
+    long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * 使用量が上限以下になるまで解放
+     *
+     * 非表示のレイヤーを古い順に解放し、それでも超える場合は
+     * includeVisibleがtrueなら表示中のレイヤーを古い順に解放する（最後に使ったものは残す）。
+     *
+     * @param limitBytes 使用量の上限（バイト）
+     * @param includeVisible 表示中のレイヤーも解放対象にする場合true
+     * @return 解放したレイヤー
+     */
+    @NonNull
+    List<IndexedLayer> trimToSize(long limitBytes, boolean includeVisible) {
+        List<IndexedLayer> evicted = new ArrayList<>();
+        long total = getTotalBytes();
+        total = evict(total, limitBytes, false, evicted);
+        if (includeVisible) {
+            evict(total, limitBytes, true, evicted);
+        }
+        return evicted;
+    }
+
+    /**
+     * 非表示のレイヤーをすべて解放
+     *
+     * @return 解放したレイヤー
+     */
+    @NonNull
+    List<IndexedLayer> evictHidden() {
+        return trimToSize(0, false);
+    }
+
+    /**
+     * すべてのレイヤーを解放
+     *
+     * @return 解放したレイヤー
+     */
+    @NonNull
+    List<IndexedLayer> evictAll() {
+        List<IndexedLayer> evicted = new ArrayList<>(layers.values());
+        layers.clear();
+        for (IndexedLayer layer : evicted) {
+            host.onEvicted(layer);
+        }
+        return evicted;
+    }
+
+    /**
+     * 古い順に解放
+     *
+     * @param total 現在の使用量
+     * @param limitBytes 使用量の上限
+     * @param visible trueなら表示中のレイヤー、falseなら非表示のレイヤーを対象にする
+     * @param evicted 解放したレイヤーの追加先
+     * @return 解放後の使用量
+     */
+    private long evict(long total, long limitBytes, boolean visible,
+                       @NonNull List<IndexedLayer> evicted) {
+        Iterator<Map.Entry<LayerType, IndexedLayer>> iterator = layers.entrySet().iterator();
+        while (total > limitBytes && iterator.hasNext()) {
+            Map.Entry<LayerType, IndexedLayer> entry = iterator.next();
+            if (host.isVisible(entry.getKey()) != visible) {
+                continue;
+            }
+            // 表示中で最後に使ったレイヤーは残す
+            if (visible && !iterator.hasNext()) {
+                break;
+            }
+            IndexedLayer layer = entry.getValue();
+            total -= host.estimateBytes(layer);
+            iterator.remove();
+            host.onEvicted(layer);
+            evicted.add(layer);
+        }
+        return total;
+    }
+}
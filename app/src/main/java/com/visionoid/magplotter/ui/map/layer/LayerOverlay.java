@@ -0,0 +1,313 @@
+/**
+ * LayerOverlay.java
+ *
+ * VISIONOID MAG PLOTTER - 飛行制限区域レイヤーオーバーレイ
+ *
+ * 概要:
+ *   読み込み済みの全レイヤーを1つのオーバーレイで描画する。
+ *   フィーチャごとにOverlayを作らず、表示範囲をR-treeに問い合わせて
+ *   画面と交差するフィーチャだけを投影・描画する。
+ *
+ * 主な仕様:
+ *   - 描画コストは表示中のフィーチャ数に比例（全国のフィーチャ数には依存しない）
+ *   - 低ズームでは簡略化ピラミッドの座標（投影済み）を使用し、
+ *     ズーム14を超える場合のみ元データを投影する
+ *   - レイヤーはLayerTypeの定義順に描画
+ *   - 穴付きポリゴンはEVEN_ODDで塗りつぶし
+ *   - Path/Point/座標バッファは再利用
+ *
+ * 制限事項:
+ *   - UIスレッドから操作すること
+ *   - 日付変更線をまたぐ表示範囲には対応しない
+ */
+package com.visionoid.magplotter.ui.map.layer;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Point;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.visionoid.magplotter.data.layer.LayerGeometry;
+import com.visionoid.magplotter.ui.map.debug.VertexCountSource;
+import com.visionoid.magplotter.util.StrRTree;
+
+import org.osmdroid.util.BoundingBox;
+import org.osmdroid.util.PointL;
+import org.osmdroid.util.TileSystem;
+import org.osmdroid.views.MapView;
+import org.osmdroid.views.Projection;
+import org.osmdroid.views.overlay.Overlay;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 飛行制限区域レイヤーオーバーレイクラス
+ */
+public class LayerOverlay extends Overlay implements VertexCountSource {
+
+    /** 座標バッファの初期サイズ */
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+
+    /** レイヤーごとの描画状態 */
+    private final Map<LayerType, LayerEntry> entries = new EnumMap<>(LayerType.class);
+
+    /** 直前の描画で描いた頂点数（描画計測用） */
+    private int drawnVertexCount = 0;
+
+    /** 直前の描画で描いたフィーチャ数 */
+    private int drawnFeatureCount = 0;
+
+    // 描画時の再利用オブジェクト
+    private final Path path = new Path();
+    private final PointL projected = new PointL();
+    private final Point screenPoint = new Point();
+    private int[] latBuffer = new int[INITIAL_BUFFER_SIZE];
+    private int[] lonBuffer = new int[INITIAL_BUFFER_SIZE];
+    private final StrRTree.Visitor featureVisitor = this::drawFeature;
+
+    // 描画中のみ有効な状態
+    private Canvas drawCanvas;
+    private Projection drawProjection;
+    private TileSystem drawTileSystem;
+    private double drawPowerDifference;
+    private LayerEntry drawEntry;
+    private LayerPyramid.Level drawLevel;
+
+    public LayerOverlay() {
+        path.setFillType(Path.FillType.EVEN_ODD);
+    }
+
+    // ==================== レイヤー管理 ====================
+
+    /**
+     * レイヤーを設定（既存の同種レイヤーは置き換え）
+     *
+     * @param layer インデックス付きレイヤー
+     * @param visible 表示状態
+     */
+    public void setLayer(@NonNull IndexedLayer layer, boolean visible) {
+        LayerEntry entry = entries.get(layer.getLayerType());
+        if (entry == null) {
+            entry = new LayerEntry();
+            entries.put(layer.getLayerType(), entry);
+        }
+        entry.layer = layer;
+        entry.visible = visible;
+    }
+
+    /**
+     * レイヤーを削除
+     *
+     * @param layerType レイヤータイプ
+     */
+    public void removeLayer(@NonNull LayerType layerType) {
+        LayerEntry entry = entries.get(layerType);
+        if (entry != null) {
+            entry.layer = null;
+        }
+    }
+
+    /**
+     * レイヤーを取得
+     *
+     * @param layerType レイヤータイプ
+     * @return インデックス付きレイヤー、未設定の場合はnull
+     */
+    @Nullable
+    public IndexedLayer getLayer(@NonNull LayerType layerType) {
+        LayerEntry entry = entries.get(layerType);
+        return entry != null ? entry.layer : null;
+    }
+
+    /**
+     * レイヤーの表示状態を設定
+     */
+    public void setLayerVisible(@NonNull LayerType layerType, boolean visible) {
+        LayerEntry entry = entries.get(layerType);
+        if (entry != null) {
+            entry.visible = visible;
+        }
+    }
+
+    /**
+     * レイヤーの描画スタイルを設定
+     *
+     * @param layerType レイヤータイプ
+     * @param fillColor 塗りつぶし色（透明なら塗りつぶさない）
+     * @param strokeColor 境界線色
+     * @param strokeWidth 境界線幅（px）
+     */
+    public void setLayerStyle(@NonNull LayerType layerType, @ColorInt int fillColor,
+                              @ColorInt int strokeColor, float strokeWidth) {
+        LayerEntry entry = entries.get(layerType);
+        if (entry == null) {
+            entry = new LayerEntry();
+            entries.put(layerType, entry);
+        }
+        entry.fillPaint.setColor(fillColor);
+        entry.strokePaint.setColor(strokeColor);
+        entry.strokePaint.setStrokeWidth(strokeWidth);
+    }
+
+    /**
+     * 直前の描画で描いたフィーチャ数を取得
+     */
+    public int getDrawnFeatureCount() {
+        return drawnFeatureCount;
+    }
+
+    @Override
+    public int getDrawnVertexCount() {
+        return drawnVertexCount;
+    }
+
+    // ==================== 描画 ====================
+
+    @Override
+    public void draw(Canvas canvas, MapView mapView, boolean shadow) {
+        if (shadow) {
+            return;
+        }
+        drawnVertexCount = 0;
+        drawnFeatureCount = 0;
+
+        Projection projection = mapView.getProjection();
+        BoundingBox box = projection.getBoundingBox();
+        double south = box.getLatSouth() * LayerGeometry.E6;
+        double north = box.getLatNorth() * LayerGeometry.E6;
+        double west = box.getLonWest() * LayerGeometry.E6;
+        double east = box.getLonEast() * LayerGeometry.E6;
+
+        drawCanvas = canvas;
+        drawProjection = projection;
+        drawTileSystem = MapView.getTileSystem();
+        drawPowerDifference = projection.getProjectedPowerDifference();
+        try {
+            for (LayerType type : LayerType.values()) {
+                LayerEntry entry = entries.get(type);
+                if (entry == null || !entry.visible || entry.layer == null) {
+                    continue;
+                }
+                drawEntry = entry;
+                drawLevel = entry.layer.getPyramid().levelFor(projection.getZoomLevel());
+                entry.layer.query(south, west, north, east, featureVisitor);
+            }
+        } finally {
+            drawCanvas = null;
+            drawProjection = null;
+            drawEntry = null;
+            drawLevel = null;
+        }
+    }
+
+    /**
+     * フィーチャ1件を描画（R-tree検索の訪問者）
+     */
+    private void drawFeature(int feature) {
+        LayerGeometry geometry = drawEntry.layer.getGeometry();
+        int firstRing = geometry.getFirstRing(feature);
+        int ringEnd = firstRing + geometry.getFeatureRingCount(feature);
+
+        path.rewind();
+        if (drawLevel != null) {
+            // 外周が省略されている（1px未満）場合はフィーチャごと描かない
+            if (drawLevel.getRingPointCount(firstRing) == 0) {
+                return;
+            }
+            for (int ring = firstRing; ring < ringEnd; ring++) {
+                drawnVertexCount += appendLevelRing(drawLevel, ring);
+            }
+            drawPath();
+            return;
+        }
+
+        for (int ring = firstRing; ring < ringEnd; ring++) {
+            int count = geometry.getRingPointCount(ring);
+            if (count > latBuffer.length) {
+                int capacity = Math.max(count, latBuffer.length * 2);
+                latBuffer = Arrays.copyOf(latBuffer, capacity);
+                lonBuffer = Arrays.copyOf(lonBuffer, capacity);
+            }
+            geometry.readRing(ring, latBuffer, lonBuffer);
+            appendRing(count);
+            drawnVertexCount += count;
+        }
+        drawPath();
+    }
+
+    /**
+     * 組み立てたPathを塗りつぶし・境界線で描画
+     */
+    private void drawPath() {
+        if (Color.alpha(drawEntry.fillPaint.getColor()) != 0) {
+            drawCanvas.drawPath(path, drawEntry.fillPaint);
+        }
+        drawCanvas.drawPath(path, drawEntry.strokePaint);
+        drawnFeatureCount++;
+    }
+
+    /**
+     * 簡略化レベルのリングをPathに追加（座標は投影済み）
+     *
+     * @return 追加した頂点数
+     */
+    private int appendLevelRing(@NonNull LayerPyramid.Level level, int ring) {
+        int count = level.getRingPointCount(ring);
+        int start = level.getRingStart(ring);
+        for (int i = 0; i < count; i++) {
+            projected.set((long) level.getX(start + i) << LayerPyramid.PROJECTED_SHIFT,
+                    (long) level.getY(start + i) << LayerPyramid.PROJECTED_SHIFT);
+            drawProjection.getPixelsFromProjected(projected, drawPowerDifference, screenPoint);
+            if (i == 0) {
+                path.moveTo(screenPoint.x, screenPoint.y);
+            } else {
+                path.lineTo(screenPoint.x, screenPoint.y);
+            }
+        }
+        if (count > 0) {
+            path.close();
+        }
+        return count;
+    }
+
+    /**
+     * 座標バッファのリングを画面座標に投影してPathに追加
+     */
+    private void appendRing(int count) {
+        for (int i = 0; i < count; i++) {
+            drawTileSystem.getMercatorFromGeo(latBuffer[i] / LayerGeometry.E6,
+                    lonBuffer[i] / LayerGeometry.E6, Projection.mProjectedMapSize, projected, true);
+            drawProjection.getPixelsFromProjected(projected, drawPowerDifference, screenPoint);
+            if (i == 0) {
+                path.moveTo(screenPoint.x, screenPoint.y);
+            } else {
+                path.lineTo(screenPoint.x, screenPoint.y);
+            }
+        }
+        path.close();
+    }
+
+    /**
+     * レイヤーごとの描画状態
+     */
+    private static class LayerEntry {
+        @Nullable
+        IndexedLayer layer;
+        boolean visible;
+        final Paint fillPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        final Paint strokePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+        LayerEntry() {
+            fillPaint.setStyle(Paint.Style.FILL);
+            strokePaint.setStyle(Paint.Style.STROKE);
+            strokePaint.setStrokeJoin(Paint.Join.ROUND);
+        }
+    }
+}
@@ -0,0 +1,276 @@
+/**
+ * LayerPyramid.java
+ *
+ * VISIONOID MAG PLOTTER - レイヤー簡略化ピラミッド
+ *
+ * 概要:
+ *   レイヤーの全リングをズームレベルごとの許容誤差でDouglas-Peucker簡略化し、
+ *   描画用の座標として保持する。低ズームでは測量精度の頂点を投影・描画しない。
+ *
+ * 主な仕様:
+ *   - 座標はWebメルカトル（0〜1をLEVEL_WORLD_SIZEに拡大したint）で保持し、
+ *     描画時の緯度経度→メルカトル変換（三角関数）を省く
+ *   - 各レベルの許容誤差は、そのズームで0.5px（見た目上は元の形状と区別できない）
+ *   - 現在のズーム以上で最も粗いレベルを使用（それより拡大時は元データを描画）
+ *   - 1px未満に収まるリングはそのレベルでは省略
+ *   - 構築は読み込み時に1回（バックグラウンドスレッド）
+ *
+ * 制限事項:
+ *   - 隣接するポリゴンの共有境界はリングごとに簡略化するため、
+ *     粗いレベルでは最大0.5pxの隙間・重なりが生じ得る
+ */
+package com.visionoid.magplotter.ui.map.layer;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import com.visionoid.magplotter.data.layer.LayerGeometry;
+import com.visionoid.magplotter.util.LineSimplifier;
+
+import org.osmdroid.util.TileSystem;
+import org.osmdroid.views.MapView;
+
+import java.util.Arrays;
+
+/**
+ * レイヤー簡略化ピラミッドクラス
+ */
+public final class LayerPyramid {
+
+    /** 簡略化レベルを作るズーム（昇順）。これより拡大時は元データを使用 */
+    private static final int[] LEVEL_ZOOMS = {6, 8, 10, 12, 14};
+
+    /** レベル座標の世界サイズ（メルカトル0〜1をこの値に拡大） */
+    public static final int LEVEL_WORLD_SIZE = 1 << 30;
+
+    /** レベル座標→osmdroidの投影座標（Projection.mProjectedMapSize = 2^60）へのシフト量 */
+    public static final int PROJECTED_SHIFT = 30;
+
+    /** 1タイルのピクセル数 */
+    private static final int TILE_SIZE = 256;
+
+    /** 許容誤差（px） */
+    private static final double TOLERANCE_PX = 0.5;
+
+    /** 簡略化レベル（LEVEL_ZOOMSと同じく粗い順） */
+    @NonNull
+    private final Level[] levels;
+
+    private LayerPyramid(@NonNull Level[] levels) {
+        this.levels = levels;
+    }
+
+    /**
+     * ジオメトリからピラミッドを構築
+     *
+     * @param geometry レイヤージオメトリ
+     * @return ピラミッド
+     */
+    @WorkerThread
+    @NonNull
+    public static LayerPyramid build(@NonNull LayerGeometry geometry) {
+        TileSystem tileSystem = MapView.getTileSystem();
+        int ringCount = geometry.getRingCount();
+        LevelBuilder[] builders = new LevelBuilder[LEVEL_ZOOMS.length];
+        for (int i = 0; i < builders.length; i++) {
+            builders[i] = new LevelBuilder(LEVEL_ZOOMS[i], ringCount, geometry.getPointCount());
+        }
+
+        int capacity = 1024;
+        int[] lats = new int[capacity];
+        int[] lons = new int[capacity];
+        double[] xs = new double[capacity];
+        double[] ys = new double[capacity];
+        boolean[] keep = new boolean[capacity];
+
+        for (int ring = 0; ring < ringCount; ring++) {
+            int count = geometry.getRingPointCount(ring);
+            if (count > capacity) {
+                capacity = Math.max(count, capacity * 2);
+                lats = new int[capacity];
+                lons = new int[capacity];
+                xs = new double[capacity];
+                ys = new double[capacity];
+                keep = new boolean[capacity];
+            }
+            geometry.readRing(ring, lats, lons);
+
+            double minX = Double.POSITIVE_INFINITY;
+            double minY = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY;
+            double maxY = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < count; i++) {
+                xs[i] = tileSystem.getX01FromLongitude(lons[i] / LayerGeometry.E6, true)
+                        * LEVEL_WORLD_SIZE;
+                ys[i] = tileSystem.getY01FromLatitude(lats[i] / LayerGeometry.E6, true)
+                        * LEVEL_WORLD_SIZE;
+                minX = Math.min(minX, xs[i]);
+                minY = Math.min(minY, ys[i]);
+                maxX = Math.max(maxX, xs[i]);
+                maxY = Math.max(maxY, ys[i]);
+            }
+            double extent = Math.max(maxX - minX, maxY - minY);
+
+            for (LevelBuilder builder : builders) {
+                // 1px未満のリングは描いても見えないため省略
+                if (count < 3 || extent < builder.tolerance * 2) {
+                    builder.addEmptyRing(ring);
+                    continue;
+                }
+                Arrays.fill(keep, 0, count, false);
+                int kept = LineSimplifier.markKeptVertices(xs, ys, 0, count, builder.tolerance, keep);
+                if (kept < 3) {
+                    builder.addEmptyRing(ring);
+                    continue;
+                }
+                builder.addRing(ring, xs, ys, keep, count, kept);
+            }
+        }
+
+        Level[] levels = new Level[builders.length];
+        for (int i = 0; i < builders.length; i++) {
+            levels[i] = builders[i].build();
+        }
+        return new LayerPyramid(levels);
+    }
+
+    /**
+     * ズームに対して見た目上正確な最も粗いレベルを取得
+     *
+     * @param zoom 現在のズームレベル
+     * @return レベル、元データを使うべき場合はnull
+     */
+    @Nullable
+    public Level levelFor(double zoom) {
+        for (Level level : levels) {
+            if (level.zoom >= zoom) {
+                return level;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 全レベルの頂点数の合計を取得
+     */
+    public int getTotalPointCount() {
+        int total = 0;
+        for (Level level : levels) {
+            total += level.pointCount;
+        }
+        return total;
+    }
+
+    /**
+     * ヒープ使用量の概算を取得
+     *
+     * @return バイト数
+     */
+    public long estimateMemoryBytes() {
+        long bytes = 0;
+        for (Level level : levels) {
+            bytes += 2L * level.ringStarts.length * Integer.BYTES
+                    + 2L * level.pointCount * Integer.BYTES;
+        }
+        return bytes;
+    }
+
+    /**
+     * 簡略化レベル
+     */
+    public static final class Level {
+        /** このレベルが正確に表示できる最大ズーム */
+        public final int zoom;
+        /** リングごとの先頭点番号 */
+        private final int[] ringStarts;
+        /** リングごとの点数（0は省略されたリング） */
+        private final int[] ringCounts;
+        /** X座標（メルカトル、LEVEL_WORLD_SIZE基準） */
+        private final int[] xs;
+        /** Y座標（メルカトル、LEVEL_WORLD_SIZE基準） */
+        private final int[] ys;
+        /** 点数 */
+        public final int pointCount;
+
+        Level(int zoom, int[] ringStarts, int[] ringCounts, int[] xs, int[] ys, int pointCount) {
+            this.zoom = zoom;
+            this.ringStarts = ringStarts;
+            this.ringCounts = ringCounts;
+            this.xs = xs;
+            this.ys = ys;
+            this.pointCount = pointCount;
+        }
+
+        /** リングの先頭点番号 */
+        public int getRingStart(int ring) {
+            return ringStarts[ring];
+        }
+
+        /** リングの点数（0は省略） */
+        public int getRingPointCount(int ring) {
+            return ringCounts[ring];
+        }
+
+        /** 点のX座標 */
+        public int getX(int point) {
+            return xs[point];
+        }
+
+        /** 点のY座標 */
+        public int getY(int point) {
+            return ys[point];
+        }
+    }
+
+    /**
+     * 簡略化レベルの構築用
+     */
+    private static final class LevelBuilder {
+        final int zoom;
+        final double tolerance;
+        final int[] ringStarts;
+        final int[] ringCounts;
+        int[] xs;
+        int[] ys;
+        int size = 0;
+
+        LevelBuilder(int zoom, int ringCount, int sourcePointCount) {
+            this.zoom = zoom;
+            // 1px = LEVEL_WORLD_SIZE / (TILE_SIZE * 2^zoom)
+            this.tolerance = TOLERANCE_PX * LEVEL_WORLD_SIZE / (TILE_SIZE * Math.pow(2, zoom));
+            this.ringStarts = new int[ringCount];
+            this.ringCounts = new int[ringCount];
+            int initial = Math.max(256, sourcePointCount / 8);
+            this.xs = new int[initial];
+            this.ys = new int[initial];
+        }
+
+        void addEmptyRing(int ring) {
+            ringStarts[ring] = size;
+            ringCounts[ring] = 0;
+        }
+
+        void addRing(int ring, double[] srcXs, double[] srcYs, boolean[] keep, int count, int kept) {
+            if (size + kept > xs.length) {
+                int capacity = Math.max(size + kept, xs.length * 2);
+                xs = Arrays.copyOf(xs, capacity);
+                ys = Arrays.copyOf(ys, capacity);
+            }
+            ringStarts[ring] = size;
+            ringCounts[ring] = kept;
+            for (int i = 0; i < count; i++) {
+                if (keep[i]) {
+                    xs[size] = (int) Math.round(srcXs[i]);
+                    ys[size] = (int) Math.round(srcYs[i]);
+                    size++;
+                }
+            }
+        }
+
+        Level build() {
+            return new Level(zoom, ringStarts, ringCounts,
+                    Arrays.copyOf(xs, size), Arrays.copyOf(ys, size), size);
+        }
+    }
+}
@@ -9,6 +9,12 @@
  * 
  * 主な仕様:
  *   - レイヤーの追加・削除
+ *   - 全レイヤーを1つのLayerOverlayで描画（フィーチャごとのOverlayは作らない）
+ *   - レイヤーごとにフィーチャの境界ボックスのR-treeを構築し、表示範囲のみ描画
+ *   - 読み込み済みレイヤーを飛行制限区域の進入監視（RestrictedZoneMonitor）に登録
+ *   - メモリ上のレイヤーは使用量の概算で制限し、非表示のものから解放（LRU）
+ *   - メモリ不足の通知（onTrimMemory）の段階に応じて解放し、
+ *     解放した表示中のレイヤーはバイナリキャッシュから再読み込みさせる
  *   - レイヤーの表示/非表示切り替え
  *   - 表示スタイルの変更
  *   - 設定の永続化
@@ -18,22 +24,26 @@
  */
 package com.visionoid.magplotter.ui.map.layer;
 
+import android.app.ActivityManager;
+import android.content.ComponentCallbacks2;
 import android.content.Context;
 import android.content.SharedPreferences;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
 import androidx.preference.PreferenceManager;
 
+import com.visionoid.magplotter.data.layer.LayerGeometry;
+
 import org.osmdroid.util.BoundingBox;
 import org.osmdroid.util.GeoPoint;
 import org.osmdroid.views.MapView;
-import org.osmdroid.views.overlay.Overlay;
-import org.osmdroid.views.overlay.Polygon;
 
 import java.util.ArrayList;
 import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 
@@ -53,6 +63,12 @@ public class MapLayerManager {
     /** SharedPreferencesキー: レイヤー表示状態のプレフィックス */
     private static final String PREF_LAYER_VISIBLE_PREFIX = "layer_visible_";
 
+    /** レイヤーに使うメモリの上限（アプリのヒープ上限に対する割合の逆数） */
+    private static final int LAYER_MEMORY_DIVISOR = 8;
+
+    /** 1MBのバイト数 */
+    private static final long BYTES_PER_MB = 1024L * 1024L;
+
     /** コンテキスト */
     private final Context context;
 
@@ -62,8 +78,17 @@ public class MapLayerManager {
     /** SharedPreferences */
     private final SharedPreferences preferences;
 
-    /** レイヤータイプごとのPolygonリスト */
-    private final Map<LayerType, List<Polygon>> layerPolygons;
+    /** 全レイヤーを描画するオーバーレイ */
+    private final LayerOverlay layerOverlay;
+
+    /** 飛行制限区域の進入監視 */
+    private final RestrictedZoneMonitor zoneMonitor;
+
+    /** メモリ上のレイヤー（LRU） */
+    private final LayerMemoryCache layerCache;
+
+    /** 表示中に解放され、再読み込みが必要なレイヤー */
+    private final EnumSet<LayerType> evictedVisibleLayers = EnumSet.noneOf(LayerType.class);
 
     /** レイヤータイプごとの表示状態 */
     private final Map<LayerType, Boolean> layerVisibility;
@@ -105,7 +130,30 @@ public class MapLayerManager {
         this.context = context.getApplicationContext();
         this.mapView = mapView;
         this.preferences = PreferenceManager.getDefaultSharedPreferences(context);
-        this.layerPolygons = new EnumMap<>(LayerType.class);
+        this.layerOverlay = new LayerOverlay();
+        this.zoneMonitor = new RestrictedZoneMonitor();
+        this.layerCache = new LayerMemoryCache(new LayerMemoryCache.Host() {
+            @Override
+            public boolean isVisible(@NonNull LayerType layerType) {
+                return isLayerVisible(layerType);
+            }
+
+            @Override
+            public long estimateBytes(@NonNull IndexedLayer layer) {
+                return layer.estimateMemoryBytes() + zoneMonitor.estimateMemoryBytes(layer.getLayerType());
+            }
+
+            @Override
+            public void onEvicted(@NonNull IndexedLayer layer) {
+                LayerType layerType = layer.getLayerType();
+                layerOverlay.removeLayer(layerType);
+                zoneMonitor.evictLayer(layerType);
+                if (isLayerVisible(layerType)) {
+                    evictedVisibleLayers.add(layerType);
+                }
+                Log.d(TAG, "レイヤーをメモリから解放: " + layerType.getId());
+            }
+        }, getLayerMemoryBudget(context));
         this.layerVisibility = new EnumMap<>(LayerType.class);
 
         // 表示スタイルを読み込み
@@ -116,8 +164,13 @@ public class MapLayerManager {
         for (LayerType type : LayerType.values()) {
             boolean visible = preferences.getBoolean(type.getVisibilityPrefKey(), false);
             layerVisibility.put(type, visible);
+            applyLayerStyle(type);
         }
 
+        // ヒートマップや現在位置マーカーの下に配置するため、先頭付近に追加
+        int insertIndex = Math.min(mapView.getOverlays().size(), 1);
+        mapView.getOverlays().add(insertIndex, layerOverlay);
+
         Log.d(TAG, "MapLayerManager初期化完了: スタイル=" + currentStyle.getId());
     }
 
@@ -131,59 +184,60 @@ public class MapLayerManager {
     }
 
     /**
-     * GeoJSONデータからレイヤーを追加
+     * 飛行制限区域の進入監視を取得
+     * 
+     * @return 読み込み済みレイヤーを対象とする進入監視
+     */
+    @NonNull
+    public RestrictedZoneMonitor getZoneMonitor() {
+        return zoneMonitor;
+    }
+
+    /**
+     * レイヤージオメトリから描画用のインデックス付きレイヤーを構築
+     * 
+     * R-treeとズーム別の簡略化ピラミッドを作るため、バックグラウンドスレッドで呼び出すこと。
      * 
      * @param layerType レイヤータイプ
-     * @param geoJson GeoJSON文字列
+     * @param geometry レイヤージオメトリ
+     * @return インデックス付きレイヤー
      */
-    public void addLayer(@NonNull LayerType layerType, @NonNull String geoJson) {
-        int geoJsonLen = geoJson != null ? geoJson.length() : 0;
+    @WorkerThread
+    @NonNull
+    public IndexedLayer buildLayer(@NonNull LayerType layerType, @NonNull LayerGeometry geometry) {
+        Log.d(TAG, "buildLayer開始: " + layerType.getId()
+                + " (" + geometry.getFeatureCount() + " features)");
+        IndexedLayer layer = IndexedLayer.build(layerType, geometry);
+        Log.d(TAG, "buildLayer完了: " + layerType.getId() + " (頂点 " + geometry.getPointCount()
+                + " → 簡略化ピラミッド合計 " + layer.getPyramid().getTotalPointCount() + ")");
+        return layer;
+    }
+
+    /**
+     * 構築済みのレイヤーを追加
+     * 
+     * @param layer インデックス付きレイヤー（buildLayerの結果）
+     */
+    public void addLayer(@NonNull IndexedLayer layer) {
+        LayerType layerType = layer.getLayerType();
         Log.d(TAG, "=== addLayer開始 ===");
         Log.d(TAG, "layerType: " + layerType.getId());
-        Log.d(TAG, "geoJson length: " + geoJsonLen + " bytes");
-        
-        // GeoJSONの先頭200文字をログに出力（デバッグ用）
-        if (geoJsonLen > 0) {
-            String preview = geoJson.substring(0, Math.min(200, geoJsonLen));
-            Log.d(TAG, "geoJson preview: " + preview);
-        } else {
-            Log.e(TAG, "ERROR: geoJson is empty!");
-        }
-        
-        // 既存のレイヤーを削除
-        removeLayer(layerType);
-
-        // GeoJSONをパース
-        List<Polygon> polygons = GeoJsonParser.parse(
-                geoJson,
-                layerType.getFillColor(),
-                layerType.getStrokeColor(),
-                currentStyle
-        );
-
-        Log.d(TAG, "GeoJsonParser結果: " + polygons.size() + " polygons");
 
-        if (polygons.isEmpty()) {
+        if (layer.getFeatureCount() == 0) {
             Log.w(TAG, "レイヤーデータが空です: " + layerType.getId() + 
                     " - 正式なデータをダウンロードしてください");
-            // 空のリストでも保存（データなし状態を記録）
-            layerPolygons.put(layerType, polygons);
-            return;
         }
 
-        // レイヤーを保存
-        layerPolygons.put(layerType, polygons);
-
-        // 表示状態に応じてMapViewに追加
+        // 既存のレイヤーは置き換え（空のレイヤーも保存してデータなし状態を記録）
         boolean visible = isLayerVisible(layerType);
+        layerOverlay.setLayer(layer, visible);
+        zoneMonitor.setLayer(layer);
+        evictedVisibleLayers.remove(layerType);
+        layerCache.put(layer);
         Log.d(TAG, "レイヤー表示状態: " + visible);
-        
-        if (visible) {
-            addPolygonsToMap(polygons);
-            Log.d(TAG, "MapViewにPolygon追加完了: overlays count=" + mapView.getOverlays().size());
-        }
+        mapView.invalidate();
 
-        Log.d(TAG, "レイヤー追加完了: " + layerType.getId() + " (" + polygons.size() + " polygons)");
+        Log.d(TAG, "レイヤー追加完了: " + layerType.getId() + " (" + layer.getFeatureCount() + " features)");
     }
 
     /**
@@ -192,9 +246,11 @@ public class MapLayerManager {
      * @param layerType レイヤータイプ
      */
     public void removeLayer(@NonNull LayerType layerType) {
-        List<Polygon> polygons = layerPolygons.remove(layerType);
-        if (polygons != null) {
-            removePolygonsFromMap(polygons);
+        if (layerOverlay.getLayer(layerType) != null) {
+            layerOverlay.removeLayer(layerType);
+            zoneMonitor.removeLayer(layerType);
+            layerCache.remove(layerType);
+            mapView.invalidate();
             Log.d(TAG, "レイヤー削除: " + layerType.getId());
         }
     }
@@ -228,14 +284,13 @@ public class MapLayerManager {
                 .apply();
 
         // MapViewの表示を更新
-        List<Polygon> polygons = layerPolygons.get(layerType);
-        if (polygons != null) {
-            if (visible) {
-                addPolygonsToMap(polygons);
-            } else {
-                removePolygonsFromMap(polygons);
-            }
+        layerOverlay.setLayerVisible(layerType, visible);
+        if (visible) {
+            layerCache.touch(layerType);
+        } else {
+            evictedVisibleLayers.remove(layerType);
         }
+        mapView.invalidate();
 
         // リスナーに通知
         if (layerChangeListener != null) {
@@ -274,8 +329,8 @@ public class MapLayerManager {
      * @return 読み込み済みならtrue
      */
     public boolean isLayerLoaded(@NonNull LayerType layerType) {
-        List<Polygon> polygons = layerPolygons.get(layerType);
-        return polygons != null && !polygons.isEmpty();
+        IndexedLayer layer = layerOverlay.getLayer(layerType);
+        return layer != null && layer.getFeatureCount() > 0;
     }
 
     /**
@@ -285,8 +340,8 @@ public class MapLayerManager {
      * @return Polygon数（読み込まれていない場合は0）
      */
     public int getLayerPolygonCount(@NonNull LayerType layerType) {
-        List<Polygon> polygons = layerPolygons.get(layerType);
-        return polygons != null ? polygons.size() : 0;
+        IndexedLayer layer = layerOverlay.getLayer(layerType);
+        return layer != null ? layer.getFeatureCount() : 0;
     }
 
     /**
@@ -331,90 +386,99 @@ public class MapLayerManager {
      * 全レイヤーのスタイルを再適用
      */
     private void refreshAllLayerStyles() {
-        for (Map.Entry<LayerType, List<Polygon>> entry : layerPolygons.entrySet()) {
-            LayerType type = entry.getKey();
-            List<Polygon> polygons = entry.getValue();
-
-            // 一度削除して再追加（スタイル変更を反映）
-            if (isLayerVisible(type)) {
-                removePolygonsFromMap(polygons);
-            }
-
-            // 新しいスタイルで再パース（キャッシュされたGeoJSONが必要なため、
-            // 実際にはPolygonのスタイルプロパティを直接変更）
-            for (Polygon polygon : polygons) {
-                applyStyleToPolygon(polygon, type);
-            }
-
-            if (isLayerVisible(type)) {
-                addPolygonsToMap(polygons);
-            }
+        for (LayerType type : LayerType.values()) {
+            applyLayerStyle(type);
         }
-
         mapView.invalidate();
     }
 
     /**
-     * Polygonにスタイルを適用
+     * レイヤーに現在の表示スタイルを適用
      * 
-     * @param polygon 対象Polygon
      * @param type レイヤータイプ
      */
-    private void applyStyleToPolygon(@NonNull Polygon polygon, @NonNull LayerType type) {
+    private void applyLayerStyle(@NonNull LayerType type) {
         int fillColor = type.getFillColor();
         int strokeColor = type.getStrokeColor();
 
         switch (currentStyle) {
             case FILLED:
-                polygon.setFillColor(fillColor);
-                polygon.setStrokeColor(strokeColor);
-                polygon.setStrokeWidth(2.0f);
+                layerOverlay.setLayerStyle(type, fillColor, strokeColor, 2.0f);
                 break;
 
             case BORDER_ONLY:
-                polygon.setFillColor(android.graphics.Color.TRANSPARENT);
-                polygon.setStrokeColor(strokeColor);
-                polygon.setStrokeWidth(3.0f);
+                layerOverlay.setLayerStyle(type, android.graphics.Color.TRANSPARENT, strokeColor, 3.0f);
                 break;
 
             case HATCHED:
-                polygon.setFillColor(android.graphics.Color.argb(50,
+                layerOverlay.setLayerStyle(type, android.graphics.Color.argb(50,
                         android.graphics.Color.red(fillColor),
                         android.graphics.Color.green(fillColor),
-                        android.graphics.Color.blue(fillColor)));
-                polygon.setStrokeColor(strokeColor);
-                polygon.setStrokeWidth(4.0f);
+                        android.graphics.Color.blue(fillColor)), strokeColor, 4.0f);
                 break;
         }
     }
 
+    // ==================== メモリ管理 ====================
+
     /**
-     * PolygonリストをMapViewに追加
+     * メモリ不足の通知に応じてレイヤーを解放
+     * 
+     * Activity#onTrimMemoryから呼び出す。
      * 
-     * @param polygons Polygonリスト
+     * @param level ComponentCallbacks2のTRIM_MEMORY_*
      */
-    private void addPolygonsToMap(@NonNull List<Polygon> polygons) {
-        // ヒートマップや現在位置マーカーの下に配置するため、先頭付近に追加
-        int insertIndex = Math.min(mapView.getOverlays().size(), 1);
-        
-        for (Polygon polygon : polygons) {
-            if (!mapView.getOverlays().contains(polygon)) {
-                mapView.getOverlays().add(insertIndex, polygon);
-            }
+    public void onTrimMemory(int level) {
+        List<IndexedLayer> evicted;
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_COMPLETE) {
+            // 次に終了される候補: 全て解放（復帰時に再読み込み）
+            evicted = layerCache.evictAll();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            // 逼迫: 非表示を全て解放し、表示中も上限の半分まで古い順に解放
+            evicted = layerCache.evictHidden();
+            evicted.addAll(layerCache.trimToSize(layerCache.getMaxBytes() / 2, true));
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            // 不足気味・バックグラウンド移行: 非表示のレイヤーを解放
+            evicted = layerCache.evictHidden();
+        } else {
+            return;
         }
-        mapView.invalidate();
+        if (!evicted.isEmpty()) {
+            mapView.invalidate();
+        }
+        Log.d(TAG, "onTrimMemory: level=" + level + ", 解放 " + evicted.size() + " レイヤー, 使用量 "
+                + layerCache.getTotalBytes() / 1024 + "KB / " + layerCache.getMaxBytes() / 1024 + "KB");
     }
 
     /**
-     * PolygonリストをMapViewから削除
+     * 表示中にメモリから解放され、再読み込みが必要なレイヤーを取得
+     * 
+     * 取得したレイヤーは要求済みとして記録から外す。
+     * 再読み込みはLayerDataRepositoryのバイナリキャッシュから行う。
      * 
-     * @param polygons Polygonリスト
+     * @return レイヤータイプのリスト
      */
-    private void removePolygonsFromMap(@NonNull List<Polygon> polygons) {
-        for (Polygon polygon : polygons) {
-            mapView.getOverlays().remove(polygon);
+    @NonNull
+    public List<LayerType> takeLayersToReload() {
+        List<LayerType> result = new ArrayList<>();
+        for (LayerType type : evictedVisibleLayers) {
+            if (isLayerVisible(type)) {
+                result.add(type);
+            }
         }
-        mapView.invalidate();
+        evictedVisibleLayers.clear();
+        return result;
+    }
+
+    /**
+     * レイヤーに使うメモリの上限を取得
+     */
+    private static long getLayerMemoryBudget(@NonNull Context context) {
+        ActivityManager activityManager =
+                (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        int memoryClassMb = activityManager != null ? activityManager.getMemoryClass() : 64;
+        return memoryClassMb * BYTES_PER_MB / LAYER_MEMORY_DIVISOR;
     }
 
     /**
@@ -451,29 +515,8 @@ public class MapLayerManager {
      */
     @Nullable
     public GeoPoint getLayerCenter(@NonNull LayerType layerType) {
-        List<Polygon> polygons = layerPolygons.get(layerType);
-        if (polygons == null || polygons.isEmpty()) {
-            return null;
-        }
-
-        // 最初のPolygonの中心を計算
-        Polygon firstPolygon = polygons.get(0);
-        List<GeoPoint> points = firstPolygon.getActualPoints();
-        if (points == null || points.isEmpty()) {
-            return null;
-        }
-
-        double latSum = 0;
-        double lonSum = 0;
-        for (GeoPoint point : points) {
-            latSum += point.getLatitude();
-            lonSum += point.getLongitude();
-        }
-
-        double centerLat = latSum / points.size();
-        double centerLon = lonSum / points.size();
-
-        return new GeoPoint(centerLat, centerLon);
+        IndexedLayer layer = layerOverlay.getLayer(layerType);
+        return layer != null ? layer.getFirstFeatureCenter() : null;
     }
 
     /**
@@ -484,33 +527,8 @@ public class MapLayerManager {
      */
     @Nullable
     public BoundingBox getLayerBounds(@NonNull LayerType layerType) {
-        List<Polygon> polygons = layerPolygons.get(layerType);
-        if (polygons == null || polygons.isEmpty()) {
-            return null;
-        }
-
-        double minLat = Double.MAX_VALUE;
-        double maxLat = -Double.MAX_VALUE;
-        double minLon = Double.MAX_VALUE;
-        double maxLon = -Double.MAX_VALUE;
-
-        for (Polygon polygon : polygons) {
-            List<GeoPoint> points = polygon.getActualPoints();
-            if (points != null) {
-                for (GeoPoint point : points) {
-                    minLat = Math.min(minLat, point.getLatitude());
-                    maxLat = Math.max(maxLat, point.getLatitude());
-                    minLon = Math.min(minLon, point.getLongitude());
-                    maxLon = Math.max(maxLon, point.getLongitude());
-                }
-            }
-        }
-
-        if (minLat == Double.MAX_VALUE) {
-            return null;
-        }
-
-        return new BoundingBox(maxLat, maxLon, minLat, minLon);
+        IndexedLayer layer = layerOverlay.getLayer(layerType);
+        return layer != null ? layer.getBounds() : null;
     }
 
     /**
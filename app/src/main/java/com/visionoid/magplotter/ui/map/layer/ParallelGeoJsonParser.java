@@ -0,0 +1,495 @@
+/**
+ * ParallelGeoJsonParser.java
+ *
+ * VISIONOID MAG PLOTTER - GeoJSON並列デコーダー
+ *
+ * 概要:
+ *   GeoJSONファイルのFeatureを複数コアで並列にデコードする。
+ *   1つのトークナイザー（呼び出しスレッド）がfeatures配列をFeature単位の
+ *   バイト範囲に分割し、Fork/Joinプールで座標をデコードして、元の順序で結果を通知する。
+ *
+ * 主な仕様:
+ *   - ファイルはメモリマップで読み込み（全体を文字列化しない）
+ *   - 分割は文字列・エスケープを考慮した括弧の深さのみで行い、値はデコードしない
+ *   - 複数Featureをまとめて1タスクにする（タスクあたりCHUNK_BYTES程度）
+ *   - 処理中のタスク数に上限を設け、デコード済みポリゴンを溜め込みすぎない
+ *   - ポリゴンはGeoJsonParser.parseと同じ順序・同じ内容でPolygonSinkに通知
+ *   - FeatureCollection以外（単一のFeature/Geometry）は逐次パースにフォールバック
+ *   - デコードに失敗したFeatureがある場合、features配列が閉じていない場合は失敗とする
+ *
+ * 制限事項:
+ *   - 2GB以上のファイルは逐次パースにフォールバック
+ *   - PolygonSinkは呼び出しスレッドから呼ばれる
+ */
+package com.visionoid.magplotter.ui.map.layer;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import org.osmdroid.util.GeoPoint;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * GeoJSON並列デコーダークラス
+ */
+public final class ParallelGeoJsonParser {
+
+    /** ログタグ */
+    private static final String TAG = "ParallelGeoJsonParser";
+
+    /** 1タスクあたりの目安バイト数 */
+    private static final int CHUNK_BYTES = 256 * 1024;
+
+    /** 並列度あたりの処理中タスク数の上限 */
+    private static final int IN_FLIGHT_PER_THREAD = 4;
+
+    /** 逐次パース時のバッファサイズ */
+    private static final int BUFFER_SIZE = 65536;
+
+    /** "features"キー */
+    private static final byte[] FEATURES_KEY = "features".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * 進捗受け取りインターフェース
+     */
+    public interface ProgressListener {
+        /**
+         * 進捗を通知（呼び出しスレッドから呼ばれる）
+         *
+         * @param bytesDone 処理済みバイト数
+         * @param bytesTotal 全体のバイト数
+         */
+        void onProgress(long bytesDone, long bytesTotal);
+    }
+
+    /** プライベートコンストラクタ（インスタンス化禁止） */
+    private ParallelGeoJsonParser() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    /**
+     * GeoJSONファイルを並列にパースし、ポリゴンを元の順序で通知
+     *
+     * @param geoJsonFile GeoJSONファイル
+     * @param sink ポリゴン受け取り先
+     * @param progress 進捗受け取り先（nullでも可）
+     * @return 処理したFeature数
+     * @throws IOException ファイルの読み込み、またはFeatureのデコードに失敗した場合
+     */
+    @WorkerThread
+    public static int parse(
+            @NonNull File geoJsonFile,
+            @NonNull GeoJsonParser.PolygonSink sink,
+            @Nullable ProgressListener progress
+    ) throws IOException {
+        long size = geoJsonFile.length();
+        if (size > Integer.MAX_VALUE) {
+            return parseSequential(geoJsonFile, sink, progress);
+        }
+
+        MappedByteBuffer buffer;
+        try (RandomAccessFile raf = new RandomAccessFile(geoJsonFile, "r");
+             FileChannel channel = raf.getChannel()) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        Tokenizer tokenizer = new Tokenizer(buffer);
+        if (!tokenizer.seekFeaturesArray()) {
+            Log.d(TAG, "features配列が見つからないため逐次パース: " + geoJsonFile.getName());
+            return parseSequential(geoJsonFile, sink, progress);
+        }
+
+        int parallelism = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        int maxInFlight = parallelism * IN_FLIGHT_PER_THREAD;
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        ArrayDeque<ForkJoinTask<DecodedChunk>> pending = new ArrayDeque<>();
+        MergeState merge = new MergeState(sink, progress, size);
+        long startNanos = System.nanoTime();
+
+        try {
+            int[] starts = new int[64];
+            int[] ends = new int[64];
+            int count = 0;
+            while (tokenizer.nextFeature()) {
+                if (count == starts.length) {
+                    starts = Arrays.copyOf(starts, count * 2);
+                    ends = Arrays.copyOf(ends, count * 2);
+                }
+                starts[count] = tokenizer.featureStart;
+                ends[count] = tokenizer.featureEnd;
+                count++;
+
+                if (ends[count - 1] - starts[0] >= CHUNK_BYTES) {
+                    submit(pool, pending, buffer, starts, ends, count);
+                    count = 0;
+                    drain(pending, merge, maxInFlight);
+                }
+            }
+            if (count > 0) {
+                submit(pool, pending, buffer, starts, ends, count);
+            }
+            drain(pending, merge, 0);
+            if (!tokenizer.closed) {
+                throw new IOException("features配列が閉じていません ("
+                        + merge.featureCount + " features処理済み)");
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        if (progress != null) {
+            progress.onProgress(size, size);
+        }
+        Log.d(TAG, "並列パース完了: " + merge.polygonCount + " polygons ("
+                + merge.featureCount + " features, " + merge.errorCount + " errors, "
+                + parallelism + " threads, "
+                + (System.nanoTime() - startNanos) / 1_000_000 + "ms)");
+        return merge.featureCount;
+    }
+
+    // ==================== 内部処理 ====================
+
+    /**
+     * 逐次パース（フォールバック）
+     */
+    private static int parseSequential(
+            @NonNull File geoJsonFile,
+            @NonNull GeoJsonParser.PolygonSink sink,
+            @Nullable ProgressListener progress
+    ) throws IOException {
+        int featureCount;
+        try (Reader reader = new BufferedReader(new InputStreamReader(
+                new FileInputStream(geoJsonFile), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            featureCount = GeoJsonParser.parse(reader, sink);
+        }
+        if (progress != null) {
+            progress.onProgress(geoJsonFile.length(), geoJsonFile.length());
+        }
+        return featureCount;
+    }
+
+    /**
+     * Feature範囲のまとまりをデコードタスクとして投入
+     */
+    private static void submit(
+            @NonNull ForkJoinPool pool,
+            @NonNull ArrayDeque<ForkJoinTask<DecodedChunk>> pending,
+            @NonNull ByteBuffer buffer,
+            @NonNull int[] starts,
+            @NonNull int[] ends,
+            int count
+    ) {
+        int[] chunkStarts = Arrays.copyOf(starts, count);
+        int[] chunkEnds = Arrays.copyOf(ends, count);
+        pending.add(pool.submit(() -> decodeChunk(buffer, chunkStarts, chunkEnds)));
+    }
+
+    /**
+     * 完了したタスクを先頭から順に通知
+     *
+     * @param maxInFlight 残してよい処理中タスク数（0の場合は全て完了を待つ）
+     * @throws IOException デコードに失敗したFeatureがある、またはタスクが異常終了した場合
+     */
+    private static void drain(
+            @NonNull ArrayDeque<ForkJoinTask<DecodedChunk>> pending,
+            @NonNull MergeState merge,
+            int maxInFlight
+    ) throws IOException {
+        while (!pending.isEmpty()
+                && (pending.size() > maxInFlight || pending.peekFirst().isDone())) {
+            DecodedChunk chunk;
+            try {
+                chunk = pending.pollFirst().join();
+            } catch (RuntimeException | OutOfMemoryError e) {
+                // ワーカーの例外（メモリ不足を含む）はjoinで再送出される
+                throw new IOException("デコードタスクが異常終了 ("
+                        + merge.featureCount + " features処理済み)", e);
+            }
+            merge.accept(chunk);
+            if (merge.errorCount > 0) {
+                throw new IOException("Featureのデコードに失敗 ("
+                        + merge.featureCount + " features処理済み)", chunk.firstError);
+            }
+        }
+    }
+
+    /**
+     * Feature範囲のまとまりをデコード（Fork/Joinプール上で実行）
+     */
+    @NonNull
+    private static DecodedChunk decodeChunk(
+            @NonNull ByteBuffer buffer,
+            @NonNull int[] starts,
+            @NonNull int[] ends
+    ) {
+        int chunkStart = starts[0];
+        int chunkEnd = ends[ends.length - 1];
+        byte[] bytes = new byte[chunkEnd - chunkStart];
+        ByteBuffer view = buffer.duplicate();
+        view.position(chunkStart);
+        view.get(bytes);
+
+        DecodedChunk chunk = new DecodedChunk(chunkEnd, starts.length);
+        for (int i = 0; i < starts.length; i++) {
+            try (Reader reader = new InputStreamReader(new ByteArrayInputStream(
+                    bytes, starts[i] - chunkStart, ends[i] - starts[i]), StandardCharsets.UTF_8)) {
+                GeoJsonParser.parseFeature(reader, chunk);
+            } catch (IOException e) {
+                if (chunk.errorCount++ == 0) {
+                    chunk.firstError = e;
+                }
+            }
+        }
+        return chunk;
+    }
+
+    /**
+     * デコード済みのまとまり（ポリゴンを順序どおりに保持）
+     */
+    private static final class DecodedChunk implements GeoJsonParser.PolygonSink {
+        final long endOffset;
+        final int featureCount;
+        final List<List<GeoPoint>> outerRings = new ArrayList<>();
+        final List<List<List<GeoPoint>>> holes = new ArrayList<>();
+        int errorCount = 0;
+        @Nullable
+        IOException firstError;
+
+        DecodedChunk(long endOffset, int featureCount) {
+            this.endOffset = endOffset;
+            this.featureCount = featureCount;
+        }
+
+        @Override
+        public void onPolygon(@NonNull List<GeoPoint> outerRing, @NonNull List<List<GeoPoint>> holes) {
+            this.outerRings.add(outerRing);
+            this.holes.add(holes);
+        }
+    }
+
+    /**
+     * 結果の通知状態
+     */
+    private static final class MergeState {
+        final GeoJsonParser.PolygonSink sink;
+        @Nullable
+        final ProgressListener progress;
+        final long totalBytes;
+        int featureCount = 0;
+        int polygonCount = 0;
+        int errorCount = 0;
+
+        MergeState(@NonNull GeoJsonParser.PolygonSink sink, @Nullable ProgressListener progress,
+                   long totalBytes) {
+            this.sink = sink;
+            this.progress = progress;
+            this.totalBytes = totalBytes;
+        }
+
+        void accept(@NonNull DecodedChunk chunk) {
+            for (int i = 0; i < chunk.outerRings.size(); i++) {
+                sink.onPolygon(chunk.outerRings.get(i), chunk.holes.get(i));
+            }
+            featureCount += chunk.featureCount;
+            polygonCount += chunk.outerRings.size();
+            errorCount += chunk.errorCount;
+            if (progress != null) {
+                progress.onProgress(chunk.endOffset, totalBytes);
+            }
+        }
+    }
+
+    /**
+     * features配列をFeature単位のバイト範囲に分割するトークナイザー
+     *
+     * UTF-8のマルチバイト文字は全て0x80以上のため、ASCIIの構文文字と混同しない。
+     */
+    private static final class Tokenizer {
+        private final ByteBuffer buffer;
+        private final int limit;
+        private int pos = 0;
+
+        /** 直前に見つけたFeatureの範囲 [featureStart, featureEnd) */
+        int featureStart;
+        int featureEnd;
+
+        /** features配列の終端の']'まで読んだ場合true */
+        boolean closed = false;
+
+        Tokenizer(@NonNull ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.limit = buffer.limit();
+        }
+
+        /**
+         * ルートオブジェクト直下の"features"配列の中まで読み進める
+         *
+         * @return 見つかった場合true
+         */
+        boolean seekFeaturesArray() {
+            int depth = 0;
+            int keyStart = -1;
+            int keyEnd = -1;
+            boolean afterFeaturesKey = false;
+            while (pos < limit) {
+                byte b = buffer.get(pos);
+                if (b == '"') {
+                    int start = pos + 1;
+                    pos = skipString(pos);
+                    if (depth == 1) {
+                        keyStart = start;
+                        keyEnd = pos - 1;
+                    }
+                    afterFeaturesKey = false;
+                    continue;
+                }
+                switch (b) {
+                    case '[':
+                        if (depth == 1 && afterFeaturesKey) {
+                            pos++;
+                            return true;
+                        }
+                        depth++;
+                        afterFeaturesKey = false;
+                        break;
+                    case '{':
+                        depth++;
+                        afterFeaturesKey = false;
+                        break;
+                    case '}':
+                    case ']':
+                        depth--;
+                        afterFeaturesKey = false;
+                        break;
+                    case ':':
+                        afterFeaturesKey = depth == 1 && isFeaturesKey(keyStart, keyEnd);
+                        break;
+                    case ' ':
+                    case '\t':
+                    case '\n':
+                    case '\r':
+                        break;
+                    default:
+                        afterFeaturesKey = false;
+                        break;
+                }
+                pos++;
+            }
+            return false;
+        }
+
+        /**
+         * features配列の次の要素を読む
+         *
+         * オブジェクト以外の要素（null等）は範囲を記録せずに読み飛ばす。
+         *
+         * @return Featureが見つかった場合true、配列の終端（またはファイルの終端）ではfalse
+         */
+        boolean nextFeature() {
+            while (pos < limit) {
+                byte b = buffer.get(pos);
+                if (b == ']') {
+                    pos++;
+                    closed = true;
+                    return false;
+                }
+                if (b == '{') {
+                    featureStart = pos;
+                    pos = skipContainer(pos);
+                    featureEnd = pos;
+                    return true;
+                }
+                if (b == '[') {
+                    pos = skipContainer(pos);
+                } else if (b == '"') {
+                    pos = skipString(pos);
+                } else {
+                    pos++;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 文字列を読み飛ばす
+         *
+         * @param quote 開始の引用符の位置
+         * @return 終了の引用符の次の位置
+         */
+        private int skipString(int quote) {
+            int i = quote + 1;
+            while (i < limit) {
+                byte b = buffer.get(i);
+                if (b == '\\') {
+                    i += 2;
+                } else if (b == '"') {
+                    return i + 1;
+                } else {
+                    i++;
+                }
+            }
+            return limit;
+        }
+
+        /**
+         * オブジェクト・配列を読み飛ばす
+         *
+         * @param open 開始括弧の位置
+         * @return 対応する終了括弧の次の位置
+         */
+        private int skipContainer(int open) {
+            int depth = 0;
+            int i = open;
+            while (i < limit) {
+                byte b = buffer.get(i);
+                if (b == '"') {
+                    i = skipString(i);
+                    continue;
+                }
+                if (b == '{' || b == '[') {
+                    depth++;
+                } else if (b == '}' || b == ']') {
+                    depth--;
+                    if (depth == 0) {
+                        return i + 1;
+                    }
+                }
+                i++;
+            }
+            return limit;
+        }
+
+        private boolean isFeaturesKey(int start, int end) {
+            if (start < 0 || end - start != FEATURES_KEY.length) {
+                return false;
+            }
+            for (int i = 0; i < FEATURES_KEY.length; i++) {
+                if (buffer.get(start + i) != FEATURES_KEY[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
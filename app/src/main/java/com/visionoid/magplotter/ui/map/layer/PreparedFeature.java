@@ -0,0 +1,348 @@
+/**
+ * PreparedFeature.java
+ *
+ * VISIONOID MAG PLOTTER - 判定用に前処理したフィーチャ
+ *
+ * 概要:
+ *   レイヤーの1フィーチャ（外周＋穴）の全辺をローカル平面座標（メートル）に変換し、
+ *   Y方向の帯と2次元のセルの2種類のバケットに辺を振り分けておく。
+ *   点の内外判定（レイキャスト）と境界までの最短距離を、全辺ではなく
+ *   近傍のバケットの辺だけで計算する。
+ *
+ * 主な仕様:
+ *   - 内外判定: 点のYを含む帯の辺だけを対象に交差数を数える（穴も偶奇で処理）
+ *   - 距離: 点のセルから外側へリング状にセルを広げ、
+ *     セルまでの距離が暫定最短距離を超えたら打ち切り
+ *   - 帯・セルの数は辺数に比例（1バケットあたり数本）
+ *   - 帯の振り分けと内外判定はEdgeBandIndex（作図の図形と共通）
+ *
+ * 制限事項:
+ *   - ローカル平面近似のため数十km程度までのフィーチャを前提
+ *   - スレッドセーフではない（構築後は読み取り専用）
+ */
+package com.visionoid.magplotter.ui.map.layer;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.visionoid.magplotter.data.layer.LayerGeometry;
+import com.visionoid.magplotter.util.EdgeBandIndex;
+import com.visionoid.magplotter.util.LocalProjection;
+
+/**
+ * 判定用フィーチャクラス
+ */
+final class PreparedFeature {
+
+    /** 1セルあたりの目安の辺数 */
+    private static final int EDGES_PER_CELL = 2;
+
+    /** セルの最大数 */
+    private static final int MAX_CELLS = 1 << 16;
+
+    /** セルの列数・行数の最大値 */
+    private static final int MAX_SPAN = 4096;
+
+    /** フィーチャ中心を原点とする平面投影 */
+    @NonNull
+    private final LocalProjection projection;
+
+    /** 辺の端点（メートル） */
+    private final double[] ax;
+    private final double[] ay;
+    private final double[] bx;
+    private final double[] by;
+
+    /** 境界（メートル） */
+    private final double minX;
+    private final double minY;
+    private final double maxX;
+    private final double maxY;
+
+    /** 辺の帯インデックス（内外判定用） */
+    @NonNull
+    private final EdgeBandIndex bands;
+
+    /** セルの列数・行数と一辺の長さ */
+    private final int columns;
+    private final int rows;
+    private final double cellSize;
+
+    /** セルごとの辺リスト（セルcの辺はcellEdges[cellStarts[c], cellStarts[c + 1])） */
+    private final int[] cellStarts;
+    private final int[] cellEdges;
+
+    private PreparedFeature(@NonNull LocalProjection projection,
+                            double[] ax, double[] ay, double[] bx, double[] by, int edgeCount,
+                            double minX, double minY, double maxX, double maxY) {
+        this.projection = projection;
+        this.ax = ax;
+        this.ay = ay;
+        this.bx = bx;
+        this.by = by;
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+
+        this.bands = new EdgeBandIndex(ax, ay, bx, by, edgeCount, minY, maxY);
+
+        // 辺数に応じた正方形セルで境界ボックスを覆う
+        int targetCells = Math.max(1, Math.min(MAX_CELLS, edgeCount / EDGES_PER_CELL));
+        double width = Math.max(maxX - minX, 1e-3);
+        double depth = Math.max(maxY - minY, 1e-3);
+        double size = Math.sqrt(width * depth / targetCells);
+        size = Math.max(size, Math.max(width, depth) / MAX_SPAN);
+        this.cellSize = size;
+        this.columns = Math.max(1, Math.min(MAX_SPAN, (int) Math.ceil(width / size)));
+        this.rows = Math.max(1, Math.min(MAX_SPAN, (int) Math.ceil(depth / size)));
+
+        int[] cellStarts = new int[columns * rows + 1];
+        for (int e = 0; e < edgeCount; e++) {
+            rasterizeEdge(e, cellStarts, null, null);
+        }
+        for (int c = 0; c < columns * rows; c++) {
+            cellStarts[c + 1] += cellStarts[c];
+        }
+        int[] cellEdges = new int[cellStarts[columns * rows]];
+        int[] cellFill = new int[columns * rows];
+        for (int e = 0; e < edgeCount; e++) {
+            rasterizeEdge(e, cellStarts, cellFill, cellEdges);
+        }
+        this.cellStarts = cellStarts;
+        this.cellEdges = cellEdges;
+    }
+
+    /**
+     * レイヤーのフィーチャから構築
+     *
+     * @param geometry レイヤージオメトリ
+     * @param feature フィーチャ番号
+     * @return 判定用フィーチャ
+     */
+    @NonNull
+    static PreparedFeature build(@NonNull LayerGeometry geometry, int feature) {
+        LocalProjection projection = new LocalProjection(
+                (geometry.getFeatureSouthE6(feature) + (double) geometry.getFeatureNorthE6(feature))
+                        / 2 / LayerGeometry.E6,
+                (geometry.getFeatureWestE6(feature) + (double) geometry.getFeatureEastE6(feature))
+                        / 2 / LayerGeometry.E6);
+
+        int firstRing = geometry.getFirstRing(feature);
+        int ringEnd = firstRing + geometry.getFeatureRingCount(feature);
+        int edgeCount = 0;
+        int maxRing = 0;
+        for (int ring = firstRing; ring < ringEnd; ring++) {
+            int count = geometry.getRingPointCount(ring);
+            if (count >= 2) {
+                edgeCount += count;
+            }
+            maxRing = Math.max(maxRing, count);
+        }
+
+        double[] ax = new double[edgeCount];
+        double[] ay = new double[edgeCount];
+        double[] bx = new double[edgeCount];
+        double[] by = new double[edgeCount];
+        int[] lats = new int[maxRing];
+        int[] lons = new int[maxRing];
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        int e = 0;
+        for (int ring = firstRing; ring < ringEnd; ring++) {
+            int count = geometry.getRingPointCount(ring);
+            if (count < 2) {
+                continue;
+            }
+            geometry.readRing(ring, lats, lons);
+            // リングは閉じ点を持たないため、最後の点→先頭の点の辺を含めてcount本
+            double prevX = projection.toX(lons[count - 1] / LayerGeometry.E6);
+            double prevY = projection.toY(lats[count - 1] / LayerGeometry.E6);
+            for (int i = 0; i < count; i++) {
+                double x = projection.toX(lons[i] / LayerGeometry.E6);
+                double y = projection.toY(lats[i] / LayerGeometry.E6);
+                ax[e] = prevX;
+                ay[e] = prevY;
+                bx[e] = x;
+                by[e] = y;
+                e++;
+                minX = Math.min(minX, x);
+                minY = Math.min(minY, y);
+                maxX = Math.max(maxX, x);
+                maxY = Math.max(maxY, y);
+                prevX = x;
+                prevY = y;
+            }
+        }
+        if (edgeCount == 0) {
+            minX = minY = maxX = maxY = 0;
+        }
+        return new PreparedFeature(projection, ax, ay, bx, by, edgeCount, minX, minY, maxX, maxY);
+    }
+
+    /**
+     * 点がフィーチャ内（外周の内側かつ穴の外側）にあるか判定
+     *
+     * @param lat 緯度（度）
+     * @param lng 経度（度）
+     * @return 内側ならtrue
+     */
+    boolean contains(double lat, double lng) {
+        double x = projection.toX(lng);
+        double y = projection.toY(lat);
+        if (x < minX || x > maxX || y < minY || y > maxY) {
+            return false;
+        }
+        return bands.contains(x, y);
+    }
+
+    /**
+     * 点から境界（外周・穴のいずれか）までの最短距離を計算
+     *
+     * @param lat 緯度（度）
+     * @param lng 経度（度）
+     * @return 距離（メートル）、辺がない場合はDouble.POSITIVE_INFINITY
+     */
+    double distanceToBoundary(double lat, double lng) {
+        double x = projection.toX(lng);
+        double y = projection.toY(lat);
+        double bestSq = Double.POSITIVE_INFINITY;
+        if (ax.length == 0) {
+            return bestSq;
+        }
+
+        // セルまでの距離は外側のリングほど大きいため、
+        // リング内の全セルが暫定最短距離より遠くなったら打ち切り
+        int centerColumn = columnOf(x);
+        int centerRow = rowOf(y);
+        for (int k = 0; ; k++) {
+            double nearestCellSq = Double.POSITIVE_INFINITY;
+            int rowFrom = Math.max(0, centerRow - k);
+            int rowTo = Math.min(rows - 1, centerRow + k);
+            for (int row = rowFrom; row <= rowTo; row++) {
+                // リングの上下の行は全列、それ以外の行は左右端の列のみ
+                boolean edgeRow = row == centerRow - k || row == centerRow + k;
+                int step = edgeRow ? 1 : 2 * k;
+                for (int column = centerColumn - k; column <= centerColumn + k; column += step) {
+                    if (column < 0 || column >= columns) {
+                        continue;
+                    }
+                    double gapSq = cellGapSq(column, row, x, y);
+                    nearestCellSq = Math.min(nearestCellSq, gapSq);
+                    if (gapSq < bestSq) {
+                        bestSq = Math.min(bestSq, nearestInCell(row * columns + column, x, y));
+                    }
+                }
+            }
+            if (nearestCellSq >= bestSq) {
+                break;
+            }
+        }
+        return Math.sqrt(bestSq);
+    }
+
+    /**
+     * ヒープ使用量の概算を取得
+     *
+     * @return バイト数
+     */
+    long estimateMemoryBytes() {
+        return 4L * ax.length * Double.BYTES
+                + bands.estimateMemoryBytes()
+                + (long) (cellStarts.length + cellEdges.length) * Integer.BYTES;
+    }
+
+    /**
+     * 辺の本数を取得
+     */
+    int getEdgeCount() {
+        return ax.length;
+    }
+
+    // ==================== 内部処理 ====================
+
+    /**
+     * X座標が属する列（範囲外は端の列）
+     */
+    private int columnOf(double x) {
+        int column = (int) ((x - minX) / cellSize);
+        return Math.max(0, Math.min(columns - 1, column));
+    }
+
+    /**
+     * Y座標が属する行（範囲外は端の行）
+     */
+    private int rowOf(double y) {
+        int row = (int) ((y - minY) / cellSize);
+        return Math.max(0, Math.min(rows - 1, row));
+    }
+
+    /**
+     * 辺が通るセルを列挙し、件数を数える（cellEdgesがnullの場合）か辺を登録する
+     *
+     * 辺を行ごとに区切り、その行の中で辺が占めるX範囲の列をすべて対象にする。
+     */
+    private void rasterizeEdge(int e, @NonNull int[] cellStarts,
+                               @Nullable int[] cellFill, @Nullable int[] cellEdges) {
+        double lowY = Math.min(ay[e], by[e]);
+        double highY = Math.max(ay[e], by[e]);
+        int firstRow = rowOf(lowY);
+        int lastRow = rowOf(highY);
+        double dy = by[e] - ay[e];
+        for (int row = firstRow; row <= lastRow; row++) {
+            double fromX;
+            double toX;
+            if (dy == 0 || firstRow == lastRow) {
+                fromX = Math.min(ax[e], bx[e]);
+                toX = Math.max(ax[e], bx[e]);
+            } else {
+                // 行の上下端（辺の範囲内に制限）での辺のX座標
+                double rowLow = row == firstRow ? lowY : minY + row * cellSize;
+                double rowHigh = row == lastRow ? highY : minY + (row + 1) * cellSize;
+                double x1 = ax[e] + (bx[e] - ax[e]) * (rowLow - ay[e]) / dy;
+                double x2 = ax[e] + (bx[e] - ax[e]) * (rowHigh - ay[e]) / dy;
+                fromX = Math.min(x1, x2);
+                toX = Math.max(x1, x2);
+            }
+            int lastColumn = columnOf(toX);
+            for (int column = columnOf(fromX); column <= lastColumn; column++) {
+                int cell = row * columns + column;
+                if (cellEdges == null) {
+                    cellStarts[cell + 1]++;
+                } else {
+                    cellEdges[cellStarts[cell] + cellFill[cell]++] = e;
+                }
+            }
+        }
+    }
+
+    /**
+     * 点からセルまでの距離の2乗（セル内なら0）
+     *
+     * 端のセルは境界ボックス外へ無限に広がっているとみなす
+     * （範囲外の点は端のセルに丸めて扱うため）。
+     */
+    private double cellGapSq(int column, int row, double x, double y) {
+        double left = column == 0 ? Double.NEGATIVE_INFINITY : minX + column * cellSize;
+        double right = column == columns - 1 ? Double.POSITIVE_INFINITY : minX + (column + 1) * cellSize;
+        double bottom = row == 0 ? Double.NEGATIVE_INFINITY : minY + row * cellSize;
+        double top = row == rows - 1 ? Double.POSITIVE_INFINITY : minY + (row + 1) * cellSize;
+        double dx = Math.max(0, Math.max(left - x, x - right));
+        double dy = Math.max(0, Math.max(bottom - y, y - top));
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * セル内の辺のうち点に最も近いものまでの距離の2乗
+     */
+    private double nearestInCell(int cell, double x, double y) {
+        double bestSq = Double.POSITIVE_INFINITY;
+        for (int i = cellStarts[cell], end = cellStarts[cell + 1]; i < end; i++) {
+            int e = cellEdges[i];
+            bestSq = Math.min(bestSq, EdgeBandIndex.segmentDistanceSq(x, y, ax[e], ay[e], bx[e], by[e]));
+        }
+        return bestSq;
+    }
+}
@@ -0,0 +1,308 @@
+/**
+ * RestrictedZoneMonitor.java
+ *
+ * VISIONOID MAG PLOTTER - 飛行制限区域の進入監視
+ *
+ * 概要:
+ *   読み込み済みレイヤー（DID・空港・飛行禁止区域）に対して現在位置を判定し、
+ *   区域内かどうかと最寄りの境界までの距離を求める。
+ *   区域への進入・退出をリスナーに通知する。
+ *
+ * 主な仕様:
+ *   - 候補フィーチャはIndexedLayerのR-treeで境界ボックスから絞り込み
+ *   - 内外判定・境界距離は帯分割した辺で計算（PreparedFeature）
+ *   - PreparedFeatureは初めて候補になったフィーチャのみ作成してキャッシュ
+ *   - 進入・退出はレイヤー単位（隣接するフィーチャ間の移動は通知しない）
+ *   - 非表示のレイヤーも判定対象（読み込み済みであれば監視する）
+ *   - メモリから解放（evictLayer）したレイヤーは区域内の状態を保持し、再読み込み時に引き継ぐ
+ *
+ * 制限事項:
+ *   - UIスレッドから操作すること
+ *   - 日付変更線をまたぐ検索範囲には対応しない
+ */
+package com.visionoid.magplotter.ui.map.layer;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.visionoid.magplotter.data.layer.LayerGeometry;
+import com.visionoid.magplotter.util.LocalProjection;
+import com.visionoid.magplotter.util.StrRTree;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 飛行制限区域の進入監視クラス
+ */
+public class RestrictedZoneMonitor {
+
+    /** ログタグ */
+    private static final String TAG = "RestrictedZoneMonitor";
+
+    /** 境界距離を求める既定の検索半径（メートル） */
+    public static final double DEFAULT_SEARCH_RADIUS_METERS = 1000.0;
+
+    /** 区域外を表すフィーチャ番号 */
+    public static final int NO_FEATURE = -1;
+
+    /**
+     * 進入・退出リスナーインターフェース
+     */
+    public interface OnZoneChangeListener {
+        /**
+         * 区域に進入した
+         *
+         * @param layerType レイヤータイプ
+         * @param feature 含まれるフィーチャ番号
+         */
+        void onZoneEntered(@NonNull LayerType layerType, int feature);
+
+        /**
+         * 区域から退出した
+         *
+         * @param layerType レイヤータイプ
+         */
+        void onZoneExited(@NonNull LayerType layerType);
+    }
+
+    /** レイヤーごとの監視状態 */
+    private final Map<LayerType, ZoneEntry> entries = new EnumMap<>(LayerType.class);
+
+    /** メモリから解放したレイヤーの直前の区域内フィーチャ番号（再読み込みまで保持） */
+    private final Map<LayerType, Integer> evictedFeatures = new EnumMap<>(LayerType.class);
+
+    /** 境界距離の検索半径（メートル） */
+    private double searchRadiusMeters = DEFAULT_SEARCH_RADIUS_METERS;
+
+    /** リスナー */
+    @Nullable
+    private OnZoneChangeListener listener;
+
+    // 判定時の再利用オブジェクト
+    private int[] candidates = new int[64];
+    private int candidateCount;
+    private final StrRTree.Visitor candidateVisitor = this::addCandidate;
+
+    // ==================== レイヤー管理 ====================
+
+    /**
+     * 監視対象のレイヤーを設定（既存の同種レイヤーは置き換え）
+     *
+     * @param layer インデックス付きレイヤー
+     */
+    public void setLayer(@NonNull IndexedLayer layer) {
+        LayerType layerType = layer.getLayerType();
+        ZoneEntry previous = entries.get(layerType);
+        Integer evicted = evictedFeatures.remove(layerType);
+        ZoneEntry entry = new ZoneEntry(layer);
+        // 区域内の状態は次の判定で新しいデータに合わせて更新される
+        // （解放前から区域内であれば、再読み込み後の判定で進入を通知しない）
+        if (previous != null) {
+            entry.containingFeature = previous.containingFeature;
+        } else if (evicted != null) {
+            entry.containingFeature = evicted;
+        }
+        entries.put(layerType, entry);
+    }
+
+    /**
+     * 監視対象からレイヤーを削除
+     *
+     * @param layerType レイヤータイプ
+     */
+    public void removeLayer(@NonNull LayerType layerType) {
+        entries.remove(layerType);
+        evictedFeatures.remove(layerType);
+    }
+
+    /**
+     * メモリ不足等でレイヤーを一時的に監視対象から外す
+     *
+     * 区域内の状態は保持し、同じレイヤーをsetLayerで再登録した際に引き継ぐ。
+     *
+     * @param layerType レイヤータイプ
+     */
+    public void evictLayer(@NonNull LayerType layerType) {
+        ZoneEntry entry = entries.remove(layerType);
+        if (entry != null) {
+            evictedFeatures.put(layerType, entry.containingFeature);
+        }
+    }
+
+    /**
+     * リスナーを設定
+     */
+    public void setOnZoneChangeListener(@Nullable OnZoneChangeListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * 境界距離の検索半径を設定
+     *
+     * @param meters 検索半径（メートル）
+     */
+    public void setSearchRadiusMeters(double meters) {
+        this.searchRadiusMeters = Math.max(0, meters);
+    }
+
+    /**
+     * 判定用に前処理したフィーチャのヒープ使用量の概算を取得
+     *
+     * @param layerType レイヤータイプ
+     * @return バイト数（監視対象でない場合は0）
+     */
+    public long estimateMemoryBytes(@NonNull LayerType layerType) {
+        ZoneEntry entry = entries.get(layerType);
+        if (entry == null) {
+            return 0;
+        }
+        long bytes = (long) entry.prepared.length * 4;
+        for (PreparedFeature prepared : entry.prepared) {
+            if (prepared != null) {
+                bytes += prepared.estimateMemoryBytes();
+            }
+        }
+        return bytes;
+    }
+
+    // ==================== 判定 ====================
+
+    /**
+     * 現在位置で全レイヤーを判定し、進入・退出を通知
+     *
+     * @param lat 緯度（度）
+     * @param lng 経度（度）
+     */
+    public void update(double lat, double lng) {
+        double radiusLatE6 = searchRadiusMeters / LocalProjection.METERS_PER_DEGREE_LAT * LayerGeometry.E6;
+        double radiusLngE6 = radiusLatE6 / Math.max(Math.cos(Math.toRadians(lat)), 0.01);
+        double latE6 = lat * LayerGeometry.E6;
+        double lngE6 = lng * LayerGeometry.E6;
+
+        for (Map.Entry<LayerType, ZoneEntry> item : entries.entrySet()) {
+            ZoneEntry entry = item.getValue();
+            int previous = entry.containingFeature;
+            evaluate(entry, lat, lng, latE6 - radiusLatE6, lngE6 - radiusLngE6,
+                    latE6 + radiusLatE6, lngE6 + radiusLngE6);
+
+            if (previous == NO_FEATURE && entry.containingFeature != NO_FEATURE) {
+                Log.d(TAG, "区域に進入: " + item.getKey().getId() + " (feature " + entry.containingFeature + ")");
+                if (listener != null) {
+                    listener.onZoneEntered(item.getKey(), entry.containingFeature);
+                }
+            } else if (previous != NO_FEATURE && entry.containingFeature == NO_FEATURE) {
+                Log.d(TAG, "区域から退出: " + item.getKey().getId());
+                if (listener != null) {
+                    listener.onZoneExited(item.getKey());
+                }
+            }
+        }
+    }
+
+    /**
+     * 直前の判定で区域内だったか
+     *
+     * @param layerType レイヤータイプ
+     * @return 区域内ならtrue
+     */
+    public boolean isInside(@NonNull LayerType layerType) {
+        return getContainingFeature(layerType) != NO_FEATURE;
+    }
+
+    /**
+     * 直前の判定で位置を含んでいたフィーチャ番号を取得
+     *
+     * @param layerType レイヤータイプ
+     * @return フィーチャ番号、区域外の場合はNO_FEATURE
+     */
+    public int getContainingFeature(@NonNull LayerType layerType) {
+        ZoneEntry entry = entries.get(layerType);
+        return entry != null ? entry.containingFeature : NO_FEATURE;
+    }
+
+    /**
+     * 直前の判定での最寄りの境界までの距離を取得
+     *
+     * 区域内では退出までの距離、区域外では最寄りの区域までの距離になる。
+     *
+     * @param layerType レイヤータイプ
+     * @return 距離（メートル）、検索半径内に境界がない場合はDouble.NaN
+     */
+    public double getBoundaryDistance(@NonNull LayerType layerType) {
+        ZoneEntry entry = entries.get(layerType);
+        return entry != null ? entry.boundaryDistance : Double.NaN;
+    }
+
+    // ==================== 内部処理 ====================
+
+    /**
+     * 1レイヤーを判定
+     */
+    private void evaluate(@NonNull ZoneEntry entry, double lat, double lng,
+                          double southE6, double westE6, double northE6, double eastE6) {
+        candidateCount = 0;
+        entry.layer.query(southE6, westE6, northE6, eastE6, candidateVisitor);
+
+        LayerGeometry geometry = entry.layer.getGeometry();
+        double latE6 = lat * LayerGeometry.E6;
+        double lngE6 = lng * LayerGeometry.E6;
+        int containing = NO_FEATURE;
+        double best = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < candidateCount; i++) {
+            int feature = candidates[i];
+            PreparedFeature prepared = entry.prepare(feature);
+            boolean inBox = latE6 >= geometry.getFeatureSouthE6(feature)
+                    && latE6 <= geometry.getFeatureNorthE6(feature)
+                    && lngE6 >= geometry.getFeatureWestE6(feature)
+                    && lngE6 <= geometry.getFeatureEastE6(feature);
+            if (containing == NO_FEATURE && inBox && prepared.contains(lat, lng)) {
+                containing = feature;
+            }
+            best = Math.min(best, prepared.distanceToBoundary(lat, lng));
+        }
+        entry.containingFeature = containing;
+        entry.boundaryDistance = best <= searchRadiusMeters || containing != NO_FEATURE
+                ? best : Double.NaN;
+    }
+
+    /**
+     * R-tree検索の訪問者（候補を配列に追加）
+     */
+    private void addCandidate(int feature) {
+        if (candidateCount == candidates.length) {
+            candidates = Arrays.copyOf(candidates, candidateCount * 2);
+        }
+        candidates[candidateCount++] = feature;
+    }
+
+    /**
+     * レイヤーごとの監視状態
+     */
+    private static class ZoneEntry {
+        @NonNull
+        final IndexedLayer layer;
+        /** フィーチャ番号→判定用フィーチャ（未作成はnull） */
+        final PreparedFeature[] prepared;
+        int containingFeature = NO_FEATURE;
+        double boundaryDistance = Double.NaN;
+
+        ZoneEntry(@NonNull IndexedLayer layer) {
+            this.layer = layer;
+            this.prepared = new PreparedFeature[layer.getFeatureCount()];
+        }
+
+        @NonNull
+        PreparedFeature prepare(int feature) {
+            PreparedFeature result = prepared[feature];
+            if (result == null) {
+                result = PreparedFeature.build(layer.getGeometry(), feature);
+                prepared[feature] = result;
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,303 @@
+/**
+ * ContourGenerator.java
+ *
+ * VISIONOID MAG PLOTTER - 等値線生成
+ *
+ * 概要:
+ *   ノイズグリッドからマーチングスクエア法で等値線を生成する。
+ *
+ * 主な仕様:
+ *   - セル中心を格子点とし、隣接4点の正方形ごとに線分を生成
+ *   - 鞍点は正方形中心の平均値で判定
+ *   - 線分は格子辺IDで連結して折れ線にまとめる（開いた線・閉じた輪）
+ *   - Douglas-Peucker法で簡略化してから緯度経度に変換
+ *
+ * 制限事項:
+ *   - データなし（NaN）の格子点を含む正方形は線を生成しない
+ *   - インスタンスはスレッドセーフではない（作業配列を再利用するため）
+ */
+package com.visionoid.magplotter.ui.map.surface;
+
+import androidx.annotation.NonNull;
+
+import com.visionoid.magplotter.util.LineSimplifier;
+import com.visionoid.magplotter.util.LocalProjection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 等値線生成クラス
+ */
+public class ContourGenerator {
+
+    // 正方形の辺（下・右・上・左）
+    private static final int BOTTOM = 0;
+    private static final int RIGHT = 1;
+    private static final int TOP = 2;
+    private static final int LEFT = 3;
+
+    /**
+     * ケース別の線分（辺のペア）。鞍点（5, 10）は別処理。
+     * 角のビット: 1=左下, 2=右下, 4=右上, 8=左上
+     */
+    private static final int[][] SEGMENTS = {
+            {},                 // 0
+            {LEFT, BOTTOM},     // 1
+            {BOTTOM, RIGHT},    // 2
+            {LEFT, RIGHT},      // 3
+            {RIGHT, TOP},       // 4
+            {},                 // 5 （鞍点）
+            {BOTTOM, TOP},      // 6
+            {LEFT, TOP},        // 7
+            {TOP, LEFT},        // 8
+            {TOP, BOTTOM},      // 9
+            {},                 // 10 （鞍点）
+            {TOP, RIGHT},       // 11
+            {RIGHT, LEFT},      // 12
+            {RIGHT, BOTTOM},    // 13
+            {BOTTOM, LEFT},     // 14
+            {},                 // 15
+    };
+
+    // 作業配列（呼び出しごとに必要なら拡張して再利用）
+    private int[] segA = new int[1024];
+    private int[] segB = new int[1024];
+    private int segmentCount;
+    private int[] edgeSeg0 = new int[0];
+    private int[] edgeSeg1 = new int[0];
+    private boolean[] visited = new boolean[1024];
+    private int[] chain = new int[1024];
+    private double[] xs = new double[1024];
+    private double[] ys = new double[1024];
+    private double[] outXs = new double[1024];
+    private double[] outYs = new double[1024];
+
+    /**
+     * 指定レベルの等値線を生成
+     *
+     * @param grid ノイズグリッド
+     * @param level レベル（μT）
+     * @param tolerance 簡略化の許容誤差（メートル）
+     * @return 等値線リスト
+     */
+    @NonNull
+    public List<ContourLine> generate(@NonNull NoiseGrid grid, double level, double tolerance) {
+        List<ContourLine> lines = new ArrayList<>();
+        int rows = grid.getRows();
+        int cols = grid.getCols();
+        if (rows < 2 || cols < 2) {
+            return lines;
+        }
+        buildSegments(grid, level);
+        if (segmentCount == 0) {
+            return lines;
+        }
+        indexEdges(rows * cols * 2);
+        traceChains(grid, level, tolerance, lines);
+        return lines;
+    }
+
+    // ==================== 線分生成 ====================
+
+    /**
+     * 全ての正方形について線分（格子辺IDのペア）を生成
+     */
+    private void buildSegments(NoiseGrid grid, double level) {
+        int rows = grid.getRows();
+        int cols = grid.getCols();
+        float[] v = grid.getValues();
+        segmentCount = 0;
+
+        for (int r = 0; r < rows - 1; r++) {
+            for (int c = 0; c < cols - 1; c++) {
+                float bl = v[r * cols + c];
+                float br = v[r * cols + c + 1];
+                float tr = v[(r + 1) * cols + c + 1];
+                float tl = v[(r + 1) * cols + c];
+                if (Float.isNaN(bl) || Float.isNaN(br) || Float.isNaN(tr) || Float.isNaN(tl)) {
+                    continue;
+                }
+                int index = (bl >= level ? 1 : 0) | (br >= level ? 2 : 0)
+                        | (tr >= level ? 4 : 0) | (tl >= level ? 8 : 0);
+                if (index == 0 || index == 15) {
+                    continue;
+                }
+                if (index == 5 || index == 10) {
+                    boolean centerAbove = (bl + br + tr + tl) / 4.0 >= level;
+                    // 中心が上側なら上側の角同士が連結し、下側の角を切り離す
+                    if ((index == 5) == centerAbove) {
+                        addSegment(edgeId(r, c, cols, BOTTOM), edgeId(r, c, cols, RIGHT));
+                        addSegment(edgeId(r, c, cols, LEFT), edgeId(r, c, cols, TOP));
+                    } else {
+                        addSegment(edgeId(r, c, cols, LEFT), edgeId(r, c, cols, BOTTOM));
+                        addSegment(edgeId(r, c, cols, RIGHT), edgeId(r, c, cols, TOP));
+                    }
+                    continue;
+                }
+                int[] seg = SEGMENTS[index];
+                addSegment(edgeId(r, c, cols, seg[0]), edgeId(r, c, cols, seg[1]));
+            }
+        }
+    }
+
+    /**
+     * 正方形(r, c)の辺を格子辺IDに変換
+     *
+     * 水平辺 (r,c)-(r,c+1) は偶数ID、垂直辺 (r,c)-(r+1,c) は奇数ID。
+     */
+    private static int edgeId(int r, int c, int cols, int side) {
+        switch (side) {
+            case BOTTOM:
+                return (r * cols + c) * 2;
+            case TOP:
+                return ((r + 1) * cols + c) * 2;
+            case LEFT:
+                return (r * cols + c) * 2 + 1;
+            default:
+                return (r * cols + c + 1) * 2 + 1;
+        }
+    }
+
+    private void addSegment(int a, int b) {
+        if (segmentCount == segA.length) {
+            segA = Arrays.copyOf(segA, segmentCount * 2);
+            segB = Arrays.copyOf(segB, segmentCount * 2);
+        }
+        segA[segmentCount] = a;
+        segB[segmentCount] = b;
+        segmentCount++;
+    }
+
+    /**
+     * 格子辺ごとに接続する線分（最大2本）を登録
+     */
+    private void indexEdges(int edgeCount) {
+        if (edgeSeg0.length < edgeCount) {
+            edgeSeg0 = new int[edgeCount];
+            edgeSeg1 = new int[edgeCount];
+        }
+        Arrays.fill(edgeSeg0, 0, edgeCount, -1);
+        Arrays.fill(edgeSeg1, 0, edgeCount, -1);
+        for (int s = 0; s < segmentCount; s++) {
+            link(segA[s], s);
+            link(segB[s], s);
+        }
+        if (visited.length < segmentCount) {
+            visited = new boolean[segA.length];
+        }
+        Arrays.fill(visited, 0, segmentCount, false);
+    }
+
+    private void link(int edge, int segment) {
+        if (edgeSeg0[edge] < 0) {
+            edgeSeg0[edge] = segment;
+        } else {
+            edgeSeg1[edge] = segment;
+        }
+    }
+
+    // ==================== 連結 ====================
+
+    /**
+     * 線分を連結して折れ線を生成
+     *
+     * 端点（接続が1本の格子辺）から開いた線を先に辿り、残りを閉じた輪として辿る。
+     */
+    private void traceChains(NoiseGrid grid, double level, double tolerance, List<ContourLine> out) {
+        for (int s = 0; s < segmentCount; s++) {
+            if (visited[s]) {
+                continue;
+            }
+            if (edgeSeg1[segA[s]] < 0) {
+                emit(grid, level, tolerance, walk(s, segA[s]), false, out);
+            } else if (edgeSeg1[segB[s]] < 0) {
+                emit(grid, level, tolerance, walk(s, segB[s]), false, out);
+            }
+        }
+        for (int s = 0; s < segmentCount; s++) {
+            if (!visited[s]) {
+                emit(grid, level, tolerance, walk(s, segA[s]), true, out);
+            }
+        }
+    }
+
+    /**
+     * 線分sから格子辺startEdgeを起点に辿り、通過した格子辺をchainに格納
+     *
+     * @return 格子辺の数
+     */
+    private int walk(int s, int startEdge) {
+        int length = 0;
+        int edge = startEdge;
+        int segment = s;
+        appendChain(length++, edge);
+        while (segment >= 0 && !visited[segment]) {
+            visited[segment] = true;
+            edge = segA[segment] == edge ? segB[segment] : segA[segment];
+            appendChain(length++, edge);
+            int next = edgeSeg0[edge] == segment ? edgeSeg1[edge] : edgeSeg0[edge];
+            segment = next;
+        }
+        return length;
+    }
+
+    private void appendChain(int position, int edge) {
+        if (position == chain.length) {
+            chain = Arrays.copyOf(chain, position * 2);
+        }
+        chain[position] = edge;
+    }
+
+    /**
+     * 格子辺列を座標に変換し、簡略化して出力
+     */
+    private void emit(NoiseGrid grid, double level, double tolerance, int length,
+                      boolean closed, List<ContourLine> out) {
+        if (length < 2) {
+            return;
+        }
+        if (xs.length < length) {
+            int capacity = Math.max(length, xs.length * 2);
+            xs = new double[capacity];
+            ys = new double[capacity];
+            outXs = new double[capacity];
+            outYs = new double[capacity];
+        }
+        int cols = grid.getCols();
+        float[] v = grid.getValues();
+        for (int i = 0; i < length; i++) {
+            int edge = chain[i];
+            int node = edge >> 1;
+            int r = node / cols;
+            int c = node % cols;
+            float v0 = v[node];
+            boolean vertical = (edge & 1) == 1;
+            float v1 = vertical ? v[node + cols] : v[node + 1];
+            double t = v1 != v0 ? (level - v0) / (v1 - v0) : 0.5;
+            double x = grid.cellCenterX(c);
+            double y = grid.cellCenterY(r);
+            if (vertical) {
+                y += t * grid.getCellSize();
+            } else {
+                x += t * grid.getCellSize();
+            }
+            xs[i] = x;
+            ys[i] = y;
+        }
+
+        int count = LineSimplifier.simplify(xs, ys, length, tolerance, outXs, outYs);
+        if (count < 2) {
+            return;
+        }
+        LocalProjection projection = grid.getProjection();
+        double[] lats = new double[count];
+        double[] lngs = new double[count];
+        for (int i = 0; i < count; i++) {
+            lats[i] = projection.toLat(outYs[i]);
+            lngs[i] = projection.toLng(outXs[i]);
+        }
+        out.add(new ContourLine(level, lats, lngs, closed));
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * ContourLine.java
+ *
+ * VISIONOID MAG PLOTTER - 等値線
+ *
+ * 概要:
+ *   ノイズ面から生成した1本の等値線（緯度経度の折れ線）。
+ *
+ * 主な仕様:
+ *   - 等値線のレベル（μT）と頂点列を保持
+ *   - 閉じた輪の場合は始点と終点が一致する
+ *
+ * 制限事項:
+ *   - 座標配列はコピーせず共有するため、呼び出し側で変更しないこと
+ */
+package com.visionoid.magplotter.ui.map.surface;
+
+import androidx.annotation.NonNull;
+
+/**
+ * 等値線クラス（不変）
+ */
+public final class ContourLine {
+
+    /** レベル（μT） */
+    private final double level;
+
+    /** 緯度 */
+    private final double[] latitudes;
+
+    /** 経度 */
+    private final double[] longitudes;
+
+    /** 閉じた輪かどうか */
+    private final boolean closed;
+
+    /**
+     * コンストラクタ
+     */
+    ContourLine(double level, @NonNull double[] latitudes, @NonNull double[] longitudes, boolean closed) {
+        this.level = level;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.closed = closed;
+    }
+
+    public double getLevel() {
+        return level;
+    }
+
+    public int getPointCount() {
+        return latitudes.length;
+    }
+
+    public double getLatitude(int index) {
+        return latitudes[index];
+    }
+
+    public double getLongitude(int index) {
+        return longitudes[index];
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+}
@@ -0,0 +1,188 @@
+/**
+ * ContourOverlay.java
+ *
+ * VISIONOID MAG PLOTTER - 等値線オーバーレイ
+ *
+ * 概要:
+ *   ノイズ面から生成した等値線を地図上に描画するオーバーレイ。
+ *   線とラベルは作図オーバーレイ（SavedShapesOverlay）と同じ体裁で描く。
+ *
+ * 主な仕様:
+ *   - レベルごとに色分け（安全閾値: 警告色、危険閾値: 危険色）
+ *   - 各等値線の中央付近にレベル（μT）をラベル表示
+ *   - 描画用のPath/Point/Rectは再利用
+ *
+ * 制限事項:
+ *   - 色分けは最大2レベル（安全閾値・危険閾値）を想定
+ */
+package com.visionoid.magplotter.ui.map.surface;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Point;
+import android.graphics.Rect;
+
+import androidx.annotation.NonNull;
+import androidx.core.content.ContextCompat;
+
+import com.visionoid.magplotter.R;
+import com.visionoid.magplotter.ui.map.debug.VertexCountSource;
+
+import org.osmdroid.util.GeoPoint;
+import org.osmdroid.views.MapView;
+import org.osmdroid.views.Projection;
+import org.osmdroid.views.overlay.Overlay;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 等値線オーバーレイクラス
+ */
+public class ContourOverlay extends Overlay implements VertexCountSource {
+
+    /** 線の幅（px） */
+    private static final float LINE_WIDTH = 4f;
+
+    /** 表示する等値線 */
+    @NonNull
+    private List<ContourLine> lines = Collections.emptyList();
+
+    /** 安全閾値（この値の等値線を警告色で描く） */
+    private double safeLevel = Double.NaN;
+
+    // ==================== ペイント ====================
+
+    /** 安全閾値の線 */
+    private final Paint safeLinePaint;
+
+    /** 危険閾値の線 */
+    private final Paint dangerLinePaint;
+
+    /** ラベルテキスト */
+    private final Paint textPaint;
+
+    /** ラベル背景 */
+    private final Paint textBgPaint;
+
+    /** 直前の描画で処理した頂点数（描画計測用） */
+    private int drawnVertexCount = 0;
+
+    // 描画時の再利用オブジェクト
+    private final Path path = new Path();
+    private final GeoPoint geoPoint = new GeoPoint(0.0, 0.0);
+    private final Point screenPoint = new Point();
+    private final Rect textBounds = new Rect();
+
+    /**
+     * コンストラクタ
+     *
+     * @param context コンテキスト
+     */
+    public ContourOverlay(@NonNull Context context) {
+        safeLinePaint = createLinePaint(ContextCompat.getColor(context, R.color.status_warning));
+        dangerLinePaint = createLinePaint(ContextCompat.getColor(context, R.color.status_danger));
+
+        textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        textPaint.setColor(Color.WHITE);
+        textPaint.setTextSize(28f);
+        textPaint.setTextAlign(Paint.Align.CENTER);
+
+        textBgPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        textBgPaint.setColor(0xCC000000);
+        textBgPaint.setStyle(Paint.Style.FILL);
+    }
+
+    private static Paint createLinePaint(int color) {
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paint.setColor(color);
+        paint.setStrokeWidth(LINE_WIDTH);
+        paint.setStyle(Paint.Style.STROKE);
+        paint.setStrokeCap(Paint.Cap.ROUND);
+        paint.setStrokeJoin(Paint.Join.ROUND);
+        return paint;
+    }
+
+    /**
+     * 等値線を設定
+     *
+     * @param lines 等値線リスト
+     * @param safeLevel 安全閾値（μT）
+     */
+    public void setContours(@NonNull List<ContourLine> lines, double safeLevel) {
+        this.lines = lines;
+        this.safeLevel = safeLevel;
+    }
+
+    /**
+     * 等値線をクリア
+     */
+    public void clear() {
+        lines = Collections.emptyList();
+    }
+
+    // ==================== 描画 ====================
+
+    @Override
+    public int getDrawnVertexCount() {
+        return drawnVertexCount;
+    }
+
+    @Override
+    public void draw(Canvas canvas, MapView mapView, boolean shadow) {
+        if (shadow) {
+            return;
+        }
+        drawnVertexCount = 0;
+        if (lines.isEmpty()) {
+            return;
+        }
+        Projection projection = mapView.getProjection();
+
+        for (ContourLine line : lines) {
+            int count = line.getPointCount();
+            drawnVertexCount += count;
+            path.rewind();
+            for (int i = 0; i < count; i++) {
+                toPixels(projection, line, i);
+                if (i == 0) {
+                    path.moveTo(screenPoint.x, screenPoint.y);
+                } else {
+                    path.lineTo(screenPoint.x, screenPoint.y);
+                }
+            }
+            canvas.drawPath(path, line.getLevel() == safeLevel ? safeLinePaint : dangerLinePaint);
+        }
+
+        // ラベルは線の上に描く
+        for (ContourLine line : lines) {
+            toPixels(projection, line, line.getPointCount() / 2);
+            drawLabel(canvas, screenPoint, String.format(Locale.US, "%.1fμT", line.getLevel()));
+        }
+    }
+
+    private void toPixels(Projection projection, ContourLine line, int index) {
+        geoPoint.setCoords(line.getLatitude(index), line.getLongitude(index));
+        projection.toPixels(geoPoint, screenPoint);
+    }
+
+    /**
+     * ラベルを描画
+     */
+    private void drawLabel(Canvas canvas, Point point, String text) {
+        textPaint.getTextBounds(text, 0, text.length(), textBounds);
+
+        int padding = 8;
+        int bgLeft = point.x - textBounds.width() / 2 - padding;
+        int bgTop = point.y - textBounds.height() - padding;
+        int bgRight = point.x + textBounds.width() / 2 + padding;
+        int bgBottom = point.y + padding;
+
+        canvas.drawRoundRect(bgLeft, bgTop, bgRight, bgBottom, 8, 8, textBgPaint);
+        canvas.drawText(text, point.x, point.y, textPaint);
+    }
+}
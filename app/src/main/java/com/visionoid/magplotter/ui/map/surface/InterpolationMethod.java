@@ -0,0 +1,54 @@
+/**
+ * InterpolationMethod.java
+ *
+ * VISIONOID MAG PLOTTER - 補間方式
+ *
+ * 概要:
+ *   ノイズ面の補間方式を定義する列挙型。
+ *
+ * 主な仕様:
+ *   - IDW: 逆距離加重（高速・既定）
+ *   - KRIGING: 通常クリギング（指数型バリオグラム）
+ *
+ * 制限事項:
+ *   - なし
+ */
+package com.visionoid.magplotter.ui.map.surface;
+
+/**
+ * 補間方式列挙型
+ */
+public enum InterpolationMethod {
+
+    /** 逆距離加重法 */
+    IDW("idw"),
+
+    /** 通常クリギング */
+    KRIGING("kriging");
+
+    /** 識別子（設定保存用） */
+    private final String id;
+
+    InterpolationMethod(String id) {
+        this.id = id;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * 識別子から補間方式を取得
+     *
+     * @param id 識別子
+     * @return 補間方式（該当なしの場合はIDW）
+     */
+    public static InterpolationMethod fromId(String id) {
+        for (InterpolationMethod method : values()) {
+            if (method.id.equals(id)) {
+                return method;
+            }
+        }
+        return IDW;
+    }
+}
@@ -0,0 +1,149 @@
+/**
+ * NoiseGrid.java
+ *
+ * VISIONOID MAG PLOTTER - ノイズグリッド
+ *
+ * 概要:
+ *   計測ポイントから補間したノイズ値を保持する規則格子。
+ *   描画・等値線生成に渡すための不変スナップショット。
+ *
+ * 主な仕様:
+ *   - ローカル平面座標（メートル）上の等間隔セル
+ *   - 行0が南端、列0が西端
+ *   - データなしのセルはNaN
+ *
+ * 制限事項:
+ *   - 値配列はコピーせず共有するため、呼び出し側で変更しないこと
+ */
+package com.visionoid.magplotter.ui.map.surface;
+
+import androidx.annotation.NonNull;
+
+import com.visionoid.magplotter.util.LocalProjection;
+
+/**
+ * ノイズグリッドクラス（不変）
+ */
+public final class NoiseGrid {
+
+    /** 投影 */
+    private final LocalProjection projection;
+
+    /** 西端X（メートル） */
+    private final double originX;
+
+    /** 南端Y（メートル） */
+    private final double originY;
+
+    /** セルの一辺（メートル） */
+    private final double cellSize;
+
+    /** 行数 */
+    private final int rows;
+
+    /** 列数 */
+    private final int cols;
+
+    /** セル値（行優先、NaN=データなし） */
+    private final float[] values;
+
+    /** 生成世代（更新検知用） */
+    private final long generation;
+
+    /**
+     * コンストラクタ
+     */
+    NoiseGrid(@NonNull LocalProjection projection, double originX, double originY,
+              double cellSize, int rows, int cols, @NonNull float[] values, long generation) {
+        this.projection = projection;
+        this.originX = originX;
+        this.originY = originY;
+        this.cellSize = cellSize;
+        this.rows = rows;
+        this.cols = cols;
+        this.values = values;
+        this.generation = generation;
+    }
+
+    // ==================== 参照 ====================
+
+    @NonNull
+    public LocalProjection getProjection() {
+        return projection;
+    }
+
+    public double getOriginX() {
+        return originX;
+    }
+
+    public double getOriginY() {
+        return originY;
+    }
+
+    public double getCellSize() {
+        return cellSize;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * セル値を取得
+     *
+     * @param row 行（0=南端）
+     * @param col 列（0=西端）
+     * @return ノイズ値（データなしはNaN）
+     */
+    public float getValue(int row, int col) {
+        return values[row * cols + col];
+    }
+
+    /**
+     * セル値配列を取得（読み取り専用として扱うこと）
+     */
+    @NonNull
+    public float[] getValues() {
+        return values;
+    }
+
+    /**
+     * セル中心のX座標（メートル）
+     */
+    public double cellCenterX(int col) {
+        return originX + (col + 0.5) * cellSize;
+    }
+
+    /**
+     * セル中心のY座標（メートル）
+     */
+    public double cellCenterY(int row) {
+        return originY + (row + 0.5) * cellSize;
+    }
+
+    // ==================== 範囲 ====================
+
+    public double getNorth() {
+        return projection.toLat(originY + rows * cellSize);
+    }
+
+    public double getSouth() {
+        return projection.toLat(originY);
+    }
+
+    public double getEast() {
+        return projection.toLng(originX + cols * cellSize);
+    }
+
+    public double getWest() {
+        return projection.toLng(originX);
+    }
+}
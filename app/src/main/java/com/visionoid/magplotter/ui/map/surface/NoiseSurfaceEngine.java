@@ -0,0 +1,577 @@
+/**
+ * NoiseSurfaceEngine.java
+ *
+ * VISIONOID MAG PLOTTER - ノイズ面グリッディングエンジン
+ *
+ * 概要:
+ *   ミッションの計測ポイントから連続したノイズ面（規則格子）を
+ *   バックグラウンドで生成し、色付けしたラスタとして通知する。
+ *
+ * 主な仕様:
+ *   - IDW / クリギングによる補間（NoiseSurfaceInterpolator）
+ *   - 近傍探索は空間インデックス（PointSpatialIndex）
+ *   - セル計算はfork/joinで全コアに分散
+ *   - ポイント追加時は影響範囲（検索半径内）のセルのみ再計算
+ *   - 計測範囲が広がった場合は余白付きでグリッドを拡張し、既存セルは再利用
+ *   - 指定レベルの等値線をグリッド更新のたびに生成（ミッション・閾値の組ごとにキャッシュ）
+ *
+ * 制限事項:
+ *   - グリッドの一辺は最大MAX_GRID_DIMENSIONセル（広域ではセルが粗くなる）
+ *   - ポイントが削除された場合は全体を再計算
+ */
+package com.visionoid.magplotter.ui.map.surface;
+
+import android.graphics.Color;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import com.visionoid.magplotter.data.model.MeasurementPoint;
+import com.visionoid.magplotter.util.LocalProjection;
+import com.visionoid.magplotter.util.NoiseColorTable;
+import com.visionoid.magplotter.util.PointSpatialIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * ノイズ面グリッディングエンジンクラス
+ */
+public class NoiseSurfaceEngine {
+
+    /** ログタグ */
+    private static final String TAG = "NoiseSurfaceEngine";
+
+    /** 既定の検索半径（メートル） */
+    public static final double DEFAULT_SEARCH_RADIUS = 10.0;
+
+    /** 補間に使う最大近傍点数 */
+    private static final int MAX_NEIGHBORS = 12;
+
+    /** セルの最小サイズ（メートル） */
+    private static final double MIN_CELL_SIZE = 0.5;
+
+    /** グリッドの一辺の最大セル数 */
+    private static final int MAX_GRID_DIMENSION = 256;
+
+    /** グリッド拡張時の余白（計測範囲に対する比率） */
+    private static final double GROWTH_MARGIN_RATIO = 0.25;
+
+    /** 差分更新で個別に再計算する新規ポイント数の上限（超えたら外接矩形でまとめる） */
+    private static final int MAX_DIRTY_RECTS = 32;
+
+    /** 等値線キャッシュの最大エントリ数 */
+    private static final int CONTOUR_CACHE_SIZE = 4;
+
+    /** 等値線簡略化の許容誤差（セルサイズに対する比率） */
+    private static final double CONTOUR_TOLERANCE_RATIO = 0.5;
+
+    /**
+     * ノイズ面更新リスナー（メインスレッドで呼ばれる）
+     */
+    public interface SurfaceListener {
+        /**
+         * ノイズ面が更新された
+         *
+         * @param grid グリッド
+         * @param pixels ARGBピクセル（北端が先頭行、列数×行数）
+         */
+        void onSurfaceUpdated(@NonNull NoiseGrid grid, @NonNull int[] pixels);
+
+        /**
+         * 等値線が更新された
+         *
+         * @param lines 等値線リスト
+         */
+        void onContoursUpdated(@NonNull List<ContourLine> lines);
+
+        /**
+         * ノイズ面が空になった
+         */
+        void onSurfaceCleared();
+    }
+
+    /** 計算スレッド（状態はこのスレッドのみが操作する） */
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    /** セル計算用fork/joinプール */
+    private final ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    /** メインスレッドハンドラー */
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /** リスナー */
+    @Nullable
+    private volatile SurfaceListener listener;
+
+    /** 検索半径（メートル） */
+    private final double searchRadius;
+
+    // ==================== 計算スレッドの状態 ====================
+
+    private InterpolationMethod method = InterpolationMethod.IDW;
+    private NoiseColorTable colorTable;
+
+    private List<MeasurementPoint> currentPoints = Collections.emptyList();
+    private int processedCount = 0;
+
+    private LocalProjection projection;
+    private PointSpatialIndex index;
+    private NoiseSurfaceInterpolator interpolator;
+
+    private double originX;
+    private double originY;
+    private double cellSize;
+    private int rows;
+    private int cols;
+    private float[] values;
+    private int[] pixels;
+    private long generation = 0;
+    private NoiseGrid publishedGrid;
+
+    private final ContourGenerator contourGenerator = new ContourGenerator();
+    private long contourMissionId = -1;
+    private double[] contourLevels;
+
+    /** 等値線キャッシュ（キー: ミッションID+レベル、アクセス順） */
+    private final Map<String, CachedContours> contourCache =
+            new LinkedHashMap<String, CachedContours>(CONTOUR_CACHE_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedContours> eldest) {
+                    return size() > CONTOUR_CACHE_SIZE;
+                }
+            };
+
+    /**
+     * コンストラクタ
+     *
+     * @param colorTable カラーテーブル
+     */
+    public NoiseSurfaceEngine(@NonNull NoiseColorTable colorTable) {
+        this(colorTable, DEFAULT_SEARCH_RADIUS);
+    }
+
+    /**
+     * コンストラクタ
+     *
+     * @param colorTable カラーテーブル
+     * @param searchRadius 検索半径（メートル）
+     */
+    public NoiseSurfaceEngine(@NonNull NoiseColorTable colorTable, double searchRadius) {
+        this.colorTable = colorTable;
+        this.searchRadius = searchRadius;
+    }
+
+    public void setSurfaceListener(@Nullable SurfaceListener listener) {
+        this.listener = listener;
+    }
+
+    // ==================== 公開API ====================
+
+    /**
+     * 計測ポイントを投入
+     *
+     * 前回より増えた分のみ差分更新する。減った場合は全体を再計算する。
+     *
+     * @param points 計測ポイント（タイムスタンプ順、呼び出し後に変更しないこと）
+     */
+    public void submitPoints(@Nullable List<MeasurementPoint> points) {
+        final List<MeasurementPoint> snapshot = points != null ? points : Collections.emptyList();
+        executor.execute(() -> {
+            try {
+                process(snapshot);
+            } catch (Exception e) {
+                Log.e(TAG, "ノイズ面の計算に失敗", e);
+            }
+        });
+    }
+
+    /**
+     * 補間方式を変更（全体を再計算）
+     *
+     * @param newMethod 補間方式
+     */
+    public void setMethod(@NonNull InterpolationMethod newMethod) {
+        executor.execute(() -> {
+            if (method == newMethod) {
+                return;
+            }
+            method = newMethod;
+            try {
+                rebuild(currentPoints);
+            } catch (Exception e) {
+                Log.e(TAG, "ノイズ面の再計算に失敗", e);
+            }
+        });
+    }
+
+    /**
+     * カラーテーブルを変更（再補間は不要、色のみ更新）
+     *
+     * @param table カラーテーブル
+     */
+    public void setColorTable(@NonNull NoiseColorTable table) {
+        executor.execute(() -> {
+            if (colorTable == table) {
+                return;
+            }
+            colorTable = table;
+            if (values != null) {
+                colorize(0, rows, 0, cols);
+                publish(false);
+            }
+        });
+    }
+
+    /**
+     * 等値線を生成するレベルを設定
+     *
+     * @param missionId ミッションID（キャッシュのキー）
+     * @param levels レベル（μT）。nullまたは空の場合は生成しない
+     */
+    public void setContourLevels(long missionId, @Nullable double[] levels) {
+        final double[] copy = levels != null ? levels.clone() : null;
+        executor.execute(() -> {
+            contourMissionId = missionId;
+            contourLevels = copy;
+            if (publishedGrid != null) {
+                updateContours(publishedGrid);
+            }
+        });
+    }
+
+    /**
+     * リソースを解放
+     */
+    public void shutdown() {
+        listener = null;
+        executor.shutdownNow();
+    }
+
+    // ==================== 計算処理 ====================
+
+    /**
+     * 投入されたポイントを処理
+     */
+    @WorkerThread
+    private void process(@NonNull List<MeasurementPoint> points) {
+        if (points.isEmpty()) {
+            reset();
+            return;
+        }
+        if (index == null || points.size() < processedCount) {
+            rebuild(points);
+            return;
+        }
+        if (points.size() == processedCount) {
+            currentPoints = points;
+            return;
+        }
+        update(points);
+    }
+
+    /**
+     * 状態を初期化
+     */
+    @WorkerThread
+    private void reset() {
+        currentPoints = Collections.emptyList();
+        processedCount = 0;
+        index = null;
+        interpolator = null;
+        values = null;
+        pixels = null;
+        publishedGrid = null;
+        mainHandler.post(() -> {
+            SurfaceListener l = listener;
+            if (l != null) {
+                l.onSurfaceCleared();
+            }
+        });
+    }
+
+    /**
+     * 全体を再計算
+     */
+    @WorkerThread
+    private void rebuild(@NonNull List<MeasurementPoint> points) {
+        if (points.isEmpty()) {
+            reset();
+            return;
+        }
+        long start = System.currentTimeMillis();
+        MeasurementPoint first = points.get(0);
+        projection = new LocalProjection(first.getLatitude(), first.getLongitude());
+        index = new PointSpatialIndex(searchRadius);
+        for (MeasurementPoint point : points) {
+            index.add(projection.toX(point.getLongitude()), projection.toY(point.getLatitude()),
+                    (float) point.getNoiseValue());
+        }
+        interpolator = new NoiseSurfaceInterpolator(index, method, searchRadius, MAX_NEIGHBORS);
+        interpolator.fitVariogram();
+
+        layoutGrid(0, index.size());
+        values = new float[rows * cols];
+        pixels = new int[rows * cols];
+        interpolator.computeRegion(pool, values, cols, originX, originY, cellSize, 0, rows, 0, cols);
+        colorize(0, rows, 0, cols);
+
+        currentPoints = points;
+        processedCount = points.size();
+        Log.d(TAG, "ノイズ面を全体計算: " + cols + "x" + rows + ", points=" + processedCount
+                + ", method=" + method + ", " + (System.currentTimeMillis() - start) + "ms");
+        publish(true);
+    }
+
+    /**
+     * 追加ポイントの影響範囲のみ再計算
+     */
+    @WorkerThread
+    private void update(@NonNull List<MeasurementPoint> points) {
+        long start = System.currentTimeMillis();
+        int firstNew = index.size();
+        for (int i = processedCount; i < points.size(); i++) {
+            MeasurementPoint point = points.get(i);
+            index.add(projection.toX(point.getLongitude()), projection.toY(point.getLatitude()),
+                    (float) point.getNoiseValue());
+        }
+        int lastNew = index.size();
+        currentPoints = points;
+        processedCount = points.size();
+
+        // 新規ポイントの影響範囲がグリッド外にはみ出す場合は拡張
+        if (!fitsInGrid(firstNew, lastNew)) {
+            growGrid();
+        }
+
+        int cellCount = 0;
+        if (lastNew - firstNew > MAX_DIRTY_RECTS) {
+            cellCount += recomputeAround(firstNew, lastNew);
+        } else {
+            for (int i = firstNew; i < lastNew; i++) {
+                cellCount += recomputeAround(i, i + 1);
+            }
+        }
+        Log.d(TAG, "ノイズ面を差分計算: +" + (lastNew - firstNew) + " points, cells=" + cellCount
+                + ", " + (System.currentTimeMillis() - start) + "ms");
+        publish(true);
+    }
+
+    /**
+     * 指定範囲のポイントの検索半径内にあるセルを再計算
+     *
+     * @return 再計算したセル数
+     */
+    @WorkerThread
+    private int recomputeAround(int fromPoint, int toPoint) {
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (int i = fromPoint; i < toPoint; i++) {
+            minX = Math.min(minX, index.getX(i));
+            maxX = Math.max(maxX, index.getX(i));
+            minY = Math.min(minY, index.getY(i));
+            maxY = Math.max(maxY, index.getY(i));
+        }
+        int colStart = clamp((int) Math.floor((minX - searchRadius - originX) / cellSize), 0, cols);
+        int colEnd = clamp((int) Math.ceil((maxX + searchRadius - originX) / cellSize), 0, cols);
+        int rowStart = clamp((int) Math.floor((minY - searchRadius - originY) / cellSize), 0, rows);
+        int rowEnd = clamp((int) Math.ceil((maxY + searchRadius - originY) / cellSize), 0, rows);
+
+        interpolator.computeRegion(pool, values, cols, originX, originY, cellSize,
+                rowStart, rowEnd, colStart, colEnd);
+        colorize(rowStart, rowEnd, colStart, colEnd);
+        return (rowEnd - rowStart) * (colEnd - colStart);
+    }
+
+    /**
+     * 指定範囲のポイントの影響範囲がグリッド内に収まるか判定
+     */
+    private boolean fitsInGrid(int fromPoint, int toPoint) {
+        double maxX = originX + cols * cellSize;
+        double maxY = originY + rows * cellSize;
+        for (int i = fromPoint; i < toPoint; i++) {
+            double x = index.getX(i);
+            double y = index.getY(i);
+            if (x - searchRadius < originX || x + searchRadius > maxX
+                    || y - searchRadius < originY || y + searchRadius > maxY) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 全ポイントを含むようにグリッドを拡張
+     *
+     * セルサイズが変わらない場合は既存セルを新しい配置へコピーする。
+     * 旧グリッド外のセルは旧ポイントから検索半径より遠いため、
+     * 新規ポイント周辺の再計算以外はデータなし（NaN）のままでよい。
+     */
+    @WorkerThread
+    private void growGrid() {
+        double oldOriginX = originX;
+        double oldOriginY = originY;
+        double oldCellSize = cellSize;
+        int oldRows = rows;
+        int oldCols = cols;
+        float[] oldValues = values;
+
+        layoutGrid(0, index.size());
+        values = new float[rows * cols];
+        pixels = new int[rows * cols];
+
+        if (cellSize != oldCellSize) {
+            // セルサイズが変わった場合は全体を再計算
+            interpolator.computeRegion(pool, values, cols, originX, originY, cellSize, 0, rows, 0, cols);
+            colorize(0, rows, 0, cols);
+            return;
+        }
+
+        Arrays.fill(values, Float.NaN);
+        int colOffset = (int) Math.round((oldOriginX - originX) / cellSize);
+        int rowOffset = (int) Math.round((oldOriginY - originY) / cellSize);
+        for (int r = 0; r < oldRows; r++) {
+            System.arraycopy(oldValues, r * oldCols, values, (r + rowOffset) * cols + colOffset, oldCols);
+        }
+        colorize(0, rows, 0, cols);
+    }
+
+    /**
+     * ポイント範囲からグリッド配置（原点・セルサイズ・行列数）を決定
+     */
+    private void layoutGrid(int fromPoint, int toPoint) {
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (int i = fromPoint; i < toPoint; i++) {
+            minX = Math.min(minX, index.getX(i));
+            maxX = Math.max(maxX, index.getX(i));
+            minY = Math.min(minY, index.getY(i));
+            maxY = Math.max(maxY, index.getY(i));
+        }
+        double extent = Math.max(maxX - minX, maxY - minY);
+        double pad = searchRadius + extent * GROWTH_MARGIN_RATIO;
+        double size = Math.max(extent + 2 * pad, 1.0);
+
+        cellSize = Math.max(MIN_CELL_SIZE, size / MAX_GRID_DIMENSION);
+        // セル境界を揃えておくと拡張時に既存セルを再利用できる
+        cellSize = MIN_CELL_SIZE * Math.ceil(cellSize / MIN_CELL_SIZE);
+        originX = Math.floor((minX - pad) / cellSize) * cellSize;
+        originY = Math.floor((minY - pad) / cellSize) * cellSize;
+        cols = Math.max(1, (int) Math.ceil((maxX + pad - originX) / cellSize));
+        rows = Math.max(1, (int) Math.ceil((maxY + pad - originY) / cellSize));
+    }
+
+    // ==================== 色付け ====================
+
+    /**
+     * セル値をARGBピクセルに変換（北端を先頭行とする）
+     */
+    @WorkerThread
+    private void colorize(int rowStart, int rowEnd, int colStart, int colEnd) {
+        for (int row = rowStart; row < rowEnd; row++) {
+            int src = row * cols;
+            int dst = (rows - 1 - row) * cols;
+            for (int col = colStart; col < colEnd; col++) {
+                pixels[dst + col] = colorFor(values[src + col]);
+            }
+        }
+    }
+
+    /**
+     * ノイズ値から色を取得（カラーテーブル参照、データなしは透明）
+     */
+    private int colorFor(float value) {
+        if (Float.isNaN(value)) {
+            return Color.TRANSPARENT;
+        }
+        return colorTable.getColor(value);
+    }
+
+    /**
+     * 現在のグリッドのスナップショットをメインスレッドへ通知
+     *
+     * @param valuesChanged セル値が変化した場合true（色のみの変更はfalse）
+     */
+    @WorkerThread
+    private void publish(boolean valuesChanged) {
+        final NoiseGrid grid;
+        if (valuesChanged || publishedGrid == null) {
+            grid = new NoiseGrid(projection, originX, originY, cellSize,
+                    rows, cols, values.clone(), ++generation);
+        } else {
+            grid = publishedGrid;
+        }
+        publishedGrid = grid;
+        final int[] pixelCopy = pixels.clone();
+        mainHandler.post(() -> {
+            SurfaceListener l = listener;
+            if (l != null) {
+                l.onSurfaceUpdated(grid, pixelCopy);
+            }
+        });
+        if (valuesChanged) {
+            updateContours(grid);
+        }
+    }
+
+    // ==================== 等値線 ====================
+
+    /**
+     * 等値線を生成（同じグリッド世代・ミッション・レベルの組はキャッシュを使用）
+     */
+    @WorkerThread
+    private void updateContours(@NonNull NoiseGrid grid) {
+        if (contourLevels == null || contourLevels.length == 0) {
+            return;
+        }
+        String key = contourMissionId + ":" + Arrays.toString(contourLevels);
+        CachedContours cached = contourCache.get(key);
+        if (cached == null || cached.generation != grid.getGeneration()) {
+            long start = System.currentTimeMillis();
+            List<ContourLine> lines = new ArrayList<>();
+            double tolerance = grid.getCellSize() * CONTOUR_TOLERANCE_RATIO;
+            for (double level : contourLevels) {
+                lines.addAll(contourGenerator.generate(grid, level, tolerance));
+            }
+            cached = new CachedContours(grid.getGeneration(), Collections.unmodifiableList(lines));
+            contourCache.put(key, cached);
+            Log.d(TAG, "等値線を生成: " + key + ", lines=" + lines.size()
+                    + ", " + (System.currentTimeMillis() - start) + "ms");
+        }
+        final List<ContourLine> result = cached.lines;
+        mainHandler.post(() -> {
+            SurfaceListener l = listener;
+            if (l != null) {
+                l.onContoursUpdated(result);
+            }
+        });
+    }
+
+    /**
+     * キャッシュ済みの等値線
+     */
+    private static final class CachedContours {
+        final long generation;
+        final List<ContourLine> lines;
+
+        CachedContours(long generation, List<ContourLine> lines) {
+            this.generation = generation;
+            this.lines = lines;
+        }
+    }
+
+    private static int clamp(int v, int min, int max) {
+        return Math.max(min, Math.min(max, v));
+    }
+}
@@ -0,0 +1,349 @@
+/**
+ * NoiseSurfaceInterpolator.java
+ *
+ * VISIONOID MAG PLOTTER - ノイズ面補間器
+ *
+ * 概要:
+ *   空間インデックスから近傍の計測ポイントを取得し、
+ *   グリッドセルのノイズ値を補間する。
+ *
+ * 主な仕様:
+ *   - IDW（逆距離加重、べき乗2）
+ *   - 通常クリギング（指数型バリオグラム、近傍点のみで連立方程式を解く）
+ *   - fork/joinによる行帯単位の並列計算
+ *   - 検索半径内に点がないセルはNaN（データなし）
+ *
+ * 制限事項:
+ *   - 計算中に空間インデックスへ点を追加しないこと
+ *   - クリギングの連立方程式が特異な場合はIDWにフォールバック
+ */
+package com.visionoid.magplotter.ui.map.surface;
+
+import androidx.annotation.NonNull;
+
+import com.visionoid.magplotter.util.PointSpatialIndex;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * ノイズ面補間器クラス
+ */
+public class NoiseSurfaceInterpolator {
+
+    /** 1タスクあたりの最大行数（これ以下は分割しない） */
+    private static final int ROWS_PER_TASK = 8;
+
+    /** IDWのべき乗 */
+    private static final double IDW_POWER = 2.0;
+
+    /** 点と一致とみなす距離の二乗（メートル²） */
+    private static final double COINCIDENT_DIST_SQ = 1e-4;
+
+    /** 空間インデックス */
+    private final PointSpatialIndex index;
+
+    /** 補間方式 */
+    private final InterpolationMethod method;
+
+    /** 検索半径（メートル） */
+    private final double searchRadius;
+
+    /** 使用する最大近傍点数 */
+    private final int maxNeighbors;
+
+    /** バリオグラム: ナゲット */
+    private double nugget = 0.0;
+
+    /** バリオグラム: シル */
+    private double sill = 1.0;
+
+    /** バリオグラム: レンジ（メートル） */
+    private double range;
+
+    /**
+     * コンストラクタ
+     *
+     * @param index 空間インデックス
+     * @param method 補間方式
+     * @param searchRadius 検索半径（メートル）
+     * @param maxNeighbors 使用する最大近傍点数
+     */
+    public NoiseSurfaceInterpolator(@NonNull PointSpatialIndex index,
+                                    @NonNull InterpolationMethod method,
+                                    double searchRadius, int maxNeighbors) {
+        this.index = index;
+        this.method = method;
+        this.searchRadius = searchRadius;
+        this.maxNeighbors = maxNeighbors;
+        this.range = searchRadius;
+    }
+
+    @NonNull
+    public InterpolationMethod getMethod() {
+        return method;
+    }
+
+    /**
+     * 現在の点群からバリオグラムを推定（クリギング用）
+     *
+     * シルは標本分散、レンジは検索半径とする簡易推定。
+     * 点が追加されるたびに推定し直すと全セルが変化するため、
+     * 全体再計算時のみ呼び出す。
+     */
+    public void fitVariogram() {
+        int n = index.size();
+        if (n < 2) {
+            sill = 1.0;
+            return;
+        }
+        double mean = 0;
+        for (int i = 0; i < n; i++) {
+            mean += index.getValue(i);
+        }
+        mean /= n;
+        double variance = 0;
+        for (int i = 0; i < n; i++) {
+            double d = index.getValue(i) - mean;
+            variance += d * d;
+        }
+        variance /= (n - 1);
+        sill = Math.max(variance, 1e-6);
+        nugget = 0.0;
+        range = searchRadius;
+    }
+
+    // ==================== 並列計算 ====================
+
+    /**
+     * グリッドの矩形範囲を並列に補間
+     *
+     * @param pool fork/joinプール
+     * @param values 出力先のセル値配列（行優先）
+     * @param cols 列数
+     * @param originX 西端X（メートル）
+     * @param originY 南端Y（メートル）
+     * @param cellSize セルの一辺（メートル）
+     * @param rowStart 開始行（含む）
+     * @param rowEnd 終了行（含まない）
+     * @param colStart 開始列（含む）
+     * @param colEnd 終了列（含まない）
+     */
+    public void computeRegion(@NonNull ForkJoinPool pool, @NonNull float[] values, int cols,
+                              double originX, double originY, double cellSize,
+                              int rowStart, int rowEnd, int colStart, int colEnd) {
+        if (rowStart >= rowEnd || colStart >= colEnd) {
+            return;
+        }
+        pool.invoke(new RegionTask(values, cols, originX, originY, cellSize,
+                rowStart, rowEnd, colStart, colEnd));
+    }
+
+    /**
+     * 行帯を分割して補間するタスク
+     */
+    private final class RegionTask extends RecursiveAction {
+        private final float[] values;
+        private final int cols;
+        private final double originX;
+        private final double originY;
+        private final double cellSize;
+        private final int rowStart;
+        private final int rowEnd;
+        private final int colStart;
+        private final int colEnd;
+
+        RegionTask(float[] values, int cols, double originX, double originY, double cellSize,
+                   int rowStart, int rowEnd, int colStart, int colEnd) {
+            this.values = values;
+            this.cols = cols;
+            this.originX = originX;
+            this.originY = originY;
+            this.cellSize = cellSize;
+            this.rowStart = rowStart;
+            this.rowEnd = rowEnd;
+            this.colStart = colStart;
+            this.colEnd = colEnd;
+        }
+
+        @Override
+        protected void compute() {
+            if (rowEnd - rowStart > ROWS_PER_TASK) {
+                int mid = (rowStart + rowEnd) >>> 1;
+                invokeAll(
+                        new RegionTask(values, cols, originX, originY, cellSize,
+                                rowStart, mid, colStart, colEnd),
+                        new RegionTask(values, cols, originX, originY, cellSize,
+                                mid, rowEnd, colStart, colEnd));
+                return;
+            }
+            Workspace ws = new Workspace(maxNeighbors);
+            for (int row = rowStart; row < rowEnd; row++) {
+                double y = originY + (row + 0.5) * cellSize;
+                int offset = row * cols;
+                for (int col = colStart; col < colEnd; col++) {
+                    double x = originX + (col + 0.5) * cellSize;
+                    values[offset + col] = interpolate(x, y, ws);
+                }
+            }
+        }
+    }
+
+    // ==================== 補間 ====================
+
+    /**
+     * 1点の値を補間
+     *
+     * @param x X座標（メートル）
+     * @param y Y座標（メートル）
+     * @param ws 作業領域（スレッドごとに用意すること）
+     * @return 補間値（近傍点がない場合はNaN）
+     */
+    float interpolate(double x, double y, @NonNull Workspace ws) {
+        int n = index.queryNearest(x, y, searchRadius, maxNeighbors, ws.indices, ws.distSq);
+        if (n == 0) {
+            return Float.NaN;
+        }
+        if (n == 1 || ws.distSq[0] < COINCIDENT_DIST_SQ) {
+            return index.getValue(ws.indices[0]);
+        }
+        if (method == InterpolationMethod.KRIGING) {
+            float value = krige(x, y, n, ws);
+            if (!Float.isNaN(value)) {
+                return value;
+            }
+        }
+        return idw(n, ws);
+    }
+
+    /**
+     * 逆距離加重
+     */
+    private float idw(int n, Workspace ws) {
+        double weightSum = 0;
+        double valueSum = 0;
+        for (int i = 0; i < n; i++) {
+            double w = 1.0 / Math.pow(ws.distSq[i], IDW_POWER / 2.0);
+            weightSum += w;
+            valueSum += w * index.getValue(ws.indices[i]);
+        }
+        return (float) (valueSum / weightSum);
+    }
+
+    /**
+     * 通常クリギング
+     *
+     * @return 推定値（連立方程式が特異な場合はNaN）
+     */
+    private float krige(double x, double y, int n, Workspace ws) {
+        int size = n + 1;
+        double[] a = ws.matrix;
+        double[] b = ws.rhs;
+
+        for (int i = 0; i < n; i++) {
+            int pi = ws.indices[i];
+            double xi = index.getX(pi);
+            double yi = index.getY(pi);
+            for (int j = 0; j < n; j++) {
+                int pj = ws.indices[j];
+                double dx = xi - index.getX(pj);
+                double dy = yi - index.getY(pj);
+                a[i * size + j] = variogram(Math.sqrt(dx * dx + dy * dy));
+            }
+            a[i * size + n] = 1.0;
+            a[n * size + i] = 1.0;
+            b[i] = variogram(Math.sqrt(ws.distSq[i]));
+        }
+        a[n * size + n] = 0.0;
+        b[n] = 1.0;
+
+        if (!solve(a, b, size)) {
+            return Float.NaN;
+        }
+
+        double estimate = 0;
+        for (int i = 0; i < n; i++) {
+            estimate += b[i] * index.getValue(ws.indices[i]);
+        }
+        // ノイズ値は非負
+        return (float) Math.max(0.0, estimate);
+    }
+
+    /**
+     * 指数型バリオグラム
+     */
+    private double variogram(double h) {
+        if (h <= 0) {
+            return 0.0;
+        }
+        return nugget + (sill - nugget) * (1.0 - Math.exp(-3.0 * h / range));
+    }
+
+    /**
+     * 部分ピボット付きガウス消去で連立方程式を解く（解はbに格納）
+     *
+     * @return 解けた場合true
+     */
+    private static boolean solve(double[] a, double[] b, int size) {
+        for (int col = 0; col < size; col++) {
+            int pivot = col;
+            double max = Math.abs(a[col * size + col]);
+            for (int row = col + 1; row < size; row++) {
+                double v = Math.abs(a[row * size + col]);
+                if (v > max) {
+                    max = v;
+                    pivot = row;
+                }
+            }
+            if (max < 1e-12) {
+                return false;
+            }
+            if (pivot != col) {
+                for (int k = 0; k < size; k++) {
+                    double tmp = a[col * size + k];
+                    a[col * size + k] = a[pivot * size + k];
+                    a[pivot * size + k] = tmp;
+                }
+                double tmp = b[col];
+                b[col] = b[pivot];
+                b[pivot] = tmp;
+            }
+            double diag = a[col * size + col];
+            for (int row = col + 1; row < size; row++) {
+                double factor = a[row * size + col] / diag;
+                if (factor == 0) {
+                    continue;
+                }
+                for (int k = col; k < size; k++) {
+                    a[row * size + k] -= factor * a[col * size + k];
+                }
+                b[row] -= factor * b[col];
+            }
+        }
+        for (int row = size - 1; row >= 0; row--) {
+            double sum = b[row];
+            for (int k = row + 1; k < size; k++) {
+                sum -= a[row * size + k] * b[k];
+            }
+            b[row] = sum / a[row * size + row];
+        }
+        return true;
+    }
+
+    /**
+     * スレッドごとの作業領域（補間中のアロケーションを避ける）
+     */
+    static final class Workspace {
+        final int[] indices;
+        final double[] distSq;
+        final double[] matrix;
+        final double[] rhs;
+
+        Workspace(int maxNeighbors) {
+            indices = new int[maxNeighbors];
+            distSq = new double[maxNeighbors];
+            matrix = new double[(maxNeighbors + 1) * (maxNeighbors + 1)];
+            rhs = new double[maxNeighbors + 1];
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * NoiseSurfaceOverlay.java
+ *
+ * VISIONOID MAG PLOTTER - ノイズ面オーバーレイ
+ *
+ * 概要:
+ *   NoiseSurfaceEngineが生成した色付きラスタを地図上に描画するオーバーレイ。
+ *
+ * 主な仕様:
+ *   - グリッドの範囲に合わせてビットマップを拡大描画（バイリニア補間）
+ *   - 同じサイズのグリッドであればビットマップを再利用
+ *
+ * 制限事項:
+ *   - 地図の回転には対応しない
+ */
+package com.visionoid.magplotter.ui.map.surface;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Point;
+import android.graphics.Rect;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.osmdroid.util.GeoPoint;
+import org.osmdroid.views.MapView;
+import org.osmdroid.views.Projection;
+import org.osmdroid.views.overlay.Overlay;
+
+/**
+ * ノイズ面オーバーレイクラス
+ */
+public class NoiseSurfaceOverlay extends Overlay {
+
+    /** ラスタ */
+    @Nullable
+    private Bitmap bitmap;
+
+    /** 表示中のグリッド */
+    @Nullable
+    private NoiseGrid grid;
+
+    /** ビットマップ描画用ペイント */
+    private final Paint bitmapPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+    // 描画時の再利用オブジェクト
+    private final GeoPoint corner = new GeoPoint(0.0, 0.0);
+    private final Point topLeft = new Point();
+    private final Point bottomRight = new Point();
+    private final Rect destRect = new Rect();
+
+    /**
+     * ノイズ面を設定（メインスレッドから呼ぶこと）
+     *
+     * @param grid グリッド
+     * @param pixels ARGBピクセル（北端が先頭行）
+     */
+    public void setSurface(@NonNull NoiseGrid grid, @NonNull int[] pixels) {
+        int width = grid.getCols();
+        int height = grid.getRows();
+        if (bitmap == null || bitmap.getWidth() != width || bitmap.getHeight() != height) {
+            if (bitmap != null) {
+                bitmap.recycle();
+            }
+            bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        }
+        bitmap.setPixels(pixels, 0, width, 0, 0, width, height);
+        this.grid = grid;
+    }
+
+    /**
+     * 表示中のグリッドを取得
+     */
+    @Nullable
+    public NoiseGrid getGrid() {
+        return grid;
+    }
+
+    /**
+     * ノイズ面をクリア
+     */
+    public void clear() {
+        grid = null;
+        if (bitmap != null) {
+            bitmap.recycle();
+            bitmap = null;
+        }
+    }
+
+    @Override
+    public void draw(Canvas canvas, MapView mapView, boolean shadow) {
+        if (shadow || bitmap == null || grid == null) {
+            return;
+        }
+        Projection projection = mapView.getProjection();
+        corner.setCoords(grid.getNorth(), grid.getWest());
+        projection.toPixels(corner, topLeft);
+        corner.setCoords(grid.getSouth(), grid.getEast());
+        projection.toPixels(corner, bottomRight);
+        destRect.set(topLeft.x, topLeft.y, bottomRight.x, bottomRight.y);
+        canvas.drawBitmap(bitmap, null, destRect, bitmapPaint);
+    }
+
+    @Override
+    public void onDetach(MapView mapView) {
+        clear();
+        super.onDetach(mapView);
+    }
+}
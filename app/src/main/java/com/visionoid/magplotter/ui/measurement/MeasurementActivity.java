@@ -26,7 +26,6 @@ import android.content.ContentValues;
 import android.content.Context;
 import android.content.pm.PackageManager;
 import android.graphics.Bitmap;
-import android.graphics.Color;
 import android.util.Log;
 import android.hardware.Sensor;
 import android.hardware.SensorEvent;
@@ -46,11 +45,13 @@ import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
 import android.widget.Button;
+import android.widget.EditText;
 import android.widget.SeekBar;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
 import androidx.core.app.ActivityCompat;
@@ -67,12 +68,30 @@ import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import com.google.android.material.switchmaterial.SwitchMaterial;
 import com.visionoid.magplotter.R;
 import com.visionoid.magplotter.data.layer.LayerDataRepository;
+import com.visionoid.magplotter.data.layer.LayerGeometry;
+import com.visionoid.magplotter.data.model.DrawingShape;
 import com.visionoid.magplotter.data.model.MeasurementPoint;
 import com.visionoid.magplotter.data.model.Mission;
+import com.visionoid.magplotter.ui.map.coverage.CoverageEngine;
+import com.visionoid.magplotter.ui.map.coverage.CoverageOverlay;
+import com.visionoid.magplotter.ui.map.coverage.CoverageResult;
+import com.visionoid.magplotter.ui.map.debug.InstrumentedOverlayManager;
+import com.visionoid.magplotter.ui.map.heatmap.HeatmapOverlay;
+import com.visionoid.magplotter.ui.map.heatmap.HeatmapRenderer;
+import com.visionoid.magplotter.ui.map.layer.IndexedLayer;
 import com.visionoid.magplotter.ui.map.layer.LayerDisplayStyle;
 import com.visionoid.magplotter.ui.map.layer.LayerType;
 import com.visionoid.magplotter.ui.map.layer.MapLayerManager;
+import com.visionoid.magplotter.ui.map.layer.RestrictedZoneMonitor;
+import com.visionoid.magplotter.ui.splash.StartupWarmup;
+import com.visionoid.magplotter.ui.map.surface.ContourLine;
+import com.visionoid.magplotter.ui.map.surface.ContourOverlay;
+import com.visionoid.magplotter.ui.map.surface.InterpolationMethod;
+import com.visionoid.magplotter.ui.map.surface.NoiseGrid;
+import com.visionoid.magplotter.ui.map.surface.NoiseSurfaceEngine;
+import com.visionoid.magplotter.ui.map.surface.NoiseSurfaceOverlay;
 import com.visionoid.magplotter.ui.view.NoiseLevelGauge;
+import com.visionoid.magplotter.util.NoiseColorTable;
 
 import org.osmdroid.api.IMapController;
 import org.osmdroid.tileprovider.tilesource.OnlineTileSourceBase;
@@ -82,12 +101,13 @@ import org.osmdroid.util.GeoPoint;
 import org.osmdroid.util.MapTileIndex;
 import org.osmdroid.views.MapView;
 import org.osmdroid.views.overlay.Marker;
-import org.osmdroid.views.overlay.Polygon;
 
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
@@ -99,6 +119,7 @@ import android.widget.AdapterView;
 
 import com.visionoid.magplotter.ui.map.drawing.DrawingController;
 import com.visionoid.magplotter.ui.map.drawing.DrawingMode;
+import com.visionoid.magplotter.ui.map.drawing.ShapeGeometry;
 import com.visionoid.magplotter.gps.GpsFixStatus;
 import com.visionoid.magplotter.gps.GpsLocation;
 import com.visionoid.magplotter.gps.GpsSourceType;
@@ -127,6 +148,19 @@ public class MeasurementActivity extends AppCompatActivity implements SensorEven
     /** 現在のミッション */
     private Mission currentMission;
 
+    /** ノイズ値カラーテーブル（ミッションの閾値から生成） */
+    private NoiseColorTable noiseColorTable = NoiseColorTable.createDefault();
+
+    /** 危険度別のステータス色（LEVEL_SAFE / LEVEL_WARNING / LEVEL_DANGER の順） */
+    private int[] statusColors;
+
+    /** 危険度別のステータスパネル背景 */
+    private static final int[] STATUS_BACKGROUNDS = {
+            R.drawable.bg_status_safe,
+            R.drawable.bg_status_warning,
+            R.drawable.bg_status_danger
+    };
+
     // センサー関連
     private SensorManager sensorManager;
     private Sensor magneticSensor;
@@ -161,10 +195,9 @@ public class MeasurementActivity extends AppCompatActivity implements SensorEven
     private MapView mapView;
     private IMapController mapController;
     private Marker currentLocationMarker;
-    // ヒートマップポリゴン（危険度別に管理：緑→黄→赤の順でオーバーレイに追加し、赤を前面に）
-    private List<Polygon> heatmapPolygonsSafe = new ArrayList<>();    // 緑（0-5μT）
-    private List<Polygon> heatmapPolygonsWarning = new ArrayList<>(); // 黄（5.1-10μT）
-    private List<Polygon> heatmapPolygonsDanger = new ArrayList<>();  // 赤（10μT超）
+    // ヒートマップ（ジオメトリはバックグラウンドで構築、オーバーレイは描画のみ）
+    private HeatmapOverlay heatmapOverlay;
+    private HeatmapRenderer heatmapRenderer;
     
     /** 地図の初期センタリングが完了したかどうか */
     private boolean isInitialCenterSet = false;
@@ -175,10 +208,55 @@ public class MeasurementActivity extends AppCompatActivity implements SensorEven
     // レイヤー関連
     private MapLayerManager mapLayerManager;
     private LayerDataRepository layerDataRepository;
+
+    /** スプラッシュで先読みしたレイヤーの受け取り（先読みが終わってから読み込みを始める） */
+    private final StartupWarmup.LayerReceiver warmLayerReceiver = (layerType, layer) -> {
+        if (isDestroyed()) {
+            return;
+        }
+        if (layer != null) {
+            mapLayerManager.addLayer(layer);
+        } else {
+            loadLayerData(layerType);
+        }
+    };
     
     // 作図関連
     private DrawingController drawingController;
     private FrameLayout containerDrawingToolbar;
+
+    // ノイズ面関連
+    private NoiseSurfaceEngine noiseSurfaceEngine;
+    private NoiseSurfaceOverlay noiseSurfaceOverlay;
+    private ContourOverlay contourOverlay;
+    private boolean isNoiseSurfaceEnabled = false;
+    private boolean isContourEnabled = false;
+    private List<MeasurementPoint> latestPoints;
+
+    // 計測カバレッジ関連
+    private CoverageEngine coverageEngine;
+    private CoverageOverlay coverageOverlay;
+    private double coverageRadius = CoverageEngine.DEFAULT_RADIUS;
+
+    // 描画計測関連
+    private InstrumentedOverlayManager overlayManager;
+    private TextView textRenderHud;
+    private boolean isRenderHudVisible = false;
+
+    /** 描画計測HUDの更新間隔（ミリ秒） */
+    private static final long RENDER_HUD_UPDATE_INTERVAL = 500;
+
+    /** 描画計測HUD更新Runnable */
+    private final Runnable renderHudRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (!isRenderHudVisible) {
+                return;
+            }
+            textRenderHud.setText(overlayManager.getStats().formatHud());
+            mapView.postDelayed(this, RENDER_HUD_UPDATE_INTERVAL);
+        }
+    };
     
     // USB GPS関連
     private UsbGpsManager usbGpsManager;
@@ -288,8 +366,11 @@ public class MeasurementActivity extends AppCompatActivity implements SensorEven
         initializeLocation();
         initializeUsbGps();  // USB GPS初期化
         initializeMap();
+        initializeNoiseSurface();
+        initializeCoverage();
         initializeMapLayers();
         initializeDrawing();
+        bringHeatmapToFront();
         setupViewModel();
         setupListeners();
 
@@ -318,6 +399,7 @@ public class MeasurementActivity extends AppCompatActivity implements SensorEven
         textGpsStatus = findViewById(R.id.text_gps_status);
         textAccuracy = findViewById(R.id.text_accuracy);
         textPointCount = findViewById(R.id.text_point_count);
+        textRenderHud = findViewById(R.id.text_render_hud);
         textIntervalValue = findViewById(R.id.text_interval_value);
         textSatelliteCount = findViewById(R.id.text_satellite_count);
         switchAutoMode = findViewById(R.id.switch_auto_mode);
@@ -334,6 +416,14 @@ public class MeasurementActivity extends AppCompatActivity implements SensorEven
         
         // レベルゲージ
         noiseLevelGauge = findViewById(R.id.noise_level_gauge);
+        noiseLevelGauge.setColorTable(noiseColorTable);
+
+        // 危険度別のステータス色
+        statusColors = new int[] {
+                ContextCompat.getColor(this, R.color.status_safe),
+                ContextCompat.getColor(this, R.color.status_warning),
+                ContextCompat.getColor(this, R.color.status_danger)
+        };
         
         // 作図ツールバーコンテナ
         containerDrawingToolbar = findViewById(R.id.container_drawing_toolbar);
@@ -554,20 +644,10 @@ public class MeasurementActivity extends AppCompatActivity implements SensorEven
         }
         if (textNoiseValue != null) {
             textNoiseValue.setText(String.format(Locale.getDefault(), "%.1f", noise));
-            // ノイズレベルに応じた色（0-5μT:緑, 5.1-10μT:黄, 10μT超:赤）
-            int color;
-            if (noise <= 5.0) {
-                color = ContextCompat.getColor(this, R.color.status_safe);
-            } else if (noise <= 10.0) {
-                color = ContextCompat.getColor(this, R.color.status_warning);
-            } else {
-                color = ContextCompat.getColor(this, R.color.status_danger);
-            }
-            textNoiseValue.setTextColor(color);
+            // ノイズレベルに応じた色（ミッションの閾値で判定）
+            textNoiseValue.setTextColor(statusColors[noiseColorTable.getLevel(noise)]);
         }
         if (noiseLevelGauge != null) {
-            // ゲージの閾値を設定（5μT:緑, 10μT:赤）
-            noiseLevelGauge.setThresholds(5.0, 10.0);
             // アニメーションなしで即座に更新（高頻度呼び出し時のフリーズ防止）
             noiseLevelGauge.setNoiseValueImmediate(noise);
         }
@@ -682,6 +762,8 @@ public class MeasurementActivity extends AppCompatActivity implements SensorEven
      * 地図を初期化
      */
     private void initializeMap() {
+        // オーバーレイ追加前に描画計測付きマネージャーへ差し替え（計測は無効状態で開始）
+        overlayManager = InstrumentedOverlayManager.install(mapView);
         mapView.setTileSource(TileSourceFactory.MAPNIK);
         mapView.setMultiTouchControls(true);
         mapController = mapView.getController();
@@ -692,9 +774,234 @@ public class MeasurementActivity extends AppCompatActivity implements SensorEven
         currentLocationMarker.setAnchor(Marker.ANCHOR_CENTER, Marker.ANCHOR_CENTER);
         currentLocationMarker.setIcon(ContextCompat.getDrawable(this, R.drawable.ic_location_dot));
         currentLocationMarker.setTitle("Current Location");
+
+        // ヒートマップ（安全→警告→危険の順で1つのオーバーレイ内に描画）
+        heatmapOverlay = new HeatmapOverlay();
+        heatmapRenderer = new HeatmapRenderer(mapView, heatmapOverlay, noiseColorTable);
+        mapView.getOverlays().add(heatmapOverlay);
+        mapView.getOverlays().add(currentLocationMarker);
+    }
+
+    /**
+     * ヒートマップを描画オーバーレイより前面に、現在位置マーカーを最前面に移動
+     */
+    private void bringHeatmapToFront() {
+        mapView.getOverlays().remove(heatmapOverlay);
+        mapView.getOverlays().remove(currentLocationMarker);
+        mapView.getOverlays().add(heatmapOverlay);
         mapView.getOverlays().add(currentLocationMarker);
     }
 
+    /**
+     * ノイズ面（補間ラスタ・等値線）を初期化
+     * 
+     * 他のオーバーレイの下に表示するため最背面に追加する。
+     */
+    private void initializeNoiseSurface() {
+        noiseSurfaceOverlay = new NoiseSurfaceOverlay();
+        noiseSurfaceOverlay.setEnabled(false);
+        mapView.getOverlays().add(0, noiseSurfaceOverlay);
+
+        contourOverlay = new ContourOverlay(this);
+        contourOverlay.setEnabled(false);
+        mapView.getOverlays().add(1, contourOverlay);
+
+        noiseSurfaceEngine = new NoiseSurfaceEngine(noiseColorTable);
+        noiseSurfaceEngine.setSurfaceListener(new NoiseSurfaceEngine.SurfaceListener() {
+            @Override
+            public void onSurfaceUpdated(@NonNull NoiseGrid grid, @NonNull int[] pixels) {
+                noiseSurfaceOverlay.setSurface(grid, pixels);
+                mapView.invalidate();
+            }
+
+            @Override
+            public void onContoursUpdated(@NonNull List<ContourLine> lines) {
+                double safeLevel = currentMission != null ? currentMission.getSafeThreshold() : Double.NaN;
+                contourOverlay.setContours(lines, safeLevel);
+                mapView.invalidate();
+            }
+
+            @Override
+            public void onSurfaceCleared() {
+                noiseSurfaceOverlay.clear();
+                contourOverlay.clear();
+                mapView.invalidate();
+            }
+        });
+    }
+
+    /**
+     * 計測カバレッジを初期化
+     * 
+     * 計測ポイントは表示の有無にかかわらず投入し、計測範囲の設定時に全体を計算する。
+     */
+    private void initializeCoverage() {
+        coverageOverlay = new CoverageOverlay(this);
+        coverageOverlay.setEnabled(false);
+        mapView.getOverlays().add(2, coverageOverlay);
+
+        coverageEngine = new CoverageEngine();
+        coverageEngine.setCoverageListener(new CoverageEngine.CoverageListener() {
+            @Override
+            public void onCoverageUpdated(@NonNull CoverageResult result) {
+                coverageOverlay.setResult(result);
+                mapView.invalidate();
+            }
+
+            @Override
+            public void onCoverageCleared() {
+                coverageOverlay.clear();
+                mapView.invalidate();
+            }
+        });
+    }
+
+    /**
+     * 計測カバレッジの表示を切り替え
+     * 
+     * 表示時は計測範囲の多角形と被覆半径を選択する（キャンセル時は非表示に戻す）。
+     * 
+     * @param item メニュー項目
+     */
+    private void toggleCoverage(@NonNull MenuItem item) {
+        if (item.isChecked()) {
+            item.setChecked(false);
+            setCoverageArea(null);
+            return;
+        }
+        drawingController.showPolygonPicker(R.string.coverage_select_area,
+                shape -> showCoverageRadiusDialog(item, shape), () -> item.setChecked(false));
+    }
+
+    /**
+     * 計測カバレッジの被覆半径を入力するダイアログを表示
+     * 
+     * 前回の入力値を初期値とし、確定時に計測範囲と半径を設定する。
+     * 
+     * @param item メニュー項目
+     * @param shape 選択された計測範囲の多角形
+     */
+    private void showCoverageRadiusDialog(@NonNull MenuItem item, @NonNull DrawingShape shape) {
+        View dialogView = getLayoutInflater().inflate(R.layout.dialog_coverage_radius, null);
+        TextView textArea = dialogView.findViewById(R.id.text_coverage_area);
+        EditText editRadius = dialogView.findViewById(R.id.edit_coverage_radius);
+        textArea.setText(getString(R.string.coverage_area_summary, shape.getName()));
+        editRadius.setText(String.format(Locale.US, "%.1f", coverageRadius));
+
+        new MaterialAlertDialogBuilder(this, R.style.SpyTech_Dialog)
+                .setTitle(R.string.coverage_radius_title)
+                .setView(dialogView)
+                .setPositiveButton(R.string.action_confirm, (dialog, which) -> {
+                    double radius;
+                    try {
+                        radius = Double.parseDouble(editRadius.getText().toString().trim());
+                    } catch (NumberFormatException e) {
+                        radius = Double.NaN;
+                    }
+                    if (!(radius > 0)) {
+                        Toast.makeText(this, R.string.coverage_invalid_radius, Toast.LENGTH_SHORT).show();
+                        item.setChecked(false);
+                        return;
+                    }
+                    coverageRadius = radius;
+                    coverageEngine.setRadius(radius);
+                    item.setChecked(true);
+                    setCoverageArea(shape);
+                })
+                .setNegativeButton(R.string.action_cancel, (dialog, which) -> item.setChecked(false))
+                .setOnCancelListener(dialog -> item.setChecked(false))
+                .show();
+    }
+
+    /**
+     * 計測カバレッジの計測範囲を設定
+     * 
+     * @param shape 計測範囲の多角形。nullの場合は非表示
+     */
+    private void setCoverageArea(@Nullable DrawingShape shape) {
+        coverageOverlay.setArea(shape != null ? ShapeGeometry.decode(shape) : null);
+        coverageOverlay.setEnabled(shape != null);
+        coverageEngine.setArea(shape);
+        mapView.invalidate();
+    }
+
+    /**
+     * ノイズ面の表示を切り替え
+     * 
+     * @param enabled 表示する場合true
+     */
+    private void setNoiseSurfaceEnabled(boolean enabled) {
+        isNoiseSurfaceEnabled = enabled;
+        noiseSurfaceOverlay.setEnabled(enabled);
+        if (enabled) {
+            noiseSurfaceEngine.submitPoints(latestPoints);
+        }
+        mapView.invalidate();
+    }
+
+    /**
+     * 等値線の表示を切り替え
+     * 
+     * 等値線はノイズ面のグリッドから生成するため、ラスタ非表示でも計算は行う。
+     * 
+     * @param enabled 表示する場合true
+     */
+    private void setContourEnabled(boolean enabled) {
+        isContourEnabled = enabled;
+        contourOverlay.setEnabled(enabled);
+        if (enabled) {
+            noiseSurfaceEngine.submitPoints(latestPoints);
+        }
+        mapView.invalidate();
+    }
+
+    /**
+     * 描画計測HUDの表示を切り替え
+     * 
+     * 表示中のみオーバーレイごとの描画時間を計測する（非表示時は計測のオーバーヘッドなし）。
+     * 
+     * @param visible 表示する場合true
+     */
+    private void setRenderHudVisible(boolean visible) {
+        isRenderHudVisible = visible;
+        overlayManager.setEnabled(visible);
+        textRenderHud.setVisibility(visible ? View.VISIBLE : View.GONE);
+        mapView.removeCallbacks(renderHudRunnable);
+        if (visible) {
+            mapView.post(renderHudRunnable);
+        }
+        mapView.invalidate();
+    }
+
+    /**
+     * 描画計測結果をファイルに保存
+     * 
+     * アプリ専用の外部ストレージ（Android/data/.../files/render_stats）に
+     * 端末名・フレーム時間ヒストグラム・オーバーレイ別集計をテキストで出力する。
+     */
+    private void exportRenderStats() {
+        if (overlayManager.getStats().getFrameCount() == 0) {
+            Toast.makeText(this, R.string.render_stats_empty, Toast.LENGTH_SHORT).show();
+            return;
+        }
+        File dir = new File(getExternalFilesDir(null), "render_stats");
+        if (!dir.exists() && !dir.mkdirs()) {
+            Toast.makeText(this, R.string.render_stats_failed, Toast.LENGTH_SHORT).show();
+            return;
+        }
+        File file = new File(dir, "RENDER_" + Build.MODEL.replaceAll("[^A-Za-z0-9_-]", "_")
+                + "_" + dateFormat.format(new Date()) + ".txt");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(overlayManager.getStats().formatReport().getBytes(StandardCharsets.UTF_8));
+            Log.d("MeasurementActivity", "描画計測結果を保存: " + file.getAbsolutePath());
+            Toast.makeText(this, getString(R.string.render_stats_saved, file.getAbsolutePath()),
+                    Toast.LENGTH_LONG).show();
+        } catch (IOException e) {
+            Log.e("MeasurementActivity", "描画計測結果の保存に失敗", e);
+            Toast.makeText(this, R.string.render_stats_failed, Toast.LENGTH_SHORT).show();
+        }
+    }
+
     /**
      * マップレイヤーを初期化
      */
@@ -702,12 +1009,32 @@ public class MeasurementActivity extends AppCompatActivity implements SensorEven
         mapLayerManager = new MapLayerManager(this, mapView);
         layerDataRepository = new LayerDataRepository(this);
 
-        // 保存された表示状態に基づいてレイヤーを読み込み
+        // 現在位置の飛行制限区域への進入・退出を通知
+        mapLayerManager.getZoneMonitor().setOnZoneChangeListener(
+                new RestrictedZoneMonitor.OnZoneChangeListener() {
+                    @Override
+                    public void onZoneEntered(@NonNull LayerType layerType, int feature) {
+                        Toast.makeText(MeasurementActivity.this,
+                                getString(R.string.zone_entered, getString(layerType.getNameResId())),
+                                Toast.LENGTH_LONG).show();
+                    }
+
+                    @Override
+                    public void onZoneExited(@NonNull LayerType layerType) {
+                        Toast.makeText(MeasurementActivity.this,
+                                getString(R.string.zone_exited, getString(layerType.getNameResId())),
+                                Toast.LENGTH_SHORT).show();
+                    }
+                });
+
+        // 保存された表示状態に基づいてレイヤーを読み込み（スプラッシュで先読み中・先読み済みならそれを使う）
         for (LayerType layerType : LayerType.values()) {
-            if (mapLayerManager.isLayerVisible(layerType)) {
+            if (mapLayerManager.isLayerVisible(layerType)
+                    && !StartupWarmup.takeLayer(layerType, warmLayerReceiver)) {
                 loadLayerData(layerType);
             }
         }
+        StartupWarmup.finishHandOff();
     }
 
     /**
@@ -754,25 +1081,15 @@ public class MeasurementActivity extends AppCompatActivity implements SensorEven
         
         layerDataRepository.getLayerData(layerType, false, new LayerDataRepository.DataCallback() {
             @Override
-            public void onSuccess(String geoJson, boolean fromCache) {
-                final int geoJsonSize = geoJson != null ? geoJson.length() : 0;
+            public void onSuccess(LayerGeometry geometry, boolean fromCache) {
                 Log.d("MeasurementActivity", "レイヤーデータ取得成功: " + layerType.getId() + 
-                        ", fromCache=" + fromCache + ", size=" + geoJsonSize);
+                        ", fromCache=" + fromCache);
+                
+                // 描画用の空間インデックスを構築（バックグラウンドスレッド）
+                IndexedLayer layer = mapLayerManager.buildLayer(layerType, geometry);
                 
                 runOnUiThread(() -> {
-                    // デバッグ: データサイズを表示
-                    Toast.makeText(MeasurementActivity.this, 
-                            "GeoJSON取得: " + (geoJsonSize / 1024) + "KB", 
-                            Toast.LENGTH_SHORT).show();
-                    
-                    if (geoJson == null || geoJsonSize == 0) {
-                        Toast.makeText(MeasurementActivity.this, 
-                                "エラー: GeoJSONが空です", Toast.LENGTH_LONG).show();
-                        mapLayerManager.setLayerVisibility(layerType, false);
-                        return;
-                    }
-                    
-                    mapLayerManager.addLayer(layerType, geoJson);
+                    mapLayerManager.addLayer(layer);
                     
                     // デバッグ: パース結果を表示
                     boolean isLoaded = mapLayerManager.isLayerLoaded(layerType);
@@ -825,6 +1142,10 @@ public class MeasurementActivity extends AppCompatActivity implements SensorEven
         viewModel.getMission(missionId).observe(this, mission -> {
             if (mission != null) {
                 currentMission = mission;
+                applyMissionThresholds(mission);
+                // 等値線はミッションの閾値で生成
+                noiseSurfaceEngine.setContourLevels(missionId, new double[] {
+                        mission.getSafeThreshold(), mission.getDangerThreshold()});
                 if (getSupportActionBar() != null) {
                     getSupportActionBar().setSubtitle(mission.getLocationName());
                 }
@@ -835,6 +1156,11 @@ public class MeasurementActivity extends AppCompatActivity implements SensorEven
         viewModel.getPoints(missionId).observe(this, points -> {
             updatePointCount(points != null ? points.size() : 0);
             updateHeatmap(points);
+            latestPoints = points;
+            if (isNoiseSurfaceEnabled || isContourEnabled) {
+                noiseSurfaceEngine.submitPoints(points);
+            }
+            coverageEngine.submitPoints(points);
             // 統計を更新
             viewModel.updateStatistics(points);
             
@@ -987,170 +1313,39 @@ public class MeasurementActivity extends AppCompatActivity implements SensorEven
         }
     }
 
-    // ヒートマップ差分更新用：前回描画済みポイント数
-    private int lastHeatmapPointCount = 0;
-
     /**
-     * ヒートマップを更新（差分更新でパフォーマンス最適化）
-     * 危険度が高いポイントが常に前面に表示される
+     * ヒートマップを更新
+     * 
+     * ジオメトリの構築はバックグラウンドで行い、完成したスナップショットを
+     * オーバーレイへ差し替える（UIスレッドは描画のみ）。
      * 
      * @param points 計測ポイントリスト
      */
     private void updateHeatmap(List<MeasurementPoint> points) {
-        if (points == null || points.isEmpty()) {
-            return;
-        }
-
-        int currentSize = points.size();
-        
-        // 差分更新：新しいポイントのみ追加
-        if (currentSize > lastHeatmapPointCount) {
-            // 新しいポイントのみ処理
-            List<MeasurementPoint> newPoints = points.subList(lastHeatmapPointCount, currentSize);
-            
-            for (MeasurementPoint point : newPoints) {
-                addHeatmapPoint(point);
-            }
-            
-            lastHeatmapPointCount = currentSize;
-            
-            // Z順序を再構築（緑→黄→赤→現在位置マーカーの順）
-            reorderHeatmapOverlays();
-        } else if (currentSize < lastHeatmapPointCount) {
-            // ポイントが減った場合（削除時）は全再描画
-            rebuildHeatmap(points);
-        }
-
-        mapView.invalidate();
-    }
-
-    /**
-     * 単一のヒートマップポイントを追加
-     */
-    private void addHeatmapPoint(MeasurementPoint point) {
-        double noiseValue = point.getNoiseValue();
-        int color = getHeatmapColor(noiseValue);
-        GeoPoint center = new GeoPoint(point.getLatitude(), point.getLongitude());
-        
-        // シンプルな単一円（パフォーマンス重視）
-        Polygon circle = createCircle(center, 0.5, color);
-        
-        // 危険度別リストに追加
-        if (noiseValue <= 5.0) {
-            heatmapPolygonsSafe.add(circle);
-        } else if (noiseValue <= 10.0) {
-            heatmapPolygonsWarning.add(circle);
-        } else {
-            heatmapPolygonsDanger.add(circle);
-        }
+        heatmapRenderer.submitPoints(points);
     }
 
     /**
-     * ヒートマップオーバーレイのZ順序を再構築
-     * 緑→黄→赤→現在位置マーカーの順で追加し、危険値を前面に表示
-     */
-    private void reorderHeatmapOverlays() {
-        // 全ヒートマップポリゴンを一旦削除
-        for (Polygon p : heatmapPolygonsSafe) mapView.getOverlays().remove(p);
-        for (Polygon p : heatmapPolygonsWarning) mapView.getOverlays().remove(p);
-        for (Polygon p : heatmapPolygonsDanger) mapView.getOverlays().remove(p);
-        mapView.getOverlays().remove(currentLocationMarker);
-        
-        // 緑→黄→赤の順で追加（後から追加したものが前面）
-        for (Polygon p : heatmapPolygonsSafe) mapView.getOverlays().add(p);
-        for (Polygon p : heatmapPolygonsWarning) mapView.getOverlays().add(p);
-        for (Polygon p : heatmapPolygonsDanger) mapView.getOverlays().add(p);
-        
-        // 現在位置マーカーを最前面に
-        mapView.getOverlays().add(currentLocationMarker);
-    }
-
-    /**
-     * ヒートマップを完全再構築（ポイント削除時用）
+     * ミッションの閾値を表示に反映
+     * 
+     * 閾値が変わった場合のみカラーテーブルを作り直し、
+     * ゲージ・ノイズ面・ヒートマップを一括で再色付けする。
      */
-    private void rebuildHeatmap(List<MeasurementPoint> points) {
-        // 既存のヒートマップを削除
-        for (Polygon p : heatmapPolygonsSafe) mapView.getOverlays().remove(p);
-        for (Polygon p : heatmapPolygonsWarning) mapView.getOverlays().remove(p);
-        for (Polygon p : heatmapPolygonsDanger) mapView.getOverlays().remove(p);
-        heatmapPolygonsSafe.clear();
-        heatmapPolygonsWarning.clear();
-        heatmapPolygonsDanger.clear();
-        lastHeatmapPointCount = 0;
-
-        if (points == null || points.isEmpty()) {
+    private void applyMissionThresholds(Mission mission) {
+        if (noiseColorTable.hasThresholds(mission.getSafeThreshold(), mission.getDangerThreshold())) {
             return;
         }
-
-        // 全ポイントを追加
-        for (MeasurementPoint point : points) {
-            addHeatmapPoint(point);
-        }
-        
-        lastHeatmapPointCount = points.size();
-        
-        // Z順序を再構築
-        reorderHeatmapOverlays();
-    }
-
-    /**
-     * ノイズ値からヒートマップの色を取得
-     * 
-     * 閾値はゲージと統一: 0-5μT:緑, 5.1-10μT:黄, 10μT超:赤
-     * 
-     * @param noiseValue ノイズ値
-     * @return 色（ARGB）
-     */
-    private int getHeatmapColor(double noiseValue) {
-        // ゲージと同じ固定閾値を使用
-        double safeThreshold = 5.0;
-        double dangerThreshold = 10.0;
-
-        if (noiseValue <= safeThreshold) {
-            // 安全（緑）: 0-5μT
-            return Color.argb(128, 0, 255, 136);
-        } else if (noiseValue <= dangerThreshold) {
-            // 警告（黄）: 5.1-10μT
-            float ratio = (float) ((noiseValue - safeThreshold) / (dangerThreshold - safeThreshold));
-            int r = (int) (255 * ratio);
-            int g = (int) (255 * (1 - ratio * 0.5));
-            return Color.argb(128, r, g, 61);
-        } else {
-            // 危険（赤）
-            return Color.argb(160, 255, 0, 85);
+        noiseColorTable = new NoiseColorTable(mission.getSafeThreshold(), mission.getDangerThreshold());
+        noiseLevelGauge.setColorTable(noiseColorTable);
+        noiseSurfaceEngine.setColorTable(noiseColorTable);
+        heatmapRenderer.setColorTable(noiseColorTable);
+
+        MeasurementViewModel.MagStatistics statistics = viewModel.getMagStatistics().getValue();
+        if (statistics != null) {
+            updateStatisticsDisplay(statistics);
         }
     }
 
-    /**
-     * 地図上に円を作成
-     * 
-     * @param center 中心座標
-     * @param radiusMeters 半径（メートル）
-     * @param color 塗りつぶし色
-     * @return Polygonオブジェクト
-     */
-    private Polygon createCircle(GeoPoint center, double radiusMeters, int color) {
-        int numberOfPoints = 32;
-        List<GeoPoint> circlePoints = new ArrayList<>();
-
-        for (int i = 0; i < numberOfPoints; i++) {
-            double angle = Math.toRadians((360.0 / numberOfPoints) * i);
-            double dx = radiusMeters * Math.cos(angle);
-            double dy = radiusMeters * Math.sin(angle);
-            double lat = center.getLatitude() + (dy / 111320.0);
-            double lng = center.getLongitude() + (dx / (111320.0 * Math.cos(Math.toRadians(center.getLatitude()))));
-            circlePoints.add(new GeoPoint(lat, lng));
-        }
-
-        Polygon polygon = new Polygon();
-        polygon.setPoints(circlePoints);
-        polygon.setFillColor(color);
-        polygon.setStrokeColor(Color.TRANSPARENT);
-        polygon.setStrokeWidth(0);
-
-        return polygon;
-    }
-
     /**
      * 位置情報UIを更新
      */
@@ -1204,6 +1399,12 @@ public class MeasurementActivity extends AppCompatActivity implements SensorEven
             GeoPoint geoPoint = new GeoPoint(currentLocation.getLatitude(), currentLocation.getLongitude());
             currentLocationMarker.setPosition(geoPoint);
 
+            // 飛行制限区域の内外判定（進入・退出はリスナーに通知される）
+            if (mapLayerManager != null) {
+                mapLayerManager.getZoneMonitor().update(
+                        currentLocation.getLatitude(), currentLocation.getLongitude());
+            }
+
             // 初回のみセンタリング（計測点がない場合のみ現在位置にセンタリング）
             // 計測点がある場合は setupViewModel() で最初の計測点にセンタリング済み
             if (!isInitialCenterSet && 
@@ -1256,14 +1457,8 @@ public class MeasurementActivity extends AppCompatActivity implements SensorEven
             textNoiseMax.setText(String.format(Locale.US, "%.1f", statistics.noiseMax));
             textNoiseAvg.setText(String.format(Locale.US, "%.1f", statistics.noiseAvg));
             
-            // NOISEのMAXに応じて色を変更（固定閾値: 5μT, 10μT）
-            if (statistics.noiseMax <= 5.0) {
-                textNoiseMax.setTextColor(getColor(R.color.status_safe));
-            } else if (statistics.noiseMax <= 10.0) {
-                textNoiseMax.setTextColor(getColor(R.color.status_warning));
-            } else {
-                textNoiseMax.setTextColor(getColor(R.color.status_danger));
-            }
+            // NOISEのMAXに応じて色を変更（ミッションの閾値で判定）
+            textNoiseMax.setTextColor(statusColors[noiseColorTable.getLevel(statistics.noiseMax)]);
         }
     }
 
@@ -1274,21 +1469,13 @@ public class MeasurementActivity extends AppCompatActivity implements SensorEven
         textMagValue.setText(String.format(Locale.US, "%.1f", currentMagStrength));
         textNoiseValue.setText(String.format(Locale.US, "%.1f", currentNoise));
 
-        // ノイズレベルに応じた色分け（固定閾値: 5μT, 10μT）
         // レベルゲージを更新
-        noiseLevelGauge.setThresholds(5.0, 10.0);
         noiseLevelGauge.setNoiseValue(currentNoise);
         
-        if (currentNoise <= 5.0) {
-            textNoiseValue.setTextColor(getColor(R.color.status_safe));
-            panelStatus.setBackgroundResource(R.drawable.bg_status_safe);
-        } else if (currentNoise <= 10.0) {
-            textNoiseValue.setTextColor(getColor(R.color.status_warning));
-            panelStatus.setBackgroundResource(R.drawable.bg_status_warning);
-        } else {
-            textNoiseValue.setTextColor(getColor(R.color.status_danger));
-            panelStatus.setBackgroundResource(R.drawable.bg_status_danger);
-        }
+        // ノイズレベルに応じた色分け（ミッションの閾値で判定）
+        int level = noiseColorTable.getLevel(currentNoise);
+        textNoiseValue.setTextColor(statusColors[level]);
+        panelStatus.setBackgroundResource(STATUS_BACKGROUNDS[level]);
     }
 
     /**
@@ -1380,6 +1567,13 @@ public class MeasurementActivity extends AppCompatActivity implements SensorEven
 
         // 位置情報取得開始
         startLocationUpdates();
+
+        // メモリ不足で解放された表示中のレイヤーをバイナリキャッシュから再読み込み
+        if (mapLayerManager != null) {
+            for (LayerType layerType : mapLayerManager.takeLayersToReload()) {
+                loadLayerData(layerType);
+            }
+        }
         
         // USB磁気センサーUI更新タイマーを開始
         if (usbMagUiHandler != null && usbMagUiRunnable != null) {
@@ -1387,6 +1581,14 @@ public class MeasurementActivity extends AppCompatActivity implements SensorEven
         }
     }
 
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        if (mapLayerManager != null) {
+            mapLayerManager.onTrimMemory(level);
+        }
+    }
+
     @Override
     protected void onPause() {
         super.onPause();
@@ -1539,6 +1741,38 @@ public class MeasurementActivity extends AppCompatActivity implements SensorEven
         } else if (id == R.id.action_shape_list) {
             drawingController.showShapeListDialog();
             return true;
+        } else if (id == R.id.action_survey_plan) {
+            drawingController.showSurveyPlanDialog();
+            return true;
+        } else if (id == R.id.action_noise_surface_toggle) {
+            item.setChecked(!item.isChecked());
+            setNoiseSurfaceEnabled(item.isChecked());
+            return true;
+        } else if (id == R.id.action_contour_toggle) {
+            item.setChecked(!item.isChecked());
+            setContourEnabled(item.isChecked());
+            return true;
+        } else if (id == R.id.action_coverage_toggle) {
+            toggleCoverage(item);
+            return true;
+        } else if (id == R.id.action_noise_surface_idw) {
+            item.setChecked(true);
+            noiseSurfaceEngine.setMethod(InterpolationMethod.IDW);
+            return true;
+        } else if (id == R.id.action_noise_surface_kriging) {
+            item.setChecked(true);
+            noiseSurfaceEngine.setMethod(InterpolationMethod.KRIGING);
+            return true;
+        } else if (id == R.id.action_render_hud_toggle) {
+            item.setChecked(!item.isChecked());
+            setRenderHudVisible(item.isChecked());
+            return true;
+        } else if (id == R.id.action_render_stats_export) {
+            exportRenderStats();
+            return true;
+        } else if (id == R.id.action_render_stats_reset) {
+            overlayManager.getStats().reset();
+            return true;
         } else if (id == R.id.action_gps_source_auto) {
             setGpsSource(GpsSourceType.AUTO);
             return true;
@@ -1831,9 +2065,20 @@ public class MeasurementActivity extends AppCompatActivity implements SensorEven
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        StartupWarmup.removeLayerReceiver(warmLayerReceiver);
         if (layerDataRepository != null) {
             layerDataRepository.shutdown();
         }
+        if (noiseSurfaceEngine != null) {
+            noiseSurfaceEngine.shutdown();
+        }
+        if (coverageEngine != null) {
+            coverageEngine.shutdown();
+        }
+        if (heatmapRenderer != null) {
+            heatmapRenderer.shutdown();
+        }
+        mapView.removeCallbacks(renderHudRunnable);
         // USB GPSリソースを解放
         if (usbGpsManager != null) {
             usbGpsManager.release();
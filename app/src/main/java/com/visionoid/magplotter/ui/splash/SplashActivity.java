@@ -6,11 +6,12 @@
  * 概要:
  *   アプリ起動時のスプラッシュ画面を表示するアクティビティ。
  *   スパイテック風のスキャンアニメーションを表示。
+ *   表示中にデータベース・タイルキャッシュ・表示中レイヤーを先読みする（StartupWarmup）。
  * 
  * 主な仕様:
- *   - 起動アニメーション表示（約2.5秒）
- *   - システム初期化のシミュレーション
- *   - ミッション一覧画面への遷移
+ *   - 起動アニメーション表示（最短約2.5秒）
+ *   - プログレスバー・ステータスは先読みの実際の進捗を表示
+ *   - 先読み完了後にミッション一覧画面へ遷移（最長待ち時間を超えた場合は先読みを続けたまま遷移）
  * 
  * 制限事項:
  *   - 戻るボタンを無効化
@@ -32,6 +33,7 @@ import android.view.animation.LinearInterpolator;
 import android.widget.ProgressBar;
 import android.widget.TextView;
 
+import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.visionoid.magplotter.R;
@@ -47,9 +49,15 @@ public class SplashActivity extends AppCompatActivity {
     /** ハンドラ（UIスレッド） */
     private Handler handler;
 
-    /** スプラッシュ表示時間（ミリ秒） */
+    /** スプラッシュの最短表示時間（ミリ秒） */
     private static final long SPLASH_DURATION = 2500;
 
+    /** 先読み完了を待つ最長時間（ミリ秒） */
+    private static final long SPLASH_MAX_DURATION = 6000;
+
+    /** プログレスバーの1段階のアニメーション時間（ミリ秒） */
+    private static final long PROGRESS_STEP_DURATION = 250;
+
     // UI要素
     private TextView textAppName;
     private TextView textTagline;
@@ -58,12 +66,41 @@ public class SplashActivity extends AppCompatActivity {
     private ProgressBar progressBar;
     private View containerLogo;
 
-    /** 初期化ステータスメッセージ配列 */
-    private final String[] statusMessages = {
-            "INITIALIZING SYSTEM...",
-            "LOADING SENSORS...",
-            "CALIBRATING...",
-            "SYSTEM READY"
+    /** 初期化開始時のステータスメッセージ */
+    private static final String STATUS_INITIALIZING = "INITIALIZING SYSTEM...";
+
+    /** 初期化完了時のステータスメッセージ */
+    private static final String STATUS_READY = "SYSTEM READY";
+
+    /** 最短表示時間が経過したか */
+    private boolean minimumDurationElapsed = false;
+
+    /** 先読みが完了したか */
+    private boolean warmupComplete = false;
+
+    /** 遷移を開始したか */
+    private boolean navigating = false;
+
+    /** 先読みの進捗リスナー */
+    private final StartupWarmup.Listener warmupListener = new StartupWarmup.Listener() {
+        @Override
+        public void onStageComplete(@NonNull String stage, int completed, int total) {
+            if (textStatus != null) {
+                textStatus.setText(stage);
+            }
+            animateProgressTo(completed * 100 / Math.max(1, total));
+        }
+
+        @Override
+        public void onComplete() {
+            warmupComplete = true;
+            if (textStatus != null) {
+                textStatus.setText(STATUS_READY);
+                textStatus.setTextColor(getColor(R.color.status_safe));
+            }
+            animateProgressTo(100);
+            navigateIfReady();
+        }
     };
 
     @Override
@@ -79,8 +116,17 @@ public class SplashActivity extends AppCompatActivity {
         // アニメーション開始
         startAnimations();
 
-        // 一定時間後にメイン画面へ遷移
-        handler.postDelayed(this::navigateToMain, SPLASH_DURATION);
+        // 先読み開始（進捗・完了はwarmupListenerに通知される）
+        StartupWarmup.start(this, warmupListener);
+
+        // 最短表示時間の経過後、先読みが終わっていれば遷移
+        handler.postDelayed(() -> {
+            minimumDurationElapsed = true;
+            navigateIfReady();
+        }, SPLASH_DURATION);
+
+        // 先読みが長引いても最長待ち時間で遷移（先読みはバックグラウンドで継続）
+        handler.postDelayed(this::navigateToMain, SPLASH_MAX_DURATION);
     }
 
     /**
@@ -98,6 +144,7 @@ public class SplashActivity extends AppCompatActivity {
         textAppName.setAlpha(0f);
         textTagline.setAlpha(0f);
         textStatus.setAlpha(0f);
+        textStatus.setText(STATUS_INITIALIZING);
         if (containerLogo != null) {
             containerLogo.setScaleX(0.8f);
             containerLogo.setScaleY(0.8f);
@@ -140,12 +187,6 @@ public class SplashActivity extends AppCompatActivity {
 
         // スキャンラインアニメーション
         startScanLineAnimation();
-
-        // ステータスメッセージの更新
-        startStatusUpdates();
-
-        // プログレスバーアニメーション
-        startProgressAnimation();
     }
 
     /**
@@ -172,42 +213,36 @@ public class SplashActivity extends AppCompatActivity {
     }
 
     /**
-     * ステータスメッセージの更新を開始
+     * プログレスバーを指定の進捗まで動かす
+     * 
+     * @param progress 進捗（0-100）
      */
-    private void startStatusUpdates() {
-        int delay = 0;
-        for (int i = 0; i < statusMessages.length; i++) {
-            final int index = i;
-            handler.postDelayed(() -> {
-                if (textStatus != null) {
-                    textStatus.setText(statusMessages[index]);
-                    
-                    // 最後のメッセージ時に色を変更
-                    if (index == statusMessages.length - 1) {
-                        textStatus.setTextColor(getColor(R.color.status_safe));
-                    }
-                }
-            }, delay);
-            delay += 600;
-        }
+    private void animateProgressTo(int progress) {
+        if (progressBar == null || progress <= progressBar.getProgress()) return;
+
+        ObjectAnimator progressAnimator = ObjectAnimator.ofInt(
+                progressBar, "progress", progressBar.getProgress(), progress);
+        progressAnimator.setDuration(PROGRESS_STEP_DURATION);
+        progressAnimator.setInterpolator(new AccelerateDecelerateInterpolator());
+        progressAnimator.start();
     }
 
     /**
-     * プログレスバーアニメーションを開始
+     * 最短表示時間が経過し、先読みが完了していれば遷移
      */
-    private void startProgressAnimation() {
-        if (progressBar == null) return;
-
-        ObjectAnimator progressAnimator = ObjectAnimator.ofInt(progressBar, "progress", 0, 100);
-        progressAnimator.setDuration(SPLASH_DURATION - 300);
-        progressAnimator.setInterpolator(new AccelerateDecelerateInterpolator());
-        progressAnimator.start();
+    private void navigateIfReady() {
+        if (minimumDurationElapsed && warmupComplete) {
+            navigateToMain();
+        }
     }
 
     /**
      * メイン画面へ遷移
      */
     private void navigateToMain() {
+        if (navigating) return;
+        navigating = true;
+
         // フェードアウトアニメーション
         View rootView = findViewById(android.R.id.content);
         ObjectAnimator fadeOut = ObjectAnimator.ofFloat(rootView, "alpha", 1f, 0f);
@@ -232,6 +267,7 @@ public class SplashActivity extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        StartupWarmup.removeListener(warmupListener);
         if (handler != null) {
             handler.removeCallbacksAndMessages(null);
         }
@@ -0,0 +1,322 @@
+/**
+ * StartupWarmup.java
+ *
+ * VISIONOID MAG PLOTTER - 起動時の先読み
+ *
+ * 概要:
+ *   スプラッシュ表示中に、計測画面で必要になる重い初期化を並列に済ませる。
+ *   先読みしたレイヤーは計測画面に引き渡す。
+ *
+ * 主な仕様:
+ *   - Roomデータベースを開く（マイグレーションを含む）
+ *   - osmdroidのタイルキャッシュ（SQLite）を開いてインデックスを準備
+ *   - 表示設定がONのレイヤーをバイナリキャッシュから開き、R-tree・簡略化ピラミッドを構築
+ *   - 各段階の完了をUIスレッドで通知（進捗は完了した段階数）
+ *   - 先読みしたレイヤーはtakeLayer()で一度だけ受け取れる
+ *   - 先読み中のレイヤーを受け取る場合は完了を待って通知する
+ *     （同じキャッシュファイルを計測画面と同時に変換しないため）
+ *   - 計測画面への引き渡し後（finishHandOff()）に完了したレイヤーは保持しない
+ *
+ * 制限事項:
+ *   - ダウンロードが必要なレイヤー（キャッシュ期限切れ・未取得）は先読みしない
+ *   - 先読み結果はメモリ不足時（release()）に破棄する
+ */
+package com.visionoid.magplotter.ui.splash;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.preference.PreferenceManager;
+
+import com.visionoid.magplotter.data.db.AppDatabase;
+import com.visionoid.magplotter.data.layer.LayerDataRepository;
+import com.visionoid.magplotter.data.layer.LayerGeometry;
+import com.visionoid.magplotter.ui.map.layer.IndexedLayer;
+import com.visionoid.magplotter.ui.map.layer.LayerType;
+
+import org.osmdroid.tileprovider.modules.SqlTileWriter;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 起動時の先読みクラス
+ */
+public final class StartupWarmup {
+
+    /** ログタグ */
+    private static final String TAG = "StartupWarmup";
+
+    /** 先読みの最大並列数 */
+    private static final int MAX_THREADS = 3;
+
+    /**
+     * 進捗リスナーインターフェース（UIスレッドで呼ばれる）
+     */
+    public interface Listener {
+        /**
+         * 段階が完了した
+         *
+         * @param stage 完了した段階の表示名
+         * @param completed 完了した段階数
+         * @param total 全段階数
+         */
+        void onStageComplete(@NonNull String stage, int completed, int total);
+
+        /**
+         * 全段階が完了した
+         */
+        void onComplete();
+    }
+
+    /**
+     * 先読みレイヤーの受け取りインターフェース（UIスレッドで呼ばれる）
+     */
+    public interface LayerReceiver {
+        /**
+         * 先読みが終わった
+         *
+         * @param layerType レイヤータイプ
+         * @param layer インデックス付きレイヤー、先読みできなかった場合はnull
+         */
+        void onLayerReady(@NonNull LayerType layerType, @Nullable IndexedLayer layer);
+    }
+
+    /** 先読みしたレイヤー（以下の状態もこのロックで保護） */
+    private static final Map<LayerType, IndexedLayer> warmLayers = new EnumMap<>(LayerType.class);
+
+    /** 先読み中のレイヤー */
+    private static final Set<LayerType> pendingLayers = EnumSet.noneOf(LayerType.class);
+
+    /** 先読み中に受け取りを予約したレイヤー */
+    private static final Map<LayerType, LayerReceiver> receivers = new EnumMap<>(LayerType.class);
+
+    /** 計測画面へ引き渡し済みか（以降に完了したレイヤーは保持しない） */
+    private static boolean handedOver = false;
+
+    /** UIスレッドのハンドラ */
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /** 現在のリスナー（画面の再生成時は差し替え） */
+    @Nullable
+    private static Listener listener;
+
+    /** 開始済みか */
+    private static boolean started = false;
+
+    /** 完了した段階数・全段階数（UIスレッドで更新） */
+    private static int completedStages = 0;
+    private static int totalStages = 0;
+
+    private StartupWarmup() {
+    }
+
+    /**
+     * 先読みを開始（開始済みの場合はリスナーの差し替えのみ）
+     *
+     * @param context コンテキスト
+     * @param newListener 進捗リスナー
+     */
+    @MainThread
+    public static void start(@NonNull Context context, @NonNull Listener newListener) {
+        listener = newListener;
+        if (started) {
+            if (completedStages == totalStages) {
+                newListener.onComplete();
+            }
+            return;
+        }
+        started = true;
+
+        Context appContext = context.getApplicationContext();
+        LayerDataRepository repository = new LayerDataRepository(appContext);
+        List<Stage> stages = new ArrayList<>();
+        stages.add(new Stage("DATABASE READY", () ->
+                AppDatabase.getInstance(appContext).getOpenHelper().getWritableDatabase()));
+        stages.add(new Stage("TILE CACHE READY", () ->
+                // SqlTileWriterのDBは共有のため、ここで開けばMapView側はそのまま使える
+                new SqlTileWriter().runDuringSplashScreen()));
+        SharedPreferences preferences = PreferenceManager.getDefaultSharedPreferences(appContext);
+        for (LayerType layerType : LayerType.values()) {
+            if (preferences.getBoolean(layerType.getVisibilityPrefKey(), false)) {
+                synchronized (warmLayers) {
+                    pendingLayers.add(layerType);
+                }
+                stages.add(new Stage("LAYER READY: " + layerType.getId().toUpperCase(),
+                        () -> warmLayer(repository, layerType)));
+            }
+        }
+
+        totalStages = stages.size();
+        AtomicInteger remaining = new AtomicInteger(stages.size());
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(MAX_THREADS, stages.size()));
+        for (Stage stage : stages) {
+            executor.execute(() -> {
+                long start = System.currentTimeMillis();
+                try {
+                    stage.task.run();
+                } catch (RuntimeException e) {
+                    // 先読みの失敗は致命的ではない（各画面が通常どおり初期化する）
+                    Log.w(TAG, "先読み失敗: " + stage.label, e);
+                }
+                Log.d(TAG, stage.label + " (" + (System.currentTimeMillis() - start) + "ms)");
+                if (remaining.decrementAndGet() == 0) {
+                    repository.shutdown();
+                }
+                mainHandler.post(() -> onStageComplete(stage.label));
+            });
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * リスナーを解除（画面の破棄時）
+     *
+     * @param oldListener 解除するリスナー
+     */
+    @MainThread
+    public static void removeListener(@NonNull Listener oldListener) {
+        if (listener == oldListener) {
+            listener = null;
+        }
+    }
+
+    /**
+     * 先読みしたレイヤーを受け取る（受け取り後は保持しない）
+     *
+     * 先読み済みであればreceiverをその場で呼ぶ。先読み中であれば完了後に呼ぶため、
+     * 呼び出し側はreceiverが呼ばれるまで同じレイヤーを読み込まないこと。
+     *
+     * @param layerType レイヤータイプ
+     * @param receiver 受け取り先
+     * @return 受け取りを予約・完了した場合true、先読み対象でない場合false
+     */
+    @MainThread
+    public static boolean takeLayer(@NonNull LayerType layerType, @NonNull LayerReceiver receiver) {
+        IndexedLayer layer;
+        synchronized (warmLayers) {
+            layer = warmLayers.remove(layerType);
+            if (layer == null) {
+                if (!pendingLayers.contains(layerType)) {
+                    return false;
+                }
+                receivers.put(layerType, receiver);
+                return true;
+            }
+        }
+        receiver.onLayerReady(layerType, layer);
+        return true;
+    }
+
+    /**
+     * 計測画面への引き渡しを終える
+     *
+     * 受け取られなかったレイヤーを破棄し、以降に完了したレイヤーも保持しない
+     * （予約済みの受け取りには引き続き通知する）。
+     */
+    @MainThread
+    public static void finishHandOff() {
+        synchronized (warmLayers) {
+            handedOver = true;
+            if (!warmLayers.isEmpty()) {
+                Log.d(TAG, "受け取られなかった先読みレイヤーを破棄: " + warmLayers.size());
+                warmLayers.clear();
+            }
+        }
+    }
+
+    /**
+     * 受け取りの予約を解除（画面の破棄時）
+     *
+     * @param receiver 解除する受け取り先
+     */
+    @MainThread
+    public static void removeLayerReceiver(@NonNull LayerReceiver receiver) {
+        synchronized (warmLayers) {
+            receivers.values().removeIf(r -> r == receiver);
+        }
+    }
+
+    /**
+     * 先読みしたレイヤーを破棄（メモリ不足時）
+     */
+    public static void release() {
+        synchronized (warmLayers) {
+            if (!warmLayers.isEmpty()) {
+                Log.d(TAG, "先読みレイヤーを破棄: " + warmLayers.size());
+                warmLayers.clear();
+            }
+        }
+    }
+
+    // ==================== 内部処理 ====================
+
+    /**
+     * レイヤーをバイナリキャッシュから開いてインデックスを構築
+     */
+    private static void warmLayer(@NonNull LayerDataRepository repository, @NonNull LayerType layerType) {
+        IndexedLayer layer = null;
+        try {
+            LayerGeometry geometry = repository.loadLocalGeometrySync(layerType);
+            if (geometry != null && !geometry.isEmpty()) {
+                layer = IndexedLayer.build(layerType, geometry);
+            }
+        } finally {
+            LayerReceiver receiver;
+            synchronized (warmLayers) {
+                pendingLayers.remove(layerType);
+                receiver = receivers.remove(layerType);
+                if (receiver == null && layer != null) {
+                    if (handedOver) {
+                        Log.d(TAG, "引き渡し後に完了した先読みレイヤーを破棄: " + layerType.getId());
+                    } else {
+                        warmLayers.put(layerType, layer);
+                    }
+                }
+            }
+            if (receiver != null) {
+                IndexedLayer result = layer;
+                mainHandler.post(() -> receiver.onLayerReady(layerType, result));
+            }
+        }
+    }
+
+    @MainThread
+    private static void onStageComplete(@NonNull String label) {
+        completedStages++;
+        if (listener != null) {
+            listener.onStageComplete(label, completedStages, totalStages);
+            if (completedStages == totalStages) {
+                listener.onComplete();
+            }
+        }
+    }
+
+    /**
+     * 先読みの段階
+     */
+    private static final class Stage {
+        @NonNull
+        final String label;
+        @NonNull
+        final Runnable task;
+
+        Stage(@NonNull String label, @NonNull Runnable task) {
+            this.label = label;
+            this.task = task;
+        }
+    }
+}
@@ -10,10 +10,11 @@
  * 主な仕様:
  *   - 12セグメントのバー表示
  *   - 安全域: 緑、警告域: 黄、危険域: 赤
+ *   - セグメント色はNoiseColorTableから取得（ヒートマップと同じ配色）
  *   - 軽量実装（メモリ効率重視）
  * 
  * 制限事項:
- *   - 閾値はsetThresholds()で設定が必要
+ *   - 閾値はsetColorTable()またはsetThresholds()で設定が必要
  */
 package com.visionoid.magplotter.ui.view;
 
@@ -27,8 +28,11 @@ import android.util.AttributeSet;
 import android.view.View;
 import android.view.animation.DecelerateInterpolator;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.visionoid.magplotter.util.NoiseColorTable;
+
 /**
  * ノイズレベルゲージViewクラス
  * 
@@ -51,14 +55,11 @@ public class NoiseLevelGauge extends View {
     /** アニメーション用の表示値 */
     private double displayValue = 0;
     
-    /** 安全閾値（μT） */
-    private double safeThreshold = 10.0;
-    
-    /** 危険閾値（μT） */
-    private double dangerThreshold = 50.0;
+    /** カラーテーブル（閾値・最大表示値を含む） */
+    private NoiseColorTable colorTable = NoiseColorTable.createDefault();
     
     /** 最大表示値（μT） */
-    private double maxValue = 100.0;
+    private double maxValue = colorTable.getMaxValue();
 
     /** セグメント描画用Paint */
     private Paint segmentPaint;
@@ -72,15 +73,6 @@ public class NoiseLevelGauge extends View {
     /** アニメーター */
     private ValueAnimator valueAnimator;
 
-    /** 安全色（緑） */
-    private static final int COLOR_SAFE = Color.parseColor("#00FF88");
-    
-    /** 警告色（黄） */
-    private static final int COLOR_WARNING = Color.parseColor("#FFDD00");
-    
-    /** 危険色（赤） */
-    private static final int COLOR_DANGER = Color.parseColor("#FF0055");
-    
     /** 非アクティブ色 */
     private static final int COLOR_INACTIVE = Color.parseColor("#1A1A2E");
 
@@ -140,9 +132,23 @@ public class NoiseLevelGauge extends View {
      * @param dangerThreshold 危険閾値（μT）
      */
     public void setThresholds(double safeThreshold, double dangerThreshold) {
-        this.safeThreshold = safeThreshold;
-        this.dangerThreshold = dangerThreshold;
-        this.maxValue = dangerThreshold * 2; // 最大値は危険閾値の2倍
+        if (colorTable.hasThresholds(safeThreshold, dangerThreshold)) {
+            return;
+        }
+        setColorTable(new NoiseColorTable(safeThreshold, dangerThreshold));
+    }
+
+    /**
+     * カラーテーブルを設定
+     * 
+     * @param table カラーテーブル
+     */
+    public void setColorTable(@NonNull NoiseColorTable table) {
+        if (colorTable == table) {
+            return;
+        }
+        this.colorTable = table;
+        this.maxValue = table.getMaxValue(); // 最大値は危険閾値の2倍
         invalidate();
     }
 
@@ -228,34 +234,7 @@ public class NoiseLevelGauge extends View {
     private int getSegmentColor(int index) {
         // セグメント位置に対応する値を計算
         double segmentValue = (index + 1) * maxValue / SEGMENT_COUNT;
-        
-        if (segmentValue <= safeThreshold) {
-            return COLOR_SAFE;
-        } else if (segmentValue <= dangerThreshold) {
-            // 警告域：緑から黄色へのグラデーション
-            float ratio = (float) ((segmentValue - safeThreshold) / (dangerThreshold - safeThreshold));
-            return blendColors(COLOR_SAFE, COLOR_WARNING, ratio);
-        } else {
-            // 危険域：黄色から赤へのグラデーション
-            float ratio = (float) Math.min((segmentValue - dangerThreshold) / dangerThreshold, 1.0);
-            return blendColors(COLOR_WARNING, COLOR_DANGER, ratio);
-        }
-    }
-
-    /**
-     * 2色をブレンド
-     * 
-     * @param color1 色1
-     * @param color2 色2
-     * @param ratio ブレンド比率（0.0〜1.0）
-     * @return ブレンドされた色
-     */
-    private int blendColors(int color1, int color2, float ratio) {
-        float inverseRatio = 1f - ratio;
-        int r = (int) (Color.red(color1) * inverseRatio + Color.red(color2) * ratio);
-        int g = (int) (Color.green(color1) * inverseRatio + Color.green(color2) * ratio);
-        int b = (int) (Color.blue(color1) * inverseRatio + Color.blue(color2) * ratio);
-        return Color.rgb(r, g, b);
+        return colorTable.getOpaqueColor(segmentValue);
     }
 
     /**
@@ -0,0 +1,372 @@
+/**
+ * CoordinateCodec.java
+ *
+ * VISIONOID MAG PLOTTER - 図形座標のバイナリ符号化
+ *
+ * 概要:
+ *   作図シェイプの座標を、固定小数点の差分をvarint/zigzagで符号化したバイト列に変換する。
+ *   JSON形式（インポート・エクスポート用）との相互変換も提供する。
+ *
+ * 主な仕様:
+ *   - 先頭1バイトが形式（FORMAT_POINTS / FORMAT_CIRCLE）
+ *   - 点列: varint(頂点数)、以降は直前の頂点との差分（緯度・経度、1e-7度単位）をzigzag varintで格納
+ *     （最初の頂点は0からの差分）
+ *   - 円: 中心（1e-7度単位、zigzag varint）、半径（ミリメートル単位、varint）
+ *   - 近接した頂点の差分は2〜3バイトに収まるため、JSONの1/10程度のサイズになる
+ *   - JSON: polygon/polyline [{"lat": 35.0, "lng": 139.0}, ...]
+ *           circle {"center": {"lat": 35.0, "lng": 139.0}, "radius": 100.0}
+ *
+ * 制限事項:
+ *   - 座標の分解能は1e-7度（約1cm）、半径の分解能は1mm
+ *   - 不正なバイト列の復号はIllegalArgumentExceptionをスローする
+ */
+package com.visionoid.magplotter.util;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.osmdroid.util.GeoPoint;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 図形座標のバイナリ符号化クラス
+ */
+public final class CoordinateCodec {
+
+    /** 形式: 点列（polygon/polyline） */
+    public static final int FORMAT_POINTS = 1;
+
+    /** 形式: 円 */
+    public static final int FORMAT_CIRCLE = 2;
+
+    /** 座標の固定小数点倍率（1e-7度） */
+    private static final double E7 = 1e7;
+
+    /** 半径の固定小数点倍率（ミリメートル） */
+    private static final double MM = 1000.0;
+
+    /** 1値あたりの最大バイト数（64bit varint） */
+    private static final int MAX_VARINT_BYTES = 10;
+
+    /** プライベートコンストラクタ（インスタンス化禁止） */
+    private CoordinateCodec() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    // ==================== 符号化 ====================
+
+    /**
+     * 点列を符号化
+     *
+     * @param lats 緯度配列
+     * @param lngs 経度配列
+     * @param count 頂点数
+     * @return バイト列
+     */
+    @NonNull
+    public static byte[] encodePoints(@NonNull double[] lats, @NonNull double[] lngs, int count) {
+        Writer writer = new Writer(1 + MAX_VARINT_BYTES + count * 2 * MAX_VARINT_BYTES);
+        writer.writeByte(FORMAT_POINTS);
+        writer.writeVarint(count);
+        long previousLat = 0;
+        long previousLng = 0;
+        for (int i = 0; i < count; i++) {
+            long lat = Math.round(lats[i] * E7);
+            long lng = Math.round(lngs[i] * E7);
+            writer.writeSignedVarint(lat - previousLat);
+            writer.writeSignedVarint(lng - previousLng);
+            previousLat = lat;
+            previousLng = lng;
+        }
+        return writer.toByteArray();
+    }
+
+    /**
+     * 点列を符号化
+     *
+     * @param points 頂点リスト
+     * @return バイト列
+     */
+    @NonNull
+    public static byte[] encodePoints(@NonNull List<GeoPoint> points) {
+        int count = points.size();
+        double[] lats = new double[count];
+        double[] lngs = new double[count];
+        for (int i = 0; i < count; i++) {
+            lats[i] = points.get(i).getLatitude();
+            lngs[i] = points.get(i).getLongitude();
+        }
+        return encodePoints(lats, lngs, count);
+    }
+
+    /**
+     * 円を符号化
+     *
+     * @param centerLat 中心の緯度
+     * @param centerLng 中心の経度
+     * @param radius 半径（メートル）
+     * @return バイト列
+     */
+    @NonNull
+    public static byte[] encodeCircle(double centerLat, double centerLng, double radius) {
+        Writer writer = new Writer(1 + 3 * MAX_VARINT_BYTES);
+        writer.writeByte(FORMAT_CIRCLE);
+        writer.writeSignedVarint(Math.round(centerLat * E7));
+        writer.writeSignedVarint(Math.round(centerLng * E7));
+        writer.writeVarint(Math.max(0, Math.round(radius * MM)));
+        return writer.toByteArray();
+    }
+
+    // ==================== 復号 ====================
+
+    /**
+     * 形式を取得
+     *
+     * @param data バイト列
+     * @return FORMAT_POINTS / FORMAT_CIRCLE
+     */
+    public static int getFormat(@NonNull byte[] data) {
+        if (data.length == 0) {
+            throw new IllegalArgumentException("座標データが空です");
+        }
+        return data[0];
+    }
+
+    /**
+     * 点列の頂点数を取得
+     *
+     * @param data バイト列
+     * @return 頂点数
+     */
+    public static int getPointCount(@NonNull byte[] data) {
+        Reader reader = new Reader(data);
+        reader.expectFormat(FORMAT_POINTS);
+        return reader.readCount();
+    }
+
+    /**
+     * 点列を復号
+     *
+     * @param data バイト列
+     * @param lats 緯度の格納先（頂点数以上の長さ）
+     * @param lngs 経度の格納先（頂点数以上の長さ）
+     * @return 頂点数
+     */
+    public static int decodePoints(@NonNull byte[] data, @NonNull double[] lats, @NonNull double[] lngs) {
+        Reader reader = new Reader(data);
+        reader.expectFormat(FORMAT_POINTS);
+        int count = reader.readCount();
+        if (lats.length < count || lngs.length < count) {
+            throw new IllegalArgumentException("格納先が不足: " + count);
+        }
+        long lat = 0;
+        long lng = 0;
+        for (int i = 0; i < count; i++) {
+            lat += reader.readSignedVarint();
+            lng += reader.readSignedVarint();
+            lats[i] = lat / E7;
+            lngs[i] = lng / E7;
+        }
+        return count;
+    }
+
+    /**
+     * 点列をGeoPointリストに復号
+     *
+     * @param data バイト列
+     * @return 頂点リスト
+     */
+    @NonNull
+    public static List<GeoPoint> decodePointList(@NonNull byte[] data) {
+        int count = getPointCount(data);
+        double[] lats = new double[count];
+        double[] lngs = new double[count];
+        decodePoints(data, lats, lngs);
+        List<GeoPoint> points = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            points.add(new GeoPoint(lats[i], lngs[i]));
+        }
+        return points;
+    }
+
+    /**
+     * 円を復号
+     *
+     * @param data バイト列
+     * @return [0]: 中心の緯度, [1]: 中心の経度, [2]: 半径（メートル）
+     */
+    @NonNull
+    public static double[] decodeCircle(@NonNull byte[] data) {
+        Reader reader = new Reader(data);
+        reader.expectFormat(FORMAT_CIRCLE);
+        double lat = reader.readSignedVarint() / E7;
+        double lng = reader.readSignedVarint() / E7;
+        double radius = reader.readVarint() / MM;
+        return new double[]{lat, lng, radius};
+    }
+
+    // ==================== JSON変換 ====================
+
+    /**
+     * JSON形式に変換（エクスポート用）
+     *
+     * @param data バイト列
+     * @return 座標JSON
+     */
+    @NonNull
+    public static String toJson(@NonNull byte[] data) {
+        try {
+            if (getFormat(data) == FORMAT_CIRCLE) {
+                double[] circle = decodeCircle(data);
+                JSONObject centerJson = new JSONObject();
+                centerJson.put("lat", circle[0]);
+                centerJson.put("lng", circle[1]);
+                JSONObject json = new JSONObject();
+                json.put("center", centerJson);
+                json.put("radius", circle[2]);
+                return json.toString();
+            }
+
+            int count = getPointCount(data);
+            double[] lats = new double[count];
+            double[] lngs = new double[count];
+            decodePoints(data, lats, lngs);
+            JSONArray jsonArray = new JSONArray();
+            for (int i = 0; i < count; i++) {
+                JSONObject pointJson = new JSONObject();
+                pointJson.put("lat", lats[i]);
+                pointJson.put("lng", lngs[i]);
+                jsonArray.put(pointJson);
+            }
+            return jsonArray.toString();
+        } catch (JSONException e) {
+            throw new IllegalArgumentException("JSON変換失敗", e);
+        }
+    }
+
+    /**
+     * JSON形式から変換（インポート用）
+     *
+     * JSON配列は点列、JSONオブジェクトは円として扱う。
+     *
+     * @param json 座標JSON
+     * @return バイト列、JSONが不正な場合はnull
+     */
+    @Nullable
+    public static byte[] fromJson(@NonNull String json) {
+        try {
+            String trimmed = json.trim();
+            if (trimmed.startsWith("{")) {
+                JSONObject circleJson = new JSONObject(trimmed);
+                JSONObject centerJson = circleJson.getJSONObject("center");
+                return encodeCircle(centerJson.getDouble("lat"), centerJson.getDouble("lng"),
+                        circleJson.getDouble("radius"));
+            }
+
+            JSONArray jsonArray = new JSONArray(trimmed);
+            int count = jsonArray.length();
+            double[] lats = new double[count];
+            double[] lngs = new double[count];
+            for (int i = 0; i < count; i++) {
+                JSONObject pointJson = jsonArray.getJSONObject(i);
+                lats[i] = pointJson.getDouble("lat");
+                lngs[i] = pointJson.getDouble("lng");
+            }
+            return encodePoints(lats, lngs, count);
+        } catch (JSONException e) {
+            return null;
+        }
+    }
+
+    // ==================== 内部処理 ====================
+
+    /**
+     * varintの書き込み
+     */
+    private static final class Writer {
+        private byte[] buffer;
+        private int length;
+
+        Writer(int capacity) {
+            buffer = new byte[capacity];
+        }
+
+        void writeByte(int value) {
+            buffer[length++] = (byte) value;
+        }
+
+        /** 符号なしvarint（7bitずつ、下位から） */
+        void writeVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                buffer[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[length++] = (byte) value;
+        }
+
+        /** zigzag符号化したvarint（絶対値の小さい負数も短く格納） */
+        void writeSignedVarint(long value) {
+            writeVarint((value << 1) ^ (value >> 63));
+        }
+
+        @NonNull
+        byte[] toByteArray() {
+            byte[] result = new byte[length];
+            System.arraycopy(buffer, 0, result, 0, length);
+            return result;
+        }
+    }
+
+    /**
+     * varintの読み込み
+     */
+    private static final class Reader {
+        @NonNull
+        private final byte[] data;
+        private int position;
+
+        Reader(@NonNull byte[] data) {
+            this.data = data;
+        }
+
+        void expectFormat(int format) {
+            if (data.length == 0 || data[position++] != format) {
+                throw new IllegalArgumentException("座標データの形式が不正です");
+            }
+        }
+
+        int readCount() {
+            long count = readVarint();
+            // 1頂点あたり最低2バイト
+            if (count < 0 || count > (data.length - position) / 2) {
+                throw new IllegalArgumentException("頂点数が不正です: " + count);
+            }
+            return (int) count;
+        }
+
+        long readVarint() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (position >= data.length) {
+                    throw new IllegalArgumentException("座標データが途中で終わっています");
+                }
+                byte b = data[position++];
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IllegalArgumentException("varintが不正です");
+        }
+
+        long readSignedVarint() {
+            long raw = readVarint();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+    }
+}
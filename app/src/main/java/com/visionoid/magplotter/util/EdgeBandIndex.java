@@ -0,0 +1,182 @@
+/**
+ * EdgeBandIndex.java
+ *
+ * VISIONOID MAG PLOTTER - 辺のY方向の帯インデックス
+ *
+ * 概要:
+ *   平面座標（メートル）の辺の集合をY方向の帯に振り分け、
+ *   点の内外判定（レイキャスト）と辺への近接判定を、全辺ではなく
+ *   点の近くの帯の辺だけで計算する。
+ *   作図の図形（PreparedShape）とレイヤーのフィーチャ（PreparedFeature）で共通に使用する。
+ *
+ * 主な仕様:
+ *   - 帯の数は辺数に比例（1帯あたり数本）、帯ごとの辺リストはCSR形式
+ *   - 複数の帯にまたがる辺は各帯に登録
+ *   - 内外判定は偶奇規則（穴を含む複数の輪もそのまま扱える）
+ *
+ * 制限事項:
+ *   - 辺の端点の配列はコピーせず参照するため、構築後に変更しないこと
+ *   - 構築後は読み取り専用
+ */
+package com.visionoid.magplotter.util;
+
+import androidx.annotation.NonNull;
+
+/**
+ * 辺のY方向の帯インデックスクラス
+ */
+public final class EdgeBandIndex {
+
+    /** 1帯あたりの目安の辺数 */
+    private static final int EDGES_PER_BAND = 4;
+
+    /** 帯の最大数 */
+    public static final int MAX_BANDS = 4096;
+
+    /** 辺の端点（メートル） */
+    private final double[] ax;
+    private final double[] ay;
+    private final double[] bx;
+    private final double[] by;
+
+    /** 帯の下端（メートル） */
+    private final double minY;
+
+    /** 帯の数と高さ */
+    private final int bandCount;
+    private final double bandHeight;
+
+    /** 帯ごとの辺リスト（帯bの辺はbandEdges[bandStarts[b], bandStarts[b + 1])） */
+    private final int[] bandStarts;
+    private final int[] bandEdges;
+
+    /**
+     * コンストラクタ
+     *
+     * @param ax 辺の始点X
+     * @param ay 辺の始点Y
+     * @param bx 辺の終点X
+     * @param by 辺の終点Y
+     * @param edgeCount 辺の数
+     * @param minY 全辺のYの最小値
+     * @param maxY 全辺のYの最大値
+     */
+    public EdgeBandIndex(@NonNull double[] ax, @NonNull double[] ay, @NonNull double[] bx, @NonNull double[] by,
+                         int edgeCount, double minY, double maxY) {
+        this.ax = ax;
+        this.ay = ay;
+        this.bx = bx;
+        this.by = by;
+        this.minY = minY;
+
+        this.bandCount = Math.max(1, Math.min(MAX_BANDS, edgeCount / EDGES_PER_BAND));
+        double height = (maxY - minY) / bandCount;
+        this.bandHeight = height > 0 ? height : 1.0;
+
+        // 帯ごとの辺数を数えてから詰める（CSR形式）
+        int[] starts = new int[bandCount + 1];
+        for (int e = 0; e < edgeCount; e++) {
+            int first = bandOf(Math.min(ay[e], by[e]));
+            int last = bandOf(Math.max(ay[e], by[e]));
+            for (int b = first; b <= last; b++) {
+                starts[b + 1]++;
+            }
+        }
+        for (int b = 0; b < bandCount; b++) {
+            starts[b + 1] += starts[b];
+        }
+        int[] edges = new int[starts[bandCount]];
+        int[] fill = new int[bandCount];
+        for (int e = 0; e < edgeCount; e++) {
+            int first = bandOf(Math.min(ay[e], by[e]));
+            int last = bandOf(Math.max(ay[e], by[e]));
+            for (int b = first; b <= last; b++) {
+                edges[starts[b] + fill[b]++] = e;
+            }
+        }
+        this.bandStarts = starts;
+        this.bandEdges = edges;
+    }
+
+    // ==================== 判定 ====================
+
+    /**
+     * 点が辺で囲まれた領域の内側にあるか判定（偶奇規則）
+     *
+     * @param x 点のX（メートル）
+     * @param y 点のY（メートル）
+     * @return 内側ならtrue
+     */
+    public boolean contains(double x, double y) {
+        int band = bandOf(y);
+        boolean inside = false;
+        for (int i = bandStarts[band], end = bandStarts[band + 1]; i < end; i++) {
+            int e = bandEdges[i];
+            if ((ay[e] > y) != (by[e] > y)
+                    && x < (bx[e] - ax[e]) * (y - ay[e]) / (by[e] - ay[e]) + ax[e]) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    /**
+     * 点から許容距離内に辺があるか判定
+     *
+     * 許容距離の範囲の帯だけを調べ、各辺は境界ボックスで先に除外する。
+     *
+     * @param x 点のX（メートル）
+     * @param y 点のY（メートル）
+     * @param tolerance 許容距離（メートル）
+     * @return 許容距離内の辺があればtrue
+     */
+    public boolean hasEdgeWithin(double x, double y, double tolerance) {
+        double toleranceSq = tolerance * tolerance;
+        int first = bandOf(y - tolerance);
+        int last = bandOf(y + tolerance);
+        for (int i = bandStarts[first], end = bandStarts[last + 1]; i < end; i++) {
+            int e = bandEdges[i];
+            if (Math.min(ax[e], bx[e]) - tolerance > x || Math.max(ax[e], bx[e]) + tolerance < x) {
+                continue;
+            }
+            if (segmentDistanceSq(x, y, ax[e], ay[e], bx[e], by[e]) <= toleranceSq) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * ヒープ使用量の概算を取得（辺の端点の配列は含まない）
+     *
+     * @return バイト数
+     */
+    public long estimateMemoryBytes() {
+        return (long) (bandStarts.length + bandEdges.length) * Integer.BYTES;
+    }
+
+    /**
+     * 点から線分までの距離の2乗
+     */
+    public static double segmentDistanceSq(double px, double py,
+                                           double x1, double y1, double x2, double y2) {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        double lengthSq = dx * dx + dy * dy;
+        double t = lengthSq > 0 ? ((px - x1) * dx + (py - y1) * dy) / lengthSq : 0;
+        t = Math.max(0, Math.min(1, t));
+        double cx = x1 + t * dx - px;
+        double cy = y1 + t * dy - py;
+        return cx * cx + cy * cy;
+    }
+
+    // ==================== 内部処理 ====================
+
+    /**
+     * Y座標が属する帯（範囲外は端の帯）
+     */
+    private int bandOf(double y) {
+        int band = (int) ((y - minY) / bandHeight);
+        return Math.max(0, Math.min(bandCount - 1, band));
+    }
+}
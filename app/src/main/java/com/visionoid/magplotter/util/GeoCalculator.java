@@ -12,13 +12,19 @@
  *   - 測地線公式による多角形面積計算
  *   - 円の面積・周囲長計算
  *   - 各辺の長さ計算
+ *   - 緯度・経度の配列を受け取る一括計算（結果は呼び出し側の配列に格納、
+ *     頂点ごとの三角関数は1回のみ計算）
+ *   - 計算モード（Mode）で精度と速度を選択
+ *     （SPHERICAL: 球体近似、WGS84: 楕円体＋小さな範囲は局所平面、WGS84_EXACT: 常に楕円体の厳密計算）
  * 
  * 制限事項:
  *   - WGS84座標系を前提
- *   - 地球を球体として近似（高精度が必要な場合は楕円体補正が必要）
+ *   - Modeを指定しないメソッドは地球を球体として近似（SPHERICAL）
  */
 package com.visionoid.magplotter.util;
 
+import androidx.annotation.NonNull;
+
 import org.osmdroid.util.GeoPoint;
 
 import java.util.ArrayList;
@@ -32,6 +38,21 @@ public final class GeoCalculator {
     /** 地球の平均半径（メートル） */
     private static final double EARTH_RADIUS = 6371000.0;
 
+    /** Mode.WGS84で局所平面の計算を使う範囲の上限（メートル） */
+    private static final double PLANAR_MAX_EXTENT_METERS = 5000.0;
+
+    /**
+     * 計算モード
+     */
+    public enum Mode {
+        /** 球体近似（半径6371km、Haversine公式・球面Shoelace公式） */
+        SPHERICAL,
+        /** WGS84楕円体（範囲が数km以内の距離・図形は局所平面で高速に計算） */
+        WGS84,
+        /** WGS84楕円体（常に厳密計算） */
+        WGS84_EXACT
+    }
+
     /** プライベートコンストラクタ（インスタンス化禁止） */
     private GeoCalculator() {
         throw new UnsupportedOperationException("Utility class cannot be instantiated");
@@ -49,16 +70,8 @@ public final class GeoCalculator {
      * @return 距離（メートル）
      */
     public static double calculateDistance(double lat1, double lng1, double lat2, double lng2) {
-        double dLat = Math.toRadians(lat2 - lat1);
-        double dLng = Math.toRadians(lng2 - lng1);
-
-        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
-                   Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) *
-                   Math.sin(dLng / 2) * Math.sin(dLng / 2);
-
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-
-        return EARTH_RADIUS * c;
+        return haversine(lat1, lng1, Math.cos(Math.toRadians(lat1)),
+                lat2, lng2, Math.cos(Math.toRadians(lat2)));
     }
 
     /**
@@ -127,23 +140,44 @@ public final class GeoCalculator {
         }
 
         // 測地線面積計算（球面上のShoelace公式）
-        double area = 0.0;
+        double termSum = 0.0;
         int n = points.size();
 
         for (int i = 0; i < n; i++) {
             GeoPoint p1 = points.get(i);
             GeoPoint p2 = points.get((i + 1) % n);
-
-            double lat1 = Math.toRadians(p1.getLatitude());
-            double lat2 = Math.toRadians(p2.getLatitude());
-            double dLng = Math.toRadians(p2.getLongitude() - p1.getLongitude());
-
-            area += dLng * (2 + Math.sin(lat1) + Math.sin(lat2));
+            termSum += calculatePolygonAreaTerm(p1.getLatitude(), p1.getLongitude(),
+                    p2.getLatitude(), p2.getLongitude());
         }
 
-        area = Math.abs(area * EARTH_RADIUS * EARTH_RADIUS / 2.0);
+        return calculatePolygonAreaFromTerms(termSum);
+    }
 
-        return area;
+    /**
+     * 多角形の面積の辺ごとの項を計算
+     * 
+     * 全辺の項の総和をcalculatePolygonAreaFromTerms()に渡すと面積になる。
+     * 1頂点の移動で変わるのは隣接する2辺の項のみのため、総和を差分更新できる。
+     * 
+     * @param lat1 辺の始点の緯度（度）
+     * @param lng1 辺の始点の経度（度）
+     * @param lat2 辺の終点の緯度（度）
+     * @param lng2 辺の終点の経度（度）
+     * @return 辺の項
+     */
+    public static double calculatePolygonAreaTerm(double lat1, double lng1, double lat2, double lng2) {
+        double dLng = Math.toRadians(lng2 - lng1);
+        return dLng * (2 + Math.sin(Math.toRadians(lat1)) + Math.sin(Math.toRadians(lat2)));
+    }
+
+    /**
+     * 辺ごとの項の総和から多角形の面積を計算
+     * 
+     * @param termSum calculatePolygonAreaTerm()の全辺の総和
+     * @return 面積（平方メートル）
+     */
+    public static double calculatePolygonAreaFromTerms(double termSum) {
+        return Math.abs(termSum * EARTH_RADIUS * EARTH_RADIUS / 2.0);
     }
 
     /**
@@ -186,6 +220,252 @@ public final class GeoCalculator {
         return lengths;
     }
 
+    // ==================== 配列版（一括計算） ====================
+
+    /**
+     * 各辺の長さを計算（配列版）
+     * 
+     * @param lats 緯度の配列（度）
+     * @param lngs 経度の配列（度）
+     * @param count 頂点数（配列の先頭から）
+     * @param closed 閉じた図形（末尾→先頭の辺を含める）ならtrue
+     * @param out 結果の格納先（辺の数以上の長さ、辺iは頂点i→i+1）
+     * @return 辺の数
+     */
+    public static int calculateSegmentLengths(@NonNull double[] lats, @NonNull double[] lngs, int count,
+                                              boolean closed, @NonNull double[] out) {
+        if (count < 2) {
+            return 0;
+        }
+        double firstCos = Math.cos(Math.toRadians(lats[0]));
+        double prevCos = firstCos;
+        for (int i = 1; i < count; i++) {
+            double cos = Math.cos(Math.toRadians(lats[i]));
+            out[i - 1] = haversine(lats[i - 1], lngs[i - 1], prevCos, lats[i], lngs[i], cos);
+            prevCos = cos;
+        }
+        if (!closed) {
+            return count - 1;
+        }
+        out[count - 1] = haversine(lats[count - 1], lngs[count - 1], prevCos, lats[0], lngs[0], firstCos);
+        return count;
+    }
+
+    /**
+     * ポリラインの総距離を計算（配列版）
+     * 
+     * @param lats 緯度の配列（度）
+     * @param lngs 経度の配列（度）
+     * @param count 頂点数（配列の先頭から）
+     * @return 総距離（メートル）
+     */
+    public static double calculatePolylineLength(@NonNull double[] lats, @NonNull double[] lngs, int count) {
+        return sumSegmentLengths(lats, lngs, count, false);
+    }
+
+    /**
+     * 多角形の周囲長を計算（配列版）
+     * 
+     * @param lats 緯度の配列（度）
+     * @param lngs 経度の配列（度）
+     * @param count 頂点数（配列の先頭から）
+     * @return 周囲長（メートル）
+     */
+    public static double calculatePolygonPerimeter(@NonNull double[] lats, @NonNull double[] lngs, int count) {
+        return sumSegmentLengths(lats, lngs, count, true);
+    }
+
+    /**
+     * 多角形の面積を計算（配列版）
+     * 
+     * @param lats 緯度の配列（度）
+     * @param lngs 経度の配列（度）
+     * @param count 頂点数（配列の先頭から、閉じていなくてもOK）
+     * @return 面積（平方メートル）
+     */
+    public static double calculatePolygonArea(@NonNull double[] lats, @NonNull double[] lngs, int count) {
+        if (count < 3) {
+            return 0.0;
+        }
+        double firstSin = Math.sin(Math.toRadians(lats[0]));
+        double prevSin = firstSin;
+        double termSum = 0.0;
+        for (int i = 1; i < count; i++) {
+            double sin = Math.sin(Math.toRadians(lats[i]));
+            termSum += Math.toRadians(lngs[i] - lngs[i - 1]) * (2 + prevSin + sin);
+            prevSin = sin;
+        }
+        termSum += Math.toRadians(lngs[0] - lngs[count - 1]) * (2 + prevSin + firstSin);
+        return calculatePolygonAreaFromTerms(termSum);
+    }
+
+    // ==================== 計算モード指定 ====================
+
+    /**
+     * 2点間の距離を計算（モード指定）
+     * 
+     * @param lat1 始点の緯度（度）
+     * @param lng1 始点の経度（度）
+     * @param lat2 終点の緯度（度）
+     * @param lng2 終点の経度（度）
+     * @param mode 計算モード
+     * @return 距離（メートル）
+     */
+    public static double calculateDistance(double lat1, double lng1, double lat2, double lng2,
+                                           @NonNull Mode mode) {
+        switch (mode) {
+            case WGS84:
+                if (isLocalExtent(Math.abs(lat2 - lat1), Math.abs(lng2 - lng1))) {
+                    return Wgs84Geodesic.localDistance(lat1, lng1, lat2, lng2);
+                }
+                return ellipsoidalDistance(lat1, lng1, lat2, lng2);
+            case WGS84_EXACT:
+                return ellipsoidalDistance(lat1, lng1, lat2, lng2);
+            default:
+                return calculateDistance(lat1, lng1, lat2, lng2);
+        }
+    }
+
+    /**
+     * 各辺の長さを計算（配列版、モード指定）
+     * 
+     * @param lats 緯度の配列（度）
+     * @param lngs 経度の配列（度）
+     * @param count 頂点数（配列の先頭から）
+     * @param closed 閉じた図形（末尾→先頭の辺を含める）ならtrue
+     * @param out 結果の格納先（辺の数以上の長さ、辺iは頂点i→i+1）
+     * @param mode 計算モード
+     * @return 辺の数
+     */
+    public static int calculateSegmentLengths(@NonNull double[] lats, @NonNull double[] lngs, int count,
+                                              boolean closed, @NonNull double[] out, @NonNull Mode mode) {
+        if (mode == Mode.SPHERICAL) {
+            return calculateSegmentLengths(lats, lngs, count, closed, out);
+        }
+        if (count < 2) {
+            return 0;
+        }
+        for (int i = 1; i < count; i++) {
+            out[i - 1] = calculateDistance(lats[i - 1], lngs[i - 1], lats[i], lngs[i], mode);
+        }
+        if (!closed) {
+            return count - 1;
+        }
+        out[count - 1] = calculateDistance(lats[count - 1], lngs[count - 1], lats[0], lngs[0], mode);
+        return count;
+    }
+
+    /**
+     * ポリラインの総距離を計算（配列版、モード指定）
+     * 
+     * @param lats 緯度の配列（度）
+     * @param lngs 経度の配列（度）
+     * @param count 頂点数（配列の先頭から）
+     * @param mode 計算モード
+     * @return 総距離（メートル）
+     */
+    public static double calculatePolylineLength(@NonNull double[] lats, @NonNull double[] lngs, int count,
+                                                 @NonNull Mode mode) {
+        if (mode == Mode.SPHERICAL) {
+            return calculatePolylineLength(lats, lngs, count);
+        }
+        double total = 0.0;
+        for (int i = 1; i < count; i++) {
+            total += calculateDistance(lats[i - 1], lngs[i - 1], lats[i], lngs[i], mode);
+        }
+        return total;
+    }
+
+    /**
+     * 多角形の周囲長を計算（配列版、モード指定）
+     * 
+     * @param lats 緯度の配列（度）
+     * @param lngs 経度の配列（度）
+     * @param count 頂点数（配列の先頭から）
+     * @param mode 計算モード
+     * @return 周囲長（メートル）
+     */
+    public static double calculatePolygonPerimeter(@NonNull double[] lats, @NonNull double[] lngs, int count,
+                                                   @NonNull Mode mode) {
+        if (mode == Mode.SPHERICAL) {
+            return calculatePolygonPerimeter(lats, lngs, count);
+        }
+        if (count < 2) {
+            return 0.0;
+        }
+        return calculatePolylineLength(lats, lngs, count, mode)
+                + calculateDistance(lats[count - 1], lngs[count - 1], lats[0], lngs[0], mode);
+    }
+
+    /**
+     * 多角形の面積を計算（配列版、モード指定）
+     * 
+     * @param lats 緯度の配列（度）
+     * @param lngs 経度の配列（度）
+     * @param count 頂点数（配列の先頭から、閉じていなくてもOK）
+     * @param mode 計算モード
+     * @return 面積（平方メートル）
+     */
+    public static double calculatePolygonArea(@NonNull double[] lats, @NonNull double[] lngs, int count,
+                                              @NonNull Mode mode) {
+        if (mode == Mode.SPHERICAL) {
+            return calculatePolygonArea(lats, lngs, count);
+        }
+        if (count < 3) {
+            return 0.0;
+        }
+        if (mode == Mode.WGS84) {
+            double south = lats[0];
+            double north = lats[0];
+            double west = lngs[0];
+            double east = lngs[0];
+            for (int i = 1; i < count; i++) {
+                south = Math.min(south, lats[i]);
+                north = Math.max(north, lats[i]);
+                west = Math.min(west, lngs[i]);
+                east = Math.max(east, lngs[i]);
+            }
+            if (isLocalExtent(north - south, east - west)) {
+                return Wgs84Geodesic.localPolygonArea(lats, lngs, count);
+            }
+        }
+        return Wgs84Geodesic.polygonArea(lats, lngs, count);
+    }
+
+    /**
+     * 多角形の面積の辺ごとの項を計算（モード指定）
+     * 
+     * 楕円体モードでは等積球上の球過剰を項とする（WGS84_EXACTの面積と同じ式）。
+     * 
+     * @param lat1 辺の始点の緯度（度）
+     * @param lng1 辺の始点の経度（度）
+     * @param lat2 辺の終点の緯度（度）
+     * @param lng2 辺の終点の経度（度）
+     * @param mode 計算モード
+     * @return 辺の項
+     */
+    public static double calculatePolygonAreaTerm(double lat1, double lng1, double lat2, double lng2,
+                                                  @NonNull Mode mode) {
+        if (mode == Mode.SPHERICAL) {
+            return calculatePolygonAreaTerm(lat1, lng1, lat2, lng2);
+        }
+        return Wgs84Geodesic.polygonAreaTerm(lat1, lng1, lat2, lng2);
+    }
+
+    /**
+     * 辺ごとの項の総和から多角形の面積を計算（モード指定）
+     * 
+     * @param termSum 同じモードのcalculatePolygonAreaTerm()の全辺の総和
+     * @param mode 計算モード
+     * @return 面積（平方メートル）
+     */
+    public static double calculatePolygonAreaFromTerms(double termSum, @NonNull Mode mode) {
+        if (mode == Mode.SPHERICAL) {
+            return calculatePolygonAreaFromTerms(termSum);
+        }
+        return Wgs84Geodesic.polygonAreaFromTerms(termSum);
+    }
+
     // ==================== 円計算 ====================
 
     /**
@@ -313,6 +593,65 @@ public final class GeoCalculator {
             return String.format("%.2fkm", meters / 1000);
         }
     }
-}
 
+    // ==================== 内部処理 ====================
+
+    /**
+     * 局所平面で計算できる範囲か（Mode.WGS84の高速計算の判定）
+     * 
+     * 三角関数を使わないよう、経度方向も赤道上の長さで判定する（高緯度では安全側）。
+     * 
+     * @param latSpan 緯度の幅（度）
+     * @param lngSpan 経度の幅（度）
+     */
+    private static boolean isLocalExtent(double latSpan, double lngSpan) {
+        return Math.max(latSpan, lngSpan) * LocalProjection.METERS_PER_DEGREE_LAT <= PLANAR_MAX_EXTENT_METERS;
+    }
+
+    /**
+     * 楕円体上の距離（Vincenty法が収束しないほぼ対蹠点では球体近似）
+     */
+    private static double ellipsoidalDistance(double lat1, double lng1, double lat2, double lng2) {
+        double distance = Wgs84Geodesic.distance(lat1, lng1, lat2, lng2);
+        return Double.isNaN(distance) ? calculateDistance(lat1, lng1, lat2, lng2) : distance;
+    }
+
+    /**
+     * 2点間の距離（Haversine公式、緯度の余弦は計算済みの値を使用）
+     */
+    private static double haversine(double lat1, double lng1, double cosLat1,
+                                     double lat2, double lng2, double cosLat2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
+                   cosLat1 * cosLat2 *
+                   Math.sin(dLng / 2) * Math.sin(dLng / 2);
+
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
 
+        return EARTH_RADIUS * c;
+    }
+
+    /**
+     * 各辺の長さの合計（配列版の共通処理）
+     */
+    private static double sumSegmentLengths(@NonNull double[] lats, @NonNull double[] lngs, int count,
+                                            boolean closed) {
+        if (count < 2) {
+            return 0.0;
+        }
+        double firstCos = Math.cos(Math.toRadians(lats[0]));
+        double prevCos = firstCos;
+        double total = 0.0;
+        for (int i = 1; i < count; i++) {
+            double cos = Math.cos(Math.toRadians(lats[i]));
+            total += haversine(lats[i - 1], lngs[i - 1], prevCos, lats[i], lngs[i], cos);
+            prevCos = cos;
+        }
+        if (closed) {
+            total += haversine(lats[count - 1], lngs[count - 1], prevCos, lats[0], lngs[0], firstCos);
+        }
+        return total;
+    }
+}
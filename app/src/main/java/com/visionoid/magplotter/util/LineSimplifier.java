@@ -0,0 +1,139 @@
+/**
+ * LineSimplifier.java
+ *
+ * VISIONOID MAG PLOTTER - 折れ線簡略化ユーティリティ
+ *
+ * 概要:
+ *   Douglas-Peucker法により折れ線の頂点を間引く。
+ *
+ * 主な仕様:
+ *   - プリミティブ配列で入出力（中間オブジェクトを生成しない）
+ *   - 再帰を使わずスタックで処理（長い折れ線でもスタックオーバーフローしない）
+ *   - 始点と終点は常に保持（閉じた輪も形状を維持）
+ *
+ * 制限事項:
+ *   - 座標は平面とみなして距離を計算する（緯度経度の場合は呼び出し側で換算すること）
+ */
+package com.visionoid.magplotter.util;
+
+import java.util.Arrays;
+
+/**
+ * 折れ線簡略化ユーティリティクラス
+ */
+public final class LineSimplifier {
+
+    /** プライベートコンストラクタ（インスタンス化禁止） */
+    private LineSimplifier() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    /**
+     * Douglas-Peucker法で折れ線を簡略化
+     *
+     * @param xs X座標
+     * @param ys Y座標
+     * @param count 頂点数
+     * @param tolerance 許容誤差（座標と同じ単位）
+     * @param outXs 出力X座標（count以上の長さ）
+     * @param outYs 出力Y座標（count以上の長さ）
+     * @return 出力した頂点数
+     */
+    public static int simplify(double[] xs, double[] ys, int count, double tolerance,
+                               double[] outXs, double[] outYs) {
+        if (count <= 2 || tolerance <= 0) {
+            System.arraycopy(xs, 0, outXs, 0, count);
+            System.arraycopy(ys, 0, outYs, 0, count);
+            return count;
+        }
+        boolean[] keep = new boolean[count];
+        markKeptVertices(xs, ys, 0, count, tolerance, keep);
+
+        int written = 0;
+        for (int i = 0; i < count; i++) {
+            if (keep[i]) {
+                outXs[written] = xs[i];
+                outYs[written] = ys[i];
+                written++;
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Douglas-Peucker法で保持する頂点に印を付ける
+     *
+     * @param xs X座標
+     * @param ys Y座標
+     * @param offset 開始位置
+     * @param count 頂点数
+     * @param tolerance 許容誤差
+     * @param keep 出力（offsetからcount個に印を付ける）
+     * @return 保持する頂点数
+     */
+    public static int markKeptVertices(double[] xs, double[] ys, int offset, int count,
+                                       double tolerance, boolean[] keep) {
+        if (count <= 2) {
+            for (int i = 0; i < count; i++) {
+                keep[offset + i] = true;
+            }
+            return count;
+        }
+        double toleranceSq = tolerance * tolerance;
+        int first = offset;
+        int last = offset + count - 1;
+        keep[first] = true;
+        keep[last] = true;
+        int kept = 2;
+
+        int[] stack = new int[64];
+        int top = 0;
+        stack[top++] = first;
+        stack[top++] = last;
+
+        while (top > 0) {
+            int end = stack[--top];
+            int start = stack[--top];
+            double maxDistSq = toleranceSq;
+            int farthest = -1;
+            for (int i = start + 1; i < end; i++) {
+                double distSq = segmentDistanceSq(xs[i], ys[i], xs[start], ys[start], xs[end], ys[end]);
+                if (distSq > maxDistSq) {
+                    maxDistSq = distSq;
+                    farthest = i;
+                }
+            }
+            if (farthest < 0) {
+                continue;
+            }
+            keep[farthest] = true;
+            kept++;
+            if (top + 4 > stack.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            }
+            stack[top++] = start;
+            stack[top++] = farthest;
+            stack[top++] = farthest;
+            stack[top++] = end;
+        }
+        return kept;
+    }
+
+    /**
+     * 点と線分の距離の二乗
+     */
+    public static double segmentDistanceSq(double px, double py,
+                                           double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSq = dx * dx + dy * dy;
+        double t = 0;
+        if (lengthSq > 0) {
+            t = ((px - ax) * dx + (py - ay) * dy) / lengthSq;
+            t = Math.max(0, Math.min(1, t));
+        }
+        double ex = px - (ax + t * dx);
+        double ey = py - (ay + t * dy);
+        return ex * ex + ey * ey;
+    }
+}
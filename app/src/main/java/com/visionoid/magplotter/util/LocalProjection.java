@@ -0,0 +1,83 @@
+/**
+ * LocalProjection.java
+ *
+ * VISIONOID MAG PLOTTER - ローカル平面投影
+ *
+ * 概要:
+ *   基準点周辺の緯度経度をメートル単位の平面座標（東向きX・北向きY）に
+ *   変換する正距円筒投影。グリッド計算や近傍探索で使用する。
+ *
+ * 主な仕様:
+ *   - 基準点を原点とするメートル座標への相互変換
+ *   - 経度方向の縮尺は基準緯度のcosで補正
+ *
+ * 制限事項:
+ *   - 数km程度の範囲を前提（広域では歪みが大きくなる）
+ */
+package com.visionoid.magplotter.util;
+
+/**
+ * ローカル平面投影クラス（不変）
+ */
+public final class LocalProjection {
+
+    /** 緯度1度あたりのメートル数 */
+    public static final double METERS_PER_DEGREE_LAT = 111320.0;
+
+    /** 基準緯度（度） */
+    private final double originLat;
+
+    /** 基準経度（度） */
+    private final double originLng;
+
+    /** 経度1度あたりのメートル数（基準緯度での値） */
+    private final double metersPerDegreeLng;
+
+    /**
+     * コンストラクタ
+     *
+     * @param originLat 基準緯度（度）
+     * @param originLng 基準経度（度）
+     */
+    public LocalProjection(double originLat, double originLng) {
+        this.originLat = originLat;
+        this.originLng = originLng;
+        this.metersPerDegreeLng = METERS_PER_DEGREE_LAT * Math.cos(Math.toRadians(originLat));
+    }
+
+    public double getOriginLat() {
+        return originLat;
+    }
+
+    public double getOriginLng() {
+        return originLng;
+    }
+
+    /**
+     * 経度をX座標（メートル）に変換
+     */
+    public double toX(double lng) {
+        return (lng - originLng) * metersPerDegreeLng;
+    }
+
+    /**
+     * 緯度をY座標（メートル）に変換
+     */
+    public double toY(double lat) {
+        return (lat - originLat) * METERS_PER_DEGREE_LAT;
+    }
+
+    /**
+     * X座標（メートル）を経度に変換
+     */
+    public double toLng(double x) {
+        return originLng + x / metersPerDegreeLng;
+    }
+
+    /**
+     * Y座標（メートル）を緯度に変換
+     */
+    public double toLat(double y) {
+        return originLat + y / METERS_PER_DEGREE_LAT;
+    }
+}
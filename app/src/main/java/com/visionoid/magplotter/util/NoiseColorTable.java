@@ -0,0 +1,245 @@
+/**
+ * NoiseColorTable.java
+ *
+ * VISIONOID MAG PLOTTER - ノイズ値カラーテーブル
+ *
+ * 概要:
+ *   ミッションの安全閾値・危険閾値から256段階の色テーブルを事前計算し、
+ *   ノイズ値から色への変換を配列参照のみで行う。
+ *   ヒートマップ・ノイズ面・レベルゲージで共通に使用する。
+ *
+ * 主な仕様:
+ *   - 表示範囲は0〜危険閾値の2倍（ゲージの最大値と同じ）
+ *   - 安全域: 緑、警告域: 黄系のグラデーション、危険域: 赤
+ *   - 危険度（安全/警告/危険）は閾値との比較で判定
+ *   - インデックスは値の切り捨てで求め、危険度の境界をまたぐ区間は値の危険度側に寄せる
+ *     （ゲージの色と危険度の表示が閾値付近でも一致する）
+ *
+ * 制限事項:
+ *   - 不変オブジェクト。閾値を変更する場合は新しいテーブルを生成すること
+ *   - 色は1/256段階に量子化される
+ */
+package com.visionoid.magplotter.util;
+
+import android.graphics.Color;
+
+/**
+ * ノイズ値カラーテーブルクラス（不変）
+ */
+public final class NoiseColorTable {
+
+    /** テーブルのエントリ数 */
+    public static final int SIZE = 256;
+
+    /** 既定の安全閾値（μT）。Missionの既定値と同じ */
+    public static final double DEFAULT_SAFE_THRESHOLD = 10.0;
+
+    /** 既定の危険閾値（μT）。Missionの既定値と同じ */
+    public static final double DEFAULT_DANGER_THRESHOLD = 50.0;
+
+    /** 危険度: 安全 */
+    public static final int LEVEL_SAFE = 0;
+
+    /** 危険度: 警告 */
+    public static final int LEVEL_WARNING = 1;
+
+    /** 危険度: 危険 */
+    public static final int LEVEL_DANGER = 2;
+
+    /** 安全域のアルファ値 */
+    private static final int ALPHA_NORMAL = 128;
+
+    /** 危険域のアルファ値（前面で目立たせる） */
+    private static final int ALPHA_DANGER = 160;
+
+    /** 生成時に指定された安全閾値（μT、hasThresholdsで比較） */
+    private final double requestedSafeThreshold;
+
+    /** 生成時に指定された危険閾値（μT、hasThresholdsで比較） */
+    private final double requestedDangerThreshold;
+
+    /** 安全閾値（μT） */
+    private final double safeThreshold;
+
+    /** 危険閾値（μT） */
+    private final double dangerThreshold;
+
+    /** 表示範囲の最大値（μT） */
+    private final double maxValue;
+
+    /** 値→インデックスの係数 */
+    private final double scale;
+
+    /** 警告域の最初のインデックス */
+    private final int firstWarningIndex;
+
+    /** 危険域の最初のインデックス */
+    private final int firstDangerIndex;
+
+    /** 色（ARGB、半透明） */
+    private final int[] colors = new int[SIZE];
+
+    /**
+     * コンストラクタ
+     *
+     * @param safeThreshold 安全閾値（μT）
+     * @param dangerThreshold 危険閾値（μT）
+     */
+    public NoiseColorTable(double safeThreshold, double dangerThreshold) {
+        this.requestedSafeThreshold = safeThreshold;
+        this.requestedDangerThreshold = dangerThreshold;
+        if (dangerThreshold <= safeThreshold) {
+            // 設定不整合時は警告域を最小幅で確保
+            dangerThreshold = safeThreshold + 0.1;
+        }
+        this.safeThreshold = safeThreshold;
+        this.dangerThreshold = dangerThreshold;
+        this.maxValue = dangerThreshold * 2;
+        this.scale = (SIZE - 1) / maxValue;
+
+        // 区間の始点が閾値を超える最初のインデックス（各危険度に1つ以上の区間を確保）
+        firstWarningIndex = Math.max(1, Math.min(SIZE - 2, (int) Math.floor(safeThreshold * scale) + 1));
+        firstDangerIndex = Math.max(firstWarningIndex + 1,
+                Math.min(SIZE - 1, (int) Math.floor(dangerThreshold * scale) + 1));
+
+        for (int i = 0; i < SIZE; i++) {
+            colors[i] = computeColor(levelAt(i), i / scale);
+        }
+    }
+
+    /**
+     * 既定閾値のテーブルを生成
+     */
+    public static NoiseColorTable createDefault() {
+        return new NoiseColorTable(DEFAULT_SAFE_THRESHOLD, DEFAULT_DANGER_THRESHOLD);
+    }
+
+    // ==================== 参照 ====================
+
+    public double getSafeThreshold() {
+        return safeThreshold;
+    }
+
+    public double getDangerThreshold() {
+        return dangerThreshold;
+    }
+
+    public double getMaxValue() {
+        return maxValue;
+    }
+
+    /**
+     * ノイズ値をテーブルのインデックスに変換
+     *
+     * 値を含む区間（切り捨て）のインデックスを返す。閾値を含む区間では、
+     * 値の危険度（getLevel）と同じ危険度の隣の区間に寄せる。
+     *
+     * @param noiseValue ノイズ値（μT）
+     * @return インデックス（0〜SIZE-1）
+     */
+    public int indexOf(double noiseValue) {
+        int index = (int) (noiseValue * scale);
+        switch (getLevel(noiseValue)) {
+            case LEVEL_SAFE:
+                return clamp(index, 0, firstWarningIndex - 1);
+            case LEVEL_WARNING:
+                return clamp(index, firstWarningIndex, firstDangerIndex - 1);
+            default:
+                return clamp(index, firstDangerIndex, SIZE - 1);
+        }
+    }
+
+    /**
+     * インデックスの色を取得
+     *
+     * @param index インデックス（0〜SIZE-1）
+     * @return 色（ARGB、半透明）
+     */
+    public int colorAt(int index) {
+        return colors[index];
+    }
+
+    /**
+     * ノイズ値の色を取得
+     *
+     * @param noiseValue ノイズ値（μT）
+     * @return 色（ARGB、半透明）
+     */
+    public int getColor(double noiseValue) {
+        return colors[indexOf(noiseValue)];
+    }
+
+    /**
+     * ノイズ値の不透明色を取得（UI部品用）
+     *
+     * @param noiseValue ノイズ値（μT）
+     * @return 色（ARGB、不透明）
+     */
+    public int getOpaqueColor(double noiseValue) {
+        return colors[indexOf(noiseValue)] | 0xFF000000;
+    }
+
+    /**
+     * ノイズ値の危険度を取得
+     *
+     * @param noiseValue ノイズ値（μT）
+     * @return LEVEL_SAFE / LEVEL_WARNING / LEVEL_DANGER
+     */
+    public int getLevel(double noiseValue) {
+        if (noiseValue <= safeThreshold) {
+            return LEVEL_SAFE;
+        }
+        return noiseValue <= dangerThreshold ? LEVEL_WARNING : LEVEL_DANGER;
+    }
+
+    /**
+     * インデックスの危険度を取得
+     *
+     * @param index インデックス（0〜SIZE-1）
+     * @return LEVEL_SAFE / LEVEL_WARNING / LEVEL_DANGER
+     */
+    int levelAt(int index) {
+        if (index < firstWarningIndex) {
+            return LEVEL_SAFE;
+        }
+        return index < firstDangerIndex ? LEVEL_WARNING : LEVEL_DANGER;
+    }
+
+    /**
+     * 同じ閾値で生成したテーブルか判定
+     *
+     * 不整合な閾値を補正した場合も、生成時に指定された値と比較する。
+     */
+    public boolean hasThresholds(double safe, double danger) {
+        return requestedSafeThreshold == safe && requestedDangerThreshold == danger;
+    }
+
+    // ==================== 内部処理 ====================
+
+    private static int clamp(int index, int min, int max) {
+        return index < min ? min : (index > max ? max : index);
+    }
+
+    /**
+     * テーブル生成時の色計算
+     *
+     * @param level 区間の危険度
+     * @param value 区間の始点の値（μT）
+     */
+    private int computeColor(int level, double value) {
+        if (level == LEVEL_SAFE) {
+            // 安全（緑）
+            return Color.argb(ALPHA_NORMAL, 0, 255, 136);
+        } else if (level == LEVEL_WARNING) {
+            // 警告（黄）
+            float ratio = (float) ((value - safeThreshold) / (dangerThreshold - safeThreshold));
+            ratio = Math.max(0f, Math.min(1f, ratio));
+            int r = (int) (255 * ratio);
+            int g = (int) (255 * (1 - ratio * 0.5));
+            return Color.argb(ALPHA_NORMAL, r, g, 61);
+        } else {
+            // 危険（赤）
+            return Color.argb(ALPHA_DANGER, 255, 0, 85);
+        }
+    }
+}
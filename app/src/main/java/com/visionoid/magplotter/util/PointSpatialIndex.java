@@ -0,0 +1,239 @@
+/**
+ * PointSpatialIndex.java
+ *
+ * VISIONOID MAG PLOTTER - 点群空間インデックス
+ *
+ * 概要:
+ *   平面座標（メートル）上の点群を一様なバケットグリッドに登録し、
+ *   半径内の近傍点を高速に検索するインデックス。
+ *
+ * 主な仕様:
+ *   - 点の逐次追加に対応（再構築不要）
+ *   - 半径内の最近傍k点を距離順で取得
+ *   - 座標・値はプリミティブ配列で保持
+ *
+ * 制限事項:
+ *   - 追加と検索の同時実行はスレッドセーフではない
+ *     （追加完了後であれば複数スレッドから並行して検索可能）
+ */
+package com.visionoid.magplotter.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 点群空間インデックスクラス
+ */
+public class PointSpatialIndex {
+
+    /** 初期容量 */
+    private static final int INITIAL_CAPACITY = 256;
+
+    /** バケットの一辺（メートル） */
+    private final double bucketSize;
+
+    /** バケット（キー: セル座標） */
+    private final Map<Long, Bucket> buckets = new HashMap<>();
+
+    /** X座標 */
+    private double[] xs = new double[INITIAL_CAPACITY];
+
+    /** Y座標 */
+    private double[] ys = new double[INITIAL_CAPACITY];
+
+    /** 値 */
+    private float[] values = new float[INITIAL_CAPACITY];
+
+    /** 登録点数 */
+    private int size = 0;
+
+    /**
+     * コンストラクタ
+     *
+     * @param bucketSize バケットの一辺（メートル）。通常は検索半径と同程度にする
+     */
+    public PointSpatialIndex(double bucketSize) {
+        if (bucketSize <= 0) {
+            throw new IllegalArgumentException("bucketSize must be positive");
+        }
+        this.bucketSize = bucketSize;
+    }
+
+    // ==================== 登録 ====================
+
+    /**
+     * 点を追加
+     *
+     * @param x X座標（メートル）
+     * @param y Y座標（メートル）
+     * @param value 値
+     * @return 追加した点のインデックス
+     */
+    public int add(double x, double y, float value) {
+        if (size == xs.length) {
+            int capacity = xs.length * 2;
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        int index = size++;
+        xs[index] = x;
+        ys[index] = y;
+        values[index] = value;
+
+        long key = key(cell(x), cell(y));
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = new Bucket();
+            buckets.put(key, bucket);
+        }
+        bucket.add(index);
+        return index;
+    }
+
+    /**
+     * 全ての点を削除
+     */
+    public void clear() {
+        buckets.clear();
+        size = 0;
+    }
+
+    // ==================== 参照 ====================
+
+    public int size() {
+        return size;
+    }
+
+    public double getX(int index) {
+        return xs[index];
+    }
+
+    public double getY(int index) {
+        return ys[index];
+    }
+
+    public float getValue(int index) {
+        return values[index];
+    }
+
+    public double getBucketSize() {
+        return bucketSize;
+    }
+
+    // ==================== 検索 ====================
+
+    /**
+     * 半径内の最近傍点を距離の昇順で取得
+     *
+     * @param x 検索中心X（メートル）
+     * @param y 検索中心Y（メートル）
+     * @param radius 検索半径（メートル）
+     * @param maxCount 取得する最大点数
+     * @param outIndices 点インデックスの出力先（maxCount以上の長さ）
+     * @param outDistSq 距離の二乗の出力先（maxCount以上の長さ）
+     * @return 見つかった点数
+     */
+    public int queryNearest(double x, double y, double radius, int maxCount,
+                            int[] outIndices, double[] outDistSq) {
+        if (maxCount <= 0 || size == 0) {
+            return 0;
+        }
+        double radiusSq = radius * radius;
+        int minCx = cell(x - radius);
+        int maxCx = cell(x + radius);
+        int minCy = cell(y - radius);
+        int maxCy = cell(y + radius);
+        int found = 0;
+
+        for (int cx = minCx; cx <= maxCx; cx++) {
+            for (int cy = minCy; cy <= maxCy; cy++) {
+                Bucket bucket = buckets.get(key(cx, cy));
+                if (bucket == null) {
+                    continue;
+                }
+                for (int i = 0; i < bucket.count; i++) {
+                    int index = bucket.items[i];
+                    double dx = xs[index] - x;
+                    double dy = ys[index] - y;
+                    double distSq = dx * dx + dy * dy;
+                    if (distSq > radiusSq) {
+                        continue;
+                    }
+                    if (found == maxCount && distSq >= outDistSq[found - 1]) {
+                        continue;
+                    }
+                    // 挿入ソート（maxCountは小さい前提）
+                    int pos = found < maxCount ? found++ : found - 1;
+                    while (pos > 0 && outDistSq[pos - 1] > distSq) {
+                        outDistSq[pos] = outDistSq[pos - 1];
+                        outIndices[pos] = outIndices[pos - 1];
+                        pos--;
+                    }
+                    outDistSq[pos] = distSq;
+                    outIndices[pos] = index;
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * 半径内に点が存在するか判定
+     *
+     * @param x 検索中心X（メートル）
+     * @param y 検索中心Y（メートル）
+     * @param radius 検索半径（メートル）
+     * @return 存在する場合true
+     */
+    public boolean hasPointWithin(double x, double y, double radius) {
+        double radiusSq = radius * radius;
+        int minCx = cell(x - radius);
+        int maxCx = cell(x + radius);
+        int minCy = cell(y - radius);
+        int maxCy = cell(y + radius);
+        for (int cx = minCx; cx <= maxCx; cx++) {
+            for (int cy = minCy; cy <= maxCy; cy++) {
+                Bucket bucket = buckets.get(key(cx, cy));
+                if (bucket == null) {
+                    continue;
+                }
+                for (int i = 0; i < bucket.count; i++) {
+                    int index = bucket.items[i];
+                    double dx = xs[index] - x;
+                    double dy = ys[index] - y;
+                    if (dx * dx + dy * dy <= radiusSq) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    // ==================== 内部処理 ====================
+
+    private int cell(double v) {
+        return (int) Math.floor(v / bucketSize);
+    }
+
+    private static long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+
+    /**
+     * バケット（点インデックスの可変長配列）
+     */
+    private static final class Bucket {
+        int[] items = new int[4];
+        int count;
+
+        void add(int index) {
+            if (count == items.length) {
+                items = Arrays.copyOf(items, count * 2);
+            }
+            items[count++] = index;
+        }
+    }
+}
@@ -0,0 +1,254 @@
+/**
+ * StrRTree.java
+ *
+ * VISIONOID MAG PLOTTER - 静的R-tree（STRパッキング）
+ *
+ * 概要:
+ *   矩形（境界ボックス）の集合に対する静的な空間インデックス。
+ *   Sort-Tile-Recursive法で一括構築し、矩形範囲と交差する要素を列挙する。
+ *
+ * 主な仕様:
+ *   - 各階層のノードを配列に詰めて保持（ノードiの子は下位階層の[i*M, (i+1)*M)）
+ *   - 座標系は任意（緯度経度・マイクロ度・平面メートルなど呼び出し側で統一）
+ *   - 検索はオブジェクトを生成しない（訪問者に要素番号を通知）
+ *
+ * 制限事項:
+ *   - 構築後の追加・削除は不可（変更時は再構築）
+ *   - 構築後は複数スレッドから並行して検索可能
+ */
+package com.visionoid.magplotter.util;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * 静的R-treeクラス
+ */
+public final class StrRTree {
+
+    /** ノードあたりの子の数 */
+    private static final int NODE_CAPACITY = 16;
+
+    /**
+     * 検索結果の受け取りインターフェース
+     */
+    public interface Visitor {
+        /**
+         * 交差する要素を通知
+         *
+         * @param item 要素番号（構築時の配列インデックス）
+         */
+        void visit(int item);
+    }
+
+    /** 要素数 */
+    private final int size;
+
+    /** 階層ごとの境界（[階層][ノード]、階層0は要素そのもの） */
+    private final double[][] minX;
+    private final double[][] minY;
+    private final double[][] maxX;
+    private final double[][] maxY;
+
+    /** 階層0の並び順→要素番号 */
+    private final int[] items;
+
+    /**
+     * 境界ボックスの配列からR-treeを構築
+     *
+     * @param minX 各要素の最小X
+     * @param minY 各要素の最小Y
+     * @param maxX 各要素の最大X
+     * @param maxY 各要素の最大Y
+     * @param count 要素数（配列の先頭から）
+     */
+    public StrRTree(@NonNull double[] minX, @NonNull double[] minY,
+                    @NonNull double[] maxX, @NonNull double[] maxY, int count) {
+        this.size = count;
+
+        // 階層0: 要素をSTR順に並べ替え
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        double[] centerX = new double[count];
+        double[] centerY = new double[count];
+        for (int i = 0; i < count; i++) {
+            centerX[i] = (minX[i] + maxX[i]) * 0.5;
+            centerY[i] = (minY[i] + maxY[i]) * 0.5;
+        }
+        sortTileRecursive(order, centerX, centerY);
+        this.items = order;
+
+        int levelCount = 1;
+        for (int n = count; n > 1; n = (n + NODE_CAPACITY - 1) / NODE_CAPACITY) {
+            levelCount++;
+        }
+        this.minX = new double[levelCount][];
+        this.minY = new double[levelCount][];
+        this.maxX = new double[levelCount][];
+        this.maxY = new double[levelCount][];
+
+        this.minX[0] = new double[count];
+        this.minY[0] = new double[count];
+        this.maxX[0] = new double[count];
+        this.maxY[0] = new double[count];
+        for (int i = 0; i < count; i++) {
+            int item = order[i];
+            this.minX[0][i] = minX[item];
+            this.minY[0][i] = minY[item];
+            this.maxX[0][i] = maxX[item];
+            this.maxY[0][i] = maxY[item];
+        }
+
+        // 上位階層: 下位のノードを順にまとめる
+        // （下位がSTR順に並んでいるため、連続するノードは空間的にも近い）
+        for (int level = 1; level < levelCount; level++) {
+            int childCount = this.minX[level - 1].length;
+            int nodeCount = (childCount + NODE_CAPACITY - 1) / NODE_CAPACITY;
+            double[] nMinX = new double[nodeCount];
+            double[] nMinY = new double[nodeCount];
+            double[] nMaxX = new double[nodeCount];
+            double[] nMaxY = new double[nodeCount];
+            Arrays.fill(nMinX, Double.POSITIVE_INFINITY);
+            Arrays.fill(nMinY, Double.POSITIVE_INFINITY);
+            Arrays.fill(nMaxX, Double.NEGATIVE_INFINITY);
+            Arrays.fill(nMaxY, Double.NEGATIVE_INFINITY);
+            for (int child = 0; child < childCount; child++) {
+                int node = child / NODE_CAPACITY;
+                nMinX[node] = Math.min(nMinX[node], this.minX[level - 1][child]);
+                nMinY[node] = Math.min(nMinY[node], this.minY[level - 1][child]);
+                nMaxX[node] = Math.max(nMaxX[node], this.maxX[level - 1][child]);
+                nMaxY[node] = Math.max(nMaxY[node], this.maxY[level - 1][child]);
+            }
+            this.minX[level] = nMinX;
+            this.minY[level] = nMinY;
+            this.maxX[level] = nMaxX;
+            this.maxY[level] = nMaxY;
+        }
+    }
+
+    /**
+     * 要素数を取得
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * ヒープ使用量の概算を取得
+     *
+     * @return バイト数
+     */
+    public long estimateMemoryBytes() {
+        long bytes = (long) items.length * Integer.BYTES;
+        for (double[] level : minX) {
+            bytes += 4L * level.length * Double.BYTES;
+        }
+        return bytes;
+    }
+
+    /**
+     * 矩形範囲と交差する要素を列挙
+     *
+     * @param queryMinX 範囲の最小X
+     * @param queryMinY 範囲の最小Y
+     * @param queryMaxX 範囲の最大X
+     * @param queryMaxY 範囲の最大Y
+     * @param visitor 結果の受け取り先
+     * @return 交差した要素数
+     */
+    public int query(double queryMinX, double queryMinY, double queryMaxX, double queryMaxY,
+                     @NonNull Visitor visitor) {
+        if (size == 0) {
+            return 0;
+        }
+        int top = minX.length - 1;
+        int found = 0;
+        for (int node = 0; node < minX[top].length; node++) {
+            found += queryNode(top, node, queryMinX, queryMinY, queryMaxX, queryMaxY, visitor);
+        }
+        return found;
+    }
+
+    /**
+     * 点を含む要素を列挙（境界ボックス判定のみ）
+     *
+     * @param x X座標
+     * @param y Y座標
+     * @param visitor 結果の受け取り先
+     * @return 該当した要素数
+     */
+    public int queryPoint(double x, double y, @NonNull Visitor visitor) {
+        return query(x, y, x, y, visitor);
+    }
+
+    // ==================== 内部処理 ====================
+
+    private int queryNode(int level, int node,
+                          double qMinX, double qMinY, double qMaxX, double qMaxY,
+                          @NonNull Visitor visitor) {
+        if (minX[level][node] > qMaxX || maxX[level][node] < qMinX
+                || minY[level][node] > qMaxY || maxY[level][node] < qMinY) {
+            return 0;
+        }
+        if (level == 0) {
+            visitor.visit(items[node]);
+            return 1;
+        }
+        int found = 0;
+        int first = node * NODE_CAPACITY;
+        int last = Math.min(first + NODE_CAPACITY, minX[level - 1].length);
+        for (int child = first; child < last; child++) {
+            found += queryNode(level - 1, child, qMinX, qMinY, qMaxX, qMaxY, visitor);
+        }
+        return found;
+    }
+
+    /**
+     * STR法で要素の並び順を決定
+     *
+     * X中心でソートして縦長のスライスに分け、各スライス内をY中心でソートする。
+     */
+    private static void sortTileRecursive(@NonNull int[] order,
+                                          @NonNull double[] centerX, @NonNull double[] centerY) {
+        int count = order.length;
+        if (count <= NODE_CAPACITY) {
+            return;
+        }
+        int leafCount = (count + NODE_CAPACITY - 1) / NODE_CAPACITY;
+        int sliceCount = (int) Math.ceil(Math.sqrt(leafCount));
+        int sliceSize = sliceCount * NODE_CAPACITY;
+
+        sortByKey(order, 0, count, centerX);
+        for (int start = 0; start < count; start += sliceSize) {
+            sortByKey(order, start, Math.min(start + sliceSize, count), centerY);
+        }
+    }
+
+    /**
+     * order[from, to)をkey[order[i]]の昇順にソート
+     */
+    private static void sortByKey(@NonNull int[] order, int from, int to, @NonNull double[] key) {
+        // 上位32bitにキー、下位32bitに要素番号を詰めてプリミティブのままソート
+        int length = to - from;
+        long[] packed = new long[length];
+        for (int i = 0; i < length; i++) {
+            int item = order[from + i];
+            packed[i] = (sortableBits(key[item]) & 0xFFFFFFFF00000000L) | (item & 0xFFFFFFFFL);
+        }
+        Arrays.sort(packed);
+        for (int i = 0; i < length; i++) {
+            order[from + i] = (int) packed[i];
+        }
+    }
+
+    /**
+     * doubleの大小関係を保つlong表現（ソートでは上位32bitのみ使用するため精度はfloat程度）
+     */
+    private static long sortableBits(double value) {
+        long bits = Double.doubleToLongBits(value);
+        return bits < 0 ? bits ^ Long.MAX_VALUE : bits;
+    }
+}
@@ -0,0 +1,648 @@
+/**
+ * SurveyLinePlanner.java
+ *
+ * VISIONOID MAG PLOTTER - 測線計画
+ *
+ * 概要:
+ *   計測範囲（多角形）の内側に等間隔の平行な測線（往復走査のパターン）を生成する。
+ *   進行方向の候補ごとに測線を多角形で切り取り、移動距離が最短になる方向と順序を選ぶ。
+ *
+ * 主な仕様:
+ *   - 進行方向の候補は外周の凸包の辺の方向（幅の狭い順にMAX_HEADING_CANDIDATES個）
+ *   - 切り取りは走査線法（辺ごとに交差する測線を求め、交差位置を測線ごとにCSR形式で格納）
+ *   - 穴は偶奇規則で除外（外周の内側に完全に収まる多角形のみ穴として扱う）
+ *   - 順序は貪欲法（現在位置から最も近い未走査の測線の端へ移動し、反対の端まで走査）
+ *     最寄りの検索は近い測線の行から外側へ広げ、行間距離が最短候補を超えたら打ち切る
+ *   - 測線は多角形の幅の中央に揃えて配置
+ *
+ * 制限事項:
+ *   - ローカル平面近似のため数km程度までの範囲を前提
+ *   - 測線間の移動は直線距離で評価する（穴や凹部を横切る場合も迂回しない）
+ *   - 重なり合う穴は偶奇規則により重なった部分が範囲に戻る
+ */
+package com.visionoid.magplotter.util;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * 測線計画クラス
+ */
+public final class SurveyLinePlanner {
+
+    /** 測線の最大本数（平行線の数） */
+    public static final int MAX_LINES = 10000;
+
+    /** 評価する進行方向の候補数 */
+    private static final int MAX_HEADING_CANDIDATES = 8;
+
+    /** 同じとみなす進行方向の差（ラジアン） */
+    private static final double HEADING_EPSILON = Math.toRadians(1.0);
+
+    /** 捨てる短い断片の長さ（測線間隔に対する比率） */
+    private static final double MIN_SEGMENT_RATIO = 0.05;
+
+    /** プライベートコンストラクタ（インスタンス化禁止） */
+    private SurveyLinePlanner() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    // ==================== 計画 ====================
+
+    /**
+     * 測線を計画
+     *
+     * @param lats 外周の緯度（度）
+     * @param lngs 外周の経度（度）
+     * @param count 外周の頂点数（3以上）
+     * @param holeLats 穴の候補の緯度（多角形ごと、nullの場合は穴なし）
+     * @param holeLngs 穴の候補の経度（多角形ごと、nullの場合は穴なし）
+     * @param spacing 測線の間隔（メートル）
+     * @return 計画結果（測線は走査順）
+     * @throws IllegalArgumentException 頂点・間隔が不正、または測線がMAX_LINES本を超える場合
+     */
+    @NonNull
+    public static Plan plan(@NonNull double[] lats, @NonNull double[] lngs, int count,
+                            @Nullable double[][] holeLats, @Nullable double[][] holeLngs, double spacing) {
+        if (count < 3) {
+            throw new IllegalArgumentException("area needs at least 3 points");
+        }
+        if (!(spacing > 0)) {
+            throw new IllegalArgumentException("spacing must be positive");
+        }
+
+        // 外周の境界ボックス中心を原点に平面投影
+        double south = lats[0], north = lats[0], west = lngs[0], east = lngs[0];
+        for (int i = 1; i < count; i++) {
+            south = Math.min(south, lats[i]);
+            north = Math.max(north, lats[i]);
+            west = Math.min(west, lngs[i]);
+            east = Math.max(east, lngs[i]);
+        }
+        LocalProjection projection = new LocalProjection((south + north) / 2, (west + east) / 2);
+        Rings rings = Rings.build(projection, lats, lngs, count, holeLats, holeLngs);
+
+        // 凸包の辺の方向を幅の狭い順に評価
+        double[] headings = candidateHeadings(rings.xs[0], rings.ys[0], count);
+        if (headings.length == 0) {
+            throw new IllegalArgumentException("area has no extent");
+        }
+        Sweep best = null;
+        for (double heading : headings) {
+            Sweep sweep = Sweep.run(rings, heading, spacing);
+            if (best == null || sweep.transectLength + sweep.transitLength
+                    < best.transectLength + best.transitLength) {
+                best = sweep;
+            }
+        }
+        return best.toPlan(projection, spacing, rings.count - 1);
+    }
+
+    // ==================== 結果 ====================
+
+    /**
+     * 計画結果（不変）
+     */
+    public static final class Plan {
+
+        /** 進行方向（北から時計回りの方位角、0〜180度） */
+        private final double heading;
+
+        /** 測線の間隔（メートル） */
+        private final double spacing;
+
+        /** 測線の始点・終点（走査順、始点から終点へ進む） */
+        private final double[] startLats;
+        private final double[] startLngs;
+        private final double[] endLats;
+        private final double[] endLngs;
+
+        /** 測線の総延長（メートル） */
+        private final double transectLength;
+
+        /** 測線間の移動距離の合計（メートル、直線距離） */
+        private final double transitLength;
+
+        /** 除外した穴の数 */
+        private final int holeCount;
+
+        Plan(double heading, double spacing, double[] startLats, double[] startLngs,
+             double[] endLats, double[] endLngs, double transectLength, double transitLength, int holeCount) {
+            this.heading = heading;
+            this.spacing = spacing;
+            this.startLats = startLats;
+            this.startLngs = startLngs;
+            this.endLats = endLats;
+            this.endLngs = endLngs;
+            this.transectLength = transectLength;
+            this.transitLength = transitLength;
+            this.holeCount = holeCount;
+        }
+
+        public double getHeading() {
+            return heading;
+        }
+
+        public double getSpacing() {
+            return spacing;
+        }
+
+        public int getLineCount() {
+            return startLats.length;
+        }
+
+        public double getStartLat(int index) {
+            return startLats[index];
+        }
+
+        public double getStartLng(int index) {
+            return startLngs[index];
+        }
+
+        public double getEndLat(int index) {
+            return endLats[index];
+        }
+
+        public double getEndLng(int index) {
+            return endLngs[index];
+        }
+
+        public double getTransectLength() {
+            return transectLength;
+        }
+
+        public double getTransitLength() {
+            return transitLength;
+        }
+
+        public int getHoleCount() {
+            return holeCount;
+        }
+    }
+
+    // ==================== 内部処理 ====================
+
+    /**
+     * 凸包の辺の方向を幅（辺に垂直な方向の広がり）の狭い順に取得
+     *
+     * @return 進行方向（平面座標のX軸からの角度、ラジアン、0〜π）
+     */
+    private static double[] candidateHeadings(double[] xs, double[] ys, int count) {
+        // Andrewの単調鎖法（反時計回り）
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> xs[a] != xs[b] ? Double.compare(xs[a], xs[b]) : Double.compare(ys[a], ys[b]));
+        double[] hx = new double[2 * count];
+        double[] hy = new double[2 * count];
+        int h = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            int lower = h;
+            for (int k = 0; k < count; k++) {
+                int p = order[pass == 0 ? k : count - 1 - k];
+                while (h >= lower + 2 && cross(hx[h - 2], hy[h - 2], hx[h - 1], hy[h - 1], xs[p], ys[p]) <= 0) {
+                    h--;
+                }
+                hx[h] = xs[p];
+                hy[h] = ys[p];
+                h++;
+            }
+            h--;
+        }
+        if (h < 3) {
+            return new double[0];
+        }
+
+        // 回転キャリパーで辺ごとの幅を計算
+        double[] widths = new double[h];
+        double[] angles = new double[h];
+        int j = 1;
+        for (int i = 0; i < h; i++) {
+            int next = (i + 1) % h;
+            while (cross(hx[i], hy[i], hx[next], hy[next], hx[(j + 1) % h], hy[(j + 1) % h])
+                    > cross(hx[i], hy[i], hx[next], hy[next], hx[j], hy[j])) {
+                j = (j + 1) % h;
+            }
+            double ex = hx[next] - hx[i];
+            double ey = hy[next] - hy[i];
+            widths[i] = cross(hx[i], hy[i], hx[next], hy[next], hx[j], hy[j]) / Math.hypot(ex, ey);
+            double angle = Math.atan2(ey, ex);
+            angles[i] = angle < 0 ? angle + Math.PI : (angle >= Math.PI ? angle - Math.PI : angle);
+        }
+
+        Integer[] edges = new Integer[h];
+        for (int i = 0; i < h; i++) {
+            edges[i] = i;
+        }
+        Arrays.sort(edges, (a, b) -> Double.compare(widths[a], widths[b]));
+        double[] headings = new double[MAX_HEADING_CANDIDATES];
+        int headingCount = 0;
+        for (int i = 0; i < h && headingCount < MAX_HEADING_CANDIDATES; i++) {
+            double angle = angles[edges[i]];
+            boolean duplicate = false;
+            for (int k = 0; k < headingCount; k++) {
+                double diff = Math.abs(angle - headings[k]);
+                if (Math.min(diff, Math.PI - diff) < HEADING_EPSILON) {
+                    duplicate = true;
+                    break;
+                }
+            }
+            if (!duplicate) {
+                headings[headingCount++] = angle;
+            }
+        }
+        return Arrays.copyOf(headings, headingCount);
+    }
+
+    /**
+     * 外積（a→b と a→p）
+     */
+    private static double cross(double ax, double ay, double bx, double by, double px, double py) {
+        return (bx - ax) * (py - ay) - (by - ay) * (px - ax);
+    }
+
+    /**
+     * 点がリングの内側にあるか（偶奇規則）
+     */
+    private static boolean ringContains(double[] xs, double[] ys, int count, double x, double y) {
+        boolean inside = false;
+        for (int i = 0, k = count - 1; i < count; k = i++) {
+            if ((ys[i] > y) != (ys[k] > y)
+                    && x < (xs[k] - xs[i]) * (y - ys[i]) / (ys[k] - ys[i]) + xs[i]) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    /**
+     * 平面座標の外周と穴（[0]が外周）
+     */
+    private static final class Rings {
+        final double[][] xs;
+        final double[][] ys;
+        final int count;
+
+        private Rings(double[][] xs, double[][] ys, int count) {
+            this.xs = xs;
+            this.ys = ys;
+            this.count = count;
+        }
+
+        static Rings build(LocalProjection projection, double[] lats, double[] lngs, int count,
+                           @Nullable double[][] holeLats, @Nullable double[][] holeLngs) {
+            int candidates = holeLats != null && holeLngs != null ? Math.min(holeLats.length, holeLngs.length) : 0;
+            double[][] xs = new double[candidates + 1][];
+            double[][] ys = new double[candidates + 1][];
+            xs[0] = new double[count];
+            ys[0] = new double[count];
+            double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < count; i++) {
+                xs[0][i] = projection.toX(lngs[i]);
+                ys[0][i] = projection.toY(lats[i]);
+                minX = Math.min(minX, xs[0][i]);
+                minY = Math.min(minY, ys[0][i]);
+                maxX = Math.max(maxX, xs[0][i]);
+                maxY = Math.max(maxY, ys[0][i]);
+            }
+
+            int ringCount = 1;
+            for (int c = 0; c < candidates; c++) {
+                int n = Math.min(holeLats[c].length, holeLngs[c].length);
+                if (n < 3) {
+                    continue;
+                }
+                double[] hx = new double[n];
+                double[] hy = new double[n];
+                boolean inside = true;
+                for (int i = 0; i < n && inside; i++) {
+                    hx[i] = projection.toX(holeLngs[c][i]);
+                    hy[i] = projection.toY(holeLats[c][i]);
+                    inside = hx[i] >= minX && hx[i] <= maxX && hy[i] >= minY && hy[i] <= maxY
+                            && ringContains(xs[0], ys[0], count, hx[i], hy[i]);
+                }
+                if (inside) {
+                    xs[ringCount] = hx;
+                    ys[ringCount] = hy;
+                    ringCount++;
+                }
+            }
+            return new Rings(xs, ys, ringCount);
+        }
+    }
+
+    /**
+     * 1つの進行方向での切り取りと順序付け
+     *
+     * 座標は進行方向をU軸、その左手をV軸とする回転座標（メートル）。
+     */
+    private static final class Sweep {
+        final double cos;
+        final double sin;
+
+        /** 切り取った断片（行rowの断片は[segmentStarts[row], segmentStarts[row + 1])、U0 < U1） */
+        private int[] segmentStarts;
+        private double[] segmentU0;
+        private double[] segmentU1;
+
+        /** 走査順の測線（V座標、始点U、終点U） */
+        double[] vs;
+        double[] fromUs;
+        double[] toUs;
+        int lineCount;
+
+        double transectLength;
+        double transitLength;
+
+        // 順序付けの作業領域
+        private int[] nextUnused;
+        private int[] prevUnused;
+        private double bestDistance;
+        private int bestSegment;
+        private int bestRow;
+        private boolean bestForward;
+
+        private Sweep(double heading) {
+            this.cos = Math.cos(heading);
+            this.sin = Math.sin(heading);
+        }
+
+        static Sweep run(Rings rings, double heading, double spacing) {
+            Sweep sweep = new Sweep(heading);
+            sweep.clipAndOrder(rings, spacing);
+            return sweep;
+        }
+
+        private void clipAndOrder(Rings rings, double spacing) {
+            // 回転座標に変換
+            double[][] us = new double[rings.count][];
+            double[][] vRings = new double[rings.count][];
+            double vMin = Double.POSITIVE_INFINITY;
+            double vMax = Double.NEGATIVE_INFINITY;
+            for (int r = 0; r < rings.count; r++) {
+                int n = rings.xs[r].length;
+                us[r] = new double[n];
+                vRings[r] = new double[n];
+                for (int i = 0; i < n; i++) {
+                    double x = rings.xs[r][i];
+                    double y = rings.ys[r][i];
+                    us[r][i] = x * cos + y * sin;
+                    vRings[r][i] = -x * sin + y * cos;
+                    if (r == 0) {
+                        vMin = Math.min(vMin, vRings[r][i]);
+                        vMax = Math.max(vMax, vRings[r][i]);
+                    }
+                }
+            }
+
+            // 平行線を幅の中央に揃えて配置
+            double width = vMax - vMin;
+            double lines = Math.max(1, Math.ceil(width / spacing - 1e-9));
+            if (lines > MAX_LINES) {
+                throw new IllegalArgumentException("spacing too small: " + (long) lines + " lines");
+            }
+            int rows = (int) lines;
+            double base = vMin + (width - (rows - 1) * spacing) / 2;
+
+            // 行ごとの交差数を数えてから詰める（CSR形式）
+            int[] starts = new int[rows + 1];
+            for (int r = 0; r < rings.count; r++) {
+                double[] v = vRings[r];
+                for (int i = 0, k = v.length - 1; i < v.length; k = i++) {
+                    int first = rowAtOrAbove(Math.min(v[i], v[k]), base, spacing, rows);
+                    int last = rowAtOrAbove(Math.max(v[i], v[k]), base, spacing, rows);
+                    for (int row = first; row < last; row++) {
+                        starts[row + 1]++;
+                    }
+                }
+            }
+            for (int row = 0; row < rows; row++) {
+                starts[row + 1] += starts[row];
+            }
+            double[] crossings = new double[starts[rows]];
+            int[] fill = new int[rows];
+            for (int r = 0; r < rings.count; r++) {
+                double[] u = us[r];
+                double[] v = vRings[r];
+                for (int i = 0, k = v.length - 1; i < v.length; k = i++) {
+                    // 行のVが min <= v < max の範囲で交差（頂点の二重計上を防ぐ）
+                    int first = rowAtOrAbove(Math.min(v[i], v[k]), base, spacing, rows);
+                    int last = rowAtOrAbove(Math.max(v[i], v[k]), base, spacing, rows);
+                    for (int row = first; row < last; row++) {
+                        double vRow = base + row * spacing;
+                        crossings[starts[row] + fill[row]++] = u[i] + (u[k] - u[i]) * (vRow - v[i]) / (v[k] - v[i]);
+                    }
+                }
+            }
+            buildSegments(crossings, starts, rows, spacing);
+            order(rows, base, spacing);
+        }
+
+        /**
+         * 交差位置を行ごとに並べ、偶奇の組を断片にする
+         */
+        private void buildSegments(double[] crossings, int[] starts, int rows, double spacing) {
+            double minLength = spacing * MIN_SEGMENT_RATIO;
+            segmentStarts = new int[rows + 1];
+            segmentU0 = new double[crossings.length / 2];
+            segmentU1 = new double[crossings.length / 2];
+            int segmentCount = 0;
+            for (int row = 0; row < rows; row++) {
+                int from = starts[row];
+                int to = starts[row + 1];
+                Arrays.sort(crossings, from, to);
+                for (int k = from; k + 1 < to; k += 2) {
+                    if (crossings[k + 1] - crossings[k] >= minLength) {
+                        segmentU0[segmentCount] = crossings[k];
+                        segmentU1[segmentCount] = crossings[k + 1];
+                        segmentCount++;
+                    }
+                }
+                segmentStarts[row + 1] = segmentCount;
+            }
+        }
+
+        /**
+         * 貪欲法で走査順を決める
+         */
+        private void order(int rows, double base, double spacing) {
+            int segmentCount = segmentStarts[rows];
+            vs = new double[segmentCount];
+            fromUs = new double[segmentCount];
+            toUs = new double[segmentCount];
+            lineCount = 0;
+            transectLength = 0;
+            transitLength = 0;
+            if (segmentCount == 0) {
+                return;
+            }
+            // 走査済みの断片を飛ばすポインタ（経路圧縮付き）
+            // nextUnused[s]: s以降の未走査、prevUnused[s + 1]: s以前の未走査（なしは0）
+            nextUnused = new int[segmentCount + 1];
+            prevUnused = new int[segmentCount + 1];
+            for (int s = 0; s <= segmentCount; s++) {
+                nextUnused[s] = s;
+                prevUnused[s] = s;
+            }
+            int[] remaining = new int[rows];
+            for (int row = 0; row < rows; row++) {
+                remaining[row] = segmentStarts[row + 1] - segmentStarts[row];
+            }
+
+            // 最初の行の最初の断片（U方向の手前の端）から開始
+            int row = 0;
+            while (remaining[row] == 0) {
+                row++;
+            }
+            int segment = segmentStarts[row];
+            boolean forward = true;
+            double u = segmentU0[segment];
+            for (int step = 0; step < segmentCount; step++) {
+                if (step > 0) {
+                    // 近い行から外側へ広げ、行間距離が最短候補以上になったら打ち切る
+                    bestDistance = Double.POSITIVE_INFINITY;
+                    for (int dr = 0; dr < rows; dr++) {
+                        double dv = dr * spacing;
+                        if (dv >= bestDistance || (row - dr < 0 && row + dr >= rows)) {
+                            break;
+                        }
+                        if (row + dr < rows && remaining[row + dr] > 0) {
+                            nearestInRow(row + dr, u, dv);
+                        }
+                        if (dr > 0 && row - dr >= 0 && remaining[row - dr] > 0) {
+                            nearestInRow(row - dr, u, dv);
+                        }
+                    }
+                    transitLength += bestDistance;
+                    segment = bestSegment;
+                    row = bestRow;
+                    forward = bestForward;
+                }
+                nextUnused[segment] = segment + 1;
+                prevUnused[segment + 1] = segment;
+                remaining[row]--;
+                double from = forward ? segmentU0[segment] : segmentU1[segment];
+                double to = forward ? segmentU1[segment] : segmentU0[segment];
+                vs[lineCount] = base + row * spacing;
+                fromUs[lineCount] = from;
+                toUs[lineCount] = to;
+                lineCount++;
+                transectLength += Math.abs(to - from);
+                u = to;
+            }
+        }
+
+        /**
+         * 行の中で位置uに最も近い未走査の断片の端を探し、最短候補を更新
+         *
+         * 行の断片は重ならずU順に並ぶため、uをまたぐ（またはuの直後の）未走査の断片と
+         * その直前の未走査の断片だけを調べればよい。
+         */
+        private void nearestInRow(int row, double u, double dv) {
+            int rowStart = segmentStarts[row];
+            int rowEnd = segmentStarts[row + 1];
+            // U1 >= u となる最初の断片（二分探索）
+            int low = rowStart;
+            int high = rowEnd;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (segmentU1[mid] < u) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            int right = findNext(low);
+            if (right < rowEnd) {
+                consider(right, row, u, dv);
+            }
+            int left = findPrev(low) - 1;
+            if (left >= rowStart) {
+                consider(left, row, u, dv);
+            }
+        }
+
+        private void consider(int segment, int row, double u, double dv) {
+            double d0 = Math.hypot(segmentU0[segment] - u, dv);
+            double d1 = Math.hypot(segmentU1[segment] - u, dv);
+            if (d0 < bestDistance) {
+                bestDistance = d0;
+                bestSegment = segment;
+                bestRow = row;
+                bestForward = true;
+            }
+            if (d1 < bestDistance) {
+                bestDistance = d1;
+                bestSegment = segment;
+                bestRow = row;
+                bestForward = false;
+            }
+        }
+
+        /**
+         * s以降で最初の未走査の断片（なしは断片数）
+         */
+        private int findNext(int s) {
+            int root = s;
+            while (nextUnused[root] != root) {
+                root = nextUnused[root];
+            }
+            while (nextUnused[s] != root) {
+                int next = nextUnused[s];
+                nextUnused[s] = root;
+                s = next;
+            }
+            return root;
+        }
+
+        /**
+         * s - 1以前で最後の未走査の断片 + 1（なしは0）
+         */
+        private int findPrev(int s) {
+            int root = s;
+            while (prevUnused[root] != root) {
+                root = prevUnused[root];
+            }
+            while (prevUnused[s] != root) {
+                int prev = prevUnused[s];
+                prevUnused[s] = root;
+                s = prev;
+            }
+            return root;
+        }
+
+        /**
+         * 緯度経度の計画結果に変換
+         */
+        Plan toPlan(LocalProjection projection, double spacing, int holeCount) {
+            double[] startLats = new double[lineCount];
+            double[] startLngs = new double[lineCount];
+            double[] endLats = new double[lineCount];
+            double[] endLngs = new double[lineCount];
+            for (int i = 0; i < lineCount; i++) {
+                double v = vs[i];
+                startLats[i] = projection.toLat(fromUs[i] * sin + v * cos);
+                startLngs[i] = projection.toLng(fromUs[i] * cos - v * sin);
+                endLats[i] = projection.toLat(toUs[i] * sin + v * cos);
+                endLngs[i] = projection.toLng(toUs[i] * cos - v * sin);
+            }
+            // 平面の角度（東から反時計回り）を方位角（北から時計回り）に変換
+            double azimuth = Math.toDegrees(Math.atan2(cos, sin));
+            azimuth = ((azimuth % 180) + 180) % 180;
+            return new Plan(azimuth, spacing, startLats, startLngs, endLats, endLngs,
+                    transectLength, transitLength, holeCount);
+        }
+
+        /**
+         * V座標がv以上になる最初の行（0〜rows）
+         */
+        private static int rowAtOrAbove(double v, double base, double spacing, int rows) {
+            int row = (int) Math.ceil((v - base) / spacing);
+            return Math.max(0, Math.min(rows, row));
+        }
+    }
+}
@@ -0,0 +1,277 @@
+/**
+ * Wgs84Geodesic.java
+ *
+ * VISIONOID MAG PLOTTER - WGS84楕円体上の距離・面積計算
+ *
+ * 概要:
+ *   GeoCalculatorの楕円体モード（Mode.WGS84 / WGS84_EXACT）の実装。
+ *   厳密計算と、小さな図形・短い距離向けの局所平面の高速計算を提供する。
+ *
+ * 主な仕様:
+ *   - 距離（厳密）: Vincentyの逆解法（反復、収束しない場合はNaN）
+ *   - 面積（厳密）: 等積球（authalic sphere）へ緯度を変換し、辺ごとの球過剰の総和から計算
+ *   - 距離（局所平面）: 中間緯度の子午線曲率半径・卯酉線曲率半径で換算
+ *   - 面積（局所平面）: 楕円体のサンソン図法（正積）で平面に投影してShoelace公式
+ *
+ * 制限事項:
+ *   - 面積の辺は等積球上の大円として扱う（楕円体の測地線との差は数十km以下の辺では無視できる）
+ *   - 局所平面の計算は数km程度までの範囲を前提（GeoCalculatorで範囲を判定して使い分け）
+ *   - 局所平面の面積は辺を投影面上の直線として扱うため、凹凸の大きい図形では厳密計算と相対1e-7程度ずれる
+ *   - 日付変更線をまたぐ図形の局所平面計算には対応しない
+ */
+package com.visionoid.magplotter.util;
+
+import androidx.annotation.NonNull;
+
+/**
+ * WGS84楕円体上の距離・面積計算クラス
+ */
+final class Wgs84Geodesic {
+
+    /** 長半径（メートル） */
+    private static final double SEMI_MAJOR_AXIS = 6378137.0;
+
+    /** 扁平率 */
+    private static final double FLATTENING = 1 / 298.257223563;
+
+    /** 短半径（メートル） */
+    private static final double SEMI_MINOR_AXIS = SEMI_MAJOR_AXIS * (1 - FLATTENING);
+
+    /** 第一離心率の2乗 */
+    private static final double E2 = FLATTENING * (2 - FLATTENING);
+
+    /** 第一離心率 */
+    private static final double E = Math.sqrt(E2);
+
+    /** 極でのq（等積緯度の計算用） */
+    private static final double QP = authalicQ(1.0);
+
+    /** 等積球の半径の2乗 */
+    private static final double AUTHALIC_RADIUS_SQ = SEMI_MAJOR_AXIS * SEMI_MAJOR_AXIS * QP / 2;
+
+    /** Vincenty法の反復回数の上限 */
+    private static final int MAX_ITERATIONS = 200;
+
+    /** Vincenty法の収束判定（ラジアン） */
+    private static final double CONVERGENCE = 1e-12;
+
+    /** プライベートコンストラクタ（インスタンス化禁止） */
+    private Wgs84Geodesic() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    // ==================== 厳密計算 ====================
+
+    /**
+     * 2点間の測地線距離（Vincentyの逆解法）
+     *
+     * @param lat1 始点の緯度（度）
+     * @param lng1 始点の経度（度）
+     * @param lat2 終点の緯度（度）
+     * @param lng2 終点の経度（度）
+     * @return 距離（メートル）、ほぼ対蹠点で収束しない場合はDouble.NaN
+     */
+    static double distance(double lat1, double lng1, double lat2, double lng2) {
+        double l = Math.toRadians(lng2 - lng1);
+        double u1 = Math.atan((1 - FLATTENING) * Math.tan(Math.toRadians(lat1)));
+        double u2 = Math.atan((1 - FLATTENING) * Math.tan(Math.toRadians(lat2)));
+        double sinU1 = Math.sin(u1);
+        double cosU1 = Math.cos(u1);
+        double sinU2 = Math.sin(u2);
+        double cosU2 = Math.cos(u2);
+
+        double lambda = l;
+        double sinSigma;
+        double cosSigma;
+        double sigma;
+        double cosSqAlpha;
+        double cos2SigmaM;
+        int iteration = 0;
+        while (true) {
+            double sinLambda = Math.sin(lambda);
+            double cosLambda = Math.cos(lambda);
+            double t1 = cosU2 * sinLambda;
+            double t2 = cosU1 * sinU2 - sinU1 * cosU2 * cosLambda;
+            sinSigma = Math.sqrt(t1 * t1 + t2 * t2);
+            if (sinSigma == 0) {
+                return 0.0;
+            }
+            cosSigma = sinU1 * sinU2 + cosU1 * cosU2 * cosLambda;
+            sigma = Math.atan2(sinSigma, cosSigma);
+            double sinAlpha = cosU1 * cosU2 * sinLambda / sinSigma;
+            cosSqAlpha = 1 - sinAlpha * sinAlpha;
+            // 赤道上の線ではcosSqAlpha = 0
+            cos2SigmaM = cosSqAlpha != 0 ? cosSigma - 2 * sinU1 * sinU2 / cosSqAlpha : 0;
+            double c = FLATTENING / 16 * cosSqAlpha * (4 + FLATTENING * (4 - 3 * cosSqAlpha));
+            double previous = lambda;
+            lambda = l + (1 - c) * FLATTENING * sinAlpha
+                    * (sigma + c * sinSigma * (cos2SigmaM + c * cosSigma * (-1 + 2 * cos2SigmaM * cos2SigmaM)));
+            if (Math.abs(lambda - previous) <= CONVERGENCE) {
+                break;
+            }
+            if (++iteration >= MAX_ITERATIONS) {
+                return Double.NaN;
+            }
+        }
+
+        double uSq = cosSqAlpha * (SEMI_MAJOR_AXIS * SEMI_MAJOR_AXIS - SEMI_MINOR_AXIS * SEMI_MINOR_AXIS)
+                / (SEMI_MINOR_AXIS * SEMI_MINOR_AXIS);
+        double a = 1 + uSq / 16384 * (4096 + uSq * (-768 + uSq * (320 - 175 * uSq)));
+        double b = uSq / 1024 * (256 + uSq * (-128 + uSq * (74 - 47 * uSq)));
+        double deltaSigma = b * sinSigma * (cos2SigmaM + b / 4 * (cosSigma * (-1 + 2 * cos2SigmaM * cos2SigmaM)
+                - b / 6 * cos2SigmaM * (-3 + 4 * sinSigma * sinSigma) * (-3 + 4 * cos2SigmaM * cos2SigmaM)));
+        return SEMI_MINOR_AXIS * a * (sigma - deltaSigma);
+    }
+
+    /**
+     * 多角形の面積（等積球上の球過剰）
+     *
+     * @param lats 緯度の配列（度）
+     * @param lngs 経度の配列（度）
+     * @param count 頂点数（3以上）
+     * @return 面積（平方メートル）
+     */
+    static double polygonArea(@NonNull double[] lats, @NonNull double[] lngs, int count) {
+        // 各辺と赤道で挟まれた領域の球過剰（tan(β/2)は頂点ごとに1回だけ計算）
+        double firstTan = Math.tan(authalicLatitude(lats[0]) / 2);
+        double prevTan = firstTan;
+        double excess = 0.0;
+        for (int i = 1; i < count; i++) {
+            double tan = Math.tan(authalicLatitude(lats[i]) / 2);
+            excess += edgeExcess(lngs[i] - lngs[i - 1], prevTan, tan);
+            prevTan = tan;
+        }
+        excess += edgeExcess(lngs[0] - lngs[count - 1], prevTan, firstTan);
+        return Math.abs(excess) * AUTHALIC_RADIUS_SQ;
+    }
+
+    /**
+     * 辺ごとの面積の項（等積球上の球過剰、polygonAreaの1辺分）
+     *
+     * @param lat1 辺の始点の緯度（度）
+     * @param lng1 辺の始点の経度（度）
+     * @param lat2 辺の終点の緯度（度）
+     * @param lng2 辺の終点の経度（度）
+     * @return 辺の項（ステラジアン）
+     */
+    static double polygonAreaTerm(double lat1, double lng1, double lat2, double lng2) {
+        return edgeExcess(lng2 - lng1,
+                Math.tan(authalicLatitude(lat1) / 2), Math.tan(authalicLatitude(lat2) / 2));
+    }
+
+    /**
+     * 辺ごとの項の総和から多角形の面積を計算
+     *
+     * @param termSum polygonAreaTerm()の全辺の総和
+     * @return 面積（平方メートル）
+     */
+    static double polygonAreaFromTerms(double termSum) {
+        return Math.abs(termSum) * AUTHALIC_RADIUS_SQ;
+    }
+
+    // ==================== 局所平面（高速計算） ====================
+
+    /**
+     * 2点間の距離（中間緯度の曲率半径による平面近似）
+     *
+     * @param lat1 始点の緯度（度）
+     * @param lng1 始点の経度（度）
+     * @param lat2 終点の緯度（度）
+     * @param lng2 終点の経度（度）
+     * @return 距離（メートル）
+     */
+    static double localDistance(double lat1, double lng1, double lat2, double lng2) {
+        double midLat = Math.toRadians((lat1 + lat2) / 2);
+        double sinMid = Math.sin(midLat);
+        double w2 = 1 - E2 * sinMid * sinMid;
+        double w = Math.sqrt(w2);
+        double north = SEMI_MAJOR_AXIS * (1 - E2) / (w2 * w) * Math.toRadians(lat2 - lat1);
+        double east = SEMI_MAJOR_AXIS / w * Math.cos(midLat) * Math.toRadians(lng2 - lng1);
+        return Math.sqrt(north * north + east * east);
+    }
+
+    /**
+     * 多角形の面積（楕円体のサンソン図法で投影してShoelace公式）
+     *
+     * @param lats 緯度の配列（度）
+     * @param lngs 経度の配列（度）
+     * @param count 頂点数（3以上）
+     * @return 面積（平方メートル）
+     */
+    static double localPolygonArea(@NonNull double[] lats, @NonNull double[] lngs, int count) {
+        double originLat = lats[0];
+        double originLng = lngs[0];
+
+        double firstX = 0;
+        double firstY = 0;
+        double prevX = 0;
+        double prevY = 0;
+        double twiceArea = 0.0;
+        for (int i = 0; i < count; i++) {
+            double lat = Math.toRadians(lats[i]);
+            double sin = Math.sin(lat);
+            // x: 緯線の長さ（卯酉線曲率半径×cos）、y: 原点からの子午線弧長（中間緯度で近似）
+            double x = SEMI_MAJOR_AXIS / Math.sqrt(1 - E2 * sin * sin) * Math.cos(lat)
+                    * Math.toRadians(lngs[i] - originLng);
+            double y = meridionalRadius((lats[i] + originLat) / 2) * Math.toRadians(lats[i] - originLat);
+            if (i == 0) {
+                firstX = x;
+                firstY = y;
+            } else {
+                twiceArea += prevX * y - x * prevY;
+            }
+            prevX = x;
+            prevY = y;
+        }
+        twiceArea += prevX * firstY - firstX * prevY;
+        return Math.abs(twiceArea) / 2;
+    }
+
+    /**
+     * 子午線曲率半径
+     *
+     * @param lat 緯度（度）
+     * @return 半径（メートル）
+     */
+    private static double meridionalRadius(double lat) {
+        double sin = Math.sin(Math.toRadians(lat));
+        double w2 = 1 - E2 * sin * sin;
+        return SEMI_MAJOR_AXIS * (1 - E2) / (w2 * Math.sqrt(w2));
+    }
+
+    // ==================== 内部処理 ====================
+
+    /**
+     * 等積緯度の計算に使うq（sinφの関数）
+     */
+    private static double authalicQ(double sinLat) {
+        double eSin = E * sinLat;
+        return (1 - E2) * (sinLat / (1 - eSin * eSin) - Math.log((1 - eSin) / (1 + eSin)) / (2 * E));
+    }
+
+    /**
+     * 測地緯度を等積緯度に変換
+     *
+     * @param lat 測地緯度（度）
+     * @return 等積緯度（ラジアン）
+     */
+    private static double authalicLatitude(double lat) {
+        double ratio = authalicQ(Math.sin(Math.toRadians(lat))) / QP;
+        return Math.asin(Math.max(-1.0, Math.min(1.0, ratio)));
+    }
+
+    /**
+     * 大円の辺と赤道で挟まれた領域の符号付き球過剰
+     *
+     * @param dLngDegrees 経度差（度）
+     * @param tan1 始点のtan(β/2)
+     * @param tan2 終点のtan(β/2)
+     * @return 球過剰（ステラジアン）
+     */
+    private static double edgeExcess(double dLngDegrees, double tan1, double tan2) {
+        // 経度差を(-180, 180]に正規化（日付変更線をまたぐ辺）
+        double dLng = Math.IEEEremainder(dLngDegrees, 360.0);
+        double halfTan = Math.tan(Math.toRadians(dLng) / 2);
+        return 2 * Math.atan2(halfTan * (tan1 + tan2), 1 + tan1 * tan2);
+    }
+}
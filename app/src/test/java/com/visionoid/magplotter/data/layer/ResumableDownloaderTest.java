@@ -0,0 +1,271 @@
+/**
+ * ResumableDownloaderTest.java
+ *
+ * VISIONOID MAG PLOTTER - 再開可能なダウンロードのテスト
+ *
+ * 概要:
+ *   ローカルのHTTPサーバー（com.sun.net.httpserver）に対して、
+ *   ConnectionFactory経由でResumableDownloaderの再開処理を検証する。
+ *
+ * 主な仕様:
+ *   - サーバーはRange・If-Range（ETag）に従って206・200・416を返す
+ *   - 中断はContent-Lengthより手前で送信を止め、読み取りタイムアウトさせて再現
+ *
+ * 制限事項:
+ *   - 127.0.0.1の空きポートを使用
+ */
+package com.visionoid.magplotter.data.layer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 再開可能なダウンロードのテストクラス
+ */
+public class ResumableDownloaderTest {
+
+    /** テスト用の内容のサイズ（バッファサイズより大きくする） */
+    private static final int CONTENT_SIZE = 200_000;
+
+    /** 中断させる位置 */
+    private static final int CUT_OFFSET = 70_000;
+
+    /** 読み取りタイムアウト（ミリ秒、中断の再現に使う） */
+    private static final int READ_TIMEOUT = 500;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private HttpServer server;
+    private String url;
+    private File partFile;
+
+    // サーバーの状態（ハンドラースレッドと共有）
+    private volatile byte[] content;
+    private volatile String etag;
+    private volatile int cutAfter = -1;
+    private final List<Request> requests = new ArrayList<>();
+
+    /** 受信したリクエスト */
+    private static final class Request {
+        final String range;
+        final String ifRange;
+
+        Request(String range, String ifRange) {
+            this.range = range;
+            this.ifRange = ifRange;
+        }
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        content = randomBytes(CONTENT_SIZE, 1);
+        etag = "\"v1\"";
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/layer.geojson", this::handle);
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/layer.geojson";
+        partFile = new File(folder.getRoot(), "layer.geojson.part");
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    // ==================== テスト ====================
+
+    @Test
+    public void interruptedDownload_resumesWith206() throws IOException {
+        cutAfter = CUT_OFFSET;
+        try {
+            newDownloader().download(url, partFile, null, null);
+            fail("中断したダウンロードが成功した");
+        } catch (IOException expected) {
+            // 受信済みのデータは残る
+        }
+        assertTrue(ResumableDownloader.hasPartialData(partFile));
+        long received = partFile.length();
+        assertTrue(received > 0 && received <= CUT_OFFSET);
+
+        long[] lastProgress = new long[2];
+        newDownloader().download(url, partFile, null, (done, total) -> {
+            lastProgress[0] = done;
+            lastProgress[1] = total;
+        });
+
+        assertArrayEquals(content, Files.readAllBytes(partFile.toPath()));
+        Request resumed = lastRequest();
+        assertEquals("bytes=" + received + "-", resumed.range);
+        assertEquals("\"v1\"", resumed.ifRange);
+        assertEquals(CONTENT_SIZE, lastProgress[0]);
+        assertEquals(CONTENT_SIZE, lastProgress[1]);
+    }
+
+    @Test
+    public void changedContent_fallsBackTo200() throws IOException {
+        cutAfter = CUT_OFFSET;
+        try {
+            newDownloader().download(url, partFile, null, null);
+            fail("中断したダウンロードが成功した");
+        } catch (IOException expected) {
+            // 受信済みのデータは残る
+        }
+        long received = partFile.length();
+        assertTrue(received > 0);
+
+        // サーバー側の内容が変わり、If-Rangeが一致しなくなる
+        content = randomBytes(CONTENT_SIZE + 1234, 2);
+        etag = "\"v2\"";
+        newDownloader().download(url, partFile, null, null);
+
+        assertArrayEquals(content, Files.readAllBytes(partFile.toPath()));
+        Request request = lastRequest();
+        assertEquals("bytes=" + received + "-", request.range);
+        assertEquals("\"v1\"", request.ifRange);
+
+        // ジャーナルは新しいETagに更新されている
+        partFile.delete();
+        Files.write(partFile.toPath(), Arrays.copyOf(content, 1000));
+        newDownloader().download(url, partFile, null, null);
+        assertArrayEquals(content, Files.readAllBytes(partFile.toPath()));
+        assertEquals("\"v2\"", lastRequest().ifRange);
+    }
+
+    @Test
+    public void completePartFile_416IsTreatedAsComplete() throws IOException {
+        newDownloader().download(url, partFile, null, null);
+        assertArrayEquals(content, Files.readAllBytes(partFile.toPath()));
+        int requestCount = requestCount();
+
+        long[] lastProgress = new long[2];
+        newDownloader().download(url, partFile, null, (done, total) -> {
+            lastProgress[0] = done;
+            lastProgress[1] = total;
+        });
+
+        assertEquals(requestCount + 1, requestCount());
+        assertEquals("bytes=" + CONTENT_SIZE + "-", lastRequest().range);
+        assertArrayEquals(content, Files.readAllBytes(partFile.toPath()));
+        assertEquals(CONTENT_SIZE, lastProgress[0]);
+        assertEquals(CONTENT_SIZE, lastProgress[1]);
+    }
+
+    @Test
+    public void oversizedPartFile_416DiscardsAndFails() throws IOException {
+        newDownloader().download(url, partFile, null, null);
+        Files.write(partFile.toPath(), new byte[10], StandardOpenOption.APPEND);
+
+        try {
+            newDownloader().download(url, partFile, null, null);
+            fail("範囲外の部分ファイルでダウンロードが成功した");
+        } catch (IOException expected) {
+            assertEquals("HTTP 416", expected.getMessage());
+        }
+        assertFalse(partFile.exists());
+        assertFalse(ResumableDownloader.hasPartialData(partFile));
+    }
+
+    @Test
+    public void firstDownload_sendsNoRange() throws IOException {
+        newDownloader().download(url, partFile, "application/json", null);
+
+        assertArrayEquals(content, Files.readAllBytes(partFile.toPath()));
+        assertNull(lastRequest().range);
+        assertNull(lastRequest().ifRange);
+    }
+
+    // ==================== 内部処理 ====================
+
+    private ResumableDownloader newDownloader() {
+        return new ResumableDownloader(
+                url -> (HttpURLConnection) url.openConnection(Proxy.NO_PROXY), 5000, READ_TIMEOUT);
+    }
+
+    private Request lastRequest() {
+        synchronized (requests) {
+            return requests.get(requests.size() - 1);
+        }
+    }
+
+    private int requestCount() {
+        synchronized (requests) {
+            return requests.size();
+        }
+    }
+
+    /**
+     * Range・If-Range（ETagの強い比較）に従って応答
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        String ifRange = exchange.getRequestHeaders().getFirst("If-Range");
+        synchronized (requests) {
+            requests.add(new Request(range, ifRange));
+        }
+        byte[] body = content;
+        exchange.getResponseHeaders().set("ETag", etag);
+
+        int start = 0;
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            start = Integer.parseInt(range.substring("bytes=".length(), range.length() - 1));
+            if (start >= body.length) {
+                exchange.getResponseHeaders().set("Content-Range", "bytes */" + body.length);
+                exchange.sendResponseHeaders(416, -1);
+                exchange.close();
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Range",
+                    "bytes " + start + "-" + (body.length - 1) + "/" + body.length);
+            exchange.sendResponseHeaders(206, body.length - start);
+        } else {
+            exchange.sendResponseHeaders(200, body.length);
+        }
+
+        int end = body.length;
+        int cut = cutAfter;
+        if (cut >= 0) {
+            cutAfter = -1;
+            end = Math.min(end, start + cut);
+        }
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body, start, end - start);
+            out.flush();
+        } catch (IOException e) {
+            // 中断の再現時はContent-Length未満で閉じるため例外になる
+        }
+    }
+
+    private static byte[] randomBytes(int size, long seed) {
+        byte[] bytes = new byte[size];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,228 @@
+/**
+ * CoordinateCodecTest.java
+ *
+ * VISIONOID MAG PLOTTER - 図形座標のバイナリ符号化のテスト
+ *
+ * 概要:
+ *   CoordinateCodecの符号化・復号の往復と、不正なバイト列の扱いを検証する。
+ *
+ * 主な仕様:
+ *   - 往復後の座標は1e-7度、半径は1mmの分解能で一致する
+ *   - 途中で切れた・形式の違うバイト列はIllegalArgumentExceptionになる
+ *
+ * 制限事項:
+ *   - JSON変換はorg.json（テスト用依存）で検証
+ */
+package com.visionoid.magplotter.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 図形座標のバイナリ符号化のテストクラス
+ */
+public class CoordinateCodecTest {
+
+    /** 座標の許容誤差（1e-7度単位への丸め） */
+    private static final double COORDINATE_TOLERANCE = 0.5e-7 + 1e-12;
+
+    /** 半径の許容誤差（1mm単位への丸め） */
+    private static final double RADIUS_TOLERANCE = 0.5e-3 + 1e-12;
+
+    // ==================== 往復 ====================
+
+    @Test
+    public void points_roundTrip() {
+        Random random = new Random(42);
+        int count = 500;
+        double[] lats = new double[count];
+        double[] lngs = new double[count];
+        for (int i = 0; i < count; i++) {
+            lats[i] = random.nextDouble() * 180 - 90;
+            lngs[i] = random.nextDouble() * 360 - 180;
+        }
+        lats[0] = 90;
+        lngs[0] = -180;
+        lats[1] = -90;
+        lngs[1] = 180;
+
+        byte[] data = CoordinateCodec.encodePoints(lats, lngs, count);
+        assertEquals(CoordinateCodec.FORMAT_POINTS, CoordinateCodec.getFormat(data));
+        assertEquals(count, CoordinateCodec.getPointCount(data));
+
+        double[] outLats = new double[count];
+        double[] outLngs = new double[count];
+        assertEquals(count, CoordinateCodec.decodePoints(data, outLats, outLngs));
+        assertArrayEquals(lats, outLats, COORDINATE_TOLERANCE);
+        assertArrayEquals(lngs, outLngs, COORDINATE_TOLERANCE);
+
+        // 丸め済みの座標は再符号化しても同じバイト列になる
+        assertArrayEquals(data, CoordinateCodec.encodePoints(outLats, outLngs, count));
+    }
+
+    @Test
+    public void points_countLimitsEncodedRange() {
+        double[] lats = {35.0, 35.1, 35.2};
+        double[] lngs = {139.0, 139.1, 139.2};
+
+        byte[] data = CoordinateCodec.encodePoints(lats, lngs, 2);
+
+        assertEquals(2, CoordinateCodec.getPointCount(data));
+    }
+
+    @Test
+    public void points_emptyRoundTrip() {
+        byte[] data = CoordinateCodec.encodePoints(new double[0], new double[0], 0);
+
+        assertEquals(0, CoordinateCodec.getPointCount(data));
+        assertEquals(0, CoordinateCodec.decodePoints(data, new double[0], new double[0]));
+    }
+
+    @Test
+    public void points_nearbyVerticesAreCompact() {
+        // 約1m間隔の1000頂点（差分は1頂点あたり数バイトに収まる）
+        int count = 1000;
+        double[] lats = new double[count];
+        double[] lngs = new double[count];
+        for (int i = 0; i < count; i++) {
+            lats[i] = 35.681236 + i * 0.000009;
+            lngs[i] = 139.767125 + (i % 2) * 0.000011;
+        }
+
+        byte[] data = CoordinateCodec.encodePoints(lats, lngs, count);
+
+        assertTrue("size=" + data.length, data.length < count * 6);
+    }
+
+    @Test
+    public void circle_roundTrip() {
+        byte[] data = CoordinateCodec.encodeCircle(-33.8568, 151.2153, 123.4564);
+
+        assertEquals(CoordinateCodec.FORMAT_CIRCLE, CoordinateCodec.getFormat(data));
+        double[] circle = CoordinateCodec.decodeCircle(data);
+        assertEquals(-33.8568, circle[0], COORDINATE_TOLERANCE);
+        assertEquals(151.2153, circle[1], COORDINATE_TOLERANCE);
+        assertEquals(123.456, circle[2], RADIUS_TOLERANCE);
+    }
+
+    @Test
+    public void circle_negativeRadiusIsClampedToZero() {
+        double[] circle = CoordinateCodec.decodeCircle(CoordinateCodec.encodeCircle(35.0, 139.0, -5.0));
+
+        assertEquals(0.0, circle[2], 0.0);
+    }
+
+    @Test
+    public void json_roundTrip() {
+        double[] lats = {35.0, 35.0001, 35.0002};
+        double[] lngs = {139.0, 139.0001, 139.0};
+        byte[] points = CoordinateCodec.encodePoints(lats, lngs, lats.length);
+        byte[] circle = CoordinateCodec.encodeCircle(35.0, 139.0, 100.0);
+
+        assertArrayEquals(points, CoordinateCodec.fromJson(CoordinateCodec.toJson(points)));
+        assertArrayEquals(circle, CoordinateCodec.fromJson(CoordinateCodec.toJson(circle)));
+    }
+
+    @Test
+    public void json_invalidReturnsNull() {
+        assertNull(CoordinateCodec.fromJson("not json"));
+        assertNull(CoordinateCodec.fromJson("[{\"lat\": 35.0}]"));
+        assertNull(CoordinateCodec.fromJson("{\"radius\": 10.0}"));
+    }
+
+    // ==================== 不正なバイト列 ====================
+
+    @Test
+    public void corrupt_emptyData() {
+        byte[] empty = new byte[0];
+        expectInvalid(() -> CoordinateCodec.getFormat(empty));
+        expectInvalid(() -> CoordinateCodec.getPointCount(empty));
+        expectInvalid(() -> CoordinateCodec.decodePoints(empty, new double[1], new double[1]));
+        expectInvalid(() -> CoordinateCodec.decodeCircle(empty));
+    }
+
+    @Test
+    public void corrupt_wrongFormat() {
+        byte[] points = CoordinateCodec.encodePoints(new double[]{35.0}, new double[]{139.0}, 1);
+        byte[] circle = CoordinateCodec.encodeCircle(35.0, 139.0, 10.0);
+
+        expectInvalid(() -> CoordinateCodec.decodeCircle(points));
+        expectInvalid(() -> CoordinateCodec.getPointCount(circle));
+        expectInvalid(() -> CoordinateCodec.decodePoints(circle, new double[8], new double[8]));
+    }
+
+    @Test
+    public void corrupt_everyTruncationIsRejected() {
+        double[] lats = {35.0, 35.001, -35.002, 0.0};
+        double[] lngs = {139.0, -139.001, 139.002, 180.0};
+        byte[] points = CoordinateCodec.encodePoints(lats, lngs, lats.length);
+        byte[] circle = CoordinateCodec.encodeCircle(35.0, 139.0, 1000.0);
+
+        for (int length = 0; length < points.length; length++) {
+            byte[] truncated = Arrays.copyOf(points, length);
+            expectInvalid(() -> CoordinateCodec.decodePoints(truncated, new double[8], new double[8]));
+        }
+        for (int length = 0; length < circle.length; length++) {
+            byte[] truncated = Arrays.copyOf(circle, length);
+            expectInvalid(() -> CoordinateCodec.decodeCircle(truncated));
+        }
+    }
+
+    @Test
+    public void corrupt_pointCountLargerThanData() {
+        // 頂点数 1,000,000 に対してデータが2バイトしかない
+        byte[] data = {CoordinateCodec.FORMAT_POINTS, (byte) 0xC0, (byte) 0x84, 0x3D, 0x00, 0x00};
+
+        expectInvalid(() -> CoordinateCodec.getPointCount(data));
+        expectInvalid(() -> CoordinateCodec.decodePointList(data));
+    }
+
+    @Test
+    public void corrupt_overlongVarint() {
+        byte[] data = new byte[12];
+        Arrays.fill(data, (byte) 0xFF);
+        data[0] = CoordinateCodec.FORMAT_CIRCLE;
+
+        expectInvalid(() -> CoordinateCodec.decodeCircle(data));
+    }
+
+    @Test
+    public void decode_destinationTooSmall() {
+        byte[] data = CoordinateCodec.encodePoints(new double[]{1, 2, 3}, new double[]{1, 2, 3}, 3);
+
+        expectInvalid(() -> CoordinateCodec.decodePoints(data, new double[2], new double[3]));
+    }
+
+    @Test
+    public void constructor_throws() throws Exception {
+        Constructor<CoordinateCodec> constructor = CoordinateCodec.class.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        try {
+            constructor.newInstance();
+            fail("インスタンス化できてしまった");
+        } catch (InvocationTargetException e) {
+            assertTrue(e.getCause() instanceof UnsupportedOperationException);
+        }
+    }
+
+    // ==================== 内部処理 ====================
+
+    private static void expectInvalid(Runnable decode) {
+        try {
+            decode.run();
+            fail("IllegalArgumentExceptionがスローされなかった");
+        } catch (IllegalArgumentException expected) {
+            // 期待どおり
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/**
+ * GeoCalculatorBenchmark.java
+ *
+ * VISIONOID MAG PLOTTER - 地理計算ユーティリティのベンチマーク
+ *
+ * 概要:
+ *   GeoCalculatorのList版と配列版（一括計算）の処理時間をJMHで比較する。
+ *
+ * 主な仕様:
+ *   - 半径約500mの星形の多角形（既定5000頂点）で計測
+ *   - 辺の長さ（閉じた図形）、面積＋周囲長の2種類
+ *   - 実行: ./gradlew :app:testDebugUnitTest --tests '*GeoCalculatorBenchmark' -Pjmh
+ *     （IDEからはmain()を実行）
+ *
+ * 制限事項:
+ *   - 通常のユニットテストでは実行しない（-Pjmh指定時のみ）
+ *   - Gradleのテストワーカー内ではフォークせずに計測するため、値は目安
+ */
+package com.visionoid.magplotter.util;
+
+import static org.junit.Assume.assumeTrue;
+
+import org.junit.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.osmdroid.util.GeoPoint;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 地理計算ユーティリティのベンチマーククラス
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(org.openjdk.jmh.annotations.Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeoCalculatorBenchmark {
+
+    /** 頂点数 */
+    @Param({"5000"})
+    public int vertexCount;
+
+    private List<GeoPoint> points;
+    private double[] lats;
+    private double[] lngs;
+    private double[] lengths;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        points = new ArrayList<>(vertexCount);
+        lats = new double[vertexCount];
+        lngs = new double[vertexCount];
+        lengths = new double[vertexCount];
+        double metersPerDegreeLng = LocalProjection.METERS_PER_DEGREE_LAT * Math.cos(Math.toRadians(35.68));
+        for (int i = 0; i < vertexCount; i++) {
+            double angle = 2 * Math.PI * i / vertexCount;
+            double radius = (i % 2 == 0 ? 500.0 : 300.0) + random.nextDouble() * 20.0;
+            lats[i] = 35.68 + radius * Math.sin(angle) / LocalProjection.METERS_PER_DEGREE_LAT;
+            lngs[i] = 139.76 + radius * Math.cos(angle) / metersPerDegreeLng;
+            points.add(new GeoPoint(lats[i], lngs[i]));
+        }
+    }
+
+    // ==================== ベンチマーク ====================
+
+    @Benchmark
+    public List<Double> segmentLengthsList() {
+        return GeoCalculator.calculatePolygonSegmentLengths(points);
+    }
+
+    @Benchmark
+    public double[] segmentLengthsArray() {
+        GeoCalculator.calculateSegmentLengths(lats, lngs, vertexCount, true, lengths);
+        return lengths;
+    }
+
+    @Benchmark
+    public double areaAndPerimeterList() {
+        return GeoCalculator.calculatePolygonArea(points) + GeoCalculator.calculatePolygonPerimeter(points);
+    }
+
+    @Benchmark
+    public double areaAndPerimeterArray() {
+        return GeoCalculator.calculatePolygonArea(lats, lngs, vertexCount)
+                + GeoCalculator.calculatePolygonPerimeter(lats, lngs, vertexCount);
+    }
+
+    // ==================== 実行 ====================
+
+    /**
+     * Gradleから実行（-Pjmh指定時のみ）
+     */
+    @Test
+    public void runBenchmarks() throws RunnerException {
+        assumeTrue(Boolean.getBoolean("jmh"));
+        // テストワーカーから子プロセスを起動しないよう、同じJVMで計測する
+        new Runner(options().forks(0).build()).run();
+    }
+
+    /**
+     * IDE・コマンドラインから実行
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(options().build()).run();
+    }
+
+    private static ChainedOptionsBuilder options() {
+        return new OptionsBuilder().include(GeoCalculatorBenchmark.class.getName());
+    }
+}
@@ -0,0 +1,175 @@
+/**
+ * GeoCalculatorTest.java
+ *
+ * VISIONOID MAG PLOTTER - 地理計算ユーティリティのテスト
+ *
+ * 概要:
+ *   GeoCalculatorの配列版（一括計算）がList版と同じ結果を返すことを検証する。
+ *
+ * 主な仕様:
+ *   - 辺の長さ・ポリライン長・周囲長・面積はビット単位で一致する
+ *   - countより後ろの配列要素は計算に使わない
+ *
+ * 制限事項:
+ *   - 計算モードは既定（SPHERICAL）のみ
+ */
+package com.visionoid.magplotter.util;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.osmdroid.util.GeoPoint;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 地理計算ユーティリティのテストクラス
+ */
+public class GeoCalculatorTest {
+
+    @Test
+    public void arrayAndList_matchOnRandomPolygons() {
+        Random random = new Random(7);
+        for (int trial = 0; trial < 50; trial++) {
+            int count = 3 + random.nextInt(300);
+            double centerLat = random.nextDouble() * 160 - 80;
+            double centerLng = random.nextDouble() * 360 - 180;
+            double spread = trial % 2 == 0 ? 0.01 : 2.0;
+            double[] lats = new double[count];
+            double[] lngs = new double[count];
+            for (int i = 0; i < count; i++) {
+                lats[i] = centerLat + (random.nextDouble() - 0.5) * spread;
+                lngs[i] = centerLng + (random.nextDouble() - 0.5) * spread;
+            }
+            assertPathsMatch(lats, lngs, count);
+        }
+    }
+
+    @Test
+    public void arrayAndList_matchOnDegenerateShapes() {
+        for (int count = 0; count <= 3; count++) {
+            double[] lats = Arrays.copyOf(new double[]{35.0, 35.001, 35.001}, count);
+            double[] lngs = Arrays.copyOf(new double[]{139.0, 139.0, 139.001}, count);
+            assertPathsMatch(lats, lngs, count);
+        }
+    }
+
+    @Test
+    public void array_ignoresElementsAfterCount() {
+        double[] lats = {35.0, 35.001, 35.001, 35.0, 80.0, -80.0};
+        double[] lngs = {139.0, 139.0, 139.001, 139.001, 10.0, -10.0};
+        List<GeoPoint> points = toList(lats, lngs, 4);
+
+        assertEquals(GeoCalculator.calculatePolygonArea(points),
+                GeoCalculator.calculatePolygonArea(lats, lngs, 4), 0.0);
+        assertEquals(GeoCalculator.calculatePolygonPerimeter(points),
+                GeoCalculator.calculatePolygonPerimeter(lats, lngs, 4), 0.0);
+        assertEquals(GeoCalculator.calculatePolylineLength(points),
+                GeoCalculator.calculatePolylineLength(lats, lngs, 4), 0.0);
+    }
+
+    @Test
+    public void area_smallSquareIsCloseToPlanar() {
+        // 赤道付近の約111m四方
+        double[] lats = {0.0, 0.001, 0.001, 0.0};
+        double[] lngs = {0.0, 0.0, 0.001, 0.001};
+
+        double side = Math.toRadians(0.001) * 6371000.0;
+        assertEquals(side * side, GeoCalculator.calculatePolygonArea(lats, lngs, 4), side * side * 1e-6);
+    }
+
+    @Test
+    public void modeSegmentLengths_sumToPerimeter() {
+        Random random = new Random(11);
+        for (GeoCalculator.Mode mode : GeoCalculator.Mode.values()) {
+            for (int trial = 0; trial < 20; trial++) {
+                int count = 3 + random.nextInt(50);
+                double[] lats = new double[count];
+                double[] lngs = new double[count];
+                double spread = trial % 2 == 0 ? 0.01 : 2.0;
+                for (int i = 0; i < count; i++) {
+                    lats[i] = 35.0 + (random.nextDouble() - 0.5) * spread;
+                    lngs[i] = 139.0 + (random.nextDouble() - 0.5) * spread;
+                }
+                double[] out = new double[count];
+                int edges = GeoCalculator.calculateSegmentLengths(lats, lngs, count, true, out, mode);
+                double sum = 0;
+                for (int i = 0; i < edges; i++) {
+                    sum += out[i];
+                }
+                double perimeter = GeoCalculator.calculatePolygonPerimeter(lats, lngs, count, mode);
+                assertEquals(mode.name(), perimeter, sum, perimeter * 1e-12);
+            }
+        }
+    }
+
+    @Test
+    public void modeAreaTerms_matchPolygonArea() {
+        double[] lats = {35.0, 35.02, 35.015, 35.03, 34.99};
+        double[] lngs = {139.0, 139.01, 139.03, 139.05, 139.04};
+        int count = lats.length;
+
+        double sphericalSum = 0;
+        double ellipsoidalSum = 0;
+        for (int i = 0; i < count; i++) {
+            int next = (i + 1) % count;
+            sphericalSum += GeoCalculator.calculatePolygonAreaTerm(lats[i], lngs[i], lats[next], lngs[next],
+                    GeoCalculator.Mode.SPHERICAL);
+            ellipsoidalSum += GeoCalculator.calculatePolygonAreaTerm(lats[i], lngs[i], lats[next], lngs[next],
+                    GeoCalculator.Mode.WGS84);
+        }
+
+        double spherical = GeoCalculator.calculatePolygonArea(lats, lngs, count, GeoCalculator.Mode.SPHERICAL);
+        assertEquals(spherical, GeoCalculator.calculatePolygonAreaFromTerms(sphericalSum,
+                GeoCalculator.Mode.SPHERICAL), spherical * 1e-12);
+        double exact = GeoCalculator.calculatePolygonArea(lats, lngs, count, GeoCalculator.Mode.WGS84_EXACT);
+        double fromTerms = GeoCalculator.calculatePolygonAreaFromTerms(ellipsoidalSum, GeoCalculator.Mode.WGS84);
+        assertEquals(exact, fromTerms, exact * 1e-12);
+        // 保存時のWGS84（局所平面）とも表示の精度で一致
+        double stored = GeoCalculator.calculatePolygonArea(lats, lngs, count, GeoCalculator.Mode.WGS84);
+        assertEquals(stored, fromTerms, stored * 3e-7);
+    }
+
+    // ==================== 内部処理 ====================
+
+    /**
+     * 配列版とList版の結果がビット単位で一致することを確認
+     */
+    private static void assertPathsMatch(double[] lats, double[] lngs, int count) {
+        List<GeoPoint> points = toList(lats, lngs, count);
+        String label = "count=" + count;
+
+        double[] out = new double[Math.max(count, 1)];
+        int open = GeoCalculator.calculateSegmentLengths(lats, lngs, count, false, out);
+        List<Double> openList = GeoCalculator.calculateSegmentLengths(points);
+        assertEquals(label, openList.size(), open);
+        for (int i = 0; i < open; i++) {
+            assertEquals(label + " segment " + i, openList.get(i), out[i], 0.0);
+        }
+
+        int closed = GeoCalculator.calculateSegmentLengths(lats, lngs, count, true, out);
+        List<Double> closedList = GeoCalculator.calculatePolygonSegmentLengths(points);
+        assertEquals(label, closedList.size(), closed);
+        for (int i = 0; i < closed; i++) {
+            assertEquals(label + " closed segment " + i, closedList.get(i), out[i], 0.0);
+        }
+
+        assertEquals(label, GeoCalculator.calculatePolylineLength(points),
+                GeoCalculator.calculatePolylineLength(lats, lngs, count), 0.0);
+        assertEquals(label, GeoCalculator.calculatePolygonPerimeter(points),
+                GeoCalculator.calculatePolygonPerimeter(lats, lngs, count), 0.0);
+        assertEquals(label, GeoCalculator.calculatePolygonArea(points),
+                GeoCalculator.calculatePolygonArea(lats, lngs, count), 0.0);
+    }
+
+    private static List<GeoPoint> toList(double[] lats, double[] lngs, int count) {
+        List<GeoPoint> points = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            points.add(new GeoPoint(lats[i], lngs[i]));
+        }
+        return points;
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * NoiseColorTableTest.java
+ *
+ * VISIONOID MAG PLOTTER - ノイズ値カラーテーブルのテスト
+ *
+ * 概要:
+ *   ノイズ値から引いたテーブルの区間の危険度が、閾値の前後でgetLevelと一致することと、
+ *   閾値の比較（hasThresholds）を検証する。
+ *
+ * 主な仕様:
+ *   - 安全閾値・危険閾値の±εと、全範囲を細かく刻んだ値で区間の危険度を比較
+ *   - 不整合な閾値（危険閾値 <= 安全閾値）でも指定した値で一致判定できる
+ *
+ * 制限事項:
+ *   - 色の値（android.graphics.Color）は検証しない
+ */
+package com.visionoid.magplotter.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * ノイズ値カラーテーブルのテストクラス
+ */
+public class NoiseColorTableTest {
+
+    /** 閾値の前後の差（μT） */
+    private static final double EPSILON = 1e-6;
+
+    // ==================== 区間の危険度 ====================
+
+    @Test
+    public void defaultThresholds_levelMatchesAroundThresholds() {
+        NoiseColorTable table = NoiseColorTable.createDefault();
+
+        assertLevel(table, 10.0 - EPSILON, NoiseColorTable.LEVEL_SAFE);
+        assertLevel(table, 10.0, NoiseColorTable.LEVEL_SAFE);
+        assertLevel(table, 10.0 + EPSILON, NoiseColorTable.LEVEL_WARNING);
+        assertLevel(table, 9.9, NoiseColorTable.LEVEL_SAFE);
+        assertLevel(table, 10.1, NoiseColorTable.LEVEL_WARNING);
+        assertLevel(table, 50.0 - EPSILON, NoiseColorTable.LEVEL_WARNING);
+        assertLevel(table, 50.0, NoiseColorTable.LEVEL_WARNING);
+        assertLevel(table, 50.0 + EPSILON, NoiseColorTable.LEVEL_DANGER);
+    }
+
+    @Test
+    public void variousThresholds_levelMatchesEverywhere() {
+        double[][] thresholds = {{10, 50}, {3.3, 7.7}, {0.5, 0.6}, {46, 46.1}, {100, 100.1}, {20, 10}};
+        for (double[] pair : thresholds) {
+            NoiseColorTable table = new NoiseColorTable(pair[0], pair[1]);
+            double safe = table.getSafeThreshold();
+            double danger = table.getDangerThreshold();
+            for (double value : new double[]{safe - EPSILON, safe, safe + EPSILON,
+                    danger - EPSILON, danger, danger + EPSILON}) {
+                assertLevel(table, value, table.getLevel(value));
+            }
+            for (double value = -1; value < table.getMaxValue() * 1.2; value += table.getMaxValue() / 5000) {
+                assertLevel(table, value, table.getLevel(value));
+            }
+        }
+    }
+
+    @Test
+    public void indexOf_staysInRange() {
+        NoiseColorTable table = NoiseColorTable.createDefault();
+
+        assertEquals(0, table.indexOf(-5.0));
+        assertEquals(0, table.indexOf(0.0));
+        assertEquals(NoiseColorTable.SIZE - 1, table.indexOf(1e9));
+    }
+
+    // ==================== 閾値の比較 ====================
+
+    @Test
+    public void hasThresholds_matchesRequestedValues() {
+        NoiseColorTable table = new NoiseColorTable(10.0, 50.0);
+
+        assertTrue(table.hasThresholds(10.0, 50.0));
+        assertFalse(table.hasThresholds(10.0, 40.0));
+    }
+
+    @Test
+    public void hasThresholds_matchesInconsistentThresholds() {
+        // 危険閾値が安全閾値以下の場合、内部では補正されるが指定値で一致判定する
+        NoiseColorTable table = new NoiseColorTable(20.0, 10.0);
+
+        assertTrue(table.hasThresholds(20.0, 10.0));
+        assertTrue(table.getDangerThreshold() > table.getSafeThreshold());
+    }
+
+    // ==================== 内部処理 ====================
+
+    private static void assertLevel(NoiseColorTable table, double value, int expected) {
+        assertEquals("value=" + value, expected, table.getLevel(value));
+        assertEquals("value=" + value, expected, table.levelAt(table.indexOf(value)));
+    }
+}
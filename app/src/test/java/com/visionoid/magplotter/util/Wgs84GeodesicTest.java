@@ -0,0 +1,228 @@
+/**
+ * Wgs84GeodesicTest.java
+ *
+ * VISIONOID MAG PLOTTER - WGS84楕円体上の距離・面積計算のテスト
+ *
+ * 概要:
+ *   GeoCalculatorの楕円体モード（Mode.WGS84 / WGS84_EXACT）を既知の基準値と比較し、
+ *   局所平面の高速計算が厳密計算と一致することを検証する。
+ *
+ * 主な仕様:
+ *   - 距離: Vincentyの論文の例（Flinders Peak〜Buninyong、54972.271m）
+ *   - 面積: 赤道上の1度四方（GeographicLibの値 12308778361㎡）
+ *   - 高速計算: 35.8°N付近の64頂点の圃場で厳密計算と比較
+ *
+ * 制限事項:
+ *   - 基準値との比較は0.1mm・相対2e-7の精度まで
+ *   - 凹凸の大きい圃場では辺の扱いの違いにより、高速計算と厳密計算の差が相対3e-7程度まで広がる
+ */
+package com.visionoid.magplotter.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * WGS84楕円体上の距離・面積計算のテストクラス
+ */
+public class Wgs84GeodesicTest {
+
+    /** Flinders Peak（37°57'03.72030"S, 144°25'29.52440"E） */
+    private static final double FLINDERS_LAT = -dms(37, 57, 3.72030);
+    private static final double FLINDERS_LNG = dms(144, 25, 29.52440);
+
+    /** Buninyong（37°39'10.15610"S, 143°55'35.38390"E） */
+    private static final double BUNINYONG_LAT = -dms(37, 39, 10.15610);
+    private static final double BUNINYONG_LNG = dms(143, 55, 35.38390);
+
+    /** Flinders Peak〜Buninyongの測地線距離（メートル） */
+    private static final double FLINDERS_BUNINYONG_DISTANCE = 54972.2711;
+
+    /** 赤道上の1度四方の面積（GeographicLib、平方メートル） */
+    private static final double EQUATORIAL_SQUARE_AREA = 12308778361.0;
+
+    /** 高速計算の距離の許容誤差（相対） */
+    private static final double LOCAL_DISTANCE_RELATIVE_TOLERANCE = 1e-7;
+
+    /** 高速計算の距離の許容誤差（メートル、1m程度の短い距離でのVincenty法の丸め誤差） */
+    private static final double LOCAL_DISTANCE_ABSOLUTE_TOLERANCE = 1e-5;
+
+    /** 圃場の中心緯度 */
+    private static final double FIELD_LAT = 35.8;
+
+    /** 圃場の中心経度 */
+    private static final double FIELD_LNG = 139.5;
+
+    // ==================== 距離 ====================
+
+    @Test
+    public void distance_vincentyReference() {
+        double exact = GeoCalculator.calculateDistance(FLINDERS_LAT, FLINDERS_LNG,
+                BUNINYONG_LAT, BUNINYONG_LNG, GeoCalculator.Mode.WGS84_EXACT);
+        double reverse = GeoCalculator.calculateDistance(BUNINYONG_LAT, BUNINYONG_LNG,
+                FLINDERS_LAT, FLINDERS_LNG, GeoCalculator.Mode.WGS84_EXACT);
+        // 5kmを超えるため、WGS84モードも厳密計算になる
+        double wgs84 = GeoCalculator.calculateDistance(FLINDERS_LAT, FLINDERS_LNG,
+                BUNINYONG_LAT, BUNINYONG_LNG, GeoCalculator.Mode.WGS84);
+
+        assertEquals(FLINDERS_BUNINYONG_DISTANCE, exact, 1e-4);
+        assertEquals(exact, reverse, 1e-6);
+        assertEquals(exact, wgs84, 0.0);
+        // 球体近似とは数十mずれる
+        double spherical = GeoCalculator.calculateDistance(FLINDERS_LAT, FLINDERS_LNG,
+                BUNINYONG_LAT, BUNINYONG_LNG);
+        assertTrue(Math.abs(spherical - exact) > 40.0);
+    }
+
+    @Test
+    public void distance_oneDegreeAlongEquatorAndMeridian() {
+        assertEquals(111319.4908, GeoCalculator.calculateDistance(0, 0, 0, 1,
+                GeoCalculator.Mode.WGS84_EXACT), 1e-4);
+        assertEquals(110574.3886, GeoCalculator.calculateDistance(0, 0, 1, 0,
+                GeoCalculator.Mode.WGS84_EXACT), 1e-4);
+    }
+
+    @Test
+    public void distance_samePointIsZero() {
+        assertEquals(0.0, GeoCalculator.calculateDistance(FIELD_LAT, FIELD_LNG, FIELD_LAT, FIELD_LNG,
+                GeoCalculator.Mode.WGS84_EXACT), 0.0);
+        assertEquals(0.0, GeoCalculator.calculateDistance(FIELD_LAT, FIELD_LNG, FIELD_LAT, FIELD_LNG,
+                GeoCalculator.Mode.WGS84), 0.0);
+    }
+
+    @Test
+    public void distance_nearlyAntipodalIsFinite() {
+        // Vincenty法が収束しない組み合わせ（球体近似にフォールバック）
+        double distance = GeoCalculator.calculateDistance(0, 0, 0.5, 179.7,
+                GeoCalculator.Mode.WGS84_EXACT);
+
+        assertTrue(Double.isFinite(distance));
+        assertTrue(distance > 19_900_000 && distance < 20_040_000);
+    }
+
+    @Test
+    public void distance_localMatchesExactWithin5km() {
+        for (double lat : new double[]{0.0, FIELD_LAT, 60.0}) {
+            for (int azimuth = 0; azimuth < 360; azimuth += 15) {
+                for (double meters : new double[]{1.0, 100.0, 1000.0, 4900.0}) {
+                    double rad = Math.toRadians(azimuth);
+                    double lat2 = lat + meters * Math.cos(rad) / LocalProjection.METERS_PER_DEGREE_LAT;
+                    double lng2 = FIELD_LNG + meters * Math.sin(rad)
+                            / (LocalProjection.METERS_PER_DEGREE_LAT * Math.cos(Math.toRadians(lat)));
+                    double exact = Wgs84Geodesic.distance(lat, FIELD_LNG, lat2, lng2);
+                    double local = Wgs84Geodesic.localDistance(lat, FIELD_LNG, lat2, lng2);
+                    assertEquals("lat=" + lat + " az=" + azimuth + " d=" + meters,
+                            exact, local,
+                            LOCAL_DISTANCE_ABSOLUTE_TOLERANCE + exact * LOCAL_DISTANCE_RELATIVE_TOLERANCE);
+                }
+            }
+        }
+    }
+
+    // ==================== 面積 ====================
+
+    @Test
+    public void area_equatorialOneDegreeSquare() {
+        double[] lats = {0, 1, 1, 0};
+        double[] lngs = {0, 0, 1, 1};
+
+        double exact = GeoCalculator.calculatePolygonArea(lats, lngs, 4, GeoCalculator.Mode.WGS84_EXACT);
+        // 範囲が広いため、WGS84モードも厳密計算になる
+        double wgs84 = GeoCalculator.calculatePolygonArea(lats, lngs, 4, GeoCalculator.Mode.WGS84);
+
+        assertEquals(EQUATORIAL_SQUARE_AREA, exact, EQUATORIAL_SQUARE_AREA * 2e-7);
+        assertEquals(exact, wgs84, 0.0);
+        // 頂点の向き・開始位置に依存しない
+        double[] reversedLats = {0, 0, 1, 1};
+        double[] reversedLngs = {1, 0, 0, 1};
+        assertEquals(exact, Wgs84Geodesic.polygonArea(reversedLats, reversedLngs, 4), exact * 1e-12);
+    }
+
+    @Test
+    public void area_localMatchesExactOnRegularFields() {
+        Random random = new Random(1);
+        for (int trial = 0; trial < 100; trial++) {
+            double radius = 50 + random.nextDouble() * 400;
+            double[][] field = field(64, radius, 0.0, random);
+            double exact = GeoCalculator.calculatePolygonArea(field[0], field[1], 64,
+                    GeoCalculator.Mode.WGS84_EXACT);
+            double fast = GeoCalculator.calculatePolygonArea(field[0], field[1], 64,
+                    GeoCalculator.Mode.WGS84);
+            assertEquals("radius=" + radius, exact, fast, exact * 2e-8);
+        }
+    }
+
+    @Test
+    public void area_localMatchesExactOnIrregularFields() {
+        // 凹凸の大きい図形では、辺の扱い（等積球の大円と投影面の直線）の差が相対1e-7程度残る
+        Random random = new Random(2);
+        for (int trial = 0; trial < 100; trial++) {
+            double radius = 50 + random.nextDouble() * 400;
+            double[][] field = field(64, radius, 0.4, random);
+            double exact = GeoCalculator.calculatePolygonArea(field[0], field[1], 64,
+                    GeoCalculator.Mode.WGS84_EXACT);
+            double fast = GeoCalculator.calculatePolygonArea(field[0], field[1], 64,
+                    GeoCalculator.Mode.WGS84);
+            assertEquals("radius=" + radius, exact, fast, exact * 3e-7);
+        }
+    }
+
+    @Test
+    public void area_localMatchesEllipsoidalBand() {
+        // 緯線・経線で囲まれた範囲の面積は等積緯度から解析的に求まる
+        double south = FIELD_LAT;
+        double north = FIELD_LAT + 0.01;
+        double[] lats = {south, north, north, south};
+        double[] lngs = {FIELD_LNG, FIELD_LNG, FIELD_LNG + 0.01, FIELD_LNG + 0.01};
+
+        double expected = bandArea(south, north, 0.01);
+
+        assertEquals(expected, Wgs84Geodesic.polygonArea(lats, lngs, 4), expected * 1e-8);
+        assertEquals(expected, Wgs84Geodesic.localPolygonArea(lats, lngs, 4), expected * 1e-8);
+    }
+
+    // ==================== 内部処理 ====================
+
+    private static double dms(int degrees, int minutes, double seconds) {
+        return degrees + minutes / 60.0 + seconds / 3600.0;
+    }
+
+    /**
+     * 圃場の中心の周りに頂点を並べた多角形
+     *
+     * @param jitter 半径のばらつき（0で正多角形）
+     * @return [0]: 緯度, [1]: 経度
+     */
+    private static double[][] field(int count, double radius, double jitter, Random random) {
+        double metersPerDegreeLng = LocalProjection.METERS_PER_DEGREE_LAT * Math.cos(Math.toRadians(FIELD_LAT));
+        double[] lats = new double[count];
+        double[] lngs = new double[count];
+        for (int i = 0; i < count; i++) {
+            double angle = 2 * Math.PI * i / count;
+            double r = radius * (1 - jitter * random.nextDouble());
+            lats[i] = FIELD_LAT + r * Math.sin(angle) / LocalProjection.METERS_PER_DEGREE_LAT;
+            lngs[i] = FIELD_LNG + r * Math.cos(angle) / metersPerDegreeLng;
+        }
+        return new double[][]{lats, lngs};
+    }
+
+    /**
+     * 緯線・経線で囲まれた範囲の楕円体上の面積
+     */
+    private static double bandArea(double south, double north, double dLngDegrees) {
+        double a = 6378137.0;
+        double f = 1 / 298.257223563;
+        double e2 = f * (2 - f);
+        return a * a / 2 * Math.toRadians(dLngDegrees) * (q(north, e2) - q(south, e2));
+    }
+
+    private static double q(double lat, double e2) {
+        double e = Math.sqrt(e2);
+        double sin = Math.sin(Math.toRadians(lat));
+        double eSin = e * sin;
+        return (1 - e2) * (sin / (1 - eSin * eSin) - Math.log((1 - eSin) / (1 + eSin)) / (2 * e));
+    }
+}